@@ -1,15 +1,32 @@
 package com.alerts;
 
+import com.decorator.PriorityAlertDecorator.Priority;
+
 // Represents an alert
 public class Alert {
     private String patientId;
     private String condition;
     private long timestamp;
+    // Set by the strategy that raised the alert; null if it left it to the condition text
+    private Priority priority;
 
     public Alert(String patientId, String condition, long timestamp) {
+        this(patientId, condition, timestamp, null);
+    }
+
+    /**
+     * Creates an alert whose priority is known where it is raised.
+     *
+     * @param patientId the patient
+     * @param condition the condition
+     * @param timestamp when the condition was detected
+     * @param priority  the priority, or null to derive it from the condition
+     */
+    public Alert(String patientId, String condition, long timestamp, Priority priority) {
         this.patientId = patientId;
         this.condition = condition;
         this.timestamp = timestamp;
+        this.priority = priority;
     }
 
     public String getPatientId() {
@@ -23,4 +40,11 @@ public class Alert {
     public long getTimestamp() {
         return timestamp;
     }
+
+    /**
+     * @return the priority given by the source of the alert, or null if it gave none
+     */
+    public Priority getPriority() {
+        return priority;
+    }
 }
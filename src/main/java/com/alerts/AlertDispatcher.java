@@ -0,0 +1,283 @@
+package com.alerts;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.decorator.PriorityAlertDecorator.Priority;
+import com.logging.Logger;
+
+/**
+ * Alert sink that queues alerts by priority and delivers them to another sink on
+ * dedicated consumer threads, so that the thread that found a condition does not wait
+ * for its delivery.
+ * <p>
+ * Queued alerts are delivered highest priority first (see
+ * {@link DecoratedAlertFactory#priorityOf(Alert)}) and, within a priority, oldest
+ * timestamp first. The queue is bounded. When it is full, LOW and MEDIUM alerts are
+ * shed to make room, the oldest of the lowest priority first; a LOW or MEDIUM alert
+ * that finds nothing of lower priority to shed is shed itself. HIGH and CRITICAL alerts
+ * are never shed and never wait: if the queue only holds HIGH and CRITICAL alerts, they
+ * are queued beyond the capacity (see {@link #getOverflowCount()}). Producers are
+ * often ingest threads holding a patient's lock, so a slow sink must not stall them;
+ * the overflow stays small because the {@link AlertStateCache} raises each condition
+ * once. During an alert storm the queue thus fills up with the alerts that matter, and
+ * a CRITICAL alert waits at most for the CRITICAL alerts queued before it.
+ * </p>
+ */
+public class AlertDispatcher implements AlertSink {
+    private static final Logger LOG = Logger.getLogger(AlertDispatcher.class);
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    /** Default number of alerts the queue holds */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final AlertSink target;
+    private final int capacity;
+    // One queue per priority, indexed by ordinal, each ordered by timestamp
+    private final PriorityQueue<Queued>[] queues;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Thread[] consumers;
+    private int size;
+    private long sequence;
+    private volatile boolean closed;
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+    private final LongAdder[] shed = new LongAdder[PRIORITIES.length];
+
+    /**
+     * Creates a dispatcher with the default capacity and one consumer thread.
+     *
+     * @param target where the alerts are delivered
+     */
+    public AlertDispatcher(AlertSink target) {
+        this(target, DEFAULT_CAPACITY, 1);
+    }
+
+    /**
+     * Creates a dispatcher and starts its consumer threads.
+     *
+     * @param target    where the alerts are delivered
+     * @param capacity  the number of alerts the queue holds
+     * @param consumers the number of consumer threads
+     */
+    @SuppressWarnings("unchecked")
+    public AlertDispatcher(AlertSink target, int capacity, int consumers) {
+        if (target == null) {
+            throw new IllegalArgumentException("Alert sink must not be null");
+        }
+        if (capacity <= 0 || consumers <= 0) {
+            throw new IllegalArgumentException("Capacity and consumer count must be positive");
+        }
+        this.target = target;
+        this.capacity = capacity;
+        Comparator<Queued> byTimestamp = Comparator.<Queued>comparingLong(queued -> queued.alert.getTimestamp())
+                .thenComparingLong(queued -> queued.sequence);
+        this.queues = (PriorityQueue<Queued>[]) new PriorityQueue<?>[PRIORITIES.length];
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues[i] = new PriorityQueue<>(byTimestamp);
+            shed[i] = new LongAdder();
+        }
+        this.consumers = new Thread[consumers];
+        for (int i = 0; i < consumers; i++) {
+            Thread thread = new Thread(this::consume, "alert-dispatch-" + i);
+            thread.setDaemon(true);
+            this.consumers[i] = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Queues an alert for delivery. Once the dispatcher is closed, alerts are delivered
+     * on the calling thread.
+     *
+     * @param alert the alert
+     */
+    @Override
+    public void accept(Alert alert) {
+        if (closed) {
+            deliver(alert);
+            return;
+        }
+        Priority priority = DecoratedAlertFactory.priorityOf(alert);
+        lock.lock();
+        try {
+            if (closed) {
+                // Closed since the check above: deliver on this thread below
+            } else {
+                if (size >= capacity && !shedLowerThan(priority)) {
+                    if (isSheddable(priority)) {
+                        shed[priority.ordinal()].increment();
+                        return;
+                    }
+                    overflow.increment();
+                }
+                queues[priority.ordinal()].add(new Queued(alert, sequence++));
+                size++;
+                notEmpty.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        deliver(alert);
+    }
+
+    /**
+     * Stops the consumer threads after they have delivered the queued alerts.
+     *
+     * @param timeoutMillis how long to wait for the queue to drain
+     * @return true if every queued alert was delivered in time
+     */
+    public boolean close(long timeoutMillis) {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Thread consumer : consumers) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                consumer.join(Math.max(1, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return getQueuedCount() == 0;
+    }
+
+    /**
+     * @return the number of alerts waiting to be delivered
+     */
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of alerts delivered to the target sink
+     */
+    public long getDispatchedCount() {
+        return dispatched.sum();
+    }
+
+    /**
+     * @param priority the priority
+     * @return the number of alerts of that priority shed because the queue was full
+     */
+    public long getShedCount(Priority priority) {
+        return shed[priority.ordinal()].sum();
+    }
+
+    /**
+     * @return the number of alerts shed because the queue was full
+     */
+    public long getShedCount() {
+        long total = 0;
+        for (LongAdder count : shed) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of HIGH and CRITICAL alerts queued beyond the capacity
+     */
+    public long getOverflowCount() {
+        return overflow.sum();
+    }
+
+    /**
+     * @return the number of alerts the queue holds
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private static boolean isSheddable(Priority priority) {
+        return priority == Priority.LOW || priority == Priority.MEDIUM;
+    }
+
+    /**
+     * Drops the oldest alert of the lowest sheddable priority below the given one.
+     * Called with the lock held.
+     */
+    private boolean shedLowerThan(Priority priority) {
+        for (int i = 0; i < priority.ordinal() && isSheddable(PRIORITIES[i]); i++) {
+            if (queues[i].poll() != null) {
+                size--;
+                shed[i].increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void consume() {
+        while (true) {
+            Alert alert;
+            lock.lock();
+            try {
+                while (size == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                alert = takeHighest();
+            } finally {
+                lock.unlock();
+            }
+            deliver(alert);
+        }
+    }
+
+    /**
+     * Removes the next alert to deliver. Called with the lock held.
+     */
+    private Alert takeHighest() {
+        for (int i = queues.length - 1; i >= 0; i--) {
+            Queued queued = queues[i].poll();
+            if (queued != null) {
+                size--;
+                return queued.alert;
+            }
+        }
+        throw new IllegalStateException("Queue size out of sync");
+    }
+
+    private void deliver(Alert alert) {
+        try {
+            target.accept(alert);
+            dispatched.increment();
+        } catch (RuntimeException e) {
+            LOG.error("Alert sink failed for patient {}: {}", alert.getPatientId(), e);
+        }
+    }
+
+    /**
+     * An alert in the queue, with its arrival order to break timestamp ties.
+     */
+    private static final class Queued {
+        private final Alert alert;
+        private final long sequence;
+
+        private Queued(Alert alert, long sequence) {
+            this.alert = alert;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.alerts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.data_management.DataStorage;
+import com.data_management.RecordListener;
+import com.strategy.BloodPressureStrategy;
+import com.strategy.CallButtonAlertStrategy;
+import com.strategy.HeartRateStrategy;
+import com.strategy.OxygenSaturationStrategy;
+import com.strategy.StreamingAlertStrategy;
+
+/**
+ * Push-based alternative to the {@link AlertGenerator}: instead of sweeping over the
+ * patients and re-reading their 10-minute windows, the engine listens to a
+ * {@link DataStorage} and evaluates each reading as soon as it is stored.
+ * <p>
+ * Each reading is only passed to the strategies subscribed to its record type, which
+ * update their per-patient state incrementally (see {@link StreamingAlertStrategy}).
+ * Raised alerts go to an {@link AlertSink} straight away on the ingest thread, so the
+ * delay between a reading and its alert no longer depends on how often the patients
+ * are swept.
+ * </p>
+ */
+public class AlertEngine implements RecordListener {
+    private final AlertSink sink;
+    private final List<StreamingAlertStrategy<?>> strategies;
+    // Strategy indices subscribed to each record type code
+    private final int[][] strategiesByType;
+    // Per patient, one state per strategy, in the order of the strategies list
+    private final Map<Integer, Object[]> statesByPatient = new ConcurrentHashMap<>();
+
+    private final LongAdder readingsEvaluated = new LongAdder();
+    private final LongAdder alertsRaised = new LongAdder();
+
+    /**
+     * Creates an engine with the blood pressure, oxygen saturation, ECG and call button
+     * checks used by the alert factories.
+     *
+     * @param sink where raised alerts are sent
+     */
+    public AlertEngine(AlertSink sink) {
+        this(sink, Arrays.asList(
+                new BloodPressureStrategy(),
+                new OxygenSaturationStrategy(),
+                new HeartRateStrategy(),
+                new CallButtonAlertStrategy()));
+    }
+
+    /**
+     * Creates an engine with the given strategies.
+     *
+     * @param sink       where raised alerts are sent
+     * @param strategies the checks to run, in the order they are run for a reading
+     */
+    public AlertEngine(AlertSink sink, List<? extends StreamingAlertStrategy<?>> strategies) {
+        if (sink == null) {
+            throw new IllegalArgumentException("Alert sink must not be null");
+        }
+        this.sink = sink;
+        this.strategies = new ArrayList<>(strategies);
+
+        int maxCode = -1;
+        for (StreamingAlertStrategy<?> strategy : this.strategies) {
+            for (int code : strategy.getRecordTypeCodes()) {
+                maxCode = Math.max(maxCode, code);
+            }
+        }
+        int[][] byType = new int[maxCode + 1][];
+        for (int code = 0; code <= maxCode; code++) {
+            byType[code] = new int[0];
+        }
+        for (int index = 0; index < this.strategies.size(); index++) {
+            for (int code : this.strategies.get(index).getRecordTypeCodes()) {
+                int[] subscribed = byType[code];
+                if (!contains(subscribed, index)) {
+                    subscribed = Arrays.copyOf(subscribed, subscribed.length + 1);
+                    subscribed[subscribed.length - 1] = index;
+                    byType[code] = subscribed;
+                }
+            }
+        }
+        this.strategiesByType = byType;
+    }
+
+    /**
+     * Starts evaluating the readings stored in a data storage from now on.
+     *
+     * @param dataStorage the storage to listen to
+     */
+    public void attach(DataStorage dataStorage) {
+        dataStorage.addRecordListener(this);
+    }
+
+    /**
+     * Stops evaluating the readings of a data storage.
+     *
+     * @param dataStorage the storage to stop listening to
+     */
+    public void detach(DataStorage dataStorage) {
+        dataStorage.removeRecordListener(this);
+    }
+
+    /**
+     * Evaluates a stored reading with the strategies subscribed to its record type.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onRecord(int patientId, int recordTypeCode, long timestamp, double measurementValue) {
+        if (recordTypeCode < 0 || recordTypeCode >= strategiesByType.length) {
+            return;
+        }
+        int[] subscribed = strategiesByType[recordTypeCode];
+        if (subscribed.length == 0) {
+            return;
+        }
+
+        Object[] states = statesByPatient.computeIfAbsent(patientId, this::createStates);
+        readingsEvaluated.increment();
+        for (int index : subscribed) {
+            StreamingAlertStrategy<Object> strategy = (StreamingAlertStrategy<Object>) strategies.get(index);
+            Alert alert = strategy.onReading(states[index], patientId, recordTypeCode, timestamp, measurementValue);
+            if (alert != null) {
+                alertsRaised.increment();
+                sink.accept(alert);
+            }
+        }
+    }
+
+    /**
+     * Forgets the state kept for a patient, e.g. after the patient was discharged.
+     *
+     * @param patientId the unique identifier of the patient
+     */
+    public void clearPatient(int patientId) {
+        statesByPatient.remove(patientId);
+    }
+
+    /**
+     * Gets the number of readings passed to at least one strategy.
+     *
+     * @return the number of evaluated readings
+     */
+    public long getReadingsEvaluated() {
+        return readingsEvaluated.sum();
+    }
+
+    /**
+     * Gets the number of alerts sent to the sink.
+     *
+     * @return the number of raised alerts
+     */
+    public long getAlertsRaised() {
+        return alertsRaised.sum();
+    }
+
+    /**
+     * Gets the number of patients the engine keeps state for.
+     *
+     * @return the number of tracked patients
+     */
+    public int getTrackedPatientCount() {
+        return statesByPatient.size();
+    }
+
+    private Object[] createStates(int patientId) {
+        Object[] states = new Object[strategies.size()];
+        for (int index = 0; index < states.length; index++) {
+            states[index] = strategies.get(index).createState(patientId);
+        }
+        return states;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
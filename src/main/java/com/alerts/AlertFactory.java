@@ -1,10 +1,11 @@
 package com.alerts;
 import java.util.List;
-import java.util.Comparator;
-import java.util.stream.Collectors;
 import com.data_management.Patient;
 import com.data_management.DataStorage;
 import com.data_management.PatientRecord;
+import com.data_management.RecordType;
+import com.strategy.AlertStrategy;
+import com.logging.LogTimestamp;
 
 /**
  * Abstract factory class for creating alerts.
@@ -14,6 +15,9 @@ public abstract class AlertFactory {
 
     protected DataStorage dataStorage;
 
+    // Receives the triggered alerts; null means they are printed
+    private volatile AlertSink alertSink;
+
     /**
      * Constructor that initializes the factory with data storage.
      *
@@ -33,6 +37,34 @@ public abstract class AlertFactory {
      */
     public abstract void createAlert(String patientId, String condition, long timestamp);
 
+    /**
+     * Evaluates a patient from a context shared with the other factories, so that
+     * record types are fetched once per patient rather than once per factory. The
+     * default implementation looks the patient up again through
+     * {@link #createAlert(String, String, long)}.
+     *
+     * @param context the patient's window of records
+     */
+    public void evaluate(EvaluationContext context) {
+        createAlert(context.getPatientId(), null, System.currentTimeMillis());
+    }
+
+    /**
+     * Runs strategies in order over a context and triggers the first alert found.
+     *
+     * @param strategies the strategies to run
+     * @param context    the patient's window of records
+     */
+    protected void evaluateStrategies(List<AlertStrategy> strategies, EvaluationContext context) {
+        for (AlertStrategy strategy : strategies) {
+            Alert alert = strategy.checkAlert(context);
+            if (alert != null) {
+                triggerAlert(alert);
+                return;
+            }
+        }
+    }
+
         /**
      * Helper method to get filtered and sorted patient records for the latest 10 minutes for  a specific type
      *
@@ -41,33 +73,56 @@ public abstract class AlertFactory {
      * @return a list of patient records of the specified type, sorted by timestamp
      */
     protected List<PatientRecord> getFilteredRecords(Patient patient, String recordType) {
+        return getFilteredRecords(patient, RecordType.lookup(recordType));
+    }
+
+    /**
+     * Helper method to get the patient records of the latest 10 minutes for a record
+     * type identified by its interned code.
+     *
+     * @param patient        the patient whose records to retrieve
+     * @param recordTypeCode the code of the record type, see {@link RecordType}
+     * @return a list of patient records of the specified type, sorted by timestamp
+     */
+    protected List<PatientRecord> getFilteredRecords(Patient patient, int recordTypeCode) {
 
         // Calculate timestamp for 10 minutes ago
         long tenMinutesAgo = System.currentTimeMillis() - (10 * 60 * 1000);
 
-        // Get the patient's records for the past 10 minutes
-        List<PatientRecord> allRecords = patient.getRecords(tenMinutesAgo, Long.MAX_VALUE);
+        // Records are stored per type in timestamp order, so this is a binary search
+        // that returns a view of the window rather than a filtered, sorted copy
+        return patient.getRecords(recordTypeCode, tenMinutesAgo, Long.MAX_VALUE);
+    }
 
-        // Filter to only the specified record type and sort by timestamp
-        return allRecords.stream()
-                .filter(record -> record.getRecordType().equals(recordType))
-                .sorted(Comparator.comparing(PatientRecord::getTimestamp))
-                .collect(Collectors.toList());
+    /**
+     * Sets where the alerts triggered by {@link #triggerAlert(Alert)} are sent.
+     *
+     * @param alertSink the sink, or null to print the alerts
+     */
+    public void setAlertSink(AlertSink alertSink) {
+        this.alertSink = alertSink;
     }
 
     /**
      * Triggers an alert for the monitoring system. This method can be extended to
      * notify medical staff, log the alert, or perform other actions. The method
      * currently assumes that the alert information is fully formed when passed as
-     * an argument.
+     * an argument. The alert is sent to the alert sink if one is set, and printed
+     * otherwise. Alerts are printed directly rather than through the asynchronous
+     * logger, which drops messages when its queue is full and filters them by level.
      *
      * @param alert the alert object containing details about the alert condition
      */
     protected void triggerAlert(Alert alert){
+        AlertSink sink = alertSink;
+        if (sink != null) {
+            sink.accept(alert);
+            return;
+        }
         // Implementation might involve logging the alert or notifying staff
         System.out.println("ALERT: " + alert.getCondition() +
                 " for Patient ID: " + alert.getPatientId() +
-                " at " + new java.util.Date(alert.getTimestamp()));
+                " at " + LogTimestamp.of(alert.getTimestamp()));
     }
 
      /**
@@ -1,5 +1,8 @@
 package com.alerts;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 import com.data_management.*;
 
 
@@ -22,6 +25,19 @@ public class AlertGenerator {
     private ECGAlertFactory ecgAlertFactory;
     private CallButtonAlertFactory callButtonAlertFactory;
 
+    // The factories in the order they run, with the time spent in each during sweeps
+    private final AlertFactory[] factories;
+    private final LongAdder[] factoryNanos;
+
+    // Alerts of the patient being evaluated by a sweep on the current thread
+    private final ThreadLocal<List<Alert>> sweepAlerts = new ThreadLocal<>();
+    // Receives the alerts of evaluateData
+    private volatile AlertSink alertSink = new LoggingAlertSink();
+
+    // Patients evaluated by one sweep task before it stops splitting its range
+    private static final int SWEEP_BATCH_SIZE = 8;
+    private ForkJoinPool sweepPool;
+
      /**
      * Constructs an {@code AlertGenerator} with a specified {@code DataStorage}.
      * The {@code DataStorage} is used to retrieve patient data that this class
@@ -39,6 +55,15 @@ public class AlertGenerator {
         this.bloodPressureAlertFactory = new BloodPressureAlertFactory(dataStorage);
         this.ecgAlertFactory = new ECGAlertFactory(dataStorage);
         this.callButtonAlertFactory = new CallButtonAlertFactory(dataStorage);
+
+        this.factories = new AlertFactory[] {
+            bloodOxygenAlertFactory, bloodPressureAlertFactory, ecgAlertFactory, callButtonAlertFactory
+        };
+        this.factoryNanos = new LongAdder[factories.length];
+        for (int i = 0; i < factories.length; i++) {
+            factories[i].setAlertSink(this::dispatch);
+            factoryNanos[i] = new LongAdder();
+        }
     }
 
 
@@ -73,6 +98,17 @@ public class AlertGenerator {
 //        }
 //    }
 
+        /**
+         * Sets where the alerts of {@link #evaluateData(Patient)} are sent; they are
+         * logged by default. Pass an {@link AlertStateCache} to only receive changes of
+         * each patient's conditions rather than every alert of every evaluation.
+         *
+         * @param alertSink the sink
+         */
+        public void setAlertSink(AlertSink alertSink) {
+            this.alertSink = Objects.requireNonNull(alertSink, "alertSink");
+        }
+
             /**
          * Evaluates all data for a patient and triggers appropriate alerts.
          * This method serves as the entry point for alert generation and uses
@@ -85,22 +121,139 @@ public class AlertGenerator {
                 return;
             }
             
-            // Get the most recent timestamp (for simplicity, use current time)
-            long currentTime = System.currentTimeMillis();
-            String patientId = String.valueOf(patient.getPatientId());
-            
-            // Process through each factory to check their specific conditions
-            // For blood oxygen monitoring
-            bloodOxygenAlertFactory.createAlert(patientId, null, currentTime);
-            
-            // For blood pressure monitoring
-            bloodPressureAlertFactory.createAlert(patientId, null, currentTime);
-            
-            // For ECG monitoring
-            ecgAlertFactory.createAlert(patientId, null, currentTime);
-            
-            // For call button alerts
-            callButtonAlertFactory.createAlert(patientId, null, currentTime);
+            // Fetch each record type of the patient's window once for all factories
+            EvaluationContext context = EvaluationContext.forLatestWindow(patient);
+
+            // Process through each factory to check their specific conditions:
+            // blood oxygen, blood pressure, ECG and call button monitoring
+            for (AlertFactory factory : factories) {
+                factory.evaluate(context);
+            }
+        }
+
+        /**
+         * Evaluates all patients in parallel on a work-stealing pool with one thread per
+         * core, owned by this generator.
+         *
+         * @param sink receives the alerts, in the order described in
+         *             {@link #evaluateAllPatients(ForkJoinPool, AlertSink)}
+         * @return the timings of the sweep
+         */
+        public SweepReport evaluateAllPatients(AlertSink sink) {
+            synchronized (this) {
+                if (sweepPool == null) {
+                    sweepPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                }
+            }
+            return evaluateAllPatients(sweepPool, sink);
         }
 
-    }
\ No newline at end of file
+        /**
+         * Evaluates all patients in parallel. The patients are split into ranges that
+         * the pool's threads take over from each other as they run out of work, and
+         * each patient is evaluated under its read lock, see
+         * {@link DataStorage#readPatient(int, java.util.function.Consumer)}.
+         * <p>
+         * The alerts are collected per range and handed to the sink once the sweep is
+         * done, in the order a serial loop over {@link DataStorage#getPatientIds()}
+         * calling {@link #evaluateData(Patient)} would emit them, so the output does not
+         * depend on the thread count. Sweeps of one generator must not overlap.
+         * </p>
+         *
+         * @param pool the pool to run the sweep on
+         * @param sink receives the alerts
+         * @return the timings of the sweep
+         */
+        public SweepReport evaluateAllPatients(ForkJoinPool pool, AlertSink sink) {
+            long start = System.nanoTime();
+            for (LongAdder nanos : factoryNanos) {
+                nanos.reset();
+            }
+
+            List<Integer> patientIds = dataStorage.getPatientIds();
+            SweepTask sweep = new SweepTask(patientIds, 0, patientIds.size());
+            pool.invoke(sweep);
+            List<Alert> alerts = sweep.alerts;
+            for (Alert alert : alerts) {
+                sink.accept(alert);
+            }
+
+            Map<String, Long> timings = new LinkedHashMap<>();
+            for (int i = 0; i < factories.length; i++) {
+                timings.put(factories[i].getClass().getSimpleName(), factoryNanos[i].sum());
+            }
+            return new SweepReport(patientIds.size(), alerts.size(), pool.getParallelism(),
+                    System.nanoTime() - start, timings);
+        }
+
+        /**
+         * Runs every factory for one patient, collecting its alerts and timing each
+         * factory. Called under the patient's read lock.
+         */
+        private void evaluateForSweep(Patient patient, List<Alert> alerts) {
+            List<Alert> previous = sweepAlerts.get();
+            sweepAlerts.set(alerts);
+            try {
+                EvaluationContext context = EvaluationContext.forLatestWindow(patient);
+                for (int i = 0; i < factories.length; i++) {
+                    long factoryStart = System.nanoTime();
+                    factories[i].evaluate(context);
+                    factoryNanos[i].add(System.nanoTime() - factoryStart);
+                }
+            } finally {
+                sweepAlerts.set(previous);
+            }
+        }
+
+        /**
+         * Receives the alerts of the factories: collected when they come from a sweep,
+         * sent to the alert sink otherwise.
+         */
+        private void dispatch(Alert alert) {
+            List<Alert> alerts = sweepAlerts.get();
+            if (alerts != null) {
+                alerts.add(alert);
+            } else {
+                alertSink.accept(alert);
+            }
+        }
+
+        /**
+         * Evaluates a range of patients, splitting it in halves that can be stolen by
+         * idle threads until it is small enough to run directly.
+         */
+        private final class SweepTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final List<Integer> patientIds;
+            private final int from;
+            private final int to;
+            private List<Alert> alerts;
+
+            private SweepTask(List<Integer> patientIds, int from, int to) {
+                this.patientIds = patientIds;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from <= SWEEP_BATCH_SIZE) {
+                    alerts = new ArrayList<>();
+                    for (int i = from; i < to; i++) {
+                        dataStorage.readPatient(patientIds.get(i), p -> evaluateForSweep(p, alerts));
+                    }
+                    return;
+                }
+
+                int middle = (from + to) >>> 1;
+                SweepTask left = new SweepTask(patientIds, from, middle);
+                SweepTask right = new SweepTask(patientIds, middle, to);
+                invokeAll(left, right);
+
+                // Concatenate in range order to keep the serial order
+                alerts = left.alerts;
+                alerts.addAll(right.alerts);
+            }
+        }
+    }
@@ -0,0 +1,20 @@
+package com.alerts;
+
+/**
+ * Receives the alerts raised by the {@link AlertEngine}.
+ * <p>
+ * The engine calls the sink on the ingest thread that stored the triggering reading,
+ * so implementations should hand the alert on quickly rather than do slow work
+ * themselves.
+ * </p>
+ */
+@FunctionalInterface
+public interface AlertSink {
+
+    /**
+     * Accepts a raised alert.
+     *
+     * @param alert the alert
+     */
+    void accept(Alert alert);
+}
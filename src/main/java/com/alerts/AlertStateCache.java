@@ -0,0 +1,335 @@
+package com.alerts;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks which alert conditions are active per patient, so that a condition that
+ * keeps firing on every evaluation is reported once rather than once per sweep.
+ * <p>
+ * Alerts are keyed by patient and <em>condition class</em>: the condition text without
+ * its decorations ({@code [HIGH]}, {@code [REPEATED]}), its parenthesized details and
+ * its numbers, so that "Extremely high systolic pressure (185.0 mmHg)" and
+ * "Extremely high systolic pressure (190.0 mmHg)" are the same condition. Only
+ * transitions reach the listener:
+ * </p>
+ * <ul>
+ *   <li>{@link Transition#RAISED} when a condition becomes active,</li>
+ *   <li>{@link Transition#ESCALATED} when an active condition comes back with a higher
+ *       priority, see {@link DecoratedAlertFactory#priorityOf(Alert)},</li>
+ *   <li>{@link Transition#RESOLVED} when an active condition has not been seen for the
+ *       time-to-live, or is resolved explicitly.</li>
+ * </ul>
+ * <p>
+ * Repeats of an active condition only refresh its last-seen time. Expired conditions
+ * are resolved by {@link #expire(long)}, which {@link #offer(Alert, long)} also runs at
+ * most twice per time-to-live. The cache is thread-safe; the listener is called
+ * outside of any lock, from the thread that caused the transition.
+ * </p>
+ */
+public class AlertStateCache implements AlertSink {
+    /** Default time an active condition is kept without being seen again */
+    public static final long DEFAULT_TTL_MILLIS = 2 * 60 * 1000;
+
+    /**
+     * The changes of state reported to the listener.
+     */
+    public enum Transition {
+        RAISED, ESCALATED, RESOLVED
+    }
+
+    /**
+     * Receives the transitions of the cache.
+     */
+    public interface TransitionListener {
+        /**
+         * @param transition the kind of transition
+         * @param alert      the alert that raised or escalated the condition; for a
+         *                   resolution, the last alert of the condition
+         * @param time       when the transition happened, in milliseconds since epoch
+         */
+        void onTransition(Transition transition, Alert alert, long time);
+    }
+
+    private final long ttlMillis;
+    private final TransitionListener listener;
+    private final Map<Key, Episode> active = new ConcurrentHashMap<>();
+    private final AtomicLong lastExpiry = new AtomicLong();
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Creates a cache.
+     *
+     * @param ttlMillis how long an active condition is kept without being seen again
+     * @param listener  receives the transitions
+     */
+    public AlertStateCache(long ttlMillis, TransitionListener listener) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Time-to-live must be positive: " + ttlMillis);
+        }
+        this.ttlMillis = ttlMillis;
+        this.listener = Objects.requireNonNull(listener, "listener");
+    }
+
+    /**
+     * Creates a listener that sends raised conditions to a sink as they are, and
+     * escalations and resolutions tagged with {@code [ESCALATED]} and
+     * {@code [RESOLVED]}.
+     *
+     * @param sink the sink to send the transitions to
+     * @return the listener
+     */
+    public static TransitionListener forwardingTo(AlertSink sink) {
+        return (transition, alert, time) -> {
+            switch (transition) {
+                case RAISED:
+                    sink.accept(alert);
+                    break;
+                case ESCALATED:
+                    sink.accept(new Alert(alert.getPatientId(), "[ESCALATED] " + alert.getCondition(), alert.getTimestamp()));
+                    break;
+                default:
+                    sink.accept(new Alert(alert.getPatientId(), "[RESOLVED] " + alert.getCondition(), time));
+                    break;
+            }
+        };
+    }
+
+    /**
+     * Offers an alert at the current time.
+     *
+     * @param alert the alert
+     */
+    @Override
+    public void accept(Alert alert) {
+        offer(alert, System.currentTimeMillis());
+    }
+
+    /**
+     * Offers an alert, reporting a transition if it raises or escalates its condition.
+     * A condition that expired but was not resolved yet is resolved first and raised
+     * again.
+     *
+     * @param alert the alert
+     * @param now   the current time, in milliseconds since epoch
+     * @return the transition, or null if the alert only refreshed an active condition
+     */
+    public Transition offer(Alert alert, long now) {
+        expireIfDue(now);
+
+        Key key = new Key(alert.getPatientId(), conditionClass(alert.getCondition()));
+        int severity = severityOf(alert);
+        Episode[] stale = new Episode[1];
+        Transition[] transition = new Transition[1];
+        active.compute(key, (k, episode) -> {
+            if (episode != null && now - episode.lastSeen > ttlMillis) {
+                stale[0] = episode;
+                episode = null;
+            }
+            if (episode == null) {
+                transition[0] = Transition.RAISED;
+                return new Episode(alert, severity, now);
+            }
+            episode.lastSeen = Math.max(episode.lastSeen, now);
+            if (severity > episode.severity) {
+                transition[0] = Transition.ESCALATED;
+                episode.alert = alert;
+                episode.severity = severity;
+            }
+            return episode;
+        });
+
+        if (stale[0] != null) {
+            listener.onTransition(Transition.RESOLVED, stale[0].alert, now);
+        }
+        if (transition[0] == null) {
+            suppressed.increment();
+        } else {
+            listener.onTransition(transition[0], alert, now);
+        }
+        return transition[0];
+    }
+
+    /**
+     * Resolves a condition right away, e.g. when a call button is reset.
+     *
+     * @param patientId the patient
+     * @param condition the condition, or any condition of the same class
+     * @param now       the current time, in milliseconds since epoch
+     * @return true if the condition was active
+     */
+    public boolean resolve(String patientId, String condition, long now) {
+        Episode episode = active.remove(new Key(patientId, conditionClass(condition)));
+        if (episode == null) {
+            return false;
+        }
+        listener.onTransition(Transition.RESOLVED, episode.alert, now);
+        return true;
+    }
+
+    /**
+     * Resolves every condition that has not been seen for the time-to-live.
+     *
+     * @param now the current time, in milliseconds since epoch
+     * @return the number of conditions resolved
+     */
+    public int expire(long now) {
+        lastExpiry.set(now);
+        int resolved = 0;
+        Episode[] expired = new Episode[1];
+        for (Key key : active.keySet()) {
+            // Checked under the entry's lock, so a concurrent offer either refreshes
+            // the episode first or raises a new one after it was removed
+            expired[0] = null;
+            active.computeIfPresent(key, (k, episode) -> {
+                if (now - episode.lastSeen > ttlMillis) {
+                    expired[0] = episode;
+                    return null;
+                }
+                return episode;
+            });
+            if (expired[0] != null) {
+                listener.onTransition(Transition.RESOLVED, expired[0].alert, now);
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Checks whether a condition is active for a patient.
+     *
+     * @param patientId the patient
+     * @param condition the condition, or any condition of the same class
+     * @return true if the condition is active
+     */
+    public boolean isActive(String patientId, String condition) {
+        return active.containsKey(new Key(patientId, conditionClass(condition)));
+    }
+
+    /**
+     * @return the number of active conditions over all patients
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     * @return the number of alerts that only refreshed an active condition
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * @return how long an active condition is kept without being seen again
+     */
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Reduces a condition to its class: the text without leading tags in brackets,
+     * parenthesized details and digits.
+     *
+     * @param condition the condition of an alert
+     * @return the condition class
+     */
+    public static String conditionClass(String condition) {
+        if (condition == null) {
+            return "";
+        }
+        int start = 0;
+        // Skip tags such as [HIGH] or [REPEATED]
+        while (start < condition.length() && condition.charAt(start) == '[') {
+            int close = condition.indexOf(']', start);
+            if (close < 0) {
+                break;
+            }
+            start = close + 1;
+            while (start < condition.length() && condition.charAt(start) == ' ') {
+                start++;
+            }
+        }
+
+        StringBuilder condClass = new StringBuilder(condition.length() - start);
+        int depth = 0;
+        boolean inNumber = false;
+        for (int i = start; i < condition.length(); i++) {
+            char c = condition.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && depth > 0) {
+                depth--;
+            } else if (depth == 0) {
+                boolean numeric = Character.isDigit(c) || (inNumber && c == '.');
+                if (numeric) {
+                    if (!inNumber) {
+                        condClass.append('#');
+                    }
+                } else {
+                    condClass.append(c);
+                }
+                inNumber = numeric;
+            }
+        }
+        return condClass.toString().trim();
+    }
+
+    private static int severityOf(Alert alert) {
+        return DecoratedAlertFactory.priorityOf(alert).getLevel();
+    }
+
+    private void expireIfDue(long now) {
+        long last = lastExpiry.get();
+        if (now - last >= ttlMillis / 2 && lastExpiry.compareAndSet(last, now)) {
+            expire(now);
+        }
+    }
+
+    /**
+     * Patient and condition class.
+     */
+    private static final class Key {
+        private final String patientId;
+        private final String conditionClass;
+
+        Key(String patientId, String conditionClass) {
+            this.patientId = patientId;
+            this.conditionClass = conditionClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(patientId, other.patientId) && conditionClass.equals(other.conditionClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(patientId) * 31 + conditionClass.hashCode();
+        }
+    }
+
+    /**
+     * One period during which a condition was active.
+     */
+    private static final class Episode {
+        // Written under the entry's lock, read by the listener calls outside of it
+        volatile Alert alert;
+        volatile int severity;
+        volatile long lastSeen;
+
+        Episode(Alert alert, int severity, long now) {
+            this.alert = alert;
+            this.severity = severity;
+            this.lastSeen = now;
+        }
+    }
+}
@@ -23,26 +23,12 @@ public class BloodPressureAlertFactory extends AlertFactory{
         if (patient == null) {
             return;
         }
-        // Process regular strategies
-        for (AlertStrategy strategy : strategies) {
-            List<PatientRecord> systolicRecords = getFilteredRecords(patient, "SystolicPressure");
-            List<PatientRecord> diastolicRecords = getFilteredRecords(patient, "DiastolicPressure");
-            
-            BloodPressureStrategy bpStrategy = (BloodPressureStrategy) strategy;
-            Alert alert = bpStrategy.checkAlert(patient, systolicRecords, diastolicRecords);
-            
-            if (alert != null) {
-                triggerAlert(alert);
-                return;
-            }
-
-        // // Check blood pressure trends
-        // checkPressureTrend(patient, systolicRecords, "Systolic");
-        // checkPressureTrend(patient, diastolicRecords, "Diastolic");
-        // // Check for blood pressure thesholds
-        // checkBloodPressureThreshold(patient, systolicRecords, "Systolic");
-        // checkBloodPressureThreshold(patient, diastolicRecords, "Diastolic");
-    }
+        evaluate(EvaluationContext.forLatestWindow(patient));
     }
 
+    @Override
+    public void evaluate(EvaluationContext context) {
+        // Process strategies
+        evaluateStrategies(strategies, context);
+    }
 }
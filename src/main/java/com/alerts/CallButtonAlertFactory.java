@@ -18,21 +18,14 @@ public class CallButtonAlertFactory extends AlertFactory {
     public void createAlert(String patientId, String condition, long timestamp) {
         Patient patient = getPatientById(patientId); // Using parent method
         if (patient == null) {
-            return;            
-        }
-       
-        // Process regular strategies
-        for (AlertStrategy strategy : strategies) {
-            List<PatientRecord> alertRecords = getFilteredRecords(patient, "Alert");
-                
-            CallButtonAlertStrategy callButtonAlertStrategy = (CallButtonAlertStrategy) strategy;
-            Alert callButtonAlert = callButtonAlertStrategy.checkAlert(patient, alertRecords);
-                
-            if (callButtonAlert != null) {
-                triggerAlert(callButtonAlert);
-                return;
-            }
+            return;
         }
+        evaluate(EvaluationContext.forLatestWindow(patient));
+    }
+
+    @Override
+    public void evaluate(EvaluationContext context) {
+        // Process strategies
+        evaluateStrategies(strategies, context);
     }
-   
 }
@@ -1,6 +1,11 @@
 package com.alerts;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.data_management.DataStorage;
 import com.decorator.*;
+import com.logging.LogTimestamp;
 
 /**
  * DecoratedAlertFactory extends AlertFactory to produce decorated alerts.
@@ -8,6 +13,18 @@ import com.decorator.*;
  */
 public class DecoratedAlertFactory extends AlertFactory {
 
+    // Alerts being repeated, by patient and condition class
+    private final Map<String, RepeatedAlertDecorator> repetitions = new ConcurrentHashMap<>();
+
+    // Conditions raised by this factory; repeats of an active condition are dropped.
+    // A condition that escalates or resolves stops the repetition of its earlier alert.
+    private final AlertStateCache stateCache = new AlertStateCache(AlertStateCache.DEFAULT_TTL_MILLIS,
+            (transition, alert, time) -> {
+                if (transition != AlertStateCache.Transition.RAISED) {
+                    stopRepetition(alert);
+                }
+            });
+
     /**
      * Constructor that initializes the factory with data storage.
      *
@@ -32,6 +49,9 @@ public class DecoratedAlertFactory extends AlertFactory {
         if (condition != null && !condition.isEmpty()) {
             // Create the base alert
             Alert alert = new Alert(patientId, condition, timestamp);
+            if (!admit(alert)) {
+                return; // the condition is already active
+            }
 
         // Apply decorators based on the alert condition
         Alert decoratedAlert = decorateAlert(alert);
@@ -42,6 +62,88 @@ public class DecoratedAlertFactory extends AlertFactory {
         // If no condition is detected, do nothing
     }}
 
+    /**
+     * Derives the priority of an alert from its condition, for alerts whose source
+     * gave none, such as alert rules or conditions passed to
+     * {@link #createAlert(String, String, long)}. The words are matched ignoring case.
+     *
+     * @param condition the condition of the alert
+     * @return the priority
+     */
+    public static PriorityAlertDecorator.Priority priorityOf(String condition) {
+        if (condition == null) {
+            return PriorityAlertDecorator.Priority.LOW;
+        }
+        String text = condition.toLowerCase(Locale.ROOT);
+        if (text.contains("critical")) {
+            return PriorityAlertDecorator.Priority.CRITICAL;
+        } else if (text.contains("hypotensive") ||
+                text.contains("abnormality") ||
+                text.contains("extremely low") ||
+                text.contains("extremely high") ||
+                text.contains("call button")) {
+            return PriorityAlertDecorator.Priority.HIGH;
+        } else if (text.contains("trend") ||
+                text.contains("drop")) {
+            return PriorityAlertDecorator.Priority.MEDIUM;
+        }
+        return PriorityAlertDecorator.Priority.LOW;
+    }
+
+    /**
+     * Gets the priority of an alert: the one it was decorated or raised with, or else
+     * the one derived from its condition.
+     *
+     * @param alert the alert
+     * @return the priority
+     */
+    public static PriorityAlertDecorator.Priority priorityOf(Alert alert) {
+        PriorityAlertDecorator.Priority priority = alert.getPriority();
+        return priority != null ? priority : priorityOf(alert.getCondition());
+    }
+
+    /**
+     * Records an alert in the state cache and tells whether it should be raised: only
+     * the first alert of a condition, or one that escalates it, is decorated and
+     * triggered, so a condition that holds over many evaluations does not start a new
+     * repetition each time.
+     *
+     * @param alert the alert
+     * @return true if the alert raises or escalates its condition
+     */
+    protected boolean admit(Alert alert) {
+        return stateCache.offer(alert, System.currentTimeMillis()) != null;
+    }
+
+    /**
+     * Gets the cache of the conditions this factory has raised.
+     *
+     * @return the state cache
+     */
+    public AlertStateCache getAlertStateCache() {
+        return stateCache;
+    }
+
+    /**
+     * Gets the number of alerts of this factory that are still being repeated.
+     *
+     * @return the number of active repetitions
+     */
+    public int getActiveRepetitionCount() {
+        return repetitions.size();
+    }
+
+    private static String repetitionKey(Alert alert) {
+        return alert.getPatientId() + "|" + AlertStateCache.conditionClass(alert.getCondition());
+    }
+
+    private void stopRepetition(Alert alert) {
+        RepeatedAlertDecorator repeated = repetitions.remove(repetitionKey(alert));
+        if (repeated != null) {
+            repeated.stopRepetition();
+        }
+    }
+
     /**
      * Applies appropriate decorators to an alert based on its condition.
      *
@@ -53,36 +155,36 @@ public class DecoratedAlertFactory extends AlertFactory {
 
         // Only apply decorators if there's an actual condition
         if (alert.getCondition() != null && !alert.getCondition().isEmpty()) {
-            // Apply priority decorator based on condition
-            if (alert.getCondition().contains("CRITICAL")) {
-                decoratedAlert = new PriorityAlertDecorator(decoratedAlert, PriorityAlertDecorator.Priority.CRITICAL);
-            } else if (alert.getCondition().contains("Hypotensive") ||
-                    alert.getCondition().contains("Abnormality") ||
-                    alert.getCondition().contains("extremely low")) {
-                decoratedAlert = new PriorityAlertDecorator(decoratedAlert, PriorityAlertDecorator.Priority.HIGH);
-            } else if (alert.getCondition().contains("Trend") ||
-                    alert.getCondition().contains("Drop")) {
-                decoratedAlert = new PriorityAlertDecorator(decoratedAlert, PriorityAlertDecorator.Priority.MEDIUM);
-            } else {
-                decoratedAlert = new PriorityAlertDecorator(decoratedAlert, PriorityAlertDecorator.Priority.LOW);
+            // Apply priority decorator, unless the alert already has one
+            if (!(decoratedAlert instanceof PriorityAlertDecorator)) {
+                decoratedAlert = new PriorityAlertDecorator(decoratedAlert, priorityOf(alert));
             }
 
             // Apply repeated alert decorator for high priority alerts
             if (decoratedAlert instanceof PriorityAlertDecorator) {
                 PriorityAlertDecorator priorityAlert = (PriorityAlertDecorator) decoratedAlert;
                 if (priorityAlert.isHighPriority()) {
+                    String key = repetitionKey(alert);
                     RepeatedAlertDecorator repeatedAlert = new RepeatedAlertDecorator(
                             decoratedAlert,
                             60000, // Repeat every minute
                             5,     // Repeat up to 5 times
-                            (repeatedAlertInstance) -> {
-                                // This lambda will be called for each repetition
-                                System.out.println("REPEATED ALERT: " + repeatedAlertInstance.getCondition() +
-                                        " for Patient ID: " + repeatedAlertInstance.getPatientId() +
-                                        " at " + new java.util.Date(repeatedAlertInstance.getTimestamp()));
-                            }
-                    );
+                            null);
+                    repeatedAlert.setAlertHandler(repeatedAlertInstance -> {
+                        // This lambda will be called for each repetition
+                        System.out.println("REPEATED ALERT: " + repeatedAlertInstance.getCondition() +
+                                " for Patient ID: " + repeatedAlertInstance.getPatientId() +
+                                " at " + LogTimestamp.of(repeatedAlertInstance.getTimestamp()));
+                        // Forget the repetition after its last run
+                        if (repeatedAlert.getCurrentRepetition() >= repeatedAlert.getMaxRepetitions()) {
+                            repetitions.remove(key, repeatedAlert);
+                        }
+                    });
 
+                    RepeatedAlertDecorator previous = repetitions.put(key, repeatedAlert);
+                    if (previous != null) {
+                        previous.stopRepetition();
+                    }
                     repeatedAlert.startRepetition();
                     decoratedAlert = repeatedAlert;
                 }
@@ -98,10 +200,11 @@ public class DecoratedAlertFactory extends AlertFactory {
      */
     @Override
     protected void triggerAlert(Alert alert) {
-        // Print information about the alert with any decorations
+        // Print the alert with any decorations; printed directly, like in AlertFactory,
+        // so that it is never dropped or hidden by the log level
         StringBuilder message = new StringBuilder("ALERT: " + alert.getCondition() +
                 " for Patient ID: " + alert.getPatientId() +
-                " at " + new java.util.Date(alert.getTimestamp()));
+                " at " + LogTimestamp.of(alert.getTimestamp()));
 
         // Add additional information if this is a decorated alert
         if (alert instanceof PriorityAlertDecorator) {
@@ -152,6 +255,9 @@ public class DecoratedAlertFactory extends AlertFactory {
         public void createAlert(String patientId, String condition, long timestamp) {
             // Create the base alert
             Alert alert = new Alert(patientId, condition, timestamp);
+            if (!admit(alert)) {
+                return;
+            }
 
             // Apply decorators (could add oxygen-specific decoration logic here)
             Alert decoratedAlert = decorateAlert(alert);
@@ -173,6 +279,9 @@ public class DecoratedAlertFactory extends AlertFactory {
         public void createAlert(String patientId, String condition, long timestamp) {
             // Create the base alert
             Alert alert = new Alert(patientId, condition, timestamp);
+            if (!admit(alert)) {
+                return;
+            }
 
             // Apply decorators (could add pressure-specific decoration logic here)
             Alert decoratedAlert = decorateAlert(alert);
@@ -194,6 +303,9 @@ public class DecoratedAlertFactory extends AlertFactory {
         public void createAlert(String patientId, String condition, long timestamp) {
             // Create the base alert
             Alert alert = new Alert(patientId, condition, timestamp);
+            if (!admit(alert)) {
+                return;
+            }
 
             // ECG alerts often need higher priority, so we could customize here
             Alert decoratedAlert = decorateAlert(alert);
@@ -215,6 +327,9 @@ public class DecoratedAlertFactory extends AlertFactory {
         public void createAlert(String patientId, String condition, long timestamp) {
             // Create the base alert
             Alert alert = new Alert(patientId, condition, timestamp);
+            if (!admit(alert)) {
+                return;
+            }
 
             // Call button alerts are always high priority
             PriorityAlertDecorator priorityAlert = new PriorityAlertDecorator(
@@ -1,7 +1,6 @@
 package com.alerts;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
 import com.strategy.AlertStrategy;
 import com.strategy.HeartRateStrategy;
 import java.util.*;
@@ -21,22 +20,14 @@ public class ECGAlertFactory extends AlertFactory {
     public void createAlert(String patientId, String condition, long timestamp) {
         Patient patient = getPatientById(patientId); // Using parent method
         if (patient == null) {
-            return;            
+            return;
         }
-
-        // Process regular strategies
-        for (AlertStrategy strategy : strategies) {
-            List<PatientRecord> ecgRecords = getFilteredRecords(patient, "ECG");
-                    
-                HeartRateStrategy hearRateStrategy = (HeartRateStrategy) strategy;
-                Alert alert = hearRateStrategy.checkAlert(patient, ecgRecords);
-                    
-                if (alert != null) {
-                    triggerAlert(alert);
-                    return;
-                }
-            }
+        evaluate(EvaluationContext.forLatestWindow(patient));
     }
 
-   
+    @Override
+    public void evaluate(EvaluationContext context) {
+        // Process strategies
+        evaluateStrategies(strategies, context);
+    }
 }
@@ -0,0 +1,103 @@
+package com.alerts;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import com.data_management.RecordType;
+
+/**
+ * The data of one patient that the alert factories and strategies evaluate in a sweep:
+ * the patient's records of the last 10 minutes, split by record type.
+ * <p>
+ * A context is built once per patient per sweep and handed to every factory, so a
+ * record type that several factories look at (e.g. systolic pressure, used by the
+ * blood pressure and the blood oxygen checks) is only fetched once. Each record type
+ * is fetched on first use and then kept. A context is used by one thread at a time.
+ * </p>
+ */
+public final class EvaluationContext {
+    /** Length of the window of records evaluated, in milliseconds */
+    public static final long WINDOW_MILLIS = 10 * 60 * 1000;
+
+    private final Patient patient;
+    private final String patientId;
+    private final long windowStart;
+    private List<PatientRecord>[] recordsByType;
+    private int fetchCount;
+
+    /**
+     * Creates a context over the records of a patient from {@code windowStart} on.
+     *
+     * @param patient     the patient to evaluate
+     * @param windowStart the start of the window, in milliseconds since the epoch
+     */
+    @SuppressWarnings("unchecked")
+    public EvaluationContext(Patient patient, long windowStart) {
+        this.patient = patient;
+        this.patientId = String.valueOf(patient.getPatientId());
+        this.windowStart = windowStart;
+        this.recordsByType = (List<PatientRecord>[]) new List<?>[RecordType.count()];
+    }
+
+    /**
+     * Creates a context over the records of a patient of the last 10 minutes.
+     *
+     * @param patient the patient to evaluate
+     * @return the context
+     */
+    public static EvaluationContext forLatestWindow(Patient patient) {
+        return new EvaluationContext(patient, System.currentTimeMillis() - WINDOW_MILLIS);
+    }
+
+    /**
+     * @return the patient being evaluated
+     */
+    public Patient getPatient() {
+        return patient;
+    }
+
+    /**
+     * @return the patient ID as used in alerts
+     */
+    public String getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * @return the start of the window, in milliseconds since the epoch
+     */
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    /**
+     * Returns the records of one type in the window, in timestamp order.
+     *
+     * @param recordTypeCode the code of the record type, see {@link RecordType}
+     * @return the records; the list is shared, so callers must not modify it
+     */
+    public List<PatientRecord> getRecords(int recordTypeCode) {
+        if (recordTypeCode >= recordsByType.length) {
+            // The type was registered after this context was created
+            recordsByType = Arrays.copyOf(recordsByType, Math.max(recordTypeCode + 1, RecordType.count()));
+        }
+        List<PatientRecord> records = recordsByType[recordTypeCode];
+        if (records == null) {
+            records = patient.getRecords(recordTypeCode, windowStart, Long.MAX_VALUE);
+            recordsByType[recordTypeCode] = records;
+            fetchCount++;
+        }
+        return records;
+    }
+
+    /**
+     * Gets how many record types were fetched from the patient so far.
+     *
+     * @return the number of fetches
+     */
+    public int getFetchCount() {
+        return fetchCount;
+    }
+}
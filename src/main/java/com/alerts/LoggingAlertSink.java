@@ -0,0 +1,18 @@
+package com.alerts;
+
+import com.logging.LogTimestamp;
+
+/**
+ * Alert sink that prints each alert the way {@link AlertFactory#triggerAlert(Alert)} does.
+ * Alerts are printed directly rather than through the asynchronous logger, so that they
+ * are never dropped when its queue is full or hidden by the log level.
+ */
+public class LoggingAlertSink implements AlertSink {
+
+    @Override
+    public void accept(Alert alert) {
+        System.out.println("ALERT: " + alert.getCondition() +
+                " for Patient ID: " + alert.getPatientId() +
+                " at " + LogTimestamp.of(alert.getTimestamp()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.rules.CompiledRuleSet;
+import com.rules.RuleSet;
+
+/**
+ * Alert factory driven by a rules file instead of hand-written strategies. Each group
+ * of the {@link RuleSet} acts like one of the other factories and can trigger one
+ * alert per evaluation; with the default rules this factory triggers the same alerts
+ * as the blood oxygen, blood pressure, ECG and call button factories together.
+ */
+public class RuleAlertFactory extends AlertFactory {
+    private final CompiledRuleSet rules;
+
+    /**
+     * Creates a factory with the default rules.
+     *
+     * @param dataStorage the data storage system that provides access to patient data
+     */
+    public RuleAlertFactory(DataStorage dataStorage) {
+        this(dataStorage, RuleSet.loadDefault().compile());
+    }
+
+    /**
+     * Creates a factory with the given rules.
+     *
+     * @param dataStorage the data storage system that provides access to patient data
+     * @param rules       the compiled rules
+     */
+    public RuleAlertFactory(DataStorage dataStorage, CompiledRuleSet rules) {
+        super(dataStorage);
+        this.rules = rules;
+    }
+
+    @Override
+    public void createAlert(String patientId, String condition, long timestamp) {
+        Patient patient = getPatientById(patientId);
+        if (patient == null) {
+            return;
+        }
+        evaluate(EvaluationContext.forLatestWindow(patient));
+    }
+
+    @Override
+    public void evaluate(EvaluationContext context) {
+        for (Alert alert : rules.evaluate(context)) {
+            triggerAlert(alert);
+        }
+    }
+}
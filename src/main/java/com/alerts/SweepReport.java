@@ -0,0 +1,72 @@
+package com.alerts;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timings of one sweep of the {@link AlertGenerator} over all patients.
+ */
+public class SweepReport {
+    private final int patientCount;
+    private final int alertCount;
+    private final int parallelism;
+    private final long wallNanos;
+    private final Map<String, Long> factoryNanos;
+
+    /**
+     * Creates a report.
+     *
+     * @param patientCount the number of patients evaluated
+     * @param alertCount   the number of alerts emitted
+     * @param parallelism  the number of threads the sweep could use
+     * @param wallNanos    the elapsed time of the sweep
+     * @param factoryNanos the time spent in each factory, summed over all threads, in
+     *                     the order the factories run
+     */
+    public SweepReport(int patientCount, int alertCount, int parallelism, long wallNanos, Map<String, Long> factoryNanos) {
+        this.patientCount = patientCount;
+        this.alertCount = alertCount;
+        this.parallelism = parallelism;
+        this.wallNanos = wallNanos;
+        this.factoryNanos = Collections.unmodifiableMap(new LinkedHashMap<>(factoryNanos));
+    }
+
+    public int getPatientCount() {
+        return patientCount;
+    }
+
+    public int getAlertCount() {
+        return alertCount;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the elapsed time of the sweep, in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * @return the time spent in each factory by factory name, in nanoseconds summed
+     *         over all threads
+     */
+    public Map<String, Long> getFactoryNanos() {
+        return factoryNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format(
+                "Alert sweep: %d patients, %d alerts in %.2f ms (parallelism %d)",
+                patientCount, alertCount, wallNanos / 1e6, parallelism));
+        for (Map.Entry<String, Long> factory : factoryNanos.entrySet()) {
+            report.append(String.format("\n- %s: %.2f ms", factory.getKey(), factory.getValue() / 1e6));
+        }
+        return report.toString();
+    }
+}
@@ -1,8 +1,10 @@
 package com.cardio_generator;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import com.cardio_generator.generators.AlertGenerator;
 
@@ -10,6 +12,10 @@ import com.cardio_generator.generators.BloodPressureDataGenerator;
 import com.cardio_generator.generators.BloodSaturationDataGenerator;
 import com.cardio_generator.generators.BloodLevelsDataGenerator;
 import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.generators.PatientRandoms;
+import com.cardio_generator.generators.SampledECGDataGenerator;
+import com.cardio_generator.outputs.BatchingOutputStrategy;
 import com.cardio_generator.outputs.ConsoleOutputStrategy;
 import com.cardio_generator.outputs.FileOutputStrategy;
 import com.cardio_generator.outputs.OutputStrategy;
@@ -30,7 +36,7 @@ import java.util.ArrayList;
  * It supports different output strategies  (console, file, TCP socket, or WebSocket)
  *  and allows configuration via command-line arguments.
  * <p>
- * The simulator creates scheduled tasks to generate:
+ * The simulator schedules periodic tasks to generate:
  * <ul>
  *   <li>ECG data</li>
  *   <li>Blood saturation data</li>
@@ -38,13 +44,25 @@ import java.util.ArrayList;
  *   <li>Blood levels data</li>
  *   <li>Alert triggers</li>
  * </ul>
+ * The tasks of all patients run on a {@link SimulationScheduler} with one tick loop per
+ * core, so the number of threads does not grow with the number of patients.
  * </p>
  */
 public class HealthDataSimulator {
     private static int patientCount = 50; // Default number of patients
     private static ScheduledExecutorService scheduler;
+    private static SimulationScheduler simulationScheduler;
+    private static boolean useVirtualThreads = false; // Run generator batches on virtual threads
     private static OutputStrategy outputStrategy = new ConsoleOutputStrategy(); // Default output strategy
-    private static final Random random = new Random();
+    private static long seed = PatientRandoms.randomSeed(); // Seed of all random values of a run
+    private static double speed = 1.0; // Simulated time per real time
+    private static boolean asFastAsPossible = false; // Step through simulated time without waiting
+    private static long durationMinutes = 60; // Simulated time covered when running as fast as possible
+    // Simulated start time when running as fast as possible: fixed, so that runs with the same seed match
+    private static long startMillis = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static SimulationClock clock = SimulationClock.system();
+    private static int ecgSampleRate = 0; // Samples per second of a sampled ECG, 0 for one value per second
+    private static Random random = new Random(seed);
     private static HealthDataSimulator instance; // A private static variable to hold the single instance of the class
 
 
@@ -70,20 +88,39 @@ public class HealthDataSimulator {
      * Main entry point for the health data simulation program.
      *
      * @param args Command-line arguments in the format:
-     *             [-h] [--patient-count <count>] [--output <type>]
+     *             [-h] [--patient-count <count>] [--output <type>] [--virtual-threads] [--ecg-rate <hz>]
+     *             [--seed <seed>]
+     *             [--speed <factor> | --as-fast-as-possible [--duration <minutes>] [--start <epoch-millis>]]
      * @throws IOException If file output directory creation fails
      */
     public static void main(String[] args) throws IOException {
 
         HealthDataSimulator simulator = HealthDataSimulator.getInstance();
         parseArguments(args);
+        System.out.println("Simulation seed: " + seed);
+        if (outputStrategy instanceof FileOutputStrategy) {
+            // Writes the readings still waiting for a commit when the simulator stops
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(((FileOutputStrategy) outputStrategy)::close, "file-output-shutdown"));
+        }
 
-        scheduler = Executors.newScheduledThreadPool(patientCount * 4);
+        if (!asFastAsPossible) {
+            // One thread per tick loop; the generator tasks of all patients share them
+            scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+        }
 
         List<Integer> patientIds = simulator.initializePatientIds(patientCount);
-        Collections.shuffle(patientIds); // Randomize the order of patient IDs
+        Collections.shuffle(patientIds, new Random(seed)); // Randomize the order of patient IDs
 
         simulator.scheduleTasksForPatients(patientIds);
+
+        if (asFastAsPossible) {
+            long start = System.nanoTime();
+            simulationScheduler.runUntil(clock.currentTimeMillis() + TimeUnit.MINUTES.toMillis(durationMinutes));
+            System.out.printf("Simulated %d minutes for %d patients in %.1f s (%d generator runs)%n",
+                    durationMinutes, patientCount, (System.nanoTime() - start) / 1e9,
+                    simulationScheduler.getRunCount());
+        }
     }
 
     /**
@@ -109,6 +146,66 @@ public class HealthDataSimulator {
                         }
                     }
                     break;
+                case "--virtual-threads":
+                    useVirtualThreads = true;
+                    break;
+                case "--seed":
+                    if (i + 1 < args.length) {
+                        try {
+                            seed = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid seed. Using a random seed.");
+                        }
+                    }
+                    break;
+                case "--speed":
+                    if (i + 1 < args.length) {
+                        try {
+                            double factor = Double.parseDouble(args[++i]);
+                            if (!(factor > 0)) {
+                                throw new NumberFormatException();
+                            }
+                            speed = factor;
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid speed. Using default value: " + speed);
+                        }
+                    }
+                    break;
+                case "--ecg-rate":
+                    if (i + 1 < args.length) {
+                        try {
+                            int rate = Integer.parseInt(args[++i]);
+                            if (rate <= 0 || rate > SampledECGDataGenerator.MAX_SAMPLE_RATE) {
+                                throw new NumberFormatException();
+                            }
+                            ecgSampleRate = rate;
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid ECG sampling rate. Expected 1 to "
+                                    + SampledECGDataGenerator.MAX_SAMPLE_RATE + " Hz.");
+                        }
+                    }
+                    break;
+                case "--as-fast-as-possible":
+                    asFastAsPossible = true;
+                    break;
+                case "--duration":
+                    if (i + 1 < args.length) {
+                        try {
+                            durationMinutes = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid duration. Using default value: " + durationMinutes);
+                        }
+                    }
+                    break;
+                case "--start":
+                    if (i + 1 < args.length) {
+                        try {
+                            startMillis = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid start time. Using default value: " + startMillis);
+                        }
+                    }
+                    break;
                 case "--output":
                     if (i + 1 < args.length) {
                         String outputArg = args[++i];
@@ -120,7 +217,9 @@ public class HealthDataSimulator {
                             if (!Files.exists(outputPath)) {
                                 Files.createDirectories(outputPath);
                             }
-                            outputStrategy = new FileOutputStrategy(baseDirectory);
+                            // Readings are collected for up to a second and written together
+                            outputStrategy = new FileOutputStrategy(baseDirectory,
+                                    FileOutputStrategy.DEFAULT_COMMIT_CHARS, FileOutputStrategy.DEFAULT_COMMIT_MILLIS, 0, 0);
                         } else if (outputArg.startsWith("websocket:")) {
                             try {
                                 int port = Integer.parseInt(outputArg.substring(10));
@@ -167,10 +266,19 @@ public class HealthDataSimulator {
         System.out.println("                             'file:<directory>' for file output,");
         System.out.println("                             'websocket:<port>' for WebSocket output,");
         System.out.println("                             'tcp:<port>' for TCP socket output.");
+        System.out.println("  --virtual-threads        Run the generator tasks on virtual threads (Java 21 or later).");
+        System.out.println("  --ecg-rate <hz>          Generate a sampled ECG with <hz> samples per second (e.g. 250).");
+        System.out.println("  --seed <seed>            Seed the random values so that a run can be repeated.");
+        System.out.println("  --speed <factor>         Run simulated time <factor> times as fast as real time.");
+        System.out.println("  --as-fast-as-possible    Generate the data without waiting, then exit.");
+        System.out.println("  --duration <minutes>     Simulated time covered with --as-fast-as-possible (default: 60).");
+        System.out.println("  --start <epoch-millis>   Simulated start time with --as-fast-as-possible (default: 2024-01-01 UTC).");
         System.out.println("Example:");
         System.out.println("  java HealthDataSimulator --patient-count 100 --output websocket:8080");
         System.out.println(
                 "  This command simulates data for 100 patients and sends the output to WebSocket clients connected to port 8080.");
+        System.out.println("  java HealthDataSimulator --patient-count 1000 --seed 42 --as-fast-as-possible --duration 240 --output file:./load");
+        System.out.println("  This command writes four hours of reproducible data for 1000 patients to files as fast as it can.");
     }
 
     /**
@@ -190,9 +298,12 @@ public class HealthDataSimulator {
     /**
      * Schedules data generation tasks for all patients using configured output strategy.
      * <p>
-     * Creates separate scheduled tasks for each data type with different intervals:
+     * The tasks run on a {@link SimulationScheduler} driven by the scheduler, with one
+     * tick loop per core, and the readings of each batch of tasks reach the output
+     * strategy as one block. Each data type has its own interval:
      * <ul>
-     *   <li>ECG and blood saturation: every 1 second</li>
+     *   <li>ECG and blood saturation: every 1 second (with {@code --ecg-rate}, the ECG samples
+     *       of the past second as one block)</li>
      *   <li>Blood pressure: every 1 minute</li>
      *   <li>Blood levels: every 2 minutes</li>
      *   <li>Alerts: every 20 seconds</li>
@@ -201,29 +312,63 @@ public class HealthDataSimulator {
      * @param patientIds List of patient IDs to schedule tasks for
      */
     private static void scheduleTasksForPatients(List<Integer> patientIds) {
-        ECGDataGenerator ecgDataGenerator = new ECGDataGenerator(patientCount);
-        BloodSaturationDataGenerator bloodSaturationDataGenerator = new BloodSaturationDataGenerator(patientCount);
-        BloodPressureDataGenerator bloodPressureDataGenerator = new BloodPressureDataGenerator(patientCount);
-        BloodLevelsDataGenerator bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount);
-        AlertGenerator alertGenerator = new AlertGenerator(patientCount);
+        random = new Random(seed);
+        if (asFastAsPossible) {
+            // One loop keeps the order of the runs, and thus the output, reproducible
+            SimulationClock.ManualClock manualClock = new SimulationClock.ManualClock(startMillis);
+            clock = manualClock;
+            simulationScheduler = new SimulationScheduler(manualClock, 1, SimulationScheduler.DEFAULT_TICK_MILLIS);
+        } else {
+            ExecutorService dispatchExecutor = null;
+            if (useVirtualThreads) {
+                dispatchExecutor = SimulationScheduler.newVirtualThreadExecutor();
+                if (dispatchExecutor == null) {
+                    System.err.println("Virtual threads need Java 21 or later. Running the tasks on the tick loops.");
+                }
+            }
+            clock = speed == 1.0 ? SimulationClock.system() : SimulationClock.scaled(speed);
+            long tickMillis = Math.max(1, Math.round(SimulationScheduler.DEFAULT_TICK_MILLIS / speed));
+            simulationScheduler = new SimulationScheduler(scheduler, Runtime.getRuntime().availableProcessors(),
+                    tickMillis, dispatchExecutor);
+        }
+
+        PatientDataGenerator ecgDataGenerator = ecgSampleRate > 0
+                ? new SampledECGDataGenerator(patientCount, ecgSampleRate, clock, seed)
+                : new ECGDataGenerator(patientCount, clock, seed);
+        BloodSaturationDataGenerator bloodSaturationDataGenerator =
+                new BloodSaturationDataGenerator(patientCount, clock, seed);
+        BloodPressureDataGenerator bloodPressureDataGenerator =
+                new BloodPressureDataGenerator(patientCount, clock, seed);
+        BloodLevelsDataGenerator bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount, clock, seed);
+        AlertGenerator alertGenerator = new AlertGenerator(patientCount, clock, seed);
+
+        // The readings of each batch of tasks reach the output strategy as one block
+        BatchingOutputStrategy output = new BatchingOutputStrategy(outputStrategy);
+        simulationScheduler.setBatchOutput(output);
 
         for (int patientId : patientIds) {
-            scheduleTask(() -> ecgDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> bloodSaturationDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> bloodPressureDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.MINUTES);
-            scheduleTask(() -> bloodLevelsDataGenerator.generate(patientId, outputStrategy), 2, TimeUnit.MINUTES);
-            scheduleTask(() -> alertGenerator.generate(patientId, outputStrategy), 20, TimeUnit.SECONDS);
+            scheduleTask(patientId, out -> ecgDataGenerator.generate(patientId, out), 1, TimeUnit.SECONDS);
+            scheduleTask(patientId, out -> bloodSaturationDataGenerator.generate(patientId, out), 1, TimeUnit.SECONDS);
+            scheduleTask(patientId, out -> bloodPressureDataGenerator.generate(patientId, out), 1, TimeUnit.MINUTES);
+            scheduleTask(patientId, out -> bloodLevelsDataGenerator.generate(patientId, out), 2, TimeUnit.MINUTES);
+            scheduleTask(patientId, out -> alertGenerator.generate(patientId, out), 20, TimeUnit.SECONDS);
         }
     }
 
     /**
-     * Schedules a recurring task with randomized initial delay.
+     * Schedules a recurring task of a patient on the simulation scheduler with
+     * randomized initial delay.
      *
-     * @param task      The Runnable task to schedule
+     * @param patientId The patient the task generates data for
+     * @param task      The task to schedule, given the output of the batch it runs in
      * @param period    The interval between task executions
      * @param timeUnit  The time unit for the period parameter
      */
-    private static void scheduleTask(Runnable task, long period, TimeUnit timeUnit) {
-        scheduler.scheduleAtFixedRate(task, random.nextInt(5), period, timeUnit);
+    private static void scheduleTask(int patientId, Consumer<OutputStrategy> task, long period, TimeUnit timeUnit) {
+        // Simulated time passes at the speed of the scheduler when stepping through it
+        double scale = asFastAsPossible ? 1.0 : speed;
+        long initialDelayMillis = Math.round(timeUnit.toMillis(random.nextInt(5)) / scale);
+        long periodMillis = Math.max(1, Math.round(timeUnit.toMillis(period) / scale));
+        simulationScheduler.schedule(patientId, task, initialDelayMillis, periodMillis, TimeUnit.MILLISECONDS);
     }
 }
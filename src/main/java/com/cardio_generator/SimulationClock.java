@@ -0,0 +1,69 @@
+package com.cardio_generator;
+
+/**
+ * The time the data generators stamp their readings with. Reading the time through a
+ * clock rather than {@link System#currentTimeMillis()} lets the simulator run faster than
+ * real time, or step through simulated time as fast as it can.
+ */
+@FunctionalInterface
+public interface SimulationClock {
+
+    /**
+     * @return the current simulated time in milliseconds since the epoch
+     */
+    long currentTimeMillis();
+
+    /**
+     * @return a clock that follows the system clock
+     */
+    static SimulationClock system() {
+        return System::currentTimeMillis;
+    }
+
+    /**
+     * Creates a clock that starts at the current time and runs {@code speed} times as
+     * fast as the system clock.
+     *
+     * @param speed how many simulated milliseconds pass per real millisecond
+     * @return the clock
+     */
+    static SimulationClock scaled(double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be positive: " + speed);
+        }
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        return () -> startMillis + (long) ((System.nanoTime() - startNanos) / 1_000_000.0 * speed);
+    }
+
+    /**
+     * A clock that only moves when it is set, used to step through simulated time.
+     */
+    final class ManualClock implements SimulationClock {
+        private volatile long millis;
+
+        /**
+         * @param startMillis the initial time
+         */
+        public ManualClock(long startMillis) {
+            this.millis = startMillis;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return millis;
+        }
+
+        /**
+         * Sets the time. The time never goes backwards.
+         *
+         * @param newMillis the new time
+         */
+        public void set(long newMillis) {
+            if (newMillis < millis) {
+                throw new IllegalArgumentException("Clock cannot go backwards: " + newMillis + " < " + millis);
+            }
+            millis = newMillis;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.cardio_generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.cardio_generator.outputs.BatchingOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.logging.Logger;
+
+/**
+ * Runs the periodic generator tasks of many patients on a few tick loops instead of one
+ * scheduled task, and potentially one thread, per patient and data type.
+ * <p>
+ * Patients are spread over a fixed number of loops, normally one per core. Each loop
+ * owns a timing wheel: a ring of buckets, one per tick, holding the tasks due in that
+ * tick together with the number of full turns of the wheel still to go. Every tick a
+ * loop takes the tasks due from the current bucket and runs them as one batch, then
+ * puts each task back into the bucket of its next run. Scheduling costs O(1), and a
+ * tick costs the number of due tasks, not the number of patients.
+ * </p>
+ * <p>
+ * The loops are driven by a {@link ScheduledExecutorService} with one thread per loop.
+ * Batches run on the loop thread by default. If a dispatch executor is given, batches
+ * are handed to it in chunks instead, so that tasks that block on their output do not
+ * delay the ticks; a task that is still running when it is due again skips that run.
+ * With Java 21 or later {@link #newVirtualThreadExecutor()} provides a virtual thread
+ * per chunk. A loop that falls behind catches up on the ticks it missed, so runs keep
+ * their period on average and the lag of each tick is reported by
+ * {@link #getMaxTickLagMillis()}.
+ * </p>
+ * <p>
+ * Tasks that output readings are given the output to write to when they run. With a
+ * {@link BatchingOutputStrategy} set, each batch or chunk takes one of its batches and
+ * passes it to all of its tasks, so that their readings reach the output as one block.
+ * </p>
+ * <p>
+ * A scheduler created with a {@link SimulationClock.ManualClock} has no loop threads.
+ * Instead, {@link #runUntil(long)} steps through simulated time on the calling thread as
+ * fast as it can, setting the clock to the time of each tick before running its tasks,
+ * which makes the order of the runs reproducible.
+ * </p>
+ */
+public class SimulationScheduler {
+    private static final Logger LOG = Logger.getLogger(SimulationScheduler.class).rateLimited(20);
+
+    /** Default length of a tick in milliseconds */
+    public static final long DEFAULT_TICK_MILLIS = 50;
+    /** Number of buckets of each wheel, one minute of 50 ms ticks */
+    private static final int WHEEL_SIZE = 1024;
+    /** Number of tasks handed to the dispatch executor at a time */
+    private static final int CHUNK_SIZE = 256;
+
+    private final ExecutorService dispatchExecutor;
+    private final long tickMillis;
+    private final TickLoop[] loops;
+    private final long startNanos = System.nanoTime();
+    // Set when stepping through simulated time instead of following the system clock
+    private final SimulationClock.ManualClock manualClock;
+    private final long startMillis;
+    private volatile long simulatedTick;
+    private volatile BatchingOutputStrategy batchOutput;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder skippedRuns = new LongAdder();
+    private final AtomicLong maxTickLagNanos = new AtomicLong();
+    private final AtomicLong taskCount = new AtomicLong();
+
+    /**
+     * Creates a scheduler whose batches run on the loop threads.
+     *
+     * @param driver    the executor that runs the tick loops, with one thread per loop
+     * @param loopCount the number of tick loops
+     */
+    public SimulationScheduler(ScheduledExecutorService driver, int loopCount) {
+        this(driver, loopCount, DEFAULT_TICK_MILLIS, null);
+    }
+
+    /**
+     * Creates a scheduler and starts its tick loops.
+     *
+     * @param driver           the executor that runs the tick loops, with one thread per
+     *                         loop
+     * @param loopCount        the number of tick loops
+     * @param tickMillis       the length of a tick, which is the scheduling precision
+     * @param dispatchExecutor where due tasks run, or null to run them on the loop
+     *                         threads
+     */
+    public SimulationScheduler(ScheduledExecutorService driver, int loopCount, long tickMillis,
+                               ExecutorService dispatchExecutor) {
+        if (loopCount <= 0 || tickMillis <= 0) {
+            throw new IllegalArgumentException("Loop count and tick must be positive");
+        }
+        this.dispatchExecutor = dispatchExecutor;
+        this.tickMillis = tickMillis;
+        this.manualClock = null;
+        this.startMillis = 0;
+        this.loops = new TickLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new TickLoop();
+            driver.scheduleAtFixedRate(loops[i]::tick, 0, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Creates a scheduler that steps through simulated time with {@link #runUntil(long)}.
+     *
+     * @param clock      the clock the generators read, set to the time of each tick
+     * @param loopCount  the number of tick loops
+     * @param tickMillis the length of a tick in simulated milliseconds
+     */
+    public SimulationScheduler(SimulationClock.ManualClock clock, int loopCount, long tickMillis) {
+        if (loopCount <= 0 || tickMillis <= 0) {
+            throw new IllegalArgumentException("Loop count and tick must be positive");
+        }
+        this.dispatchExecutor = null;
+        this.tickMillis = tickMillis;
+        this.manualClock = clock;
+        this.startMillis = clock.currentTimeMillis();
+        this.loops = new TickLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new TickLoop();
+        }
+    }
+
+    /**
+     * Runs the tasks due up to a simulated time, without waiting between the ticks.
+     * Only for schedulers created with a manual clock.
+     *
+     * @param endMillis the simulated time to stop at
+     */
+    public void runUntil(long endMillis) {
+        if (manualClock == null) {
+            throw new IllegalStateException("The scheduler follows the system clock");
+        }
+        while (startMillis + simulatedTick * tickMillis <= endMillis) {
+            manualClock.set(startMillis + simulatedTick * tickMillis);
+            for (TickLoop loop : loops) {
+                loop.tick();
+            }
+            simulatedTick++;
+        }
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread.
+     *
+     * @return the executor, or null if this JVM has no virtual threads (before Java 21)
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Schedules a task to run periodically for a patient. All tasks of a patient run on
+     * the same loop.
+     *
+     * @param patientId    the patient the task generates data for
+     * @param task         the task
+     * @param initialDelay the delay before the first run
+     * @param period       the time between runs
+     * @param timeUnit     the unit of the delay and the period
+     */
+    public void schedule(int patientId, Runnable task, long initialDelay, long period, TimeUnit timeUnit) {
+        schedule(patientId, output -> task.run(), initialDelay, period, timeUnit, false);
+    }
+
+    /**
+     * Schedules a task that outputs readings to run periodically for a patient. Each run
+     * is given the batch of the chunk it runs in, see
+     * {@link #setBatchOutput(BatchingOutputStrategy)}.
+     *
+     * @param patientId    the patient the task generates data for
+     * @param task         the task, given the output to write its readings to
+     * @param initialDelay the delay before the first run
+     * @param period       the time between runs
+     * @param timeUnit     the unit of the delay and the period
+     * @throws IllegalStateException if no batch output was set
+     */
+    public void schedule(int patientId, Consumer<OutputStrategy> task, long initialDelay, long period,
+                         TimeUnit timeUnit) {
+        schedule(patientId, task, initialDelay, period, timeUnit, true);
+    }
+
+    private void schedule(int patientId, Consumer<OutputStrategy> task, long initialDelay, long period,
+                          TimeUnit timeUnit, boolean outputs) {
+        if (outputs && batchOutput == null) {
+            throw new IllegalStateException("Set the batch output before scheduling tasks that output");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        long periodTicks = Math.max(1, timeUnit.toMillis(period) / tickMillis);
+        long delayTicks = timeUnit.toMillis(initialDelay) / tickMillis;
+        Entry entry = new Entry(task, periodTicks, currentTick() + delayTicks);
+        loops[Math.floorMod(patientId, loops.length)].pending.add(entry);
+        taskCount.incrementAndGet();
+    }
+
+    /**
+     * Sets where the tasks that output readings write to. Every batch, or chunk of a
+     * batch, acquires one batch of the output, hands it to each of its tasks and releases
+     * it when they are done.
+     *
+     * @param batchOutput the output
+     */
+    public void setBatchOutput(BatchingOutputStrategy batchOutput) {
+        this.batchOutput = batchOutput;
+    }
+
+    /**
+     * @return the number of scheduled tasks
+     */
+    public long getTaskCount() {
+        return taskCount.get();
+    }
+
+    /**
+     * @return the number of task runs so far
+     */
+    public long getRunCount() {
+        return runs.sum();
+    }
+
+    /**
+     * @return the number of runs skipped because the previous run of the task was still
+     *         in progress
+     */
+    public long getSkippedRunCount() {
+        return skippedRuns.sum();
+    }
+
+    /**
+     * @return the largest delay, in milliseconds, between the time a tick was due and
+     *         the time its batch was started
+     */
+    public double getMaxTickLagMillis() {
+        return maxTickLagNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * @return the number of tick loops
+     */
+    public int getLoopCount() {
+        return loops.length;
+    }
+
+    private long currentTick() {
+        if (manualClock != null) {
+            return simulatedTick;
+        }
+        return (System.nanoTime() - startNanos) / TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    }
+
+    private void dispatch(List<Entry> batch) {
+        if (dispatchExecutor == null) {
+            runChunk(batch);
+            return;
+        }
+        for (int from = 0; from < batch.size(); from += CHUNK_SIZE) {
+            List<Entry> chunk = new ArrayList<>(batch.subList(from, Math.min(batch.size(), from + CHUNK_SIZE)));
+            try {
+                dispatchExecutor.execute(() -> runChunk(chunk));
+            } catch (RejectedExecutionException e) {
+                // the executor is shutting down: release the tasks so they are not stuck
+                for (Entry entry : chunk) {
+                    entry.running.set(false);
+                }
+            }
+        }
+    }
+
+    private void runChunk(List<Entry> chunk) {
+        BatchingOutputStrategy output = batchOutput;
+        BatchingOutputStrategy.Batch readings = output != null ? output.acquire() : null;
+        for (Entry entry : chunk) {
+            entry.run(readings);
+        }
+        if (readings != null) {
+            try {
+                output.release(readings);
+            } catch (RuntimeException e) {
+                LOG.error("Simulation output failed: {}", e);
+            }
+        }
+    }
+
+    /**
+     * A periodic task.
+     */
+    private final class Entry {
+        private final Consumer<OutputStrategy> task;
+        private final long periodTicks;
+        private final AtomicBoolean running = new AtomicBoolean();
+        // Owned by the loop thread
+        private long dueTick;
+        private long remainingRounds;
+        private Entry next;
+
+        private Entry(Consumer<OutputStrategy> task, long periodTicks, long dueTick) {
+            this.task = task;
+            this.periodTicks = periodTicks;
+            this.dueTick = dueTick;
+        }
+
+        private void run(OutputStrategy output) {
+            try {
+                task.accept(output);
+                runs.increment();
+            } catch (RuntimeException e) {
+                // keep the loop alive: a failed run does not cancel the task
+                LOG.error("Simulation task failed: {}", e);
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * One timing wheel and the patients assigned to it. {@link #tick()} is only ever
+     * run by one thread at a time.
+     */
+    private final class TickLoop {
+        private final Entry[] wheel = new Entry[WHEEL_SIZE];
+        private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+        private final List<Entry> batch = new ArrayList<>();
+        private final List<Entry> rescheduled = new ArrayList<>();
+        // Next tick to process
+        private long tick;
+
+        private void tick() {
+            long now = currentTick();
+            while (tick <= now) {
+                if (manualClock == null) {
+                    long lag = System.nanoTime() - startNanos - tick * TimeUnit.MILLISECONDS.toNanos(tickMillis);
+                    maxTickLagNanos.accumulateAndGet(lag, Math::max);
+                }
+
+                Entry entry;
+                while ((entry = pending.poll()) != null) {
+                    insert(entry);
+                }
+                collectDue();
+                tick++;
+                // Reinserted once the tick is over, so their wheel turns count from the next tick
+                for (Entry due : rescheduled) {
+                    insert(due);
+                }
+                rescheduled.clear();
+                if (!batch.isEmpty()) {
+                    dispatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+
+        private void insert(Entry entry) {
+            // A task that is already due goes into the current tick
+            long due = Math.max(entry.dueTick, tick);
+            entry.remainingRounds = (due - tick) / WHEEL_SIZE;
+            int bucket = (int) (due % WHEEL_SIZE);
+            entry.next = wheel[bucket];
+            wheel[bucket] = entry;
+        }
+
+        private void collectDue() {
+            int bucket = (int) (tick % WHEEL_SIZE);
+            Entry entry = wheel[bucket];
+            wheel[bucket] = null;
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                if (entry.remainingRounds > 0) {
+                    entry.remainingRounds--;
+                    entry.next = wheel[bucket];
+                    wheel[bucket] = entry;
+                } else {
+                    if (entry.running.compareAndSet(false, true)) {
+                        batch.add(entry);
+                    } else {
+                        skippedRuns.increment();
+                    }
+                    entry.dueTick += entry.periodTicks;
+                    rescheduled.add(entry);
+                }
+                entry = next;
+            }
+        }
+    }
+}
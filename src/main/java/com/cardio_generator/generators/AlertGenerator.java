@@ -1,7 +1,6 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
+import com.cardio_generator.SimulationClock;
 import com.cardio_generator.outputs.OutputStrategy;
 
 /**
@@ -28,8 +27,11 @@ import com.cardio_generator.outputs.OutputStrategy;
  */
 public class AlertGenerator implements PatientDataGenerator {
 
-    // Generate random number for alert state changes.
-    public static final Random randomGenerator = new Random();
+    // Source of the timestamps of the alerts
+    private final SimulationClock clock;
+
+    // Per-patient random number streams for alert state changes.
+    private final PatientRandoms randoms;
 
     /** 
      * Probability that an active alert will be resolved during a check cycle.
@@ -51,6 +53,20 @@ public class AlertGenerator implements PatientDataGenerator {
      * @param patientCount The maximum number of patients to simulate alerts for
      */
     public AlertGenerator(int patientCount) {
+        this(patientCount, SimulationClock.system(), PatientRandoms.randomSeed());
+    }
+
+    /**
+     * Creates a new AlertGenerator that reads the time from the given clock and draws its
+     * decisions from per-patient streams of the given seed.
+     *
+     * @param patientCount The maximum number of patients to simulate alerts for
+     * @param clock        The simulation clock
+     * @param seed         The simulation seed
+     */
+    public AlertGenerator(int patientCount, SimulationClock clock, long seed) {
+        this.clock = clock;
+        this.randoms = new PatientRandoms(patientCount, seed, "Alert");
         alertStates = new boolean[patientCount + 1];
     }
 
@@ -77,20 +93,20 @@ public class AlertGenerator implements PatientDataGenerator {
         try {
             if (alertStates[patientId]) { // Patient currently has an active alert.
                 // Check if the alert should be resolved.
-                if (randomGenerator.nextDouble() < RESOLUTION_PROBABILITY) {
+                if (randoms.forPatient(patientId).nextDouble() < RESOLUTION_PROBABILITY) {
                     alertStates[patientId] = false;
                     // Output the alert resolution.
-                    outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "resolved");
+                    outputStrategy.output(patientId, clock.currentTimeMillis(), "Alert", "resolved");
                 }
             } else { // Patient has no active alert. Check if an alert should be triggered.
                 // Calculate probability of at least one event in Poisson process.
                 double p = -Math.expm1(-ALERT_RATE_LAMBDA);
-                boolean alertTriggered = randomGenerator.nextDouble() < p;
+                boolean alertTriggered = randoms.forPatient(patientId).nextDouble() < p;
 
                 if (alertTriggered) {
                     alertStates[patientId] = true;
                     // Output the alert
-                    outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "triggered");
+                    outputStrategy.output(patientId, clock.currentTimeMillis(), "Alert", "triggered");
                 }
             }
         } catch (Exception e) {
@@ -1,7 +1,6 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
-
+import com.cardio_generator.SimulationClock;
 import com.cardio_generator.outputs.OutputStrategy;
 
 /**
@@ -24,8 +23,11 @@ import com.cardio_generator.outputs.OutputStrategy;
  */
 public class BloodSaturationDataGenerator implements PatientDataGenerator {
 
-    // Random number generator for creating variations in saturation values
-    private static final Random random = new Random();
+    // Source of the timestamps of the readings
+    private final SimulationClock clock;
+
+    // Per-patient random number streams for creating variations in saturation values
+    private final PatientRandoms randoms;
 
     /**
      * Stores the most recently generated saturation value for each patient.
@@ -43,11 +45,25 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
      * @param patientCount The maximum number of patients to generate data for
     */
     public BloodSaturationDataGenerator(int patientCount) {
+        this(patientCount, SimulationClock.system(), PatientRandoms.randomSeed());
+    }
+
+    /**
+     * Creates a generator that reads the time from the given clock and draws its values
+     * from per-patient streams of the given seed.
+     *
+     * @param patientCount The maximum number of patients to generate data for
+     * @param clock        The simulation clock
+     * @param seed         The simulation seed
+     */
+    public BloodSaturationDataGenerator(int patientCount, SimulationClock clock, long seed) {
+        this.clock = clock;
+        this.randoms = new PatientRandoms(patientCount, seed, "BloodSaturation");
         lastSaturationValues = new int[patientCount + 1];
 
         // Initialize with baseline saturation values for each patient
         for (int i = 1; i <= patientCount; i++) {
-            lastSaturationValues[i] = 95 + random.nextInt(6); // Initializes with a value between 95 and 100
+            lastSaturationValues[i] = 95 + randoms.forPatient(i).nextInt(6); // Initializes with a value between 95 and 100
         }
     }
 
@@ -74,13 +90,13 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
             // Simulate blood saturation values
-            int variation = random.nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
+            int variation = randoms.forPatient(patientId).nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
             int newSaturationValue = lastSaturationValues[patientId] + variation;
 
             // Ensure the saturation stays within a realistic and healthy range
             newSaturationValue = Math.min(Math.max(newSaturationValue, 90), 100);
             lastSaturationValues[patientId] = newSaturationValue;
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Saturation",
+            outputStrategy.output(patientId, clock.currentTimeMillis(), "Saturation",
                     Double.toString(newSaturationValue) + "%");
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood saturation data for patient " + patientId);
@@ -1,15 +1,34 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
+import com.cardio_generator.SimulationClock;
 import com.cardio_generator.outputs.OutputStrategy;
 
 public class ECGDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private final SimulationClock clock;
+    private final PatientRandoms randoms;
+    // Time the waveform starts at, so that a seeded run repeats the same values
+    private final long startMillis;
     private double[] lastEcgValues;
     private static final double PI = Math.PI;
 
     public ECGDataGenerator(int patientCount) {
+        this(patientCount, SimulationClock.system(), PatientRandoms.randomSeed());
+    }
+
+    /**
+     * Creates a generator that reads the time from the given clock and draws its values
+     * from per-patient streams of the given seed.
+     *
+     * @param patientCount the highest patient ID
+     * @param clock        the simulation clock
+     * @param seed         the simulation seed
+     */
+    public ECGDataGenerator(int patientCount, SimulationClock clock, long seed) {
+        this.clock = clock;
+        this.randoms = new PatientRandoms(patientCount, seed, "ECG");
+        this.startMillis = clock.currentTimeMillis();
         lastEcgValues = new double[patientCount + 1];
         // Initialize the last ECG value for each patient
         for (int i = 1; i <= patientCount; i++) {
@@ -21,8 +40,9 @@ public class ECGDataGenerator implements PatientDataGenerator {
     public void generate(int patientId, OutputStrategy outputStrategy) {
         // TODO Check how realistic this data is and make it more realistic if necessary
         try {
-            double ecgValue = simulateEcgWaveform(patientId, lastEcgValues[patientId]);
-            outputStrategy.output(patientId, System.currentTimeMillis(), "ECG", Double.toString(ecgValue));
+            long timestamp = clock.currentTimeMillis();
+            double ecgValue = simulateEcgWaveform(patientId, timestamp, lastEcgValues[patientId]);
+            outputStrategy.output(patientId, timestamp, "ECG", Double.toString(ecgValue));
             lastEcgValues[patientId] = ecgValue;
         } catch (Exception e) {
             System.err.println("An error occurred while generating ECG data for patient " + patientId);
@@ -30,10 +50,11 @@ public class ECGDataGenerator implements PatientDataGenerator {
         }
     }
 
-    private double simulateEcgWaveform(int patientId, double lastEcgValue) {
+    private double simulateEcgWaveform(int patientId, long timestamp, double lastEcgValue) {
         // Simplified ECG waveform generation based on sinusoids
+        SplittableRandom random = randoms.forPatient(patientId);
         double hr = 60.0 + random.nextDouble() * 20.0; // Simulate heart rate variability between 60 and 80 bpm
-        double t = System.currentTimeMillis() / 1000.0; // Use system time to simulate continuous time
+        double t = (timestamp - startMillis) / 1000.0; // Use the simulation time to simulate continuous time
         double ecgFrequency = hr / 60.0; // Convert heart rate to Hz
 
         // Simulate different components of the ECG signal
@@ -0,0 +1,47 @@
+package com.cardio_generator.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * One random number stream per patient for a generator.
+ * <p>
+ * The streams are split off a root seeded from the simulation seed and the name of the
+ * generator, so a seeded run produces the same values for every patient however the
+ * tasks of the patients are interleaved, and generators do not share streams. A stream
+ * is only used by the task of its patient, so it needs no locking.
+ * </p>
+ */
+public final class PatientRandoms {
+    private final SplittableRandom[] randoms;
+
+    /**
+     * Creates the streams of a generator.
+     *
+     * @param patientCount the highest patient ID
+     * @param seed         the simulation seed
+     * @param generator    the name of the generator, which separates its streams from
+     *                     those of the other generators
+     */
+    public PatientRandoms(int patientCount, long seed, String generator) {
+        SplittableRandom root = new SplittableRandom(seed ^ generator.hashCode() * 0x9E3779B97F4A7C15L);
+        randoms = new SplittableRandom[patientCount + 1];
+        for (int i = 0; i <= patientCount; i++) {
+            randoms[i] = root.split();
+        }
+    }
+
+    /**
+     * @return a seed for a run that does not need to be reproducible
+     */
+    public static long randomSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * @param patientId the patient ID
+     * @return the stream of the patient
+     */
+    public SplittableRandom forPatient(int patientId) {
+        return randoms[patientId];
+    }
+}
@@ -0,0 +1,192 @@
+package com.cardio_generator.generators;
+
+import java.util.SplittableRandom;
+
+import com.cardio_generator.SimulationClock;
+import com.cardio_generator.outputs.OutputStrategy;
+
+/**
+ * Generates ECG signals sampled at a realistic rate, such as 250 or 500 Hz, instead of
+ * one value per second.
+ * <p>
+ * Each call to {@link #generate(int, OutputStrategy)} produces the samples of the
+ * patient since the previous call and sends them to the output strategy as one block
+ * (see {@link OutputStrategy#outputSamples}). The waveform is read from a beat
+ * template: one heartbeat with its P wave, QRS complex and T wave, computed once as a
+ * table. A sample only advances the phase of the patient's beat and interpolates
+ * linearly between two entries of the table, so no trigonometry runs per sample.
+ * </p>
+ * <p>
+ * Every patient has their own heart rate, which drifts from beat to beat between 55 and
+ * 95 bpm, plus a slow baseline wander and a little measurement noise.
+ * </p>
+ */
+public class SampledECGDataGenerator implements PatientDataGenerator {
+    /** Default sampling rate in Hz */
+    public static final int DEFAULT_SAMPLE_RATE = 250;
+    /** Highest sampling rate: samples must have distinct millisecond timestamps */
+    public static final int MAX_SAMPLE_RATE = 1000;
+
+    // Samples of one beat; one extra entry so that interpolation never wraps
+    private static final int TEMPLATE_SIZE = 1024;
+    private static final double[] BEAT_TEMPLATE = buildTemplate();
+
+    // Longest gap between two calls that is filled with samples
+    private static final long MAX_BLOCK_MILLIS = 10_000;
+
+    private final SimulationClock clock;
+    private final PatientRandoms randoms;
+    private final int sampleRate;
+    private final ThreadLocal<long[]> timestampBlock;
+    private final ThreadLocal<double[]> valueBlock;
+
+    // Per patient: time of the next sample, phase within the beat (0 to 1) and heart rate
+    private final long[] nextSampleIndex;
+    private final long[] firstSampleTime;
+    private final double[] beatPhase;
+    private final double[] heartRate;
+    private final double[] baseline;
+
+    /**
+     * Creates a generator at the default sampling rate that follows the system clock.
+     *
+     * @param patientCount the highest patient ID
+     */
+    public SampledECGDataGenerator(int patientCount) {
+        this(patientCount, DEFAULT_SAMPLE_RATE, SimulationClock.system(), PatientRandoms.randomSeed());
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param patientCount the highest patient ID
+     * @param sampleRate   the number of samples per second, at most
+     *                     {@link #MAX_SAMPLE_RATE}
+     * @param clock        the simulation clock
+     * @param seed         the simulation seed
+     */
+    public SampledECGDataGenerator(int patientCount, int sampleRate, SimulationClock clock, long seed) {
+        if (sampleRate <= 0 || sampleRate > MAX_SAMPLE_RATE) {
+            throw new IllegalArgumentException("Sample rate must be between 1 and " + MAX_SAMPLE_RATE + " Hz");
+        }
+        this.clock = clock;
+        this.randoms = new PatientRandoms(patientCount, seed, "SampledECG");
+        this.sampleRate = sampleRate;
+        int blockSize = (int) (MAX_BLOCK_MILLIS * sampleRate / 1000) + 1;
+        this.timestampBlock = ThreadLocal.withInitial(() -> new long[blockSize]);
+        this.valueBlock = ThreadLocal.withInitial(() -> new double[blockSize]);
+
+        nextSampleIndex = new long[patientCount + 1];
+        firstSampleTime = new long[patientCount + 1];
+        beatPhase = new double[patientCount + 1];
+        heartRate = new double[patientCount + 1];
+        baseline = new double[patientCount + 1];
+        for (int i = 1; i <= patientCount; i++) {
+            SplittableRandom random = randoms.forPatient(i);
+            firstSampleTime[i] = -1;
+            beatPhase[i] = random.nextDouble();
+            heartRate[i] = 60 + random.nextDouble() * 20;
+        }
+    }
+
+    /**
+     * @return the number of samples per second
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public void generate(int patientId, OutputStrategy outputStrategy) {
+        try {
+            long now = clock.currentTimeMillis();
+            if (firstSampleTime[patientId] < 0) {
+                // First block: the second before now
+                firstSampleTime[patientId] = now - 1000;
+            }
+            // Sample times are computed from the index, so they do not drift at rates
+            // that do not divide 1000
+            long first = firstSampleTime[patientId];
+            long index = nextSampleIndex[patientId];
+            long end = (now - first) * sampleRate / 1000;
+            long maxCount = MAX_BLOCK_MILLIS * sampleRate / 1000;
+            if (end - index > maxCount) {
+                index = end - maxCount; // skip what was missed after a long pause
+            }
+            int count = (int) Math.max(0, end - index);
+            if (count == 0) {
+                return;
+            }
+
+            long[] timestamps = timestampBlock.get();
+            double[] values = valueBlock.get();
+            fillSamples(patientId, index, count, timestamps, values);
+            nextSampleIndex[patientId] = index + count;
+            outputStrategy.outputSamples(patientId, "ECG", timestamps, values, count);
+        } catch (Exception e) {
+            System.err.println("An error occurred while generating sampled ECG data for patient " + patientId);
+            e.printStackTrace();
+        }
+    }
+
+    private void fillSamples(int patientId, long index, int count, long[] timestamps, double[] values) {
+        SplittableRandom random = randoms.forPatient(patientId);
+        long first = firstSampleTime[patientId];
+        double phase = beatPhase[patientId];
+        double rate = heartRate[patientId];
+        // Baseline wander moves linearly through the block towards a new random level
+        double wanderStart = baseline[patientId];
+        double wanderEnd = 0.9 * wanderStart + (random.nextDouble() - 0.5) * 0.04;
+        double phaseStep = rate / 60.0 / sampleRate;
+
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = first + (index + i) * 1000 / sampleRate;
+
+            double position = phase * TEMPLATE_SIZE;
+            int entry = (int) position;
+            double fraction = position - entry;
+            double beat = BEAT_TEMPLATE[entry] + fraction * (BEAT_TEMPLATE[entry + 1] - BEAT_TEMPLATE[entry]);
+            double wander = wanderStart + (wanderEnd - wanderStart) * i / count;
+            values[i] = beat + wander + (random.nextDouble() - 0.5) * 0.02;
+
+            phase += phaseStep;
+            if (phase >= 1.0) {
+                // New beat: the heart rate drifts a little. At low sampling rates a step
+                // can cover more than one beat
+                phase -= Math.floor(phase);
+                rate = Math.min(95, Math.max(55, rate + (random.nextDouble() - 0.5) * 4));
+                phaseStep = rate / 60.0 / sampleRate;
+            }
+        }
+
+        beatPhase[patientId] = phase;
+        heartRate[patientId] = rate;
+        baseline[patientId] = wanderEnd;
+    }
+
+    /**
+     * Builds one beat, in millivolts, as a sum of Gaussian waves: P, Q, R, S and T, at
+     * their usual positions within the beat.
+     */
+    private static double[] buildTemplate() {
+        // position within the beat, width and amplitude of each wave
+        double[][] waves = {
+            {0.18, 0.025, 0.12},   // P
+            {0.355, 0.008, -0.12}, // Q
+            {0.38, 0.01, 1.1},     // R
+            {0.405, 0.01, -0.25},  // S
+            {0.65, 0.045, 0.3}     // T
+        };
+        double[] template = new double[TEMPLATE_SIZE + 1];
+        for (int i = 0; i <= TEMPLATE_SIZE; i++) {
+            double x = (double) i / TEMPLATE_SIZE;
+            double value = 0;
+            for (double[] wave : waves) {
+                double distance = (x - wave[0]) / wave[1];
+                value += wave[2] * Math.exp(-0.5 * distance * distance);
+            }
+            template[i] = value;
+        }
+        return template;
+    }
+}
@@ -0,0 +1,27 @@
+package com.cardio_generator.outputs;
+
+/**
+ * An {@link OutputStrategy} that can also output a whole {@link ReadingBlock} at once,
+ * so that it formats and sends many readings with one write or one message instead of
+ * one per reading.
+ */
+public interface BatchOutputStrategy extends OutputStrategy {
+
+    /**
+     * Outputs all readings of a block, in order. The block is reused by the caller once
+     * this method returns.
+     *
+     * @param block the readings
+     */
+    void outputBatch(ReadingBlock block);
+
+    /**
+     * Outputs the samples as a block.
+     */
+    @Override
+    default void outputSamples(int patientId, String label, long[] timestamps, double[] values, int count) {
+        ReadingBlock block = new ReadingBlock(count);
+        block.addSamples(patientId, label, timestamps, values, count);
+        outputBatch(block);
+    }
+}
@@ -0,0 +1,183 @@
+package com.cardio_generator.outputs;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects readings into {@link ReadingBlock}s and hands each block to another strategy
+ * at once.
+ * <p>
+ * Readings are collected per {@link Batch}. The simulator takes a batch for every chunk
+ * of generator tasks with {@link #acquire()}, passes it to the tasks as their output and
+ * gives it back with {@link #release(Batch)}, so a tick of the simulation reaches the
+ * output as one block. Released batches are reused, which matters when each chunk runs
+ * on a new virtual thread. Readings output on this strategy itself go to a batch of the
+ * calling thread, flushed when the thread calls {@link #flush()}.
+ * </p>
+ * <p>
+ * Blocks go to {@link BatchOutputStrategy#outputBatch(ReadingBlock)} when the target
+ * supports it, and reading by reading otherwise. A block that reaches the maximum size
+ * is flushed straight away.
+ * </p>
+ */
+public class BatchingOutputStrategy implements BatchOutputStrategy {
+    /** Default number of readings after which a block is flushed without waiting */
+    public static final int DEFAULT_MAX_BLOCK_SIZE = 8192;
+
+    private final OutputStrategy target;
+    private final int maxBlockSize;
+    // Used by callers that output without a batch of their own
+    private final ThreadLocal<Batch> threadBatches = ThreadLocal.withInitial(Batch::new);
+    // Batches released by finished units of work, reused by the next ones
+    private final Queue<Batch> idleBatches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a batching strategy with the default maximum block size.
+     *
+     * @param target where the blocks go
+     */
+    public BatchingOutputStrategy(OutputStrategy target) {
+        this(target, DEFAULT_MAX_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a batching strategy.
+     *
+     * @param target       where the blocks go
+     * @param maxBlockSize the number of readings after which a block is flushed
+     */
+    public BatchingOutputStrategy(OutputStrategy target, int maxBlockSize) {
+        if (target == null) {
+            throw new IllegalArgumentException("Output strategy must not be null");
+        }
+        if (maxBlockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + maxBlockSize);
+        }
+        this.target = target;
+        this.maxBlockSize = maxBlockSize;
+    }
+
+    /**
+     * @return the strategy the blocks go to
+     */
+    public OutputStrategy getTarget() {
+        return target;
+    }
+
+    /**
+     * Adds a reading to the calling thread's batch.
+     */
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        threadBatches.get().output(patientId, timestamp, label, data);
+    }
+
+    /**
+     * Adds the samples to the calling thread's batch.
+     */
+    @Override
+    public void outputSamples(int patientId, String label, long[] timestamps, double[] values, int count) {
+        threadBatches.get().outputSamples(patientId, label, timestamps, values, count);
+    }
+
+    /**
+     * Adds the readings of a block to the calling thread's batch.
+     */
+    @Override
+    public void outputBatch(ReadingBlock readings) {
+        threadBatches.get().outputBatch(readings);
+    }
+
+    /**
+     * Hands the readings collected on the calling thread to the target.
+     */
+    public void flush() {
+        threadBatches.get().flush();
+    }
+
+    /**
+     * Takes a batch for a unit of work, such as one chunk of generator tasks, that
+     * outputs through it directly. Batches are reused, so their blocks only grow once.
+     *
+     * @return an empty batch, to be given back with {@link #release(Batch)}
+     */
+    public Batch acquire() {
+        Batch batch = idleBatches.poll();
+        return batch != null ? batch : new Batch();
+    }
+
+    /**
+     * Hands the readings of a batch to the target and keeps the batch for reuse.
+     *
+     * @param batch a batch taken with {@link #acquire()}, not used afterwards
+     */
+    public void release(Batch batch) {
+        try {
+            batch.flush();
+        } finally {
+            idleBatches.add(batch);
+        }
+    }
+
+    /**
+     * The readings of one thread or one unit of work, collected in a block that goes to
+     * the target on {@link #flush()} or when it is full. A batch is not thread-safe.
+     */
+    public final class Batch implements BatchOutputStrategy {
+        private final ReadingBlock block = new ReadingBlock();
+
+        private Batch() {
+        }
+
+        @Override
+        public void output(int patientId, long timestamp, String label, String data) {
+            block.add(patientId, timestamp, label, data);
+            flushIfFull();
+        }
+
+        @Override
+        public void outputSamples(int patientId, String label, long[] timestamps, double[] values, int count) {
+            block.addSamples(patientId, label, timestamps, values, count);
+            flushIfFull();
+        }
+
+        /**
+         * Adds the readings of a block to this batch.
+         */
+        @Override
+        public void outputBatch(ReadingBlock readings) {
+            for (int i = 0; i < readings.size(); i++) {
+                if (readings.isNumeric(i)) {
+                    block.add(readings.getPatientId(i), readings.getTimestamp(i), readings.getLabel(i), readings.getValue(i));
+                } else {
+                    block.add(readings.getPatientId(i), readings.getTimestamp(i), readings.getLabel(i), readings.getData(i));
+                }
+            }
+            flushIfFull();
+        }
+
+        /**
+         * Hands the readings collected so far to the target.
+         */
+        public void flush() {
+            if (block.isEmpty()) {
+                return;
+            }
+            try {
+                if (target instanceof BatchOutputStrategy) {
+                    ((BatchOutputStrategy) target).outputBatch(block);
+                } else {
+                    block.writeTo(target);
+                }
+            } finally {
+                block.clear();
+            }
+        }
+
+        private void flushIfFull() {
+            if (block.size() >= maxBlockSize) {
+                flush();
+            }
+        }
+    }
+}
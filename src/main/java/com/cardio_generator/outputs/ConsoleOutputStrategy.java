@@ -1,8 +1,20 @@
 package com.cardio_generator.outputs;
 
-public class ConsoleOutputStrategy implements OutputStrategy {
+public class ConsoleOutputStrategy implements BatchOutputStrategy {
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
         System.out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
     }
+
+    /**
+     * Prints the readings of a block with one write to the console.
+     */
+    @Override
+    public void outputBatch(ReadingBlock block) {
+        StringBuilder text = new StringBuilder(block.size() * 72);
+        for (int i = 0; i < block.size(); i++) {
+            block.appendDescription(i, text).append(System.lineSeparator());
+        }
+        System.out.print(text);
+    }
 }
@@ -1,11 +1,26 @@
 package com.cardio_generator.outputs;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implements the OutputStrategy interface to write patient data to files.
@@ -20,32 +35,101 @@ import java.util.concurrent.ConcurrentHashMap;
  *   <li>Uses ConcurrentHashMap to cache file paths</li>
  *   <li>Creates the base directory structure if it doesn't exist</li>
  *   <li>Appends data to existing files rather than overwriting</li>
+ *   <li>Keeps one open {@link FileChannel} per label instead of opening the file for
+ *       each reading</li>
+ *   <li>Writes a {@link ReadingBlock} with one append per label</li>
  * </ul>
  * </p>
  * <p>
+ * Writing threads add their lines to a lock-free queue of the label. Whichever thread
+ * holds the label's lock takes the lines of all threads from the queue and writes them
+ * together (group commit). By default every commit is written at once, so the lines are
+ * in the file when {@code output} returns. With a commit size, lines are kept until that
+ * many characters are waiting, or at most the commit interval. Files can also be rotated
+ * by size or age: the full file {@code [label].txt} is renamed to
+ * {@code [label].[n].txt}, and a new one is started. {@link #close()} writes the waiting
+ * lines and closes the files.
+ * </p>
+ * <p>
  * Each line in the output files follows the format:
  * {@code Patient ID: [id], Timestamp: [timestamp], Label: [label], Data: [data]}
  * </p>
  */
-public class FileOutputStrategy implements OutputStrategy { //Class name not matching the file name
+public class FileOutputStrategy implements BatchOutputStrategy, Closeable { //Class name not matching the file name
+
+    /** Commit size used by the simulator: the characters kept before a write. */
+    public static final int DEFAULT_COMMIT_CHARS = 64 * 1024;
+
+    /** Commit interval used by the simulator: the longest time lines are kept. */
+    public static final long DEFAULT_COMMIT_MILLIS = 1000;
+
+    // Size of the buffer the lines are encoded into
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
 
     // The base directory where output files will be created
     private String baseDirectory; // Change variable name to camelCase (was intially BaseDirectory)
 
-    /** 
+    /**
      * Thread-safe mapping of data labels to their corresponding file paths.
      * Used to cache file paths and avoid recalculating them for each output operation.
     */
     public final ConcurrentHashMap<String, String> file_map = new ConcurrentHashMap<>();
 
+    // The open file of each label
+    private final ConcurrentHashMap<String, LabelWriter> writers = new ConcurrentHashMap<>();
+
+    private final int commitChars;
+    private final long rotateBytes;
+    private final long rotateMillis;
+
+    // Commits the waiting lines every commit interval, null without a commit size
+    private final ScheduledExecutorService committer;
+
+    private volatile boolean closed;
+
     /**
      * Creates a new FileOutputStrategy that will write files to the specified directory.
-     * 
+     * Each reading is written at once and the files are never rotated.
+     *
      * @param baseDirectory The directory where output files should be created
     */
     public FileOutputStrategy(String baseDirectory) { // Adjust to match the updated class name
+        this(baseDirectory, 0, 0, 0, 0);
+    }
 
+    /**
+     * Creates a new FileOutputStrategy with group commits and file rotation.
+     *
+     * @param baseDirectory The directory where output files should be created
+     * @param commitChars   the characters kept per label before they are written, or 0 to
+     *                      write every reading at once
+     * @param commitMillis  the longest time lines are kept before they are written, or 0
+     *                      to keep them until the commit size is reached or the strategy is
+     *                      closed; ignored without a commit size
+     * @param rotateBytes   the size at which a file is rotated, or 0 for no size limit
+     * @param rotateMillis  the age at which a file is rotated, or 0 for no age limit
+     * @throws IllegalArgumentException if a value is negative
+     */
+    public FileOutputStrategy(String baseDirectory, int commitChars, long commitMillis,
+                              long rotateBytes, long rotateMillis) {
+        if (commitChars < 0 || commitMillis < 0 || rotateBytes < 0 || rotateMillis < 0) {
+            throw new IllegalArgumentException("Commit and rotation limits must not be negative");
+        }
         this.baseDirectory = baseDirectory; // BaseDirectory is changed into baseDirectory to give the variable a name in camelCase.
+        this.commitChars = commitChars;
+        this.rotateBytes = rotateBytes;
+        this.rotateMillis = rotateMillis;
+
+        if (commitChars > 0 && commitMillis > 0) {
+            committer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "file-output-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            committer.scheduleAtFixedRate(this::flush, commitMillis, commitMillis, TimeUnit.MILLISECONDS);
+        } else {
+            committer = null;
+        }
     }
 
     /**
@@ -53,9 +137,10 @@ public class FileOutputStrategy implements OutputStrategy { //Class name not mat
      * <p>
      * This method:
      * <ol>
-     *   <li>Ensures the base directory exists, creating it if necessary</li>
      *   <li>Determines the appropriate file path for the data label, caching it for future use</li>
-     *   <li>Appends the formatted data to the file</li>
+     *   <li>Queues the formatted line for the label's open file</li>
+     *   <li>Writes the queued lines if a commit is due, creating the base directory and
+     *       opening the file the first time</li>
      * </ol>
      * </p>
      * <p>
@@ -70,22 +155,231 @@ public class FileOutputStrategy implements OutputStrategy { //Class name not mat
     */
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
-        try {
-            // Create the directory
-            Files.createDirectories(Paths.get(baseDirectory));
-        } catch (IOException e) {
-            System.err.println("Error creating base directory: " + e.getMessage());
+        String line = "Patient ID: " + patientId + ", Timestamp: " + timestamp + ", Label: " + label
+                + ", Data: " + data + System.lineSeparator();
+        writerFor(label).submit(line);
+    }
+
+    /**
+     * Writes the readings of a block, grouped by label, with one append to each label's
+     * file. The readings of a label keep their order.
+     *
+     * @param block the readings to write
+     */
+    @Override
+    public void outputBatch(ReadingBlock block) {
+        if (block.isEmpty()) {
             return;
         }
-        // Set the FilePath variable
-        String FilePath = file_map.computeIfAbsent(label, k -> Paths.get(baseDirectory, label + ".txt").toString());
 
-        // Write the data to the file
-        try (PrintWriter out = new PrintWriter(
-                Files.newBufferedWriter(Paths.get(FilePath), StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
-            out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
-        } catch (Exception e) {
-            System.err.println("Error writing to file " + FilePath + ": " + e.getMessage());
+        Map<String, StringBuilder> linesByLabel = new LinkedHashMap<>();
+        for (int i = 0; i < block.size(); i++) {
+            StringBuilder lines = linesByLabel.computeIfAbsent(block.getLabel(i), k -> new StringBuilder());
+            block.appendDescription(i, lines).append(System.lineSeparator());
+        }
+
+        for (Map.Entry<String, StringBuilder> entry : linesByLabel.entrySet()) {
+            writerFor(entry.getKey()).submit(entry.getValue());
+        }
+    }
+
+    /**
+     * Writes the lines that are waiting for a commit. The files stay open.
+     */
+    public void flush() {
+        for (LabelWriter writer : writers.values()) {
+            writer.commit(true, false);
+        }
+    }
+
+    /**
+     * Writes the lines that are waiting for a commit, forces them to the storage device
+     * and closes the files. A commit that is running is allowed to finish first; it is
+     * not interrupted, since that would close the file channel under it. Readings output
+     * after this are written at once, reopening the file of their label and closing it
+     * again.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (committer != null) {
+            committer.shutdown();
+            try {
+                if (!committer.awaitTermination(5, TimeUnit.SECONDS)) {
+                    System.err.println("File output commit did not finish in time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (LabelWriter writer : writers.values()) {
+            writer.commit(true, true);
+        }
+    }
+
+    private LabelWriter writerFor(String label) {
+        LabelWriter writer = writers.get(label);
+        if (writer != null) {
+            return writer;
+        }
+        return writers.computeIfAbsent(label, k -> new LabelWriter(Paths.get(
+                file_map.computeIfAbsent(label, l -> Paths.get(baseDirectory, l + ".txt").toString()))));
+    }
+
+    /**
+     * The open file of one label and the lines waiting to be written to it.
+     */
+    private final class LabelWriter {
+        private final Path path;
+        private final ConcurrentLinkedQueue<CharSequence> queue = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Guarded by lock
+        private final StringBuilder pending = new StringBuilder();
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer buffer;
+        private FileChannel channel;
+        private long fileBytes;
+        private long openedMillis;
+
+        LabelWriter(Path path) {
+            this.path = path;
+        }
+
+        void submit(CharSequence lines) {
+            queue.add(lines);
+            commit(false, false);
+        }
+
+        /**
+         * Moves the queued lines to the pending lines and writes them if a commit is due.
+         * With a commit size, a thread that finds the lock taken leaves its lines to the
+         * holder, which checks the queue again after unlocking, so no line is left behind.
+         * Without one, or once the strategy is closed, the thread waits for the lock, so
+         * its lines are in the file when it returns. After closing, the file is closed
+         * again after every write.
+         */
+        void commit(boolean force, boolean closeFile) {
+            do {
+                boolean closing = closeFile || closed;
+                if (closing || commitChars == 0) {
+                    lock.lock();
+                } else if (!lock.tryLock()) {
+                    return;
+                }
+                try {
+                    CharSequence lines;
+                    while ((lines = queue.poll()) != null) {
+                        pending.append(lines);
+                    }
+                    if (force || closing || pending.length() >= commitChars) {
+                        write();
+                    }
+                    if (closing) {
+                        closeChannel(true);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } while (!queue.isEmpty());
+        }
+
+        private void write() {
+            if (pending.length() == 0) {
+                return;
+            }
+            try {
+                if (channel != null && isRotationDue()) {
+                    rotate();
+                }
+                if (channel == null) {
+                    open();
+                }
+                fileBytes += encodeAndWrite();
+            } catch (IOException e) {
+                System.err.println("Error writing to file " + path + ": " + e.getMessage());
+                closeChannel(false); // reopened by the next commit
+            } finally {
+                pending.setLength(0);
+            }
+        }
+
+        private boolean isRotationDue() {
+            if (fileBytes == 0) {
+                return false;
+            }
+            // A commit is never split over two files
+            return (rotateBytes > 0 && fileBytes + pending.length() > rotateBytes)
+                    || (rotateMillis > 0 && System.currentTimeMillis() - openedMillis >= rotateMillis);
+        }
+
+        private void open() throws IOException {
+            try {
+                Files.createDirectories(path.getParent());
+            } catch (IOException e) {
+                System.err.println("Error creating base directory: " + e.getMessage());
+                throw e;
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            fileBytes = channel.size();
+            openedMillis = System.currentTimeMillis();
+            if (buffer == null) {
+                buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            }
+        }
+
+        /**
+         * Renames the current file to the first free {@code [label].[n].txt} and closes
+         * it; the next write opens a new file.
+         */
+        private void rotate() throws IOException {
+            closeChannel(true);
+            String fileName = path.getFileName().toString();
+            String stem = fileName.substring(0, fileName.length() - ".txt".length());
+            Path rotated;
+            int index = 1;
+            do {
+                rotated = path.resolveSibling(stem + "." + index++ + ".txt");
+            } while (Files.exists(rotated));
+            Files.move(path, rotated);
+        }
+
+        private long encodeAndWrite() throws IOException {
+            CharBuffer chars = CharBuffer.wrap(pending);
+            encoder.reset();
+            long written = 0;
+            boolean flushed = false;
+            while (!flushed) {
+                CoderResult result = encoder.encode(chars, buffer, true);
+                if (result.isUnderflow()) {
+                    encoder.flush(buffer);
+                    flushed = true;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            return written;
+        }
+
+        private void closeChannel(boolean force) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                if (force) {
+                    channel.force(false);
+                }
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing file " + path + ": " + e.getMessage());
+            }
+            channel = null;
         }
     }
-}
\ No newline at end of file
+}
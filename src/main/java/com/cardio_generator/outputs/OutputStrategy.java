@@ -28,4 +28,25 @@ public interface OutputStrategy {
      * @param data       the actual measurement value or message (format depends on label)
      */
     void output(int patientId, long timestamp, String label, String data);
+
+    /**
+     * Handles a block of numeric samples of one patient and one type, such as a burst of
+     * ECG samples, in one call. The arrays are reused by the caller once this method
+     * returns.
+     * <p>
+     * By default each sample is passed to {@link #output(int, long, String, String)};
+     * strategies that can send a block at once should override this method.
+     * </p>
+     *
+     * @param patientId  the unique identifier of the patient (positive integer)
+     * @param label      the type of data being recorded (e.g., "ECG")
+     * @param timestamps the times of the samples, in milliseconds since epoch
+     * @param values     the sample values
+     * @param count      the number of samples, from the start of the arrays
+     */
+    default void outputSamples(int patientId, String label, long[] timestamps, double[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            output(patientId, timestamps[i], label, Double.toString(values[i]));
+        }
+    }
 }
@@ -0,0 +1,247 @@
+package com.cardio_generator.outputs;
+
+import java.util.Arrays;
+
+/**
+ * A reusable block of generated readings, stored column by column in primitive arrays
+ * so that a batch of readings can be handed to a {@link BatchOutputStrategy} at once.
+ * <p>
+ * A reading holds either a number, such as an ECG sample, or a text such as "95.0%" or
+ * "triggered"; numbers are only formatted when the block is written. Labels are kept by
+ * reference, so adding a reading allocates nothing once the block has grown. A block is
+ * not thread-safe.
+ * </p>
+ */
+public final class ReadingBlock {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] patientIds;
+    private long[] timestamps;
+    private String[] labels;
+    private double[] values;
+    // Data of readings that are not plain numbers, null for numeric readings
+    private String[] texts;
+    private int size;
+
+    /**
+     * Creates an empty block.
+     */
+    public ReadingBlock() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty block.
+     *
+     * @param initialCapacity the number of readings it holds before growing
+     */
+    public ReadingBlock(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        patientIds = new int[capacity];
+        timestamps = new long[capacity];
+        labels = new String[capacity];
+        values = new double[capacity];
+        texts = new String[capacity];
+    }
+
+    /**
+     * Adds a numeric reading.
+     *
+     * @param patientId the patient ID
+     * @param timestamp the time of the reading in milliseconds since epoch
+     * @param label     the type of the reading
+     * @param value     the value
+     */
+    public void add(int patientId, long timestamp, String label, double value) {
+        int i = next();
+        patientIds[i] = patientId;
+        timestamps[i] = timestamp;
+        labels[i] = label;
+        values[i] = value;
+        texts[i] = null;
+    }
+
+    /**
+     * Adds a reading whose data is a text, as passed to
+     * {@link OutputStrategy#output(int, long, String, String)}.
+     *
+     * @param patientId the patient ID
+     * @param timestamp the time of the reading in milliseconds since epoch
+     * @param label     the type of the reading
+     * @param data      the data
+     */
+    public void add(int patientId, long timestamp, String label, String data) {
+        int i = next();
+        patientIds[i] = patientId;
+        timestamps[i] = timestamp;
+        labels[i] = label;
+        values[i] = Double.NaN;
+        texts[i] = data;
+    }
+
+    /**
+     * Adds numeric samples of one patient and type.
+     *
+     * @param patientId    the patient ID
+     * @param label        the type of the samples
+     * @param sampleTimes  the times of the samples
+     * @param sampleValues the values of the samples
+     * @param count        the number of samples, from the start of the arrays
+     */
+    public void addSamples(int patientId, String label, long[] sampleTimes, double[] sampleValues, int count) {
+        ensureCapacity(size + count);
+        for (int i = 0; i < count; i++) {
+            add(patientId, sampleTimes[i], label, sampleValues[i]);
+        }
+    }
+
+    /**
+     * @return the number of readings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the block holds no readings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all readings, keeping the arrays for reuse.
+     */
+    public void clear() {
+        // Drop the references to the texts, the labels are constants
+        Arrays.fill(texts, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * @param index the index of the reading
+     * @return the patient ID of the reading
+     */
+    public int getPatientId(int index) {
+        return patientIds[checkIndex(index)];
+    }
+
+    /**
+     * @param index the index of the reading
+     * @return the timestamp of the reading
+     */
+    public long getTimestamp(int index) {
+        return timestamps[checkIndex(index)];
+    }
+
+    /**
+     * @param index the index of the reading
+     * @return the type of the reading
+     */
+    public String getLabel(int index) {
+        return labels[checkIndex(index)];
+    }
+
+    /**
+     * @param index the index of the reading
+     * @return true if the reading is a number rather than a text
+     */
+    public boolean isNumeric(int index) {
+        return texts[checkIndex(index)] == null;
+    }
+
+    /**
+     * @param index the index of the reading
+     * @return the value of a numeric reading, NaN for a text reading
+     */
+    public double getValue(int index) {
+        return values[checkIndex(index)];
+    }
+
+    /**
+     * @param index the index of the reading
+     * @return the data of the reading as {@link OutputStrategy#output} receives it
+     */
+    public String getData(int index) {
+        checkIndex(index);
+        return texts[index] != null ? texts[index] : Double.toString(values[index]);
+    }
+
+    /**
+     * Appends the data of a reading, formatted as by {@link #getData(int)}.
+     *
+     * @param index the index of the reading
+     * @param out   where to append it
+     * @return {@code out}
+     */
+    public StringBuilder appendData(int index, StringBuilder out) {
+        checkIndex(index);
+        return texts[index] != null ? out.append(texts[index]) : out.append(values[index]);
+    }
+
+    /**
+     * Appends a reading as a {@code patientId,timestamp,label,data} line, the format of
+     * the network outputs, without the line separator.
+     *
+     * @param index the index of the reading
+     * @param out   where to append it
+     * @return {@code out}
+     */
+    public StringBuilder appendCsv(int index, StringBuilder out) {
+        out.append(patientIds[checkIndex(index)]).append(',').append(timestamps[index]).append(',')
+                .append(labels[index]).append(',');
+        return appendData(index, out);
+    }
+
+    /**
+     * Appends a reading as a {@code Patient ID: [id], Timestamp: [timestamp], Label:
+     * [label], Data: [data]} line, the format of the console and file outputs, without
+     * the line separator.
+     *
+     * @param index the index of the reading
+     * @param out   where to append it
+     * @return {@code out}
+     */
+    public StringBuilder appendDescription(int index, StringBuilder out) {
+        out.append("Patient ID: ").append(patientIds[checkIndex(index)])
+                .append(", Timestamp: ").append(timestamps[index])
+                .append(", Label: ").append(labels[index])
+                .append(", Data: ");
+        return appendData(index, out);
+    }
+
+    /**
+     * Passes each reading to {@link OutputStrategy#output(int, long, String, String)}, for
+     * strategies that have no batch path.
+     *
+     * @param target the strategy
+     */
+    public void writeTo(OutputStrategy target) {
+        for (int i = 0; i < size; i++) {
+            target.output(patientIds[i], timestamps[i], labels[i], getData(i));
+        }
+    }
+
+    private int next() {
+        ensureCapacity(size + 1);
+        return size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > patientIds.length) {
+            int newCapacity = Math.max(capacity, patientIds.length * 2);
+            patientIds = Arrays.copyOf(patientIds, newCapacity);
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            labels = Arrays.copyOf(labels, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            texts = Arrays.copyOf(texts, newCapacity);
+        }
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,348 @@
+package com.cardio_generator.outputs;
+
+import com.data_management.DecimalParser;
+import com.data_management.RecordType;
+import com.logging.Logger;
+
+/**
+ * Single-pass parser for {@code patientId,timestamp,recordType,value} messages received
+ * by the {@link WebSocketDataReader}.
+ * <p>
+ * The parser walks the message once, reading each field in place instead of splitting
+ * and trimming substrings. Integers are decoded by hand and decimals by the
+ * {@link DecimalParser}, unit suffixes such as {@code mmHg} or {@code %} are skipped
+ * rather than replaced, and the record type is resolved with
+ * {@link RecordType#lookup(CharSequence, int, int)}. A valid message for a known
+ * record type therefore allocates nothing. The results are kept in the parser until the
+ * next call, so one parser should be used per thread.
+ * </p>
+ */
+public final class ReadingMessageParser {
+    private static final Logger LOG = Logger.getLogger(ReadingMessageParser.class).rateLimited(20);
+
+    // Unit suffixes that may follow a numeric value
+    private static final String[] UNIT_SUFFIXES = {"%", "mmHg", "BPM", "bpm", "°C", "°F"};
+
+    private int patientId;
+    private long timestamp;
+    private int recordTypeCode;
+    private double value;
+    private String error;
+
+    // Set by the number parsers: whether the last field was a valid number
+    private boolean numberValid;
+
+    /**
+     * Parses a message. On success the fields of the reading can be read with the
+     * getters; otherwise {@link #getError()} describes the problem, or returns null if
+     * the message should be dropped silently (e.g. a corrupted measurement value).
+     *
+     * @param message the message text
+     * @return true if the message holds a valid reading
+     */
+    public boolean parse(CharSequence message) {
+        if (message == null) {
+            error = "Received empty or null message";
+            return false;
+        }
+        return parse(message, 0, message.length());
+    }
+
+    /**
+     * Parses the message held by a region of a text, such as one line of a message that
+     * carries several readings.
+     *
+     * @param message the text holding the message
+     * @param from    the start of the message in the text
+     * @param to      the end of the message in the text, exclusive
+     * @return true if the message holds a valid reading
+     * @see #parse(CharSequence)
+     */
+    public boolean parse(CharSequence message, int from, int to) {
+        error = null;
+        int start = skipWhitespace(message, from, to);
+        int end = trimEnd(message, start, to);
+        if (start == end) {
+            error = "Received empty or null message";
+            return false;
+        }
+        // Trailing empty fields are ignored, as String.split does
+        while (end > start && message.charAt(end - 1) == ',') {
+            end--;
+        }
+
+        int firstComma = indexOf(message, ',', start, end);
+        int secondComma = firstComma < 0 ? -1 : indexOf(message, ',', firstComma + 1, end);
+        int thirdComma = secondComma < 0 ? -1 : indexOf(message, ',', secondComma + 1, end);
+        if (thirdComma < 0 || indexOf(message, ',', thirdComma + 1, end) >= 0) {
+            error = "Invalid data format in message (expected 4 parts, got "
+                    + countFields(message, start, end) + "): " + message.subSequence(from, to);
+            return false;
+        }
+
+        long id = parseLong(message, start, firstComma);
+        if (!numberValid || id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) {
+            error = "Error parsing numeric values in message: " + message.subSequence(from, to) + " - invalid patient ID";
+            return false;
+        }
+        long time = parseLong(message, firstComma + 1, secondComma);
+        if (!numberValid) {
+            error = "Error parsing numeric values in message: " + message.subSequence(from, to) + " - invalid timestamp";
+            return false;
+        }
+
+        // Validate parsed data
+        if (id <= 0) {
+            error = "Invalid patient ID (negative): " + id;
+            return false;
+        }
+        if (time < 0) {
+            error = "Invalid timestamp (negative): " + time;
+            return false;
+        }
+
+        int typeStart = skipWhitespace(message, secondComma + 1, thirdComma);
+        int typeEnd = trimEnd(message, typeStart, thirdComma);
+        if (typeStart == typeEnd) {
+            error = "Empty record type in message: " + message.subSequence(from, to);
+            return false;
+        }
+        int code = RecordType.lookup(message, typeStart, typeEnd);
+        if (code < 0) {
+            // First time this type is seen: register it
+            code = RecordType.codeOf(message.subSequence(typeStart, typeEnd).toString());
+        }
+
+        int valueStart = skipWhitespace(message, thirdComma + 1, end);
+        int valueEnd = trimEnd(message, valueStart, end);
+        double parsedValue;
+        if (code == RecordType.ALERT) {
+            parsedValue = parseAlertValue(message, valueStart, valueEnd);
+        } else {
+            parsedValue = parseMeasurement(message, valueStart, valueEnd);
+            if (!numberValid) {
+                return false; // corrupted value, dropped silently
+            }
+        }
+
+        this.patientId = (int) id;
+        this.timestamp = time;
+        this.recordTypeCode = code;
+        this.value = parsedValue;
+        return true;
+    }
+
+    /**
+     * @return the patient ID of the last parsed reading
+     */
+    public int getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * @return the timestamp of the last parsed reading
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the record type code of the last parsed reading
+     */
+    public int getRecordTypeCode() {
+        return recordTypeCode;
+    }
+
+    /**
+     * @return the measurement value of the last parsed reading
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return why the last message was rejected, or null if it was valid or dropped
+     *         silently
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Alert values are either numbers or the words "triggered" and "resolved".
+     */
+    private double parseAlertValue(CharSequence text, int start, int end) {
+        if (start < end && scanNumber(text, start, end) == end) {
+            double number = parseDecimal(text, start, end);
+            if (numberValid) {
+                return number;
+            }
+        }
+        if (equalsIgnoreCase(text, start, end, "triggered")) {
+            return 1.0;
+        }
+        if (equalsIgnoreCase(text, start, end, "resolved")) {
+            return 0.0;
+        }
+        LOG.warn("Unknown alert value: {} - defaulting to 0.0", text.subSequence(start, end));
+        return 0.0;
+    }
+
+    /**
+     * Parses a number optionally followed by one of the known unit suffixes.
+     */
+    private double parseMeasurement(CharSequence text, int start, int end) {
+        int numberEnd = scanNumber(text, start, end);
+        int rest = skipWhitespace(text, numberEnd, end);
+        if (rest < end) {
+            int unitEnd = matchUnit(text, rest, end);
+            if (unitEnd < 0 || skipWhitespace(text, unitEnd, end) != end) {
+                numberValid = false;
+                return Double.NaN;
+            }
+        }
+        return parseDecimal(text, start, numberEnd);
+    }
+
+    /**
+     * Returns the end of the number starting at {@code start}: an optional sign, digits
+     * with an optional decimal point, and an optional exponent.
+     */
+    private static int scanNumber(CharSequence text, int start, int end) {
+        int i = start;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        while (i < end && (isDigit(text.charAt(i)) || text.charAt(i) == '.')) {
+            i++;
+        }
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            int exponent = i + 1;
+            if (exponent < end && (text.charAt(exponent) == '-' || text.charAt(exponent) == '+')) {
+                exponent++;
+            }
+            if (exponent < end && isDigit(text.charAt(exponent))) {
+                i = exponent;
+                while (i < end && isDigit(text.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    private static int matchUnit(CharSequence text, int start, int end) {
+        for (String unit : UNIT_SUFFIXES) {
+            int unitEnd = start + unit.length();
+            if (unitEnd <= end && regionEquals(text, start, unit)) {
+                return unitEnd;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a decimal number that {@link #scanNumber} has delimited.
+     */
+    private double parseDecimal(CharSequence text, int start, int end) {
+        double result = DecimalParser.parse(text, start, end);
+        numberValid = !Double.isNaN(result);
+        return result;
+    }
+
+    /**
+     * Parses a decimal integer with an optional sign, ignoring surrounding whitespace.
+     */
+    private long parseLong(CharSequence text, int start, int end) {
+        numberValid = false;
+        int i = skipWhitespace(text, start, end);
+        end = trimEnd(text, i, end);
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            return 0;
+        }
+        if (end - i > 18) {
+            // Might not fit in the fast path: let the JDK check for overflow
+            try {
+                long result = Long.parseLong(text.subSequence(i, end).toString());
+                numberValid = true;
+                return negative ? -result : result;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        long result = 0;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return 0;
+            }
+            result = result * 10 + (c - '0');
+        }
+        numberValid = true;
+        return negative ? -result : result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int skipWhitespace(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static int indexOf(CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int countFields(CharSequence text, int start, int end) {
+        int fields = 1;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ',') {
+                fields++;
+            }
+        }
+        return fields;
+    }
+
+    private static boolean regionEquals(CharSequence text, int start, String expected) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (text.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence text, int start, int end, String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
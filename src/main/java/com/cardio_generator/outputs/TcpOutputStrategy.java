@@ -13,8 +13,11 @@ import java.util.concurrent.Executors;
  * to the first connected client in a simple CSV-like format:
  * {@code patientId,timestamp,label,data}
  * </p>
+ * <p>
+ * A {@link ReadingBlock} is sent as one write of all its lines.
+ * </p>
  */
-public class TcpOutputStrategy implements OutputStrategy {
+public class TcpOutputStrategy implements BatchOutputStrategy {
 
     private ServerSocket serverSocket;
     private Socket clientSocket;
@@ -66,4 +69,23 @@ public class TcpOutputStrategy implements OutputStrategy {
             out.println(message);
         }
     }
+
+    /**
+     * Writes the readings of a block as lines in the {@code patientId,timestamp,label,data}
+     * format, with one write and one flush for the whole block.
+     *
+     * @param block the readings to send
+     */
+    @Override
+    public void outputBatch(ReadingBlock block) {
+        PrintWriter writer = out;
+        if (writer != null && !block.isEmpty()) {
+            StringBuilder lines = new StringBuilder(block.size() * 40);
+            for (int i = 0; i < block.size(); i++) {
+                block.appendCsv(i, lines).append(System.lineSeparator());
+            }
+            writer.print(lines);
+            writer.flush();
+        }
+    }
 }
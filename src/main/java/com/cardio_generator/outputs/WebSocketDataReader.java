@@ -1,6 +1,7 @@
 package com.cardio_generator.outputs;
 
 import com.data_management.*;
+import com.logging.Logger;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 
@@ -8,16 +9,30 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.io.IOException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * A WebSocket client that connects to a server and processes health data in real-time.
  * This class implements the ContinuousDataReader interface to receive and store data from
  * the WebSocket server continuously.
+ * <p>
+ * Parsed readings are buffered and handed to the storage in batches (see
+ * {@link DataStorage#addPatientDataBatch(RecordBatch)}): a batch is flushed as soon as it
+ * holds {@value #MAX_BATCH_SIZE} readings, and a background task flushes whatever is
+ * buffered every {@value #LINGER_MILLIS} ms, so a reading waits at most that long.
+ * </p>
  */
 public class WebSocketDataReader implements ContinuousDataReader {
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long LINGER_MILLIS = 20;
+    // A misbehaving server can send a stream of bad messages
+    private static final Logger MESSAGE_LOG = Logger.getLogger(WebSocketDataReader.class).rateLimited(20);
+
     private final String serverUri;
     private PatientDataWebSocketClient client;
+    private ScheduledExecutorService flushScheduler;
     private boolean isRunning = false;
     private CountDownLatch connectLatch;
 
@@ -48,6 +63,7 @@ public class WebSocketDataReader implements ContinuousDataReader {
             }
             
             isRunning = true;
+            startFlushScheduler();
             System.out.println("Successfully connected to WebSocket server at " + serverUri);
             
             // Keep the client connected until explicitly stopped
@@ -70,6 +86,34 @@ public class WebSocketDataReader implements ContinuousDataReader {
             isRunning = false;
             System.out.println("WebSocket connection closed");
         }
+        stopFlushScheduler();
+    }
+
+    /**
+     * Starts the background task that flushes buffered readings to the storage.
+     */
+    private void startFlushScheduler() {
+        stopFlushScheduler();
+        PatientDataWebSocketClient current = client;
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "websocket-reader-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleAtFixedRate(current::flush, LINGER_MILLIS, LINGER_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the flush task after handing any buffered readings to the storage.
+     */
+    private void stopFlushScheduler() {
+        if (flushScheduler != null) {
+            flushScheduler.shutdown();
+            flushScheduler = null;
+        }
+        if (client != null) {
+            client.flush();
+        }
     }
     
     /**
@@ -105,6 +149,9 @@ public class WebSocketDataReader implements ContinuousDataReader {
      */
     private class PatientDataWebSocketClient extends WebSocketClient {
         private final DataStorage dataStorage;
+        private final RecordBatch batch = new RecordBatch(MAX_BATCH_SIZE);
+        // Messages are delivered on the client's single read thread, so one parser is enough
+        private final ReadingMessageParser parser = new ReadingMessageParser();
 
         /**
          * Creates a new PatientDataWebSocketClient.
@@ -127,138 +174,84 @@ public class WebSocketDataReader implements ContinuousDataReader {
         public void onMessage(String message) {
             try {
                 // Process the received message
-                // Expected format: patientId,timestamp,recordType,value
-                if (message == null || message.trim().isEmpty()) {
-                    System.err.println("Received empty or null message");
-                    return;
-                }
-                
-                String[] parts = message.trim().split(",");
-                
-                if (parts.length != 4) {
-                    System.err.println("Invalid data format in message (expected 4 parts, got " + 
-                                     parts.length + "): " + message);
+                // Expected format: patientId,timestamp,recordType,value, or several such
+                // lines when the server sends a block of readings at once
+                int newline = message == null ? -1 : message.indexOf('\n');
+                if (newline < 0) {
+                    if (parser.parse(message)) {
+                        enqueue(parser.getPatientId(), parser.getTimestamp(), parser.getRecordTypeCode(), parser.getValue());
+                    } else if (parser.getError() != null) {
+                        MESSAGE_LOG.warn(parser.getError());
+                    }
                     return;
                 }
-                
-                // Parse message components
-                int patientId = Integer.parseInt(parts[0].trim());
-                long timestamp = Long.parseLong(parts[1].trim());
-                String recordType = parts[2].trim();
-                String valueStr = parts[3].trim();
-
-                // Validate parsed data
-                if (patientId <= 0) {
-                    System.err.println("Invalid patient ID (negative): " + patientId);
-                    return;
-                }
-                
-                if (timestamp < 0) {
-                    System.err.println("Invalid timestamp (negative): " + timestamp);
-                    return;
-                }
-                
-                if (recordType.isEmpty()) {
-                    System.err.println("Empty record type in message: " + message);
-                    return;
+                int lineStart = 0;
+                while (lineStart <= message.length()) {
+                    int lineEnd = newline < 0 ? message.length() : newline;
+                    if (lineEnd > lineStart) {
+                        if (parser.parse(message, lineStart, lineEnd)) {
+                            enqueue(parser.getPatientId(), parser.getTimestamp(), parser.getRecordTypeCode(),
+                                    parser.getValue());
+                        } else if (parser.getError() != null) {
+                            MESSAGE_LOG.warn(parser.getError());
+                        }
+                    }
+                    lineStart = lineEnd + 1;
+                    newline = message.indexOf('\n', lineStart);
                 }
-
-                // Handle different data types
-                if ("Alert".equals(recordType)) {
-                    handleAlertMessage(patientId, timestamp, recordType, valueStr);
-                } else {
-                    handleNumericMessage(patientId, timestamp, recordType, valueStr);
-                }
-                
-            } catch (NumberFormatException e) {
-                System.err.println("Error parsing numeric values in message: " + message + " - " + e.getMessage());
-            } catch (ArrayIndexOutOfBoundsException e) {
-                System.err.println("Array index error processing message: " + message + " - " + e.getMessage());
             } catch (Exception e) {
-                System.err.println("Unexpected error processing message: " + message + " - " + e.getMessage());
-                e.printStackTrace();
+                MESSAGE_LOG.error("Unexpected error processing message: {} - {}", message, e);
             }
         }
-        
+
         /**
-         * Handles alert messages with special parsing for string values.
+         * Buffers a parsed reading, flushing the batch when it is full.
          */
-        private void handleAlertMessage(int patientId, long timestamp, String recordType, String valueStr) {
-            try {
-                // First try to parse as a numeric value
-                double alertValue = Double.parseDouble(valueStr);
-                dataStorage.addPatientData(patientId, alertValue, recordType, timestamp);
-            } catch (NumberFormatException e) {
-                // Convert string alerts to numeric values
-                double alertValue;
-                if (valueStr.equalsIgnoreCase("triggered") || valueStr.equals("1")) {
-                    alertValue = 1.0;
-                } else if (valueStr.equalsIgnoreCase("resolved") || valueStr.equals("0")) {
-                    alertValue = 0.0;
-                } else {
-                    System.err.println("Unknown alert value: " + valueStr + " - defaulting to 0.0");
-                    alertValue = 0.0;
+        private void enqueue(int patientId, long timestamp, int recordTypeCode, double value) {
+            synchronized (batch) {
+                batch.add(patientId, timestamp, recordTypeCode, value);
+                if (batch.size() >= MAX_BATCH_SIZE) {
+                    flush();
                 }
-                dataStorage.addPatientData(patientId, alertValue, recordType, timestamp);
             }
         }
-        
+
         /**
-         * Handles numeric health data messages.
+         * Hands the buffered readings to the storage. If the batch fails, its readings
+         * are added one by one, so that one bad reading only loses itself; readings the
+         * failed batch had already stored are rejected as duplicates.
          */
-        private void handleNumericMessage(int patientId, long timestamp, String recordType, String valueStr) {
-            try {
-                // Clean the value string to handle percentages and other formats
-                String cleanValue = cleanNumericValue(valueStr);
-
-                // Do not add this record to the database if the string is corrupted.
-                if(cleanValue.equals("corrupted")){
+        void flush() {
+            synchronized (batch) {
+                if (batch.isEmpty()) {
                     return;
                 }
-
-                // The string is not corrupted, so it can be safely added to DataStorage.
-                double value = Double.parseDouble(cleanValue);
-                dataStorage.addPatientData(patientId, value, recordType, timestamp);
-                
-                // Optional: Debug output to see what's happening
-                System.out.println(String.format("Parsed %s for patient %d: %s -> %.2f", 
-                                            recordType, patientId, valueStr, value));
-            } catch (NumberFormatException e) {
-                System.err.println("Failed to parse " + recordType + " value: '" + valueStr + "' - " + e.getMessage());
+                try {
+                    dataStorage.addPatientDataBatch(batch);
+                } catch (Exception e) {
+                    MESSAGE_LOG.warn("Error storing {} buffered readings, adding them one by one - {}",
+                            batch.size(), e.getMessage());
+                    addOneByOne();
+                } finally {
+                    batch.clear();
+                }
             }
         }
 
-        /**
-         * Cleans numeric values by removing common non-numeric suffixes
-         */
-        private String cleanNumericValue(String valueStr) {
-            if (valueStr == null || valueStr.trim().isEmpty()) {
-                return "corrupted";
-            }
-
-            String cleaned = valueStr.trim()
-                                    .replace("%", "")
-                                    .replace("mmHg", "")
-                                    .replace("BPM", "")
-                                    .replace("bpm", "")
-                                    .replace("°C", "")
-                                    .replace("°F", "")
-                                    .trim();
-
-            if (cleaned.isEmpty()) {
-                return "corrupted";
-            }
-
-            try {
-                Double.parseDouble(cleaned);
-                return cleaned;
-            } catch (NumberFormatException e) {
-                return "corrupted";
+        private void addOneByOne() {
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    dataStorage.addPatientData(batch.getPatientId(i), batch.getValue(i),
+                            batch.getRecordTypeCode(i), batch.getTimestamp(i));
+                } catch (Exception e) {
+                    MESSAGE_LOG.warn("Error storing reading of patient {} - {}", batch.getPatientId(i), e.getMessage());
+                }
             }
         }
 
         @Override
         public void onClose(int code, String reason, boolean remote) {
+            flush();
             System.out.println("WebSocket connection closed by " + (remote ? "server" : "client") + 
                              " - Code: " + code + ", Reason: " + reason);
             isRunning = false;
@@ -269,8 +262,7 @@ public class WebSocketDataReader implements ContinuousDataReader {
 
         @Override
         public void onError(Exception ex) {
-            System.err.println("WebSocket error: " + ex.getMessage());
-            ex.printStackTrace();
+            MESSAGE_LOG.error("WebSocket error: {}", ex);
         }
     }
 }
@@ -5,7 +5,15 @@ import org.java_websocket.server.WebSocketServer;
 
 import java.net.InetSocketAddress;
 
-public class WebSocketOutputStrategy implements OutputStrategy {
+/**
+ * Implements {@link OutputStrategy} to broadcast patient data to WebSocket clients.
+ * <p>
+ * Each reading is sent as one {@code patientId,timestamp,label,data} text message. A
+ * {@link ReadingBlock} is sent as a single message holding one such line per reading,
+ * separated by newlines, which the {@link WebSocketDataReader} splits again.
+ * </p>
+ */
+public class WebSocketOutputStrategy implements BatchOutputStrategy {
 
     private WebSocketServer server;
 
@@ -24,6 +32,29 @@ public class WebSocketOutputStrategy implements OutputStrategy {
         }
     }
 
+    /**
+     * Broadcasts the readings of a block as one message.
+     *
+     * @param block the readings to send
+     */
+    @Override
+    public void outputBatch(ReadingBlock block) {
+        if (block.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder(block.size() * 40);
+        for (int i = 0; i < block.size(); i++) {
+            if (i > 0) {
+                lines.append('\n');
+            }
+            block.appendCsv(i, lines);
+        }
+        String message = lines.toString();
+        for (WebSocket conn : server.getConnections()) {
+            conn.send(message);
+        }
+    }
+
     private static class SimpleWebSocketServer extends WebSocketServer {
 
         public SimpleWebSocketServer(InetSocketAddress address) {
@@ -1,13 +1,16 @@
 package com.data_management;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import com.alerts.AlertGenerator;
+import com.alerts.LoggingAlertSink;
+import com.alerts.SweepReport;
+import com.logging.Logger;
 
 
 /**
@@ -17,18 +20,36 @@ import com.alerts.AlertGenerator;
  * patient IDs, with thread-safe operations for concurrent data updates.
  */
 public class DataStorage {
-    // Thread-safe map to store patient objects indexed by their unique patient ID
-    private final Map<Integer, Patient> patientMap;
-    
-    // Read-write locks for each patient to allow concurrent reads while ensuring exclusive writes
-    private final Map<Integer, ReadWriteLock> patientLocks;
+    private static final Logger LOG = Logger.getLogger(DataStorage.class);
+    // Rejected and duplicate readings can arrive in bursts, e.g. after a reconnect
+    private static final Logger REJECTED_LOG = LOG.rateLimited(20);
+    private static final Logger DUPLICATE_LOG = LOG.rateLimited(20);
+
+    // Thread-safe map to store the state of each patient indexed by their unique patient ID:
+    // the patient object, a read-write lock allowing concurrent reads while ensuring exclusive
+    // writes, the recent records cache and the duplicate window
+    private final Map<Integer, PatientEntry> patientMap;
+
+    // Whether patients are guarded by locks; false when a single thread owns this storage
+    private final boolean locking;
     
     // Counter for tracking total number of records processed
     private final AtomicLong totalRecordsProcessed;
     
-    // Cache for frequently accessed patient records (last 1000 records per patient)
-    private final Map<Integer, List<PatientRecord>> recentRecordsCache;
+    // Cache for frequently accessed patient records (last 1000 records per patient and record type)
     private static final int CACHE_SIZE = 1000;
+
+    // Time-windowed index of recently seen readings per patient, used to reject duplicates
+    private static final long DEFAULT_DUPLICATE_WINDOW_MILLIS = 60_000;
+    private static final int DUPLICATE_WINDOW_MAX_ENTRIES = 8192;
+    private volatile long duplicateWindowMillis = DEFAULT_DUPLICATE_WINDOW_MILLIS;
+    private final AtomicLong duplicateHits;
+    private final AtomicLong duplicateEvictions;
+
+    // Listeners notified of every stored reading; replaced on change so that the
+    // ingest path iterates a plain array without locking
+    private static final RecordListener[] NO_LISTENERS = new RecordListener[0];
+    private volatile RecordListener[] listeners = NO_LISTENERS;
 	
 	private static DataStorage instance;        //a private static variable to hold the single instance of the class
 
@@ -40,10 +61,39 @@ public class DataStorage {
 	 @return The singleton instance of DataStorage
     */
     private DataStorage() {
-        this.patientMap = new ConcurrentHashMap<>();
-        this.patientLocks = new ConcurrentHashMap<>();
-        this.totalRecordsProcessed = new AtomicLong(0);
-        this.recentRecordsCache = new ConcurrentHashMap<>();
+        this(true);
+    }
+
+    /**
+     * Constructs a storage that is optionally owned by a single thread. Without locking,
+     * every call must be made from the owning thread (see {@link ShardedDataStorage}).
+     *
+     * @param locking whether patients are guarded by read-write locks
+     */
+    DataStorage(boolean locking) {
+        this(locking, true);
+    }
+
+    /**
+     * Constructs a storage, or only the base of one that keeps its patients elsewhere
+     * and overrides every method using them (see {@link ShardedDataStorage}).
+     *
+     * @param locking        whether patients are guarded by read-write locks
+     * @param storesPatients whether this storage holds the patients itself
+     */
+    DataStorage(boolean locking, boolean storesPatients) {
+        this.locking = locking;
+        if (storesPatients) {
+            this.patientMap = new ConcurrentHashMap<>();
+            this.totalRecordsProcessed = new AtomicLong(0);
+            this.duplicateHits = new AtomicLong(0);
+            this.duplicateEvictions = new AtomicLong(0);
+        } else {
+            this.patientMap = null;
+            this.totalRecordsProcessed = null;
+            this.duplicateHits = null;
+            this.duplicateEvictions = null;
+        }
     }
 	
 	// Thread-safe getInstance method
@@ -58,6 +108,27 @@ public class DataStorage {
 		return instance;
 	}
 
+    /**
+     * Switches the singleton to sharded storage mode: patients are partitioned over
+     * {@code shardCount} shards, each owned by its own writer thread (see
+     * {@link ShardedDataStorage}). Must be called at startup, before any data is added,
+     * because data in the previous instance is not carried over.
+     *
+     * @param shardCount the number of shards, typically the number of cores
+     * @return the sharded singleton instance
+     */
+    public static synchronized DataStorage enableSharding(int shardCount) {
+        if (instance instanceof ShardedDataStorage) {
+            ShardedDataStorage sharded = (ShardedDataStorage) instance;
+            if (sharded.getShardCount() == shardCount) {
+                return sharded;
+            }
+            sharded.shutdown();
+        }
+        instance = new ShardedDataStorage(shardCount);
+        return instance;
+    }
+
     /**
      * Adds or updates patient data in the storage with thread-safe operations.
      * If the patient does not exist, a new Patient object is created and added to
@@ -70,106 +141,239 @@ public class DataStorage {
      *                         milliseconds since the Unix epoch
      */
     public void addPatientData(int patientId, double measurementValue, String recordType, long timestamp) {
-        // Validate input parameters
-        if (patientId < 0) {
-            System.err.println("Invalid patient ID (negative): " + patientId + " - skipping record");
-            return;
-        }
-        
         if (recordType == null || recordType.trim().isEmpty()) {
-            System.err.println("Invalid record type (null or empty) for patient " + patientId + " - skipping record");
+            REJECTED_LOG.warn("Invalid record type (null or empty) for patient {} - skipping record", patientId);
             return;
         }
-        
-        if (timestamp < 0) {
-            System.err.println("Invalid timestamp (negative) for patient " + patientId + " - skipping record");
+
+        addPatientData(patientId, measurementValue, RecordType.codeOf(recordType), timestamp);
+    }
+
+    /**
+     * Adds patient data using a record type code that was interned when the reading
+     * was parsed (see {@link RecordType}). This is the hot ingest path: duplicate
+     * detection and storage only compare integer codes.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param measurementValue the value of the health metric being recorded
+     * @param recordTypeCode   the code of the record type
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since the Unix epoch
+     */
+    public void addPatientData(int patientId, double measurementValue, int recordTypeCode, long timestamp) {
+        // Validate input parameters
+        if (!isValidReading(patientId, recordTypeCode, timestamp)) {
             return;
         }
 
         // Get or create patient with thread-safe operations
-        Patient patient = patientMap.computeIfAbsent(patientId, id -> {
-            patientLocks.put(id, new ReentrantReadWriteLock());
-            recentRecordsCache.put(id, new ArrayList<>());
-            return new Patient(id);
-        });
-
-        // Get the lock for this specific patient
-        ReadWriteLock lock = patientLocks.computeIfAbsent(patientId, id -> new ReentrantReadWriteLock());
+        PatientEntry entry = getOrCreateEntry(patientId);
         
         // Acquire write lock for adding data
-        lock.writeLock().lock();
+        if (entry.lock != null) {
+            entry.lock.writeLock().lock();
+        }
         try {
-            // Check for duplicate records (same patient, type, and timestamp)
-            if (!isDuplicateRecord(patientId, recordType, timestamp)) {
-                // Add the record to the patient
-                patient.addRecord(measurementValue, recordType, timestamp);
-                
-                // Update the recent records cache
-                updateRecentRecordsCache(patientId, measurementValue, recordType, timestamp);
-                
-                // Increment the total records counter
-                totalRecordsProcessed.incrementAndGet();
-                
-                // Log successful data addition for monitoring
-                if (totalRecordsProcessed.get() % 1000 == 0) {
-                    System.out.println("Processed " + totalRecordsProcessed.get() + " total records");
-                }
-            } else {
-                System.out.println("Duplicate record detected for patient " + patientId + 
-                                 ", type: " + recordType + ", timestamp: " + timestamp + " - skipping");
+            if (storeReading(entry, patientId, measurementValue, recordTypeCode, timestamp)) {
+                countProcessed(1);
             }
         } finally {
-            lock.writeLock().unlock();
+            if (entry.lock != null) {
+                entry.lock.writeLock().unlock();
+            }
         }
     }
 
     /**
-     * Checks if a record with the same patient ID, record type, and timestamp already exists.
-     * This helps prevent duplicate data insertion during real-time streaming.
+     * Adds a batch of readings. The readings are validated and grouped by patient, and
+     * each patient's write lock is taken once for all of its readings in the batch.
+     * Readings of the same patient are stored in the order they appear in the batch.
+     * This is the preferred ingest path for readers that parse many readings at once.
      *
-     * @param patientId  the patient ID
-     * @param recordType the type of record
-     * @param timestamp  the timestamp of the record
-     * @return true if a duplicate record exists, false otherwise
+     * @param batch the readings to add; the batch is not modified
+     */
+    public void addPatientDataBatch(RecordBatch batch) {
+        int size = batch.size();
+        if (size == 0) {
+            return;
+        }
+
+        // Sort the valid readings by patient ID. Each key holds the patient ID in the
+        // upper half and the position in the batch in the lower half, so readings of
+        // one patient keep their order.
+        long[] keys = new long[size];
+        int valid = 0;
+        for (int i = 0; i < size; i++) {
+            int patientId = batch.getPatientId(i);
+            if (isValidReading(patientId, batch.getRecordTypeCode(i), batch.getTimestamp(i))) {
+                keys[valid++] = ((long) patientId << 32) | i;
+            }
+        }
+        Arrays.sort(keys, 0, valid);
+
+        int added = 0;
+        int start = 0;
+        while (start < valid) {
+            int patientId = (int) (keys[start] >>> 32);
+            int end = start + 1;
+            while (end < valid && (int) (keys[end] >>> 32) == patientId) {
+                end++;
+            }
+
+            PatientEntry entry = getOrCreateEntry(patientId);
+            if (entry.lock != null) {
+                entry.lock.writeLock().lock();
+            }
+            try {
+                for (int k = start; k < end; k++) {
+                    int i = (int) keys[k];
+                    if (storeReading(entry, patientId, batch.getValue(i), batch.getRecordTypeCode(i), batch.getTimestamp(i))) {
+                        added++;
+                    }
+                }
+            } finally {
+                if (entry.lock != null) {
+                    entry.lock.writeLock().unlock();
+                }
+            }
+            start = end;
+        }
+
+        if (added > 0) {
+            countProcessed(added);
+        }
+    }
+
+    /**
+     * Validates a reading before it is stored, reporting why it is rejected.
      */
-    private boolean isDuplicateRecord(int patientId, String recordType, long timestamp) {
-        List<PatientRecord> recentRecords = recentRecordsCache.get(patientId);
-        if (recentRecords == null) {
+    private boolean isValidReading(int patientId, int recordTypeCode, long timestamp) {
+        if (patientId < 0) {
+            REJECTED_LOG.warn("Invalid patient ID (negative): {} - skipping record", patientId);
+            return false;
+        }
+
+        if (!RecordType.isValid(recordTypeCode)) {
+            REJECTED_LOG.warn("Invalid record type code {} for patient {} - skipping record", recordTypeCode, patientId);
             return false;
         }
         
-        // Check the last few records for duplicates (more efficient than checking all records)
-        int startIndex = Math.max(0, recentRecords.size() - 10); // Check last 10 records
-        for (int i = startIndex; i < recentRecords.size(); i++) {
-            PatientRecord record = recentRecords.get(i);
-            if (record.getRecordType().equals(recordType) && record.getTimestamp() == timestamp) {
-                return true;
+        if (timestamp < 0) {
+            REJECTED_LOG.warn("Invalid timestamp (negative) for patient {} - skipping record", patientId);
+            return false;
+        }
+        return true;
+    }
+
+    private PatientEntry getOrCreateEntry(int patientId) {
+        return patientMap.computeIfAbsent(patientId,
+                id -> new PatientEntry(id, locking, CACHE_SIZE, DUPLICATE_WINDOW_MAX_ENTRIES));
+    }
+
+    /**
+     * Stores a validated reading unless it is a duplicate. Must be called while holding
+     * the patient's write lock.
+     *
+     * @return true if the reading was stored
+     */
+    private boolean storeReading(PatientEntry entry, int patientId, double measurementValue, int recordTypeCode, long timestamp) {
+        // Check for duplicate records (same patient, type, and timestamp)
+        if (isDuplicateRecord(entry, recordTypeCode, timestamp)) {
+            duplicateHits.incrementAndGet();
+            DUPLICATE_LOG.info("Duplicate record detected for patient {}, type: {}, timestamp: {} - skipping",
+                    patientId, RecordType.nameOf(recordTypeCode), timestamp);
+            return false;
+        }
+
+        // Add the record to the patient
+        entry.patient.addRecord(measurementValue, recordTypeCode, timestamp);
+        
+        // Update the recent records cache
+        entry.recentRecords.add(recordTypeCode, timestamp, measurementValue);
+
+        notifyListeners(patientId, recordTypeCode, timestamp, measurementValue);
+        return true;
+    }
+
+    /**
+     * Passes a stored reading to the listeners. A failing listener is reported and
+     * does not prevent the others from being called or the reading from being stored.
+     */
+    private void notifyListeners(int patientId, int recordTypeCode, long timestamp, double measurementValue) {
+        for (RecordListener listener : listeners) {
+            try {
+                listener.onRecord(patientId, recordTypeCode, timestamp, measurementValue);
+            } catch (RuntimeException e) {
+                LOG.error("Record listener failed for patient {}: {}", patientId, e);
             }
         }
-        return false;
     }
 
     /**
-     * Updates the recent records cache for efficient duplicate detection and quick access.
+     * Registers a listener that is notified of every reading stored from now on.
+     *
+     * @param listener the listener to add
+     */
+    public synchronized void addRecordListener(RecordListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        RecordListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Unregisters a listener. Does nothing if the listener was not registered.
      *
-     * @param patientId        the patient ID
-     * @param measurementValue the measurement value
-     * @param recordType       the record type
-     * @param timestamp        the timestamp
+     * @param listener the listener to remove
      */
-    private void updateRecentRecordsCache(int patientId, double measurementValue, String recordType, long timestamp) {
-        List<PatientRecord> recentRecords = recentRecordsCache.get(patientId);
-        if (recentRecords != null) {
-            PatientRecord newRecord = new PatientRecord(patientId, measurementValue, recordType, timestamp);
-            recentRecords.add(newRecord);
-            
-            // Maintain cache size limit
-            if (recentRecords.size() > CACHE_SIZE) {
-                recentRecords.remove(0); // Remove oldest record
+    public synchronized void removeRecordListener(RecordListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                RecordListener[] updated = new RecordListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, updated.length - i);
+                listeners = updated;
+                return;
             }
         }
     }
 
+    /**
+     * Increments the total records counter once for a number of stored readings.
+     */
+    private void countProcessed(int added) {
+        long total = totalRecordsProcessed.addAndGet(added);
+        
+        // Log successful data addition for monitoring
+        if (total / 1000 != (total - added) / 1000) {
+            LOG.info("Processed {} total records", total);
+        }
+    }
+
+    /**
+     * Checks if a record with the same patient ID, record type, and timestamp was already
+     * seen within the duplicate window, and remembers the record if it was not.
+     * This helps prevent duplicate data insertion during real-time streaming, e.g. when
+     * a WebSocket client replays readings after reconnecting.
+     *
+     * @param entry          the state of the patient
+     * @param recordTypeCode the code of the record type
+     * @param timestamp      the timestamp of the record
+     * @return true if a duplicate record exists, false otherwise
+     */
+    private boolean isDuplicateRecord(PatientEntry entry, int recordTypeCode, long timestamp) {
+        DuplicateWindow window = entry.duplicateWindow;
+        long evictedBefore = window.getEvictionCount();
+        boolean duplicate = window.checkAndAdd(recordTypeCode, timestamp, duplicateWindowMillis);
+        long evicted = window.getEvictionCount() - evictedBefore;
+        if (evicted > 0) {
+            duplicateEvictions.addAndGet(evicted);
+        }
+        return duplicate;
+    }
+
     /**
      * Retrieves a list of PatientRecord objects for a specific patient, filtered by
      * a time range with thread-safe read operations.
@@ -184,51 +388,69 @@ public class DataStorage {
      *         range
      */
     public List<PatientRecord> getRecords(int patientId, long startTime, long endTime) {
-        Patient patient = patientMap.get(patientId);
-        if (patient == null) {
+        PatientEntry entry = patientMap.get(patientId);
+        if (entry == null) {
             return new ArrayList<>(); // return an empty list if no patient is found
         }
 
-        ReadWriteLock lock = patientLocks.get(patientId);
-        if (lock == null) {
-            return new ArrayList<>();
+        if (entry.lock == null) {
+            return entry.patient.getRecords(startTime, endTime);
         }
 
         // Acquire read lock for thread-safe access
-        lock.readLock().lock();
+        entry.lock.readLock().lock();
         try {
-            return patient.getRecords(startTime, endTime);
+            return entry.patient.getRecords(startTime, endTime);
         } finally {
-            lock.readLock().unlock();
+            entry.lock.readLock().unlock();
         }
     }
 
     /**
-     * Retrieves the most recent records for a patient (useful for real-time monitoring).
+     * Runs a read of a patient's data while no reading of that patient can be added,
+     * i.e. under the patient's read lock. Lets a caller look at several record types
+     * of a patient, as the alert factories do, and see one consistent state.
      *
      * @param patientId the unique identifier of the patient
-     * @param count     the maximum number of recent records to retrieve
-     * @return a list of the most recent PatientRecord objects
+     * @param reader    the code reading the patient
+     * @return true if the patient exists and was read, false otherwise
      */
-    public List<PatientRecord> getRecentRecords(int patientId, int count) {
-        List<PatientRecord> recentRecords = recentRecordsCache.get(patientId);
-        if (recentRecords == null || recentRecords.isEmpty()) {
-            return new ArrayList<>();
+    public boolean readPatient(int patientId, Consumer<Patient> reader) {
+        PatientEntry entry = patientMap.get(patientId);
+        if (entry == null) {
+            return false;
         }
 
-        ReadWriteLock lock = patientLocks.get(patientId);
-        if (lock == null) {
-            return new ArrayList<>();
+        if (entry.lock == null) {
+            reader.accept(entry.patient);
+            return true;
         }
 
-        lock.readLock().lock();
+        entry.lock.readLock().lock();
         try {
-            int size = recentRecords.size();
-            int startIndex = Math.max(0, size - count);
-            return new ArrayList<>(recentRecords.subList(startIndex, size));
+            reader.accept(entry.patient);
+            return true;
         } finally {
-            lock.readLock().unlock();
+            entry.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the most recent records for a patient (useful for real-time monitoring).
+     * The records are read from the lock-free ring buffers of the recent records cache,
+     * so this never waits for a writer.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param count     the maximum number of recent records to retrieve
+     * @return a list of the most recent PatientRecord objects
+     */
+    public List<PatientRecord> getRecentRecords(int patientId, int count) {
+        PatientEntry entry = patientMap.get(patientId);
+        if (entry == null) {
+            return new ArrayList<>();
         }
+
+        return entry.recentRecords.getLatest(count);
     }
 
     /**
@@ -237,7 +459,21 @@ public class DataStorage {
      * @return a list of all patients
      */
     public List<Patient> getAllPatients() {
-        return new ArrayList<>(patientMap.values());
+        List<Patient> patients = new ArrayList<>(patientMap.size());
+        for (PatientEntry entry : patientMap.values()) {
+            patients.add(entry.patient);
+        }
+        return patients;
+    }
+
+    /**
+     * Retrieves the IDs of all patients stored in the data storage, without touching
+     * their readings.
+     *
+     * @return a list of all patient IDs
+     */
+    public List<Integer> getPatientIds() {
+        return new ArrayList<>(patientMap.keySet());
     }
 
     /**
@@ -247,7 +483,8 @@ public class DataStorage {
      * @return the patient object, or null if not found
      */
     public Patient getPatient(int patientId) {
-        return patientMap.get(patientId);
+        PatientEntry entry = patientMap.get(patientId);
+        return entry != null ? entry.patient : null;
     }
 
     /**
@@ -260,6 +497,47 @@ public class DataStorage {
         return totalRecordsProcessed.get();
     }
 
+    /**
+     * Sets how far back, relative to the newest reading of a patient, readings are
+     * remembered for duplicate detection. Applies to existing patients as well.
+     *
+     * @param windowMillis the length of the duplicate window, in milliseconds
+     */
+    public void setDuplicateWindowMillis(long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Duplicate window must not be negative: " + windowMillis);
+        }
+        this.duplicateWindowMillis = windowMillis;
+    }
+
+    /**
+     * Gets the length of the duplicate window.
+     *
+     * @return the duplicate window, in milliseconds
+     */
+    public long getDuplicateWindowMillis() {
+        return duplicateWindowMillis;
+    }
+
+    /**
+     * Gets the number of duplicate readings rejected since the system started.
+     *
+     * @return the number of duplicates
+     */
+    public long getDuplicateHits() {
+        return duplicateHits.get();
+    }
+
+    /**
+     * Gets the number of readings dropped from the duplicate windows, either because
+     * they aged out or because a window was full.
+     *
+     * @return the number of evicted readings
+     */
+    public long getDuplicateEvictions() {
+        return duplicateEvictions.get();
+    }
+
     /**
      * Gets the number of unique patients currently in the system.
      *
@@ -274,11 +552,19 @@ public class DataStorage {
      * This method should be used with caution and primarily for testing purposes.
      */
     public synchronized void clearAllData() {
+        clearPatients();
+        System.out.println("All patient data cleared from storage");
+    }
+
+    /**
+     * Clears the patients and counters without reporting it, for storages that clear
+     * several of these at once.
+     */
+    synchronized void clearPatients() {
         patientMap.clear();
-        patientLocks.clear();
-        recentRecordsCache.clear();
         totalRecordsProcessed.set(0);
-        System.out.println("All patient data cleared from storage");
+        duplicateHits.set(0);
+        duplicateEvictions.set(0);
     }
 
     /**
@@ -290,10 +576,14 @@ public class DataStorage {
         return String.format("DataStorage Statistics:\n" +
                            "- Total Patients: %d\n" +
                            "- Total Records Processed: %d\n" +
-                           "- Average Records per Patient: %.2f",
+                           "- Average Records per Patient: %.2f\n" +
+                           "- Duplicates Rejected: %d\n" +
+                           "- Duplicate Window Evictions: %d",
                            getPatientCount(),
                            getTotalRecordsProcessed(),
-                           getPatientCount() > 0 ? (double) getTotalRecordsProcessed() / getPatientCount() : 0.0);
+                           getPatientCount() > 0 ? (double) getTotalRecordsProcessed() / getPatientCount() : 0.0,
+                           getDuplicateHits(),
+                           getDuplicateEvictions());
     }
 
     /**
@@ -324,10 +614,10 @@ public class DataStorage {
         // Initialize the AlertGenerator with the storage
         AlertGenerator alertGenerator = new AlertGenerator(storage);
 
-        // Evaluate all patients' data to check for conditions that may trigger alerts
-        for (Patient patient : storage.getAllPatients()) {
-            alertGenerator.evaluateData(patient);
-        }
+        // Evaluate all patients' data to check for conditions that may trigger alerts,
+        // spreading the patients over all cores
+        SweepReport report = alertGenerator.evaluateAllPatients(new LoggingAlertSink());
+        System.out.println(report);
     }
  
 }
@@ -0,0 +1,73 @@
+package com.data_management;
+
+/**
+ * Parses decimal numbers such as {@code 98.4} or {@code -0.125} in place, shared by the
+ * readers that decode measurement values without splitting their input into strings.
+ * <p>
+ * Plain decimals with at most 15 significant digits are decoded exactly without
+ * allocating: the digits are read into a {@code long} mantissa and divided by an exact
+ * power of ten, and as both operands are exact doubles the division is correctly
+ * rounded. Anything else (exponents, long mantissas, surrounding whitespace) falls back
+ * to {@link Double#parseDouble(String)}, so both paths give the same result.
+ * </p>
+ */
+public final class DecimalParser {
+    // Powers of ten that are exact as doubles, used by the fast path
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private DecimalParser() {
+    }
+
+    /**
+     * Parses the decimal number held by a region of a text.
+     *
+     * @param text  the text holding the number
+     * @param start the start of the number in the text
+     * @param end   the end of the number in the text, exclusive
+     * @return the value, or NaN if the region is not a number
+     */
+    public static double parse(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i == end && digits > 0 && digits <= 15) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        if (i == end && digits == 0) {
+            return Double.NaN; // empty, or only a sign or a point
+        }
+
+        try {
+            return Double.parseDouble(text.subSequence(start, end).toString().trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
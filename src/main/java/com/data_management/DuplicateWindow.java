@@ -0,0 +1,238 @@
+package com.data_management;
+
+/**
+ * Time-windowed index of the readings seen for one patient, used to reject duplicates.
+ * <p>
+ * A reading is identified by its record type code and timestamp. The keys are kept in
+ * a primitive open-addressing hash set (linear probing), so a lookup costs a couple of
+ * array reads and no allocation. Keys are also queued in insertion order; when a new
+ * reading arrives, keys whose timestamp is older than the newest timestamp seen minus
+ * the window length are expired from the head of the queue. The number of keys is
+ * bounded as well: when the queue is full the oldest key is evicted early.
+ * </p>
+ * <p>
+ * Most patients only ever hold a few readings in their window, so the arrays are
+ * allocated on the first reading and start small. They double as the window fills, up
+ * to the maximum number of entries, and the hash set is rebuilt at each step so that
+ * its load factor stays at or below 0.5.
+ * </p>
+ * <p>
+ * The window is not thread-safe. It is owned by the patient and only used under the
+ * patient's write lock.
+ * </p>
+ */
+public class DuplicateWindow {
+    private static final int EMPTY = 0;
+    private static final int INITIAL_CAPACITY = 8;
+    private static final long[] NO_TIMESTAMPS = new long[0];
+    private static final int[] NO_CODES = new int[0];
+
+    private final int maxEntries;
+
+    // Hash set: codes are stored shifted by one so that 0 marks an empty slot. Always
+    // at least twice as large as the queue
+    private long[] tableTimestamps = NO_TIMESTAMPS;
+    private int[] tableCodes = NO_CODES;
+    private int mask;
+
+    // Keys in insertion order, used for expiry; a ring buffer of the current capacity
+    private long[] queueTimestamps = NO_TIMESTAMPS;
+    private int[] queueCodes = NO_CODES;
+    private int queueHead;
+    private int size;
+
+    private long newestTimestamp = Long.MIN_VALUE;
+    private long evictionCount;
+
+    /**
+     * Creates an empty window.
+     *
+     * @param maxEntries the maximum number of readings remembered, regardless of age
+     */
+    public DuplicateWindow(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of entries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Checks whether a reading was already seen within the window, and remembers it if
+     * it was not. Readings older than the window (relative to the newest reading seen)
+     * cannot be checked any more and are accepted without being remembered.
+     *
+     * @param recordTypeCode the code of the record type
+     * @param timestamp      the timestamp of the reading
+     * @param windowMillis   the length of the window, in milliseconds
+     * @return true if the reading is a duplicate
+     */
+    public boolean checkAndAdd(int recordTypeCode, long timestamp, long windowMillis) {
+        if (timestamp > newestTimestamp) {
+            newestTimestamp = timestamp;
+            expire(newestTimestamp - windowMillis);
+        }
+
+        if (contains(recordTypeCode, timestamp)) {
+            return true;
+        }
+        if (timestamp < newestTimestamp - windowMillis) {
+            return false;
+        }
+
+        if (size == maxEntries) {
+            removeOldest();
+            evictionCount++;
+        } else if (size == queueCodes.length) {
+            grow();
+        }
+        insert(recordTypeCode, timestamp);
+        return false;
+    }
+
+    /**
+     * Checks whether a reading is currently remembered.
+     *
+     * @param recordTypeCode the code of the record type
+     * @param timestamp      the timestamp of the reading
+     * @return true if the reading is in the window
+     */
+    public boolean contains(int recordTypeCode, long timestamp) {
+        if (size == 0) {
+            return false;
+        }
+        int storedCode = recordTypeCode + 1;
+        for (int slot = slotOf(recordTypeCode, timestamp); tableCodes[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (tableCodes[slot] == storedCode && tableTimestamps[slot] == timestamp) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of readings currently remembered.
+     *
+     * @return the number of readings in the window
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of readings the window can hold before it has to grow.
+     *
+     * @return the current capacity, at most the maximum number of entries
+     */
+    public int capacity() {
+        return queueCodes.length;
+    }
+
+    /**
+     * Returns the number of readings dropped from the window so far, either because
+     * they aged out or because the window was full.
+     *
+     * @return the number of evicted readings
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void expire(long cutoff) {
+        while (size > 0 && queueTimestamps[queueHead] < cutoff) {
+            removeOldest();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Doubles the capacity, up to the maximum number of entries. The queue is copied
+     * in insertion order and the keys are rehashed into a table twice its size.
+     */
+    private void grow() {
+        int capacity = queueCodes.length == 0
+                ? Math.min(INITIAL_CAPACITY, maxEntries)
+                : (int) Math.min((long) queueCodes.length * 2, maxEntries);
+
+        long[] timestamps = new long[capacity];
+        int[] codes = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            int index = (queueHead + i) % queueCodes.length;
+            timestamps[i] = queueTimestamps[index];
+            codes[i] = queueCodes[index];
+        }
+        queueTimestamps = timestamps;
+        queueCodes = codes;
+        queueHead = 0;
+
+        // Keep the load factor at or below 0.5 so probe sequences stay short
+        int tableSize = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 2;
+        tableTimestamps = new long[tableSize];
+        tableCodes = new int[tableSize];
+        mask = tableSize - 1;
+        for (int i = 0; i < size; i++) {
+            insertIntoTable(codes[i], timestamps[i]);
+        }
+    }
+
+    private void insert(int recordTypeCode, long timestamp) {
+        insertIntoTable(recordTypeCode, timestamp);
+
+        int tail = (queueHead + size) % queueCodes.length;
+        queueCodes[tail] = recordTypeCode;
+        queueTimestamps[tail] = timestamp;
+        size++;
+    }
+
+    private void removeOldest() {
+        int code = queueCodes[queueHead];
+        long timestamp = queueTimestamps[queueHead];
+        queueHead = (queueHead + 1) % queueCodes.length;
+        size--;
+        remove(code, timestamp);
+    }
+
+    private void insertIntoTable(int recordTypeCode, long timestamp) {
+        int slot = slotOf(recordTypeCode, timestamp);
+        while (tableCodes[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        tableCodes[slot] = recordTypeCode + 1;
+        tableTimestamps[slot] = timestamp;
+    }
+
+    private void remove(int recordTypeCode, long timestamp) {
+        int storedCode = recordTypeCode + 1;
+        int slot = slotOf(recordTypeCode, timestamp);
+        while (tableCodes[slot] != storedCode || tableTimestamps[slot] != timestamp) {
+            if (tableCodes[slot] == EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Backward-shift deletion: move later entries of the probe sequence into the
+        // hole so lookups never need tombstones
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (tableCodes[next] != EMPTY) {
+            int home = slotOf(tableCodes[next] - 1, tableTimestamps[next]);
+            // The entry can move into the hole if its home slot is not between the
+            // hole (exclusive) and its current slot (inclusive), cyclically
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                tableCodes[hole] = tableCodes[next];
+                tableTimestamps[hole] = tableTimestamps[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        tableCodes[hole] = EMPTY;
+    }
+
+    private int slotOf(int recordTypeCode, long timestamp) {
+        long h = timestamp * 0x9E3779B97F4A7C15L + recordTypeCode;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+}
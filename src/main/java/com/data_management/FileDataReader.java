@@ -8,10 +8,14 @@ import java.util.List;
 
 /**
  * Implements a class that fulfills the DataReader interface
- * capable of reading data from output files generated by the HealthDataSimulator
+ * capable of reading data from output files generated by the HealthDataSimulator.
+ * For very large files, see {@link MappedFileDataReader}.
  */
 public class FileDataReader implements DataReader {
 
+    // Number of parsed readings handed to the storage at once
+    private static final int BATCH_SIZE = 4096;
+
     private final String outputDirectory;
 
     /**
@@ -45,7 +49,9 @@ public class FileDataReader implements DataReader {
     }
 
     /**
-     * Processes a single data file and adds its records to the data storage
+     * Processes a single data file and adds its records to the data storage.
+     * Parsed readings are collected in a batch and added with
+     * {@link DataStorage#addPatientDataBatch(RecordBatch)} every {@value #BATCH_SIZE} readings.
      *
      * @param filePath path to the file to process
      * @param dataStorage the data storage to add records to
@@ -54,9 +60,15 @@ public class FileDataReader implements DataReader {
     private void processFile(Path filePath, DataStorage dataStorage) throws IOException {
         // Read the file content
         List<String> lines = Files.readAllLines(filePath);
+        RecordBatch batch = new RecordBatch(Math.min(lines.size(), BATCH_SIZE));
 
         // Parse each line and add to storage
         for (String line : lines) {
+            if (batch.size() >= BATCH_SIZE) {
+                dataStorage.addPatientDataBatch(batch);
+                batch.clear();
+            }
+
             try {
                 // Expecting format: patientId,timestamp,recordType,value
                 String[] parts = line.split(",");
@@ -67,23 +79,31 @@ public class FileDataReader implements DataReader {
                     String recordType = parts[2];
                     String valueStr = parts[3];
 
+                    if (recordType.trim().isEmpty()) {
+                        System.err.println("Invalid record type (null or empty) in line: " + line);
+                        continue;
+                    }
+
+                    // Intern the record type once; storage works on the integer code
+                    int recordTypeCode = RecordType.codeOf(recordType);
+
                     // For "Alert" type, handle it as a special case
-                    if ("Alert".equals(recordType)) {
+                    if (recordTypeCode == RecordType.ALERT) {
                         try {
                             double alertValue = Double.parseDouble(valueStr); // Try to parse as double
-                            // Add the data to storage
-                            dataStorage.addPatientData(patientId, alertValue, recordType, timestamp);
+                            // Add the data to the batch
+                            batch.add(patientId, timestamp, recordTypeCode, alertValue);
                         } catch (NumberFormatException e) {
                             // If it's not a number (e.g., "triggered"), we'll convert it
                             double alertValue = valueStr.equalsIgnoreCase("triggered") ? 1.0 : 0.0;
-                            dataStorage.addPatientData(patientId, alertValue, recordType, timestamp);
+                            batch.add(patientId, timestamp, recordTypeCode, alertValue);
                         }
                     } else {
                         // For numerical values, parse as double
                         try {
                             double value = Double.parseDouble(valueStr);
-                            // Add the data to storage
-                            dataStorage.addPatientData(patientId, value, recordType, timestamp);
+                            // Add the data to the batch
+                            batch.add(patientId, timestamp, recordTypeCode, value);
                         } catch (NumberFormatException e) {
                             System.err.println("Non-numeric value for record type " + recordType + ": " + valueStr);
                             // Skip this record
@@ -97,5 +117,9 @@ public class FileDataReader implements DataReader {
                 System.err.println("Error parsing numeric values in line: " + line + ": " + e.getMessage());
             }
         }
+
+        if (!batch.isEmpty()) {
+            dataStorage.addPatientDataBatch(batch);
+        }
     }
 }
\ No newline at end of file
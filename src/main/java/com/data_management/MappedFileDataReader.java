@@ -0,0 +1,419 @@
+package com.data_management;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reader for large output files of the HealthDataSimulator, meant for replaying
+ * multi-gigabyte dumps.
+ * <p>
+ * It reads the same {@code patientId,timestamp,recordType,value} lines as
+ * {@link FileDataReader}, but instead of loading a whole file onto the heap it
+ * memory-maps the file and splits it into line-aligned chunks. The chunks are parsed in
+ * parallel on a fork-join pool. Parsing works directly on the mapped bytes: numbers are
+ * decoded by hand, and record type names are only turned into strings the first time a
+ * chunk sees them, so a well-formed line allocates nothing.
+ * </p>
+ * <p>
+ * Each chunk parses its lines into {@link RecordBatch}es. The batches are handed to
+ * {@link DataStorage#addPatientDataBatch(RecordBatch)} on the calling thread, chunk by
+ * chunk in file order, so readings reach the storage and its listeners in the order of
+ * the file, as with {@link FileDataReader}. Appending in time order keeps the patients'
+ * series cheap to extend and the streaming alert state and duplicate detection correct.
+ * While one chunk is stored, at most one chunk per parsing thread is parsed ahead.
+ * </p>
+ */
+public class MappedFileDataReader implements DataReader {
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int BATCH_SIZE = 4096;
+
+    private final String outputDirectory;
+    private final int parallelism;
+    private final int chunkSize;
+
+    /**
+     * Creates a reader that parses with one thread per available core.
+     *
+     * @param outputDirectory the directory containing data files
+     */
+    public MappedFileDataReader(String outputDirectory) {
+        this(outputDirectory, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param outputDirectory the directory containing data files
+     * @param parallelism     the number of threads parsing chunks
+     * @param chunkSize       the approximate number of bytes per chunk; chunks are
+     *                        extended to the end of the line they stop in
+     */
+    public MappedFileDataReader(String outputDirectory, int parallelism, int chunkSize) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.outputDirectory = outputDirectory;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void readData(DataStorage dataStorage) throws IOException {
+        Path directoryPath = Paths.get(outputDirectory);
+
+        // Check if directory exists
+        if (!Files.exists(directoryPath) || !Files.isDirectory(directoryPath)) {
+            throw new IOException("Output directory does not exist: " + outputDirectory);
+        }
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directoryPath)) {
+            files = listing.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Path file : files) {
+                try {
+                    processFile(file, dataStorage, pool);
+                } catch (IOException e) {
+                    System.err.println("Error processing file: " + file + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Maps a single data file chunk by chunk and adds its records to the data storage
+     * in the order of the file.
+     *
+     * @param filePath    path to the file to process
+     * @param dataStorage the data storage to add records to
+     * @param pool        the pool parsing the chunks
+     * @throws IOException if there is an error reading the file
+     */
+    private void processFile(Path filePath, DataStorage dataStorage, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+
+            List<ChunkParser> chunks = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = findLineEnd(channel, Math.min(size, start + chunkSize), size);
+                chunks.add(new ChunkParser(channel, start, end - start));
+                start = end;
+            }
+
+            // Parse ahead in parallel, but store the chunks in file order
+            int submitted = 0;
+            while (submitted < Math.min(parallelism, chunks.size())) {
+                pool.execute(chunks.get(submitted++));
+            }
+            for (ChunkParser chunk : chunks) {
+                chunk.join();
+                if (submitted < chunks.size()) {
+                    pool.execute(chunks.get(submitted++));
+                }
+                chunk.store(dataStorage);
+            }
+        }
+    }
+
+    /**
+     * Returns the position after the first line break at or after {@code position}, or
+     * the file size if there is none.
+     */
+    private static long findLineEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long pos = position;
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses one line-aligned chunk of a mapped file into batches, which the reading
+     * thread then stores with {@link #store(DataStorage)}.
+     */
+    private static final class ChunkParser extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long offset;
+        private final long length;
+        // The parsed readings, in the order of the lines
+        private List<RecordBatch> batches = new ArrayList<>();
+
+        // Record type names seen by this chunk, so names are decoded once per chunk
+        private byte[][] typeNames = new byte[8][];
+        private int[] typeCodes = new int[8];
+        private int typeCount;
+
+        ChunkParser(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        protected void compute() {
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            } catch (IOException e) {
+                System.err.println("Error mapping file region at " + offset + ": " + e.getMessage());
+                return;
+            }
+
+            BufferChars chars = new BufferChars(buffer);
+            RecordBatch batch = new RecordBatch(BATCH_SIZE);
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                    contentEnd--;
+                }
+                if (contentEnd > lineStart) {
+                    parseLine(buffer, chars, lineStart, contentEnd, batch);
+                }
+                if (batch.size() >= BATCH_SIZE) {
+                    batches.add(batch);
+                    batch = new RecordBatch(BATCH_SIZE);
+                }
+                lineStart = lineEnd + 1;
+            }
+
+            if (!batch.isEmpty()) {
+                batches.add(batch);
+            }
+        }
+
+        /**
+         * Adds the parsed readings to the storage and lets go of them.
+         */
+        void store(DataStorage dataStorage) {
+            for (RecordBatch batch : batches) {
+                dataStorage.addPatientDataBatch(batch);
+            }
+            batches = null;
+        }
+
+        /**
+         * Parses a {@code patientId,timestamp,recordType,value} line into the batch.
+         */
+        private void parseLine(ByteBuffer buffer, CharSequence chars, int start, int end, RecordBatch batch) {
+            int firstComma = indexOf(buffer, ',', start, end);
+            int secondComma = indexOf(buffer, ',', firstComma + 1, end);
+            int thirdComma = indexOf(buffer, ',', secondComma + 1, end);
+            if (firstComma < 0 || secondComma < 0 || thirdComma < 0) {
+                System.err.println("Invalid data format in line: " + decode(buffer, start, end));
+                return;
+            }
+            // Like FileDataReader, ignore anything after a fourth field
+            int valueEnd = indexOf(buffer, ',', thirdComma + 1, end);
+            if (valueEnd < 0) {
+                valueEnd = end;
+            }
+
+            long patientId = parseLong(buffer, start, firstComma);
+            long timestamp = parseLong(buffer, firstComma + 1, secondComma);
+            if (patientId == Long.MIN_VALUE || timestamp == Long.MIN_VALUE
+                    || patientId < Integer.MIN_VALUE || patientId > Integer.MAX_VALUE) {
+                System.err.println("Error parsing numeric values in line: " + decode(buffer, start, end));
+                return;
+            }
+
+            if (isBlank(buffer, secondComma + 1, thirdComma)) {
+                System.err.println("Invalid record type (null or empty) in line: " + decode(buffer, start, end));
+                return;
+            }
+            int recordTypeCode = typeCode(buffer, secondComma + 1, thirdComma);
+
+            double value = DecimalParser.parse(chars, thirdComma + 1, valueEnd);
+            if (Double.isNaN(value)) {
+                if (recordTypeCode == RecordType.ALERT) {
+                    // Textual alert states, e.g. "triggered" or "resolved"
+                    value = equalsIgnoreCase(buffer, thirdComma + 1, valueEnd, "triggered") ? 1.0 : 0.0;
+                } else {
+                    System.err.println("Non-numeric value for record type " + RecordType.nameOf(recordTypeCode)
+                            + ": " + decode(buffer, thirdComma + 1, valueEnd));
+                    return;
+                }
+            }
+
+            batch.add((int) patientId, timestamp, recordTypeCode, value);
+        }
+
+        private int typeCode(ByteBuffer buffer, int start, int end) {
+            int length = end - start;
+            for (int t = 0; t < typeCount; t++) {
+                byte[] name = typeNames[t];
+                if (name.length == length && regionEquals(buffer, start, name)) {
+                    return typeCodes[t];
+                }
+            }
+
+            // First time this chunk sees the type: decode and intern it
+            byte[] name = new byte[length];
+            for (int i = 0; i < length; i++) {
+                name[i] = buffer.get(start + i);
+            }
+            int code = RecordType.codeOf(new String(name, StandardCharsets.UTF_8));
+            if (typeCount == typeNames.length) {
+                typeNames = Arrays.copyOf(typeNames, typeCount * 2);
+                typeCodes = Arrays.copyOf(typeCodes, typeCount * 2);
+            }
+            typeNames[typeCount] = name;
+            typeCodes[typeCount] = code;
+            typeCount++;
+            return code;
+        }
+    }
+
+    /**
+     * Parses a decimal integer with an optional sign.
+     *
+     * @return the value, or {@link Long#MIN_VALUE} if the bytes are not a valid integer
+     */
+    static long parseLong(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            return Long.MIN_VALUE;
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * A read-only view of the bytes of a buffer as characters, so that the
+     * {@link DecimalParser} can read the values in place. The lines are ASCII, except
+     * perhaps for unit suffixes, which only reach {@link #subSequence(int, int)}.
+     */
+    private static final class BufferChars implements CharSequence {
+        private final ByteBuffer buffer;
+
+        BufferChars(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return decode(buffer, start, end);
+        }
+
+        @Override
+        public String toString() {
+            return decode(buffer, 0, buffer.limit());
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, char c, int start, int end) {
+        if (start < 0) {
+            return -1;
+        }
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) != ' ' && buffer.get(i) != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionEquals(ByteBuffer buffer, int start, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsIgnoreCase(ByteBuffer buffer, int start, int end, String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.toLowerCase((char) buffer.get(start + i)) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[Math.max(0, end - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
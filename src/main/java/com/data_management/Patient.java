@@ -1,6 +1,9 @@
 package com.data_management;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -8,20 +11,35 @@ import java.util.List;
  * This class stores patient-specific data, allowing for the addition and
  * retrieval
  * of medical records based on specified criteria.
+ * <p>
+ * Readings are stored column-wise, one {@link RecordSeries} per record type, so a
+ * reading costs a {@code long} and a {@code double} instead of a full object.
+ * {@link PatientRecord} objects are only created by the query methods.
+ * </p>
+ * <p>
+ * Each series is ordered by timestamp, so time-range queries are answered with a
+ * binary search and cost is proportional to the size of the requested window rather
+ * than to the full history of the patient.
+ * </p>
+ * <p>
+ * Series are indexed by the integer code of their record type (see
+ * {@link RecordType}), so locating a series is an array access rather than a string
+ * hash and compare.
+ * </p>
  */
 public class Patient {
     private int patientId;
-    private List<PatientRecord> patientRecords;
+    private volatile RecordSeries[] seriesByCode;
 
     /**
      * Constructs a new Patient with a specified ID.
-     * Initializes an empty list of patient records.
+     * Initializes an empty set of record series.
      *
      * @param patientId the unique identifier for the patient
      */
     public Patient(int patientId) {
         this.patientId = patientId;
-        this.patientRecords = new ArrayList<>();
+        this.seriesByCode = new RecordSeries[RecordType.count()];
     }
 
     /**
@@ -36,8 +54,29 @@ public class Patient {
      *                         milliseconds since UNIX epoch
      */
     public void addRecord(double measurementValue, String recordType, long timestamp) {
-        PatientRecord record = new PatientRecord(this.patientId, measurementValue, recordType, timestamp);
-        this.patientRecords.add(record);
+        addRecord(measurementValue, RecordType.codeOf(recordType), timestamp);
+    }
+
+    /**
+     * Adds a new record to this patient's medical records using an interned record
+     * type code.
+     *
+     * @param measurementValue the measurement value to store in the record
+     * @param recordTypeCode   the code of the record type, see {@link RecordType}
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since UNIX epoch
+     */
+    public void addRecord(double measurementValue, int recordTypeCode, long timestamp) {
+        RecordSeries[] series = seriesByCode;
+        if (recordTypeCode >= series.length) {
+            // A record type registered after this patient was created
+            series = Arrays.copyOf(series, Math.max(recordTypeCode + 1, RecordType.count()));
+            seriesByCode = series;
+        }
+        if (series[recordTypeCode] == null) {
+            series[recordTypeCode] = new RecordSeries(recordTypeCode);
+        }
+        series[recordTypeCode].add(timestamp, measurementValue);
     }
 
     /**
@@ -49,22 +88,115 @@ public class Patient {
      *                  epoch
      * @param endTime   the end of the time range, in milliseconds since UNIX epoch
      * @return a list of PatientRecord objects that fall within the specified time
-     *         range
+     *         range, ordered by timestamp
      */
     public List<PatientRecord> getRecords(long startTime, long endTime) {
-        // TODO Implement and test this method
         List<PatientRecord> filteredRecords = new ArrayList<>();
 
-        for (PatientRecord record : patientRecords) {
-            long timestamp = record.getTimestamp();
-            if (timestamp >= startTime && timestamp <= endTime) {
-                filteredRecords.add(record);
+        for (RecordSeries series : seriesByCode) {
+            if (series != null) {
+                filteredRecords.addAll(series.range(patientId, startTime, endTime));
             }
         }
 
+        // Series are stored per type, so merge them back into one timeline
+        filteredRecords.sort(Comparator.comparingLong(PatientRecord::getTimestamp));
         return filteredRecords;
     }
 
+    /**
+     * Retrieves the records of one type that fall within a specified time range.
+     * The result is a time-ordered view located by binary search; no records are
+     * copied until they are read from the view.
+     *
+     * @param recordType the type of record to retrieve, e.g. "Saturation"
+     * @param startTime  the start of the time range, in milliseconds since UNIX
+     *                   epoch
+     * @param endTime    the end of the time range, in milliseconds since UNIX epoch
+     * @return a view of the matching records, ordered by timestamp
+     */
+    public List<PatientRecord> getRecords(String recordType, long startTime, long endTime) {
+        return getRecords(RecordType.lookup(recordType), startTime, endTime);
+    }
+
+    /**
+     * Retrieves the records of one type, identified by its code, that fall within a
+     * specified time range.
+     *
+     * @param recordTypeCode the code of the record type, see {@link RecordType}
+     * @param startTime      the start of the time range, in milliseconds since UNIX
+     *                       epoch
+     * @param endTime        the end of the time range, in milliseconds since UNIX
+     *                       epoch
+     * @return a view of the matching records, ordered by timestamp
+     */
+    public List<PatientRecord> getRecords(int recordTypeCode, long startTime, long endTime) {
+        RecordSeries series = getSeries(recordTypeCode);
+        if (series == null) {
+            return Collections.emptyList();
+        }
+        return series.range(patientId, startTime, endTime);
+    }
+
+    /**
+     * Returns the series holding all readings of the given type.
+     *
+     * @param recordType the type of record, e.g. "ECG"
+     * @return the series, or null if the patient has no readings of that type
+     */
+    public RecordSeries getSeries(String recordType) {
+        return getSeries(RecordType.lookup(recordType));
+    }
+
+    /**
+     * Returns the series holding all readings of the type with the given code.
+     *
+     * @param recordTypeCode the code of the record type, see {@link RecordType}
+     * @return the series, or null if the patient has no readings of that type
+     */
+    public RecordSeries getSeries(int recordTypeCode) {
+        RecordSeries[] series = seriesByCode;
+        if (recordTypeCode < 0 || recordTypeCode >= series.length) {
+            return null;
+        }
+        return series[recordTypeCode];
+    }
+
+    /**
+     * Copies the patient and all of its readings, so that the copy can be read on
+     * another thread while readings keep being added to this patient. Must be called
+     * by the writer of the patient, or while no reading can be added to it.
+     *
+     * @return a patient holding the same readings
+     */
+    Patient snapshot() {
+        Patient copy = new Patient(patientId);
+        RecordSeries[] series = seriesByCode;
+        RecordSeries[] copied = new RecordSeries[Math.max(series.length, copy.seriesByCode.length)];
+        for (int code = 0; code < series.length; code++) {
+            if (series[code] != null) {
+                copied[code] = series[code].copy();
+            }
+        }
+        copy.seriesByCode = copied;
+        return copy;
+    }
+
+    /**
+     * Returns the number of readings stored for this patient across all record types.
+     *
+     * @return the total number of readings
+     */
+    public int getRecordCount() {
+        int count = 0;
+        for (RecordSeries series : seriesByCode) {
+            if (series != null) {
+                count += series.size();
+            }
+        }
+        return count;
+    }
+
     /**
      * Returns the patient ID of this patient.
      * 
@@ -0,0 +1,35 @@
+package com.data_management;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Everything {@link DataStorage} keeps for one patient: the patient's records, the
+ * lock guarding them, the recent records cache and the duplicate window.
+ * <p>
+ * Keeping the per-patient state in one object means a patient is registered with a
+ * single map insert, and the ingest path needs a single lookup.
+ * </p>
+ */
+final class PatientEntry {
+    final Patient patient;
+    final ReadWriteLock lock;
+    final RecentRecordsCache recentRecords;
+    final DuplicateWindow duplicateWindow;
+
+    /**
+     * Creates the state of a new patient.
+     *
+     * @param patientId           the unique identifier of the patient
+     * @param locked              whether access to the patient is guarded by a lock;
+     *                            false when a single thread owns the patient
+     * @param cacheSize           the number of recent readings cached per record type
+     * @param duplicateWindowSize the maximum number of readings in the duplicate window
+     */
+    PatientEntry(int patientId, boolean locked, int cacheSize, int duplicateWindowSize) {
+        this.patient = new Patient(patientId);
+        this.lock = locked ? new ReentrantReadWriteLock() : null;
+        this.recentRecords = new RecentRecordsCache(patientId, cacheSize);
+        this.duplicateWindow = new DuplicateWindow(duplicateWindowSize);
+    }
+}
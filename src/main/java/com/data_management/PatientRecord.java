@@ -12,6 +12,7 @@ package com.data_management;
 public class PatientRecord {
     private int patientId;
     private String recordType; // Example: ECG, blood pressure, etc.
+    private int recordTypeCode; // Interned code of recordType, see RecordType
     private double measurementValue; // Example: heart rate
     private long timestamp;
 
@@ -29,6 +30,24 @@ public class PatientRecord {
         this.patientId = patientId;
         this.measurementValue = measurementValue;
         this.recordType = recordType;
+        this.recordTypeCode = RecordType.codeOf(recordType);
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Constructs a new patient record from an interned record type code.
+     *
+     * @param patientId        the unique identifier for the patient
+     * @param measurementValue the numerical value of the recorded measurement
+     * @param recordTypeCode   the code of the measurement type, see {@link RecordType}
+     * @param timestamp        the time at which the measurement was recorded, in
+     *                         milliseconds since epoch
+     */
+    public PatientRecord(int patientId, double measurementValue, int recordTypeCode, long timestamp) {
+        this.patientId = patientId;
+        this.measurementValue = measurementValue;
+        this.recordType = RecordType.nameOf(recordTypeCode);
+        this.recordTypeCode = recordTypeCode;
         this.timestamp = timestamp;
     }
 
@@ -67,4 +86,13 @@ public class PatientRecord {
     public String getRecordType() {
         return recordType;
     }
+
+    /**
+     * Returns the interned code of the record type.
+     *
+     * @return the record type code, see {@link RecordType}
+     */
+    public int getRecordTypeCode() {
+        return recordTypeCode;
+    }
 }
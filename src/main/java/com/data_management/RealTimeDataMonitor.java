@@ -1,5 +1,9 @@
 package com.data_management;
 
+import com.alerts.AlertDispatcher;
+import com.alerts.AlertEngine;
+import com.alerts.AlertStateCache;
+import com.alerts.LoggingAlertSink;
 import com.cardio_generator.outputs.WebSocketDataReader;
 import java.io.IOException;
 import java.util.List;
@@ -13,14 +17,14 @@ import java.util.Scanner;
 public class RealTimeDataMonitor {
     private static DataStorage dataStorage;
     private static WebSocketDataReader webSocketReader;
+    private static AlertEngine alertEngine;
+    private static AlertStateCache alertStates;
+    private static AlertDispatcher alertDispatcher;
     
     public static void main(String[] args) {
         System.out.println("=== Real-Time Patient Data Monitor ===");
         System.out.println("Starting WebSocket client to receive patient data...\n");
         
-        // Initialize data storage
-        dataStorage = DataStorage.getInstance();
-        
         // Create WebSocket reader (connecting to localhost:8080 by default)
         String hostname = "localhost";
         int port = 8080;
@@ -34,6 +38,28 @@ public class RealTimeDataMonitor {
                 System.err.println("Invalid port number, using default: 8080");
             }
         }
+
+        // Initialize data storage; an optional third argument enables sharded storage
+        // with the given number of shards (0 means one shard per core)
+        dataStorage = DataStorage.getInstance();
+        if (args.length >= 3) {
+            try {
+                int shards = Integer.parseInt(args[2]);
+                dataStorage = DataStorage.enableSharding(shards > 0 ? shards : Runtime.getRuntime().availableProcessors());
+                System.out.println("Using sharded storage with " + ((ShardedDataStorage) dataStorage).getShardCount() + " shards");
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid shard count, using unsharded storage");
+            }
+        }
+
+        // Evaluate alerts on every stored reading; only changes of a patient's
+        // conditions are logged, not every reading that still meets one. Alerts are
+        // logged by a dispatcher thread, highest priority first.
+        alertDispatcher = new AlertDispatcher(new LoggingAlertSink());
+        alertStates = new AlertStateCache(AlertStateCache.DEFAULT_TTL_MILLIS,
+                AlertStateCache.forwardingTo(alertDispatcher));
+        alertEngine = new AlertEngine(alertStates);
+        alertEngine.attach(dataStorage);
         
         webSocketReader = new WebSocketDataReader(hostname, port);
         
@@ -64,6 +90,7 @@ public class RealTimeDataMonitor {
             while (webSocketReader.isReading()) {
                 try {
                     Thread.sleep(5000); // Display stats every 5 seconds
+                    alertStates.expire(System.currentTimeMillis());
                     displaySystemStats();
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
@@ -82,6 +109,13 @@ public class RealTimeDataMonitor {
     private static void displaySystemStats() {
         System.out.println("\n" + "=".repeat(50));
         System.out.println(dataStorage.getSystemStatistics());
+        System.out.println("Alerts Raised: " + alertEngine.getAlertsRaised() +
+                " (" + alertEngine.getReadingsEvaluated() + " readings evaluated)");
+        System.out.println("Active Conditions: " + alertStates.getActiveCount() +
+                " (" + alertStates.getSuppressedCount() + " repeated alerts suppressed)");
+        System.out.println("Alerts Dispatched: " + alertDispatcher.getDispatchedCount() +
+                " (" + alertDispatcher.getQueuedCount() + " queued, " + alertDispatcher.getShedCount() + " shed, "
+                + alertDispatcher.getOverflowCount() + " over capacity)");
         System.out.println("Connection Status: " + (webSocketReader.isReading() ? "CONNECTED" : "DISCONNECTED"));
         System.out.println("=".repeat(50) + "\n");
     }
@@ -163,9 +197,9 @@ public class RealTimeDataMonitor {
      * Displays information about all patients in the system.
      */
     private static void displayAllPatients() {
-        List<Patient> patients = dataStorage.getAllPatients();
+        List<Integer> patientIds = dataStorage.getPatientIds();
         
-        if (patients.isEmpty()) {
+        if (patientIds.isEmpty()) {
             System.out.println("No patients found in the system.");
             return;
         }
@@ -173,10 +207,10 @@ public class RealTimeDataMonitor {
         System.out.println("Current patients in the system:");
         System.out.println("-".repeat(30));
         
-        for (Patient patient : patients) {
-            List<PatientRecord> recentRecords = dataStorage.getRecentRecords(patient.getPatientId(), 5);
+        for (int patientId : patientIds) {
+            List<PatientRecord> recentRecords = dataStorage.getRecentRecords(patientId, 5);
             System.out.printf("Patient ID: %d (Recent records: %d)%n", 
-                            patient.getPatientId(), recentRecords.size());
+                            patientId, recentRecords.size());
         }
     }
     
@@ -221,6 +255,12 @@ public class RealTimeDataMonitor {
         if (webSocketReader != null) {
             webSocketReader.stopRealtimeReading();
         }
+        if (alertDispatcher != null) {
+            alertDispatcher.close(1000);
+        }
+        if (dataStorage instanceof ShardedDataStorage) {
+            ((ShardedDataStorage) dataStorage).shutdown();
+        }
         System.out.println("Application terminated.");
     }
 }
\ No newline at end of file
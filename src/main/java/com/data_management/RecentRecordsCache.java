@@ -0,0 +1,115 @@
+package com.data_management;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cache of the most recent readings of one patient, kept as one
+ * {@link RecordRingBuffer} per record type.
+ * <p>
+ * Every reading is tagged with a per-patient ingest sequence number, so the latest
+ * readings across all record types can be returned in arrival order by merging the
+ * tails of the per-type buffers. Writes happen under the patient's write lock (single
+ * writer); reads are lock-free, see {@link RecordRingBuffer}.
+ * </p>
+ */
+public class RecentRecordsCache {
+    private final int patientId;
+    private final int capacityPerType;
+    private volatile RecordRingBuffer[] buffersByCode;
+    private long nextSequence;
+
+    /**
+     * Creates an empty cache for a patient.
+     *
+     * @param patientId       the patient the cached readings belong to
+     * @param capacityPerType the number of readings kept per record type
+     */
+    public RecentRecordsCache(int patientId, int capacityPerType) {
+        this.patientId = patientId;
+        this.capacityPerType = capacityPerType;
+        this.buffersByCode = new RecordRingBuffer[RecordType.count()];
+    }
+
+    /**
+     * Adds a reading to the buffer of its record type. Must only be called by the
+     * writer holding the patient's write lock.
+     *
+     * @param recordTypeCode the code of the record type
+     * @param timestamp      the time of the reading, in milliseconds since epoch
+     * @param value          the measurement value
+     */
+    public void add(int recordTypeCode, long timestamp, double value) {
+        RecordRingBuffer[] buffers = buffersByCode;
+        RecordRingBuffer buffer = recordTypeCode < buffers.length ? buffers[recordTypeCode] : null;
+        if (buffer == null) {
+            buffer = new RecordRingBuffer(capacityPerType);
+            // Copy on write so readers always see a fully built array of buffers
+            RecordRingBuffer[] grown = Arrays.copyOf(buffers, Math.max(buffers.length, Math.max(recordTypeCode + 1, RecordType.count())));
+            grown[recordTypeCode] = buffer;
+            buffersByCode = grown;
+        }
+        buffer.add(nextSequence++, timestamp, value);
+    }
+
+    /**
+     * Returns the latest readings across all record types, oldest first.
+     * No lock is taken.
+     *
+     * @param count the maximum number of readings to return
+     * @return the latest readings in arrival order
+     */
+    public List<PatientRecord> getLatest(int count) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+
+        RecordRingBuffer[] buffers = buffersByCode;
+        int bufferCount = 0;
+        int[] codes = new int[buffers.length];
+        long[][] sequences = new long[buffers.length][];
+        long[][] timestamps = new long[buffers.length][];
+        double[][] values = new double[buffers.length][];
+        int[] sizes = new int[buffers.length];
+
+        for (int code = 0; code < buffers.length; code++) {
+            RecordRingBuffer buffer = buffers[code];
+            if (buffer == null) {
+                continue;
+            }
+            int n = Math.min(count, buffer.getCapacity());
+            sequences[bufferCount] = new long[n];
+            timestamps[bufferCount] = new long[n];
+            values[bufferCount] = new double[n];
+            sizes[bufferCount] = buffer.snapshot(n, sequences[bufferCount], timestamps[bufferCount], values[bufferCount]);
+            codes[bufferCount] = code;
+            bufferCount++;
+        }
+
+        // Merge the tails newest-first by sequence number, then restore arrival order
+        PatientRecord[] latest = new PatientRecord[count];
+        int[] cursors = Arrays.copyOf(sizes, bufferCount);
+        int taken = 0;
+        while (taken < count) {
+            int best = -1;
+            for (int b = 0; b < bufferCount; b++) {
+                if (cursors[b] > 0 && (best < 0
+                        || sequences[b][cursors[b] - 1] > sequences[best][cursors[best] - 1])) {
+                    best = b;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            int i = --cursors[best];
+            latest[taken++] = new PatientRecord(patientId, values[best][i], codes[best], timestamps[best][i]);
+        }
+
+        List<PatientRecord> result = new ArrayList<>(taken);
+        for (int i = taken - 1; i >= 0; i--) {
+            result.add(latest[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,128 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * A batch of readings stored column by column, for bulk ingest through
+ * {@link DataStorage#addPatientDataBatch(RecordBatch)}.
+ * <p>
+ * Readers fill a batch while parsing and hand it to the storage once it is full, so the
+ * storage validates, groups and locks per batch instead of per reading. A batch can be
+ * cleared and refilled, so a reader needs only one. Batches are not thread-safe.
+ * </p>
+ */
+public class RecordBatch {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private int[] patientIds;
+    private long[] timestamps;
+    private int[] recordTypeCodes;
+    private double[] values;
+    private int size;
+
+    /**
+     * Creates an empty batch with the default initial capacity.
+     */
+    public RecordBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param initialCapacity the number of readings the batch holds before it grows
+     */
+    public RecordBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.patientIds = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.recordTypeCodes = new int[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Appends a reading to the batch.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param timestamp        the time of the reading, in milliseconds since epoch
+     * @param recordTypeCode   the code of the record type, see {@link RecordType}
+     * @param measurementValue the measurement value
+     */
+    public void add(int patientId, long timestamp, int recordTypeCode, double measurementValue) {
+        if (size == patientIds.length) {
+            int grown = size * 2;
+            patientIds = Arrays.copyOf(patientIds, grown);
+            timestamps = Arrays.copyOf(timestamps, grown);
+            recordTypeCodes = Arrays.copyOf(recordTypeCodes, grown);
+            values = Arrays.copyOf(values, grown);
+        }
+        patientIds[size] = patientId;
+        timestamps[size] = timestamp;
+        recordTypeCodes[size] = recordTypeCode;
+        values[size] = measurementValue;
+        size++;
+    }
+
+    /**
+     * Removes all readings, keeping the allocated capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the number of readings in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the batch holds no readings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index the position of the reading in the batch
+     * @return the patient ID of the reading
+     */
+    public int getPatientId(int index) {
+        checkIndex(index);
+        return patientIds[index];
+    }
+
+    /**
+     * @param index the position of the reading in the batch
+     * @return the timestamp of the reading
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    /**
+     * @param index the position of the reading in the batch
+     * @return the record type code of the reading
+     */
+    public int getRecordTypeCode(int index) {
+        checkIndex(index);
+        return recordTypeCodes[index];
+    }
+
+    /**
+     * @param index the position of the reading in the batch
+     * @return the measurement value of the reading
+     */
+    public double getValue(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.data_management;
+
+/**
+ * Receives every reading accepted by a {@link DataStorage}, right after it is stored.
+ * <p>
+ * Listeners are called on the thread that added the reading while the patient's write
+ * lock is held (or on the shard thread of a {@link ShardedDataStorage}), so the readings
+ * of one patient are delivered one at a time and in the order they were stored.
+ * Readings of different patients may be delivered concurrently. Because the ingest path
+ * waits for the listener, implementations should only update in-memory state and
+ * return; rejected and duplicate readings are not delivered.
+ * </p>
+ */
+@FunctionalInterface
+public interface RecordListener {
+
+    /**
+     * Called after a reading has been stored.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param recordTypeCode   the code of the record type, see {@link RecordType}
+     * @param timestamp        the time of the measurement, in milliseconds since the epoch
+     * @param measurementValue the measured value
+     */
+    void onRecord(int patientId, int recordTypeCode, long timestamp, double measurementValue);
+}
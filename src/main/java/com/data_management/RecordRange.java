@@ -0,0 +1,124 @@
+package com.data_management;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A read-only, time-ordered view over a contiguous part of a {@link RecordSeries}.
+ * <p>
+ * Ranges are returned by time-range queries instead of copies. The primitive
+ * accessors ({@link #getTimestamp(int)} and {@link #getValue(int)}) read straight from
+ * the series; {@link #get(int)} materializes a {@link PatientRecord} on demand so the
+ * view can be passed to code that works on {@code List<PatientRecord>}.
+ * </p>
+ */
+public class RecordRange extends AbstractList<PatientRecord> implements RandomAccess {
+    private final RecordSeries series;
+    private final int patientId;
+    private final int from;
+    private final int to;
+
+    /**
+     * Creates a view of the readings at positions {@code from} (inclusive) to
+     * {@code to} (exclusive) of the given series.
+     *
+     * @param series    the series to view
+     * @param patientId the patient the series belongs to
+     * @param from      the first position in the view
+     * @param to        the position after the last one in the view
+     */
+    RecordRange(RecordSeries series, int patientId, int from, int to) {
+        this.series = series;
+        this.patientId = patientId;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public PatientRecord get(int index) {
+        return series.toRecord(patientId, toSeriesIndex(index));
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Returns the timestamp of the reading at the given position in this view.
+     *
+     * @param index the position within the view
+     * @return the timestamp in milliseconds since epoch
+     */
+    public long getTimestamp(int index) {
+        return series.getTimestamp(toSeriesIndex(index));
+    }
+
+    /**
+     * Returns the measurement value of the reading at the given position in this view.
+     *
+     * @param index the position within the view
+     * @return the measurement value
+     */
+    public double getValue(int index) {
+        return series.getValue(toSeriesIndex(index));
+    }
+
+    /**
+     * Copies the timestamps of this view into an array.
+     *
+     * @param dest    the array to copy into, with room for {@link #size()} timestamps
+     * @param destPos the position in {@code dest} of the first timestamp
+     */
+    public void copyTimestamps(long[] dest, int destPos) {
+        series.copyTimestamps(from, to, dest, destPos);
+    }
+
+    /**
+     * Copies the measurement values of this view into an array, so they can be scanned
+     * as a primitive column.
+     *
+     * @param dest    the array to copy into, with room for {@link #size()} values
+     * @param destPos the position in {@code dest} of the first value
+     */
+    public void copyValues(double[] dest, int destPos) {
+        series.copyValues(from, to, dest, destPos);
+    }
+
+    /**
+     * Searches the measurement values of this view in place, one chunk of the series
+     * at a time, without copying them.
+     *
+     * @param scanner the search to run on each chunk
+     * @return the position in this view of the first value found, or -1 if there is none
+     */
+    public int indexOfValue(ValueScanner scanner) {
+        int index = series.indexOfValue(from, to, scanner);
+        return index < 0 ? -1 : index - from;
+    }
+
+    /**
+     * Returns the record type of the readings in this view.
+     *
+     * @return the record type
+     */
+    public String getRecordType() {
+        return series.getRecordType();
+    }
+
+    /**
+     * Returns the code of the record type of the readings in this view.
+     *
+     * @return the record type code, see {@link RecordType}
+     */
+    public int getRecordTypeCode() {
+        return series.getRecordTypeCode();
+    }
+
+    private int toSeriesIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        return from + index;
+    }
+}
@@ -0,0 +1,132 @@
+package com.data_management;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity ring buffer holding the most recent readings of one record type.
+ * <p>
+ * Readings are stored in primitive arrays, so adding a reading never allocates once
+ * the buffer has reached its capacity, and the oldest reading is overwritten in O(1)
+ * instead of being shifted out of a list. The arrays start small and double until
+ * they reach the capacity, so rarely sampled record types stay cheap.
+ * </p>
+ * <p>
+ * The buffer has a single writer. Readers do not take any lock: they read the write
+ * counter, copy the entries they need and re-read the counter. If the writer lapped
+ * any copied entry in the meantime the copy is discarded and retried, which gives
+ * readers a consistent snapshot without ever blocking the writer.
+ * </p>
+ */
+public class RecordRingBuffer {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int capacity;
+    private long[] sequences;
+    private long[] timestamps;
+    private double[] values;
+    private volatile long writeCount;
+
+    /**
+     * Creates an empty ring buffer.
+     *
+     * @param capacity the maximum number of readings kept
+     */
+    public RecordRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        // One slot more than the capacity, so the slot being written is never one a
+        // reader may still need
+        int initial = Math.min(INITIAL_CAPACITY, capacity + 1);
+        this.sequences = new long[initial];
+        this.timestamps = new long[initial];
+        this.values = new double[initial];
+    }
+
+    /**
+     * Adds a reading, overwriting the oldest one when the buffer is full.
+     * Must only be called by the single writer.
+     *
+     * @param sequence  the ingest sequence number of the reading, used to restore the
+     *                  arrival order across buffers
+     * @param timestamp the time of the reading, in milliseconds since epoch
+     * @param value     the measurement value
+     */
+    public void add(long sequence, long timestamp, double value) {
+        long index = writeCount;
+        if (index == timestamps.length - 1 && timestamps.length <= capacity) {
+            // Still filling up: grow the arrays. Nothing has wrapped yet, so every
+            // reading keeps its slot in the larger arrays.
+            int grown = (int) Math.min((long) timestamps.length * 2, capacity + 1L);
+            sequences = Arrays.copyOf(sequences, grown);
+            timestamps = Arrays.copyOf(timestamps, grown);
+            values = Arrays.copyOf(values, grown);
+        }
+
+        int slot = (int) (index % timestamps.length);
+        sequences[slot] = sequence;
+        timestamps[slot] = timestamp;
+        values[slot] = value;
+        writeCount = index + 1; // publish the reading
+    }
+
+    /**
+     * Copies up to {@code count} of the latest readings into the given arrays, oldest
+     * first. Safe to call concurrently with the writer; no lock is taken.
+     *
+     * @param count            the maximum number of readings to copy
+     * @param sequencesOut     receives the ingest sequence numbers
+     * @param timestampsOut    receives the timestamps
+     * @param valuesOut        receives the values
+     * @return the number of readings copied
+     */
+    public int snapshot(int count, long[] sequencesOut, long[] timestampsOut, double[] valuesOut) {
+        while (true) {
+            long end = writeCount;
+            if (end == 0 || count <= 0) {
+                return 0;
+            }
+            long[] seqs = sequences;
+            long[] times = timestamps;
+            double[] vals = values;
+            int length = times.length;
+
+            int n = (int) Math.min(Math.min(count, end), capacity);
+            long start = end - n;
+            for (int i = 0; i < n; i++) {
+                int slot = (int) ((start + i) % length);
+                sequencesOut[i] = seqs[slot];
+                timestampsOut[i] = times[slot];
+                valuesOut[i] = vals[slot];
+            }
+
+            // Make sure the copies above are done before the counter is re-read
+            VarHandle.loadLoadFence();
+            long after = writeCount;
+            if (after - start < length) {
+                return n;
+            }
+            // The writer overwrote part of the copied range: try again
+        }
+    }
+
+    /**
+     * Returns the number of readings currently held.
+     *
+     * @return the number of readings, at most the capacity
+     */
+    public int size() {
+        return (int) Math.min(writeCount, capacity);
+    }
+
+    /**
+     * Returns the maximum number of readings held.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,360 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * Columnar storage for all readings of a single record type of one patient.
+ * Instead of keeping one {@link PatientRecord} object per reading, timestamps and
+ * measurement values are kept in parallel primitive arrays that are split into
+ * fixed-size chunks. Appending never copies the data that is already stored, and
+ * {@link PatientRecord} objects are only created when a caller asks for them.
+ * <p>
+ * The first chunk starts small and doubles until it reaches the full chunk size, so
+ * rarely sampled record types (e.g. blood levels) do not pay for a full chunk.
+ * </p>
+ * <p>
+ * Readings are kept in timestamp order. In-order arrivals take the cheap append
+ * path; a late reading is inserted at its position by shifting the newer readings.
+ * Because the series is sorted, time-range queries use binary search and cost
+ * O(log n) plus the size of the returned range.
+ * </p>
+ * <p>
+ * A series has a single writer (the owner of the patient's write lock). Readers may
+ * access it concurrently: the size is published through a volatile field after the
+ * reading has been written, so every index below {@link #size()} is fully visible.
+ * A {@link RecordRange} handed out before an out-of-order insertion may observe the
+ * shifted readings; callers that need a stable copy should take it under the
+ * patient's read lock.
+ * </p>
+ */
+public class RecordSeries {
+    private static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 1024 readings per chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int recordTypeCode;
+    private final String recordType;
+    private long[][] timestampChunks;
+    private double[][] valueChunks;
+    private volatile int size;
+
+    /**
+     * Creates an empty series for the given record type.
+     *
+     * @param recordType the type of record stored in this series, e.g. "ECG"
+     */
+    public RecordSeries(String recordType) {
+        this(RecordType.codeOf(recordType));
+    }
+
+    /**
+     * Creates an empty series for the record type with the given code.
+     *
+     * @param recordTypeCode the code of the record type, see {@link RecordType}
+     */
+    public RecordSeries(int recordTypeCode) {
+        this.recordTypeCode = recordTypeCode;
+        this.recordType = RecordType.nameOf(recordTypeCode);
+        this.timestampChunks = new long[4][];
+        this.valueChunks = new double[4][];
+    }
+
+    /**
+     * Adds a reading while keeping the series ordered by timestamp.
+     * Readings with equal timestamps keep their arrival order.
+     *
+     * @param timestamp the time of the reading, in milliseconds since epoch
+     * @param value     the measurement value
+     */
+    public void add(long timestamp, double value) {
+        int currentSize = size;
+        if (currentSize == 0 || timestamp >= getTimestamp(currentSize - 1)) {
+            append(timestamp, value);
+            return;
+        }
+
+        // Late arrival: insert after all readings with a timestamp <= the new one
+        int position = upperBound(timestamp);
+        ensureCapacity(currentSize >>> CHUNK_SHIFT, currentSize & CHUNK_MASK);
+        for (int i = currentSize; i > position; i--) {
+            set(i, rawTimestamp(i - 1), rawValue(i - 1));
+        }
+        set(position, timestamp, value);
+        size = currentSize + 1; // publish the reading
+    }
+
+    /**
+     * Appends a reading to the end of the series. The caller must make sure the
+     * timestamp is not older than the last reading; use {@link #add(long, double)}
+     * when the order is not known.
+     *
+     * @param timestamp the time of the reading, in milliseconds since epoch
+     * @param value     the measurement value
+     */
+    public void append(long timestamp, double value) {
+        int index = size;
+        int chunk = index >>> CHUNK_SHIFT;
+        int offset = index & CHUNK_MASK;
+        ensureCapacity(chunk, offset);
+
+        timestampChunks[chunk][offset] = timestamp;
+        valueChunks[chunk][offset] = value;
+        size = index + 1; // publish the reading
+    }
+
+    /**
+     * Makes sure the slot at (chunk, offset) exists, growing the first chunk or the
+     * chunk directory as needed.
+     */
+    private void ensureCapacity(int chunk, int offset) {
+        if (chunk == timestampChunks.length) {
+            int newLength = timestampChunks.length * 2;
+            timestampChunks = Arrays.copyOf(timestampChunks, newLength);
+            valueChunks = Arrays.copyOf(valueChunks, newLength);
+        }
+
+        long[] timestamps = timestampChunks[chunk];
+        if (timestamps == null) {
+            int capacity = chunk == 0 ? INITIAL_CAPACITY : CHUNK_SIZE;
+            timestampChunks[chunk] = new long[capacity];
+            valueChunks[chunk] = new double[capacity];
+        } else if (offset == timestamps.length) {
+            // Only the first chunk is ever smaller than CHUNK_SIZE
+            int capacity = Math.min(timestamps.length * 2, CHUNK_SIZE);
+            timestampChunks[chunk] = Arrays.copyOf(timestamps, capacity);
+            valueChunks[chunk] = Arrays.copyOf(valueChunks[chunk], capacity);
+        }
+    }
+
+    /**
+     * Copies the series, one chunk at a time. Must be called by the writer of the
+     * series, or while no reading can be added to it.
+     *
+     * @return a series holding the same readings
+     */
+    RecordSeries copy() {
+        RecordSeries copy = new RecordSeries(recordTypeCode);
+        int currentSize = size;
+        int chunks = (currentSize + CHUNK_MASK) >>> CHUNK_SHIFT;
+        copy.timestampChunks = new long[timestampChunks.length][];
+        copy.valueChunks = new double[valueChunks.length][];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            copy.timestampChunks[chunk] = timestampChunks[chunk].clone();
+            copy.valueChunks[chunk] = valueChunks[chunk].clone();
+        }
+        copy.size = currentSize;
+        return copy;
+    }
+
+    private void set(int index, long timestamp, double value) {
+        timestampChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = timestamp;
+        valueChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = value;
+    }
+
+    private long rawTimestamp(int index) {
+        return timestampChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    private double rawValue(int index) {
+        return valueChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the position of the first reading with a timestamp greater than or
+     * equal to the given time, or {@link #size()} if there is none.
+     *
+     * @param timestamp the time to search for
+     * @return the insertion point of the first reading at or after the time
+     */
+    public int lowerBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rawTimestamp(mid) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the first reading with a timestamp strictly greater
+     * than the given time, or {@link #size()} if there is none.
+     *
+     * @param timestamp the time to search for
+     * @return the position after the last reading at or before the time
+     */
+    public int upperBound(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rawTimestamp(mid) <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns a read-only view of the readings whose timestamps fall within the given
+     * time range (inclusive). The view is located with two binary searches and does
+     * not copy any data.
+     *
+     * @param patientId the patient the series belongs to, used when records are
+     *                  materialized
+     * @param startTime the start of the time range, in milliseconds since epoch
+     * @param endTime   the end of the time range, in milliseconds since epoch
+     * @return a view of the readings within the range
+     */
+    public RecordRange range(int patientId, long startTime, long endTime) {
+        if (startTime > endTime) {
+            return new RecordRange(this, patientId, 0, 0);
+        }
+        int from = lowerBound(startTime);
+        int to = upperBound(endTime);
+        return new RecordRange(this, patientId, from, Math.max(from, to));
+    }
+
+    /**
+     * Returns the number of readings in this series.
+     *
+     * @return the number of readings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the timestamp of the reading at the given position.
+     *
+     * @param index the position of the reading, between 0 and {@link #size()} - 1
+     * @return the timestamp in milliseconds since epoch
+     */
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestampChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the measurement value of the reading at the given position.
+     *
+     * @param index the position of the reading, between 0 and {@link #size()} - 1
+     * @return the measurement value
+     */
+    public double getValue(int index) {
+        checkIndex(index);
+        return valueChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Copies the timestamps at positions {@code from} (inclusive) to {@code to}
+     * (exclusive) into an array, one chunk at a time.
+     *
+     * @param from    the first position to copy
+     * @param to      the position after the last one to copy
+     * @param dest    the array to copy into
+     * @param destPos the position in {@code dest} of the first timestamp
+     */
+    public void copyTimestamps(int from, int to, long[] dest, int destPos) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + size);
+        }
+        while (from < to) {
+            int offset = from & CHUNK_MASK;
+            int length = Math.min(to - from, CHUNK_SIZE - offset);
+            System.arraycopy(timestampChunks[from >>> CHUNK_SHIFT], offset, dest, destPos, length);
+            from += length;
+            destPos += length;
+        }
+    }
+
+    /**
+     * Copies the measurement values at positions {@code from} (inclusive) to {@code to}
+     * (exclusive) into an array, one chunk at a time.
+     *
+     * @param from    the first position to copy
+     * @param to      the position after the last one to copy
+     * @param dest    the array to copy into
+     * @param destPos the position in {@code dest} of the first value
+     */
+    public void copyValues(int from, int to, double[] dest, int destPos) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + size);
+        }
+        while (from < to) {
+            int offset = from & CHUNK_MASK;
+            int length = Math.min(to - from, CHUNK_SIZE - offset);
+            System.arraycopy(valueChunks[from >>> CHUNK_SHIFT], offset, dest, destPos, length);
+            from += length;
+            destPos += length;
+        }
+    }
+
+    /**
+     * Searches the measurement values at positions {@code from} (inclusive) to
+     * {@code to} (exclusive) in place, handing each chunk's part of the range to the
+     * scanner in order until it finds a value.
+     *
+     * @param from    the first position to search
+     * @param to      the position after the last one to search
+     * @param scanner the search to run on each chunk
+     * @return the position in this series of the first value found, or -1 if there is none
+     */
+    public int indexOfValue(int from, int to, ValueScanner scanner) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + size);
+        }
+        while (from < to) {
+            int offset = from & CHUNK_MASK;
+            int length = Math.min(to - from, CHUNK_SIZE - offset);
+            int found = scanner.indexIn(valueChunks[from >>> CHUNK_SHIFT], offset, offset + length);
+            if (found >= 0) {
+                return from - offset + found;
+            }
+            from += length;
+        }
+        return -1;
+    }
+
+    /**
+     * Materializes the reading at the given position as a {@link PatientRecord}.
+     *
+     * @param patientId the patient the series belongs to
+     * @param index     the position of the reading
+     * @return a new record holding the reading
+     */
+    public PatientRecord toRecord(int patientId, int index) {
+        return new PatientRecord(patientId, getValue(index), recordTypeCode, getTimestamp(index));
+    }
+
+    /**
+     * Returns the record type stored in this series.
+     *
+     * @return the record type
+     */
+    public String getRecordType() {
+        return recordType;
+    }
+
+    /**
+     * Returns the code of the record type stored in this series.
+     *
+     * @return the record type code, see {@link RecordType}
+     */
+    public int getRecordTypeCode() {
+        return recordTypeCode;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
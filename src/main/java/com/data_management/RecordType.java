@@ -0,0 +1,188 @@
+package com.data_management;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry that maps record type names (e.g. "ECG", "SystolicPressure") to small
+ * integer codes.
+ * <p>
+ * Readers intern the record type once when a reading is parsed. From then on storage,
+ * indexing and filtering compare integer codes instead of strings. The record types
+ * produced by the simulator are registered up front and exposed as constants; any
+ * other type is registered dynamically the first time it is seen.
+ * </p>
+ */
+public final class RecordType {
+    private static final Map<String, Integer> codesByName = new ConcurrentHashMap<>();
+    private static volatile String[] namesByCode = new String[0];
+    // Open-addressing table of codes by String hash code of their names, at most half
+    // full, with -1 in empty slots; rebuilt on registration and published after namesByCode
+    private static volatile int[] codesByHash = emptyTable(16);
+
+    public static final int ECG = codeOf("ECG");
+    public static final int SATURATION = codeOf("Saturation");
+    public static final int SYSTOLIC_PRESSURE = codeOf("SystolicPressure");
+    public static final int DIASTOLIC_PRESSURE = codeOf("DiastolicPressure");
+    public static final int ALERT = codeOf("Alert");
+    public static final int CHOLESTEROL = codeOf("Cholesterol");
+    public static final int WHITE_BLOOD_CELLS = codeOf("WhiteBloodCells");
+    public static final int RED_BLOOD_CELLS = codeOf("RedBloodCells");
+
+    private RecordType() {
+        // Static registry, not meant to be instantiated
+    }
+
+    /**
+     * Returns the code of the given record type, registering the type if it has not
+     * been seen before.
+     *
+     * @param name the record type name, e.g. "Saturation"
+     * @return the code of the record type
+     * @throws IllegalArgumentException if the name is null or empty
+     */
+    public static int codeOf(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Record type must not be null or empty");
+        }
+        Integer code = codesByName.get(name);
+        return code != null ? code : register(name);
+    }
+
+    /**
+     * Returns the code of the given record type without registering it.
+     *
+     * @param name the record type name
+     * @return the code of the record type, or -1 if the type is unknown
+     */
+    public static int lookup(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer code = codesByName.get(name);
+        return code != null ? code : -1;
+    }
+
+    /**
+     * Returns the code of the record type whose name equals the given part of a
+     * character sequence, without registering it. Nothing is allocated, so parsers can
+     * resolve a type straight from the message they are reading. The region is hashed
+     * like {@link String#hashCode()} and looked up in a hash table, so the cost does not
+     * grow with the number of registered types.
+     *
+     * @param text  the text containing the name
+     * @param start the index of the first character of the name
+     * @param end   the index after the last character of the name
+     * @return the code of the record type, or -1 if the type is unknown
+     */
+    public static int lookup(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+
+        int[] table = codesByHash;
+        String[] names = namesByCode; // read after the table, so it holds every code in it
+        int length = end - start;
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; table[slot] >= 0; slot = (slot + 1) & mask) {
+            String name = names[table[slot]];
+            if (name.hashCode() == hash && name.length() == length && regionEquals(name, text, start)) {
+                return table[slot];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the name of the record type with the given code.
+     *
+     * @param code the record type code
+     * @return the record type name
+     * @throws IllegalArgumentException if no record type has this code
+     */
+    public static String nameOf(int code) {
+        String[] names = namesByCode;
+        if (code < 0 || code >= names.length) {
+            throw new IllegalArgumentException("Unknown record type code: " + code);
+        }
+        return names[code];
+    }
+
+    /**
+     * Checks whether a code belongs to a registered record type.
+     *
+     * @param code the record type code
+     * @return true if the code is registered
+     */
+    public static boolean isValid(int code) {
+        return code >= 0 && code < namesByCode.length;
+    }
+
+    /**
+     * Returns the number of registered record types. Codes are always in the range
+     * {@code 0} to {@code count() - 1}, so they can be used as array indexes.
+     *
+     * @return the number of registered record types
+     */
+    public static int count() {
+        return namesByCode.length;
+    }
+
+    private static synchronized int register(String name) {
+        Integer existing = codesByName.get(name);
+        if (existing != null) {
+            return existing; // registered by another thread in the meantime
+        }
+
+        String[] names = namesByCode;
+        int code = names.length;
+        String[] grown = Arrays.copyOf(names, code + 1);
+        grown[code] = name;
+        namesByCode = grown; // publish the name before the code becomes visible
+
+        int[] table = codesByHash;
+        if (2 * (code + 1) > table.length) {
+            table = emptyTable(table.length * 2);
+            for (int c = 0; c < code; c++) {
+                insert(table, grown[c].hashCode(), c);
+            }
+        } else {
+            table = table.clone();
+        }
+        insert(table, name.hashCode(), code);
+        codesByHash = table;
+        codesByName.put(name, code);
+        return code;
+    }
+
+    private static int[] emptyTable(int size) {
+        int[] table = new int[size];
+        Arrays.fill(table, -1);
+        return table;
+    }
+
+    private static void insert(int[] table, int hash, int code) {
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        while (table[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = code;
+    }
+
+    // Mixes the high bits of a hash code into the low bits that pick the slot
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionEquals(String name, CharSequence text, int start) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
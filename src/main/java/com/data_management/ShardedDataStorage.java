@@ -0,0 +1,378 @@
+package com.data_management;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.logging.Logger;
+
+/**
+ * Data storage that partitions patients by ID hash into a fixed number of shards.
+ * <p>
+ * Each shard owns its own {@link DataStorage} and a single-threaded executor. All
+ * access to a shard, writes and reads, runs on that shard's thread, so the shard needs
+ * no locks and readings of one patient are always applied in the order they were
+ * added. {@link #addPatientData(int, double, int, long)} only hands the reading to the
+ * owning shard and returns; reads are queued behind the pending writes of the shard,
+ * so they always see the data added before them. Reads over all patients fan out to
+ * every shard and merge the results. Patients are handed out as snapshots taken on the
+ * shard thread, since the shard keeps adding readings to the originals without locks.
+ * </p>
+ * <p>
+ * The queue of each shard is bounded: when a shard falls behind, callers adding
+ * readings wait for room instead of letting the backlog grow without limit.
+ * </p>
+ * <p>
+ * The shard count is usually set to the number of cores, see
+ * {@link DataStorage#enableSharding(int)}.
+ * </p>
+ */
+public class ShardedDataStorage extends DataStorage {
+    private static final Logger LOG = Logger.getLogger(ShardedDataStorage.class);
+
+    // Pending tasks per shard before callers have to wait
+    static final int DEFAULT_QUEUE_CAPACITY = 16_384;
+
+    private final Shard[] shards;
+
+    /**
+     * Creates a sharded storage with one shard per available core.
+     */
+    public ShardedDataStorage() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a sharded storage.
+     *
+     * @param shardCount the number of shards
+     */
+    public ShardedDataStorage(int shardCount) {
+        this(shardCount, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a sharded storage.
+     *
+     * @param shardCount    the number of shards
+     * @param queueCapacity the number of tasks a shard can have pending before callers
+     *                      have to wait
+     */
+    public ShardedDataStorage(int shardCount, int queueCapacity) {
+        super(false, false);
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+    }
+
+    /**
+     * Hands a reading to the shard owning the patient. The reading is validated and
+     * stored asynchronously on the shard's thread.
+     */
+    @Override
+    public void addPatientData(int patientId, double measurementValue, int recordTypeCode, long timestamp) {
+        Shard shard = shardFor(patientId);
+        shard.executor.execute(() -> shard.storage.addPatientData(patientId, measurementValue, recordTypeCode, timestamp));
+    }
+
+    /**
+     * Splits the batch by shard and hands each part to its shard. The batch can be
+     * reused by the caller as soon as this returns.
+     */
+    @Override
+    public void addPatientDataBatch(RecordBatch batch) {
+        RecordBatch[] parts = new RecordBatch[shards.length];
+        for (int i = 0; i < batch.size(); i++) {
+            int patientId = batch.getPatientId(i);
+            int shardIndex = shardIndexFor(patientId);
+            if (parts[shardIndex] == null) {
+                parts[shardIndex] = new RecordBatch(batch.size() / shards.length + 1);
+            }
+            parts[shardIndex].add(patientId, batch.getTimestamp(i), batch.getRecordTypeCode(i), batch.getValue(i));
+        }
+
+        for (int s = 0; s < shards.length; s++) {
+            RecordBatch part = parts[s];
+            if (part != null) {
+                Shard shard = shards[s];
+                shard.executor.execute(() -> shard.storage.addPatientDataBatch(part));
+            }
+        }
+    }
+
+    @Override
+    public List<PatientRecord> getRecords(int patientId, long startTime, long endTime) {
+        return shardFor(patientId).call(storage -> storage.getRecords(patientId, startTime, endTime));
+    }
+
+    @Override
+    public List<PatientRecord> getRecentRecords(int patientId, int count) {
+        return shardFor(patientId).call(storage -> storage.getRecentRecords(patientId, count));
+    }
+
+    /**
+     * Runs the read on the shard thread owning the patient, after its pending writes.
+     */
+    @Override
+    public boolean readPatient(int patientId, Consumer<Patient> reader) {
+        return shardFor(patientId).call(storage -> storage.readPatient(patientId, reader));
+    }
+
+    /**
+     * Returns a snapshot of the patient, taken on its shard thread after the pending
+     * writes. Readings added later are not visible in it.
+     */
+    @Override
+    public Patient getPatient(int patientId) {
+        return shardFor(patientId).call(storage -> {
+            Patient patient = storage.getPatient(patientId);
+            return patient != null ? patient.snapshot() : null;
+        });
+    }
+
+    /**
+     * Returns snapshots of all patients, see {@link #getPatient(int)}. Copies every
+     * reading; use {@link #getPatientIds()} when only the IDs are needed.
+     */
+    @Override
+    public List<Patient> getAllPatients() {
+        List<Patient> patients = new ArrayList<>();
+        for (List<Patient> shardPatients : callAll(ShardedDataStorage::snapshotAll)) {
+            patients.addAll(shardPatients);
+        }
+        return patients;
+    }
+
+    @Override
+    public List<Integer> getPatientIds() {
+        List<Integer> patientIds = new ArrayList<>();
+        for (List<Integer> shardIds : callAll(DataStorage::getPatientIds)) {
+            patientIds.addAll(shardIds);
+        }
+        return patientIds;
+    }
+
+    @Override
+    public long getTotalRecordsProcessed() {
+        long total = 0;
+        for (Long count : callAll(DataStorage::getTotalRecordsProcessed)) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public int getPatientCount() {
+        int total = 0;
+        for (Integer count : callAll(DataStorage::getPatientCount)) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public long getDuplicateHits() {
+        long total = 0;
+        for (Long count : callAll(DataStorage::getDuplicateHits)) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public long getDuplicateEvictions() {
+        long total = 0;
+        for (Long count : callAll(DataStorage::getDuplicateEvictions)) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public void setDuplicateWindowMillis(long windowMillis) {
+        for (Shard shard : shards) {
+            shard.storage.setDuplicateWindowMillis(windowMillis);
+        }
+    }
+
+    @Override
+    public long getDuplicateWindowMillis() {
+        return shards[0].storage.getDuplicateWindowMillis();
+    }
+
+    /**
+     * Registers the listener with every shard. It is called on the shard threads.
+     */
+    @Override
+    public void addRecordListener(RecordListener listener) {
+        for (Shard shard : shards) {
+            shard.storage.addRecordListener(listener);
+        }
+    }
+
+    @Override
+    public void removeRecordListener(RecordListener listener) {
+        for (Shard shard : shards) {
+            shard.storage.removeRecordListener(listener);
+        }
+    }
+
+    @Override
+    public synchronized void clearAllData() {
+        callAll(storage -> {
+            storage.clearPatients();
+            return null;
+        });
+        System.out.println("All patient data cleared from storage");
+    }
+
+    @Override
+    public String getSystemStatistics() {
+        return super.getSystemStatistics() + String.format("\n- Shards: %d", shards.length);
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Waits until every reading added so far has been stored.
+     */
+    public void flush() {
+        callAll(storage -> null);
+    }
+
+    /**
+     * Stores the pending readings and stops the shard threads. The storage cannot be
+     * used afterwards.
+     */
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        for (Shard shard : shards) {
+            try {
+                if (!shard.executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    LOG.warn("Shard {} did not finish pending writes in time", shard.index);
+                    shard.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                shard.executor.shutdownNow();
+            }
+        }
+    }
+
+    private static List<Patient> snapshotAll(DataStorage storage) {
+        List<Patient> patients = storage.getAllPatients();
+        patients.replaceAll(Patient::snapshot);
+        return patients;
+    }
+
+    private Shard shardFor(int patientId) {
+        return shards[shardIndexFor(patientId)];
+    }
+
+    private int shardIndexFor(int patientId) {
+        // Spread the bits like HashMap does, so consecutive IDs do not cluster
+        int hash = Integer.hashCode(patientId);
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards.length);
+    }
+
+    /**
+     * Runs a read on every shard in parallel and returns the results in shard order.
+     */
+    private <T> List<T> callAll(Function<DataStorage, T> read) {
+        List<Future<T>> futures = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            futures.add(shard.submit(read));
+        }
+
+        List<T> results = new ArrayList<>(shards.length);
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading from a shard", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shard read failed", e.getCause());
+        }
+    }
+
+    /**
+     * One partition of the patients: a storage and the thread that owns it.
+     */
+    private static final class Shard {
+        private final int index;
+        private final DataStorage storage;
+        private final ThreadPoolExecutor executor;
+        private volatile Thread thread;
+
+        private Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.storage = new DataStorage(false);
+            // Running rejected tasks on the caller would break the single-thread
+            // ownership of the storage, so a full queue makes the caller wait instead
+            this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread t = new Thread(runnable, "data-storage-shard-" + index);
+                        t.setDaemon(true);
+                        thread = t;
+                        return t;
+                    }, Shard::waitForRoom);
+        }
+
+        private static void waitForRoom(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Shard is shut down");
+            }
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for a shard", e);
+            }
+        }
+
+        private <T> Future<T> submit(Function<DataStorage, T> read) {
+            Callable<T> task = () -> read.apply(storage);
+            return executor.submit(task);
+        }
+
+        private <T> T call(Function<DataStorage, T> read) {
+            if (Thread.currentThread() == thread) {
+                // Already on the shard thread, e.g. a listener reading back: run inline
+                return read.apply(storage);
+            }
+            return await(submit(read));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.data_management;
+
+/**
+ * Searches a part of a primitive column of measurement values, as handed out chunk by
+ * chunk by {@link RecordSeries#indexOfValue(int, int, ValueScanner)}. This lets a
+ * caller scan the stored values in place instead of copying them out first.
+ */
+@FunctionalInterface
+public interface ValueScanner {
+
+    /**
+     * Searches the values at positions {@code from} (inclusive) to {@code to}
+     * (exclusive) of an array. The array must not be modified.
+     *
+     * @param values the array holding the values
+     * @param from   the first position to search
+     * @param to     the position after the last one to search
+     * @return the position in {@code values} of the value found, or -1 if there is none
+     */
+    int indexIn(double[] values, int from, int to);
+}
@@ -52,4 +52,14 @@ public abstract class AlertDecorator extends Alert {
     public long getTimestamp() {
         return decoratedAlert.getTimestamp();
     }
+
+    /**
+     * Gets the priority from the decorated alert.
+     *
+     * @return the priority, or null if none was given
+     */
+    @Override
+    public PriorityAlertDecorator.Priority getPriority() {
+        return decoratedAlert.getPriority();
+    }
 }
\ No newline at end of file
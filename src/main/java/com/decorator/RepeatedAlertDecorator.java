@@ -1,17 +1,18 @@
 package com.decorator;
 import com.alerts.*;
-import java.util.*;
 
 /**
  * A decorator that adds the ability to repeat alerts at specified intervals.
  * This is useful for critical conditions that require continuous attention.
+ * Repetitions of all alerts run on one shared {@link RepetitionTimer}.
  */
 public class RepeatedAlertDecorator extends AlertDecorator {
     private final long repeatInterval; // interval in milliseconds
     private final int maxRepetitions;
-    private int currentRepetition = 0;
-    private Timer timer;
-    private AlertHandler alertHandler;
+    private final RepetitionTimer repetitionTimer;
+    private volatile int currentRepetition = 0;
+    private volatile RepetitionTimer.Repetition repetition;
+    private volatile AlertHandler alertHandler;
 
     /**
      * Interface for handling the repeated alert notifications.
@@ -30,48 +31,82 @@ public class RepeatedAlertDecorator extends AlertDecorator {
      * @param alertHandler the handler to process each repeated alert
      */
     public RepeatedAlertDecorator(Alert decoratedAlert, long repeatInterval, int maxRepetitions, AlertHandler alertHandler) {
+        this(decoratedAlert, repeatInterval, maxRepetitions, alertHandler, RepetitionTimer.shared());
+    }
+
+    /**
+     * Constructor for a RepeatedAlertDecorator whose repetitions run on the given timer.
+     *
+     * @param decoratedAlert the alert to be repeated
+     * @param repeatInterval the interval between repetitions in milliseconds
+     * @param maxRepetitions the maximum number of times to repeat the alert (0 for indefinite)
+     * @param alertHandler the handler to process each repeated alert
+     * @param repetitionTimer the timer that runs the repetitions
+     */
+    public RepeatedAlertDecorator(Alert decoratedAlert, long repeatInterval, int maxRepetitions,
+                                  AlertHandler alertHandler, RepetitionTimer repetitionTimer) {
         super(decoratedAlert);
         this.repeatInterval = repeatInterval;
         this.maxRepetitions = maxRepetitions;
         this.alertHandler = alertHandler;
+        this.repetitionTimer = repetitionTimer;
     }
 
     /**
-     * Starts the alert repetition schedule.
+     * Starts the alert repetition schedule. Starting an alert that is already repeating
+     * has no effect.
      */
-    public void startRepetition() {
-        timer = new Timer(true); // Create a daemon timer
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                if (maxRepetitions > 0 && currentRepetition >= maxRepetitions) {
-                    timer.cancel();
-                    return;
-                }
+    public synchronized void startRepetition() {
+        if (isRepeating()) {
+            return;
+        }
+        repetition = repetitionTimer.schedule(this::repeat, repeatInterval, maxRepetitions);
+    }
 
-                currentRepetition++;
-                if (alertHandler != null) {
-                    // Create a new alert with updated timestamp for each repetition
-                    Alert repeatedAlert = new Alert(
-                            getPatientId(),
-                            "[REPEATED] " + getCondition(),
-                            System.currentTimeMillis()
-                    );
-                    alertHandler.handleAlert(repeatedAlert);
-                }
-            }
-        }, repeatInterval, repeatInterval);
+    private void repeat() {
+        currentRepetition++;
+        AlertHandler handler = alertHandler;
+        if (handler != null) {
+            // Create a new alert with updated timestamp for each repetition
+            Alert repeatedAlert = new Alert(
+                    getPatientId(),
+                    "[REPEATED] " + getCondition(),
+                    System.currentTimeMillis()
+            );
+            handler.handleAlert(repeatedAlert);
+        }
     }
 
     /**
      * Stops the alert repetition.
      */
     public void stopRepetition() {
-        if (timer != null) {
-            timer.cancel();
+        RepetitionTimer.Repetition current = repetition;
+        if (current != null) {
+            current.cancel();
         }
     }
 
+    /**
+     * Tells whether the alert is still being repeated.
+     *
+     * @return true if the repetition was started and has neither been stopped nor
+     *         reached its maximum
+     */
+    public boolean isRepeating() {
+        RepetitionTimer.Repetition current = repetition;
+        return current != null && current.isActive();
+    }
+
+    /**
+     * Gets the number of alerts that are being repeated on the shared timer.
+     *
+     * @return the number of outstanding repetitions
+     */
+    public static int getOutstandingRepetitions() {
+        return RepetitionTimer.shared().getOutstandingCount();
+    }
+
     /**
      * Gets the current repetition count.
      *
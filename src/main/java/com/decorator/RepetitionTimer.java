@@ -0,0 +1,265 @@
+package com.decorator;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.logging.Logger;
+
+/**
+ * A hashed-wheel timer that runs the repetitions of all {@link RepeatedAlertDecorator}s
+ * on one daemon thread, instead of one {@link java.util.Timer} thread per alert.
+ * <p>
+ * Time is divided into ticks. A repetition waits in the bucket of the wheel its next
+ * run falls into, together with the number of full turns of the wheel still to go.
+ * Each tick the timer thread walks one bucket and takes out the repetitions that are
+ * due; once the tick is over it runs them and puts them back into the bucket of their
+ * next run, counting the turns from the next tick. Scheduling and cancelling cost
+ * O(1): new repetitions are handed to the timer thread through a queue, and a cancelled
+ * repetition is only marked, then dropped when the thread next walks its bucket. Runs
+ * are late by at most one tick.
+ * </p>
+ * <p>
+ * Tasks run on the timer thread and should be short, e.g. hand the alert to a sink or
+ * the asynchronous log. The thread is started with the first repetition.
+ * </p>
+ */
+public final class RepetitionTimer {
+    private static final Logger LOG = Logger.getLogger(RepetitionTimer.class);
+    private static final RepetitionTimer SHARED = new RepetitionTimer(10, 512);
+
+    private final long tickNanos;
+    private final Repetition[] wheel;
+    private final int mask;
+    private final Queue<Repetition> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Object startLock = new Object();
+    private volatile Thread worker;
+    private volatile boolean shutdown;
+    private long startNanos;
+    // Number of ticks processed, which is also the next tick to process; only used by
+    // the timer thread
+    private long tick;
+
+    /**
+     * Creates a timer.
+     *
+     * @param tickMillis the length of a tick, which is the timer's precision
+     * @param wheelSize  the number of buckets, rounded up to a power of two
+     */
+    public RepetitionTimer(long tickMillis, int wheelSize) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Repetition[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return the timer shared by all repeated alerts, with 10 ms ticks
+     */
+    public static RepetitionTimer shared() {
+        return SHARED;
+    }
+
+    /**
+     * Runs a task every {@code intervalMillis}, starting one interval from now.
+     *
+     * @param task           the task
+     * @param intervalMillis the time between runs, in milliseconds
+     * @param maxRuns        the number of runs, or 0 to run until cancelled
+     * @return a handle to cancel the repetition
+     */
+    public Repetition schedule(Runnable task, long intervalMillis, int maxRuns) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + intervalMillis);
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Timer is shut down");
+        }
+        startIfNeeded();
+        Repetition repetition = new Repetition(task, TimeUnit.MILLISECONDS.toNanos(intervalMillis), maxRuns);
+        repetition.deadline = System.nanoTime() - startNanos + repetition.intervalNanos;
+        outstanding.incrementAndGet();
+        scheduled.add(repetition);
+        return repetition;
+    }
+
+    /**
+     * @return the number of repetitions that are scheduled and neither finished nor
+     *         cancelled
+     */
+    public int getOutstandingCount() {
+        return outstanding.get();
+    }
+
+    /**
+     * Stops the timer thread. Outstanding repetitions do not run any more.
+     */
+    public void shutdown() {
+        shutdown = true;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void startIfNeeded() {
+        if (worker != null) {
+            return;
+        }
+        synchronized (startLock) {
+            if (worker == null) {
+                startNanos = System.nanoTime();
+                Thread thread = new Thread(this::run, "alert-repetitions");
+                thread.setDaemon(true);
+                worker = thread;
+                thread.start();
+            }
+        }
+    }
+
+    private void run() {
+        while (!shutdown) {
+            long wait = (tick + 1) * tickNanos - (System.nanoTime() - startNanos);
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    if (shutdown) {
+                        break;
+                    }
+                    continue;
+                }
+            }
+            transferScheduled();
+            Repetition due = expireBucket((int) (tick & mask));
+            tick++;
+            // Rescheduled only now, so a run one full turn away is not put back into the
+            // bucket being walked and the turns are counted from the next tick
+            while (due != null) {
+                Repetition next = due.next;
+                due.next = null;
+                runOnce(due);
+                due = next;
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        Repetition repetition;
+        while ((repetition = scheduled.poll()) != null) {
+            if (!repetition.cancelled) {
+                insert(repetition);
+            }
+        }
+    }
+
+    private void insert(Repetition repetition) {
+        // Never schedule into the past: a run that is already due goes into this tick
+        long dueTick = Math.max(repetition.deadline / tickNanos, tick);
+        repetition.remainingRounds = (dueTick - tick) / wheel.length;
+        int bucket = (int) (dueTick & mask);
+        repetition.next = wheel[bucket];
+        wheel[bucket] = repetition;
+    }
+
+    /**
+     * Empties a bucket, putting back the repetitions that still have turns to go.
+     *
+     * @return the repetitions that are due, linked through {@code next}
+     */
+    private Repetition expireBucket(int bucket) {
+        Repetition repetition = wheel[bucket];
+        wheel[bucket] = null;
+        Repetition due = null;
+        while (repetition != null) {
+            Repetition next = repetition.next;
+            repetition.next = null;
+            if (repetition.cancelled) {
+                // already counted out by cancel()
+            } else if (repetition.remainingRounds > 0) {
+                repetition.remainingRounds--;
+                repetition.next = wheel[bucket];
+                wheel[bucket] = repetition;
+            } else {
+                repetition.next = due;
+                due = repetition;
+            }
+            repetition = next;
+        }
+        return due;
+    }
+
+    private void runOnce(Repetition repetition) {
+        repetition.runs++;
+        try {
+            repetition.task.run();
+        } catch (RuntimeException e) {
+            LOG.error("Repeated alert task failed: {}", e);
+        }
+        if (repetition.maxRuns > 0 && repetition.runs >= repetition.maxRuns) {
+            repetition.finish();
+        } else if (!repetition.cancelled) {
+            repetition.deadline += repetition.intervalNanos;
+            insert(repetition);
+        }
+    }
+
+    /**
+     * A scheduled repetition.
+     */
+    public final class Repetition {
+        private final Runnable task;
+        private final long intervalNanos;
+        private final int maxRuns;
+        // Fields below are owned by the timer thread, except for the flags
+        private long deadline;
+        private long remainingRounds;
+        private Repetition next;
+        private volatile int runs;
+        private volatile boolean cancelled;
+        private final AtomicInteger state = new AtomicInteger(); // 0 active, 1 done
+
+        private Repetition(Runnable task, long intervalNanos, int maxRuns) {
+            this.task = task;
+            this.intervalNanos = intervalNanos;
+            this.maxRuns = maxRuns;
+        }
+
+        /**
+         * Cancels the repetition in O(1). A run that is already in progress completes.
+         *
+         * @return true if the repetition was still active
+         */
+        public boolean cancel() {
+            cancelled = true;
+            return finish();
+        }
+
+        /**
+         * @return true until the repetition is cancelled or has run all its runs
+         */
+        public boolean isActive() {
+            return state.get() == 0;
+        }
+
+        /**
+         * @return the number of runs so far
+         */
+        public int getRuns() {
+            return runs;
+        }
+
+        private boolean finish() {
+            if (state.compareAndSet(0, 1)) {
+                outstanding.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.logging;
+
+import java.io.PrintStream;
+
+/**
+ * Default sink: DEBUG and INFO messages go to standard output, WARN and ERROR messages
+ * to standard error, without any decoration, as the application printed them before.
+ */
+public class ConsoleLogSink implements LogSink {
+
+    @Override
+    public void write(LogLevel level, String logger, String message) {
+        stream(level).println(message);
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+        System.err.flush();
+    }
+
+    private static PrintStream stream(LogLevel level) {
+        return level.ordinal() >= LogLevel.WARN.ordinal() ? System.err : System.out;
+    }
+}
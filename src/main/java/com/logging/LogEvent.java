@@ -0,0 +1,45 @@
+package com.logging;
+
+/**
+ * A log call waiting in the queue. The message is only formatted on the drain thread.
+ */
+final class LogEvent {
+    final LogLevel level;
+    final String loggerName;
+    private final String template;
+    private final Object[] args;
+    private final long suppressed;
+
+    LogEvent(LogLevel level, String loggerName, String template, Object[] args, long suppressed) {
+        this.level = level;
+        this.loggerName = loggerName;
+        this.template = template;
+        this.args = args;
+        this.suppressed = suppressed;
+    }
+
+    /**
+     * Replaces each {@code {}} in the template with the next argument.
+     */
+    String format() {
+        String message;
+        if (args == null || args.length == 0) {
+            message = template;
+        } else {
+            StringBuilder builder = new StringBuilder(template.length() + 16 * args.length);
+            int argIndex = 0;
+            int from = 0;
+            int placeholder;
+            while (argIndex < args.length && (placeholder = template.indexOf("{}", from)) >= 0) {
+                builder.append(template, from, placeholder).append(args[argIndex++]);
+                from = placeholder + 2;
+            }
+            builder.append(template, from, template.length());
+            message = builder.toString();
+        }
+        if (suppressed > 0) {
+            message += " (" + suppressed + " similar messages suppressed)";
+        }
+        return message;
+    }
+}
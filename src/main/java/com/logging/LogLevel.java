@@ -0,0 +1,23 @@
+package com.logging;
+
+/**
+ * Severity levels of log messages, from the most to the least verbose.
+ * A logger set to a level accepts messages of that level and above.
+ */
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF;
+
+    /**
+     * Checks whether a message of the given level passes this threshold.
+     *
+     * @param messageLevel the level of the message
+     * @return true if the message should be logged
+     */
+    public boolean accepts(LogLevel messageLevel) {
+        return messageLevel != OFF && messageLevel.ordinal() >= ordinal();
+    }
+}
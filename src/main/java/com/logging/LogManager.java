@@ -0,0 +1,181 @@
+package com.logging;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global configuration and the asynchronous back end of the {@link Logger}s.
+ * <p>
+ * Log calls only put an event on a bounded queue; a single daemon drain thread formats
+ * the events and hands them to the current {@link LogSink}. When the queue is full the
+ * event is dropped and counted instead of blocking the caller, so a slow console can
+ * never stall the threads that ingest data or evaluate alerts. The number of dropped
+ * events is reported by the drain thread once the queue has room again.
+ * </p>
+ * <p>
+ * The default level is INFO and can be changed with the {@code signal.log.level}
+ * system property or {@link #setLevel(LogLevel)}.
+ * </p>
+ */
+public final class LogManager {
+    /** Number of events that can wait for the drain thread before new ones are dropped */
+    public static final int QUEUE_CAPACITY = 8192;
+
+    private static final String DRAIN_THREAD_NAME = "log-drain";
+
+    private static final BlockingQueue<LogEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong enqueued = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    // Only touched by the drain thread, read by flush()
+    private static volatile long written;
+
+    private static volatile LogLevel level = parseLevel(System.getProperty("signal.log.level"), LogLevel.INFO);
+    private static volatile LogSink sink = new ConsoleLogSink();
+    private static volatile Thread drainThread;
+
+    private LogManager() {
+    }
+
+    /**
+     * @return the level used by loggers that have no level of their own
+     */
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Sets the level used by loggers that have no level of their own.
+     *
+     * @param newLevel the new default level
+     */
+    public static void setLevel(LogLevel newLevel) {
+        if (newLevel == null) {
+            throw new IllegalArgumentException("Log level must not be null");
+        }
+        level = newLevel;
+    }
+
+    /**
+     * @return the sink that receives the formatted messages
+     */
+    public static LogSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Replaces the sink. Events already queued are written to the new sink.
+     *
+     * @param newSink the new sink
+     */
+    public static void setSink(LogSink newSink) {
+        if (newSink == null) {
+            throw new IllegalArgumentException("Log sink must not be null");
+        }
+        sink = newSink;
+    }
+
+    /**
+     * @return the number of events dropped because the queue was full
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits until every event logged before this call has been written to the sink.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return true if the queue was drained in time
+     */
+    public static boolean flush(long timeoutMillis) {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (written < target) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Queues an event without blocking, dropping it if the queue is full.
+     */
+    static void enqueue(LogEvent event) {
+        ensureDrainThread();
+        if (queue.offer(event)) {
+            enqueued.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    static LogLevel parseLevel(String name, LogLevel fallback) {
+        if (name == null || name.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return LogLevel.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown log level: " + name + " - using " + fallback);
+            return fallback;
+        }
+    }
+
+    private static void ensureDrainThread() {
+        if (drainThread != null) {
+            return;
+        }
+        synchronized (LogManager.class) {
+            if (drainThread != null) {
+                return;
+            }
+            Thread thread = new Thread(LogManager::drain, DRAIN_THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+            // Write what is still queued when the application exits
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(1000), "log-flush"));
+            drainThread = thread;
+        }
+    }
+
+    private static void drain() {
+        long reportedDrops = 0;
+        while (true) {
+            LogEvent event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            LogSink current = sink;
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                write(current, LogLevel.WARN, DRAIN_THREAD_NAME,
+                        (drops - reportedDrops) + " log messages dropped (queue full)");
+                reportedDrops = drops;
+            }
+            write(current, event.level, event.loggerName, event.format());
+            if (queue.isEmpty()) {
+                current.flush();
+            }
+            written++;
+        }
+    }
+
+    private static void write(LogSink target, LogLevel eventLevel, String loggerName, String message) {
+        try {
+            target.write(eventLevel, loggerName, message);
+        } catch (RuntimeException e) {
+            System.err.println("Log sink failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.logging;
+
+/**
+ * Destination of formatted log messages. Sinks are only called from the drain thread
+ * of the {@link LogManager}, one message at a time, so they may block and need not be
+ * thread-safe.
+ */
+public interface LogSink {
+
+    /**
+     * Writes one log message.
+     *
+     * @param level   the level of the message
+     * @param logger  the name of the logger that produced the message
+     * @param message the formatted message
+     */
+    void write(LogLevel level, String logger, String message);
+
+    /**
+     * Flushes buffered output, if any. Called when the queue runs empty.
+     */
+    default void flush() {
+    }
+}
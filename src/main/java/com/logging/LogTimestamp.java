@@ -0,0 +1,36 @@
+package com.logging;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * A log argument that prints an epoch-millisecond timestamp the way
+ * {@link java.util.Date#toString()} does. Formatting happens on the drain thread, so
+ * passing {@code LogTimestamp.of(timestamp)} instead of {@code new Date(timestamp)} keeps
+ * the date formatting out of the caller.
+ */
+public final class LogTimestamp {
+    private static final DateTimeFormatter FORMAT =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+
+    private final long epochMillis;
+
+    private LogTimestamp(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    /**
+     * @param epochMillis milliseconds since the epoch
+     * @return a log argument that formats the timestamp lazily
+     */
+    public static LogTimestamp of(long epochMillis) {
+        return new LogTimestamp(epochMillis);
+    }
+
+    @Override
+    public String toString() {
+        return FORMAT.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()));
+    }
+}
@@ -0,0 +1,174 @@
+package com.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Levelled logger that hands messages to the asynchronous {@link LogManager}.
+ * <p>
+ * Messages are templates in which each {@code {}} is replaced by the next argument.
+ * The template is only expanded on the drain thread, so a call costs a level check and
+ * a queue offer. Messages below the logger's level are discarded before anything is
+ * queued; callers that would compute expensive arguments should check
+ * {@link #isEnabled(LogLevel)} first.
+ * </p>
+ * <p>
+ * A logger returned by {@link #rateLimited(int)} accepts at most a given number of
+ * messages per second and counts the rest; the count is appended to the first message
+ * accepted in the next second.
+ * </p>
+ */
+public class Logger {
+    private static final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    // Logger whose level applies to this one (itself unless this is a rate-limited view)
+    private final Logger levelSource;
+    private volatile LogLevel level;
+
+    // Rate limiting state, unused when maxPerSecond is 0
+    private final int maxPerSecond;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private Logger(String name, Logger levelSource, int maxPerSecond) {
+        this.name = name;
+        this.levelSource = levelSource == null ? this : levelSource;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * Returns the logger of a class, creating it on first use.
+     *
+     * @param type the class that logs
+     * @return the logger named after the class
+     */
+    public static Logger getLogger(Class<?> type) {
+        return getLogger(type.getName());
+    }
+
+    /**
+     * Returns the logger with the given name, creating it on first use.
+     *
+     * @param name the logger name
+     * @return the logger
+     */
+    public static Logger getLogger(String name) {
+        return loggers.computeIfAbsent(name, n -> new Logger(n, null, 0));
+    }
+
+    /**
+     * Returns a view of this logger that accepts at most {@code maxPerSecond} messages
+     * per second. The view shares the name and level of this logger but has its own
+     * budget, so it is typically kept in a field for one noisy call site.
+     *
+     * @param maxPerSecond the number of messages accepted per second
+     * @return the rate-limited logger
+     */
+    public Logger rateLimited(int maxPerSecond) {
+        if (maxPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit must be positive: " + maxPerSecond);
+        }
+        return new Logger(name, levelSource, maxPerSecond);
+    }
+
+    /**
+     * @return the name of this logger
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the level of this logger, or null to use the level of the {@link LogManager}.
+     *
+     * @param newLevel the new level
+     */
+    public void setLevel(LogLevel newLevel) {
+        levelSource.level = newLevel;
+    }
+
+    /**
+     * @return the level messages must reach to be logged
+     */
+    public LogLevel getEffectiveLevel() {
+        LogLevel own = levelSource.level;
+        return own != null ? own : LogManager.getLevel();
+    }
+
+    /**
+     * @param messageLevel the level of a message
+     * @return true if a message of that level would be logged
+     */
+    public boolean isEnabled(LogLevel messageLevel) {
+        return getEffectiveLevel().accepts(messageLevel);
+    }
+
+    /**
+     * @return true if DEBUG messages are logged
+     */
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public void debug(String template, Object... args) {
+        log(LogLevel.DEBUG, template, args);
+    }
+
+    public void info(String template, Object... args) {
+        log(LogLevel.INFO, template, args);
+    }
+
+    public void warn(String template, Object... args) {
+        log(LogLevel.WARN, template, args);
+    }
+
+    public void error(String template, Object... args) {
+        log(LogLevel.ERROR, template, args);
+    }
+
+    /**
+     * Logs a message if its level is enabled and the rate limit allows it.
+     *
+     * @param messageLevel the level of the message
+     * @param template     the message, with {@code {}} for each argument
+     * @param args         the arguments, converted with {@code String.valueOf} later
+     */
+    public void log(LogLevel messageLevel, String template, Object... args) {
+        if (!isEnabled(messageLevel)) {
+            return;
+        }
+        long suppressedBefore = 0;
+        if (maxPerSecond > 0) {
+            suppressedBefore = acquire();
+            if (suppressedBefore < 0) {
+                return;
+            }
+        }
+        LogManager.enqueue(new LogEvent(messageLevel, name, template, args, suppressedBefore));
+    }
+
+    /**
+     * Takes one message from the budget of the current second.
+     *
+     * @return -1 if the message must be suppressed, otherwise the number of messages
+     *         suppressed since the last accepted one
+     */
+    private long acquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= SECOND_NANOS && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        if (windowCount.incrementAndGet() > maxPerSecond) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
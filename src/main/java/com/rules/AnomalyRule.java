@@ -0,0 +1,61 @@
+package com.rules;
+
+import com.alerts.Alert;
+import com.strategy.HeartRateStrategy;
+import com.strategy.RollingStatistics;
+
+/**
+ * {@code anomaly <type> baseline <n> last <m> min <k> "<message>"}: once the window
+ * holds at least {@code k} readings, checks the latest {@code m} readings against the
+ * mean and standard deviation of the latest {@code n}, with the detector of
+ * {@link HeartRateStrategy#describeAbnormality}. {@code {detail}} says what was
+ * abnormal.
+ */
+final class AnomalyRule extends Rule {
+    private final int recordTypeCode;
+    private final int baselineSize;
+    private final int checkedReadings;
+    private final int minimumReadings;
+    private final MessageTemplate message;
+
+    AnomalyRule(int line, int recordTypeCode, int baselineSize, int checkedReadings, int minimumReadings,
+                MessageTemplate message) {
+        super(line);
+        this.recordTypeCode = recordTypeCode;
+        this.baselineSize = baselineSize;
+        this.checkedReadings = checkedReadings;
+        this.minimumReadings = minimumReadings;
+        this.message = message;
+    }
+
+    @Override
+    int[] getRecordTypeCodes() {
+        return new int[] {recordTypeCode};
+    }
+
+    @Override
+    Probe createProbe(Column[] columns) {
+        Column column = columns[0];
+        RollingStatistics baseline = new RollingStatistics(baselineSize);
+        double[] lastReadings = new double[checkedReadings];
+        return new Probe() {
+            @Override
+            Alert finish(String patientId, long now) {
+                if (column.size < minimumReadings) {
+                    return null;
+                }
+                baseline.clear();
+                for (int i = Math.max(0, column.size - baselineSize); i < column.size; i++) {
+                    baseline.add(column.values[i]);
+                }
+                int count = baseline.copyLatest(lastReadings, checkedReadings);
+                String detail = HeartRateStrategy.describeAbnormality(baseline.getMean(), baseline.getStdDev(),
+                        lastReadings, count);
+                if (detail == null) {
+                    return null;
+                }
+                return alert(patientId, message.format(detail), now, column.timestamps[column.size - 1]);
+            }
+        };
+    }
+}
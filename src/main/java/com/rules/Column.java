@@ -0,0 +1,50 @@
+package com.rules;
+
+import java.util.List;
+
+import com.data_management.PatientRecord;
+import com.data_management.RecordRange;
+
+/**
+ * The window of one record type as two primitive columns, timestamps and values, in
+ * timestamp order. A column is loaded once per evaluation and read by every rule on
+ * its record type; the arrays are reused from one evaluation to the next.
+ */
+final class Column {
+    private final int recordTypeCode;
+    long[] timestamps = new long[64];
+    double[] values = new double[64];
+    int size;
+
+    Column(int recordTypeCode) {
+        this.recordTypeCode = recordTypeCode;
+    }
+
+    int getRecordTypeCode() {
+        return recordTypeCode;
+    }
+
+    /**
+     * Replaces the contents of the column with the given records.
+     */
+    void load(List<PatientRecord> records) {
+        int count = records.size();
+        if (timestamps.length < count) {
+            int capacity = Math.max(count, timestamps.length * 2);
+            timestamps = new long[capacity];
+            values = new double[capacity];
+        }
+        if (records instanceof RecordRange) {
+            RecordRange range = (RecordRange) records;
+            range.copyTimestamps(timestamps, 0);
+            range.copyValues(values, 0);
+        } else {
+            for (int i = 0; i < count; i++) {
+                PatientRecord record = records.get(i);
+                timestamps[i] = record.getTimestamp();
+                values[i] = record.getMeasurementValue();
+            }
+        }
+        size = count;
+    }
+}
@@ -0,0 +1,133 @@
+package com.rules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alerts.Alert;
+import com.alerts.EvaluationContext;
+
+/**
+ * Evaluator of a {@link RuleSet}, fused per record type.
+ * <p>
+ * Each record type read by any rule is fetched from the {@link EvaluationContext} and
+ * loaded into primitive columns once per evaluation. Every rule that needs to look at
+ * all readings of a type (thresholds, trends, drops) then takes part in a single pass
+ * over that type's column, so a window is scanned once however many rules read it.
+ * The remaining rules (latest value, anomaly, cross-signal conjunctions) only read the
+ * loaded columns when the groups are resolved.
+ * </p>
+ * <p>
+ * The evaluation state is kept per thread, so one compiled rule set can be used by the
+ * threads of a parallel sweep at the same time.
+ * </p>
+ */
+public final class CompiledRuleSet {
+    private final RuleSet rules;
+    private final ThreadLocal<Evaluator> evaluators;
+
+    CompiledRuleSet(RuleSet rules) {
+        this.rules = rules;
+        this.evaluators = ThreadLocal.withInitial(() -> new Evaluator(rules));
+    }
+
+    /**
+     * @return the rules this evaluator was compiled from
+     */
+    public RuleSet getRuleSet() {
+        return rules;
+    }
+
+    /**
+     * Evaluates the rules over a patient's window.
+     *
+     * @param context the patient's window of records
+     * @return the alert of each group that fired, in group order
+     */
+    public List<Alert> evaluate(EvaluationContext context) {
+        return evaluators.get().evaluate(context);
+    }
+
+    /**
+     * The columns and rule probes of one thread.
+     */
+    private static final class Evaluator {
+        private final Column[] columns;
+        // The stepping probes of each column, in column order
+        private final Rule.Probe[][] steppingProbes;
+        // The probes of each group, in rule order
+        private final Rule.Probe[][] groupProbes;
+        private final Rule.Probe[] allProbes;
+
+        Evaluator(RuleSet rules) {
+            Map<Integer, Column> columnsByType = new LinkedHashMap<>();
+            Map<Column, List<Rule.Probe>> stepping = new LinkedHashMap<>();
+            List<Rule.Probe> all = new ArrayList<>();
+            List<List<Rule>> groups = rules.getGroups();
+            groupProbes = new Rule.Probe[groups.size()][];
+            for (int g = 0; g < groups.size(); g++) {
+                List<Rule> group = groups.get(g);
+                groupProbes[g] = new Rule.Probe[group.size()];
+                for (int r = 0; r < group.size(); r++) {
+                    Rule rule = group.get(r);
+                    int[] codes = rule.getRecordTypeCodes();
+                    Column[] ruleColumns = new Column[codes.length];
+                    for (int c = 0; c < codes.length; c++) {
+                        ruleColumns[c] = columnsByType.computeIfAbsent(codes[c], Column::new);
+                    }
+                    Rule.Probe probe = rule.createProbe(ruleColumns);
+                    if (probe.isStepping()) {
+                        stepping.computeIfAbsent(ruleColumns[0], column -> new ArrayList<>()).add(probe);
+                    }
+                    groupProbes[g][r] = probe;
+                    all.add(probe);
+                }
+            }
+
+            columns = columnsByType.values().toArray(new Column[0]);
+            steppingProbes = new Rule.Probe[columns.length][];
+            for (int c = 0; c < columns.length; c++) {
+                steppingProbes[c] = stepping.getOrDefault(columns[c], List.of()).toArray(new Rule.Probe[0]);
+            }
+            allProbes = all.toArray(new Rule.Probe[0]);
+        }
+
+        List<Alert> evaluate(EvaluationContext context) {
+            for (Column column : columns) {
+                column.load(context.getRecords(column.getRecordTypeCode()));
+            }
+            for (Rule.Probe probe : allProbes) {
+                probe.begin();
+            }
+
+            // One pass per record type for all rules that look at every reading
+            for (int c = 0; c < columns.length; c++) {
+                Rule.Probe[] probes = steppingProbes[c];
+                if (probes.length == 0) {
+                    continue;
+                }
+                int size = columns[c].size;
+                for (int i = 0; i < size; i++) {
+                    for (Rule.Probe probe : probes) {
+                        probe.step(i);
+                    }
+                }
+            }
+
+            List<Alert> alerts = new ArrayList<>(groupProbes.length);
+            String patientId = context.getPatientId();
+            long now = System.currentTimeMillis();
+            for (Rule.Probe[] group : groupProbes) {
+                for (Rule.Probe probe : group) {
+                    Alert alert = probe.finish(patientId, now);
+                    if (alert != null) {
+                        alerts.add(alert);
+                        break;
+                    }
+                }
+            }
+            return alerts;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.rules;
+
+import com.alerts.Alert;
+import com.strategy.WindowJoin;
+
+/**
+ * {@code both <type> below|above <x> and <type> below|above <y> within <duration> "<message>"}:
+ * fires on the earliest reading of the first type that crosses {@code x} and has a
+ * reading of the second type crossing {@code y} no more than {@code duration} before or
+ * after it. {@code {first}} and {@code {second}} are the two readings.
+ * <p>
+ * The two columns are merge-joined like in the hypotensive hypoxemia check (see
+ * {@link WindowJoin}), so the check is linear in the size of the two windows.
+ * </p>
+ */
+final class ConjunctionRule extends Rule {
+    private final int firstTypeCode;
+    private final boolean firstAbove;
+    private final double firstLimit;
+    private final int secondTypeCode;
+    private final boolean secondAbove;
+    private final double secondLimit;
+    private final long windowMillis;
+    private final MessageTemplate message;
+
+    ConjunctionRule(int line, int firstTypeCode, boolean firstAbove, double firstLimit,
+                    int secondTypeCode, boolean secondAbove, double secondLimit,
+                    long windowMillis, MessageTemplate message) {
+        super(line);
+        this.firstTypeCode = firstTypeCode;
+        this.firstAbove = firstAbove;
+        this.firstLimit = firstLimit;
+        this.secondTypeCode = secondTypeCode;
+        this.secondAbove = secondAbove;
+        this.secondLimit = secondLimit;
+        this.windowMillis = windowMillis;
+        this.message = message;
+    }
+
+    @Override
+    int[] getRecordTypeCodes() {
+        return new int[] {firstTypeCode, secondTypeCode};
+    }
+
+    @Override
+    Probe createProbe(Column[] columns) {
+        Column first = columns[0];
+        Column second = columns[1];
+        WindowJoin join = new WindowJoin(windowMillis);
+        return new Probe() {
+            @Override
+            Alert finish(String patientId, long now) {
+                if (!join.find(first.size, i -> first.timestamps[i], i -> crosses(first.values[i], firstAbove, firstLimit),
+                        second.size, i -> second.timestamps[i], i -> crosses(second.values[i], secondAbove, secondLimit))) {
+                    return null;
+                }
+                int i = join.getFirstIndex();
+                return alert(patientId, message.format(first.values[i], second.values[join.getSecondIndex()]),
+                        now, first.timestamps[i]);
+            }
+        };
+    }
+
+    // Negated like the window-based hypoxemia check, which skips readings at or above its limit
+    private static boolean crosses(double value, boolean above, double limit) {
+        return above ? !(value <= limit) : !(value >= limit);
+    }
+}
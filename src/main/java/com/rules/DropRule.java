@@ -0,0 +1,73 @@
+package com.rules;
+
+import com.alerts.Alert;
+
+/**
+ * {@code drop <type> within <duration> by <d> "<message>"}: fires when the latest
+ * reading is more than {@code d} below the highest earlier reading of the
+ * {@code duration} before it. {@code {drop}} is the difference and {@code {value}} the
+ * latest reading.
+ */
+final class DropRule extends Rule {
+    private final int recordTypeCode;
+    private final long windowMillis;
+    private final double minimumDrop;
+    private final MessageTemplate message;
+
+    DropRule(int line, int recordTypeCode, long windowMillis, double minimumDrop, MessageTemplate message) {
+        super(line);
+        this.recordTypeCode = recordTypeCode;
+        this.windowMillis = windowMillis;
+        this.minimumDrop = minimumDrop;
+        this.message = message;
+    }
+
+    @Override
+    int[] getRecordTypeCodes() {
+        return new int[] {recordTypeCode};
+    }
+
+    @Override
+    Probe createProbe(Column[] columns) {
+        Column column = columns[0];
+        return new Probe() {
+            private long windowStart;
+            private double earlierMax;
+
+            @Override
+            boolean isStepping() {
+                return true;
+            }
+
+            @Override
+            void begin() {
+                earlierMax = Double.NEGATIVE_INFINITY;
+                windowStart = column.size == 0 ? Long.MAX_VALUE
+                        : column.timestamps[column.size - 1] - windowMillis;
+            }
+
+            @Override
+            void step(int index) {
+                // The column is in timestamp order, so the earlier readings in the
+                // window are the ones just before the latest
+                if (index < column.size - 1 && column.timestamps[index] >= windowStart) {
+                    earlierMax = Math.max(earlierMax, column.values[index]);
+                }
+            }
+
+            @Override
+            Alert finish(String patientId, long now) {
+                if (column.size < 2) {
+                    return null;
+                }
+                int latest = column.size - 1;
+                double drop = earlierMax - column.values[latest];
+                if (drop > minimumDrop) {
+                    return alert(patientId, message.format(drop, column.values[latest]), now,
+                            column.timestamps[latest]);
+                }
+                return null;
+            }
+        };
+    }
+}
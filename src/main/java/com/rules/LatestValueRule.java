@@ -0,0 +1,44 @@
+package com.rules;
+
+import com.alerts.Alert;
+
+/**
+ * {@code latest <type> equals <v> "<message>"}: fires when the latest reading equals
+ * {@code v}, e.g. a call button that is currently pressed.
+ */
+final class LatestValueRule extends Rule {
+    private final int recordTypeCode;
+    private final double expected;
+    private final MessageTemplate message;
+
+    LatestValueRule(int line, int recordTypeCode, double expected, MessageTemplate message) {
+        super(line);
+        this.recordTypeCode = recordTypeCode;
+        this.expected = expected;
+        this.message = message;
+    }
+
+    @Override
+    int[] getRecordTypeCodes() {
+        return new int[] {recordTypeCode};
+    }
+
+    @Override
+    Probe createProbe(Column[] columns) {
+        Column column = columns[0];
+        return new Probe() {
+            @Override
+            Alert finish(String patientId, long now) {
+                if (column.size == 0) {
+                    return null;
+                }
+                int latest = column.size - 1;
+                double value = column.values[latest];
+                if (value == expected) {
+                    return alert(patientId, message.format(value), now, column.timestamps[latest]);
+                }
+                return null;
+            }
+        };
+    }
+}
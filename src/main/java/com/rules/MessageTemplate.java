@@ -0,0 +1,95 @@
+package com.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The condition text of a rule, with placeholders such as {@code {value}} or
+ * {@code {drop:%.1f}} for the numbers that made the rule fire. Placeholders are
+ * resolved to argument positions when the rule is parsed, so formatting an alert only
+ * appends the literal parts and the arguments.
+ */
+final class MessageTemplate {
+    private final String[] literals;
+    // Argument index and optional format of the placeholder after each literal
+    private final int[] arguments;
+    private final String[] formats;
+
+    private MessageTemplate(String[] literals, int[] arguments, String[] formats) {
+        this.literals = literals;
+        this.arguments = arguments;
+        this.formats = formats;
+    }
+
+    /**
+     * Parses a template.
+     *
+     * @param text         the template text
+     * @param placeholders the placeholder names the rule provides, in argument order
+     * @return the template
+     * @throws IllegalArgumentException if the text uses an unknown placeholder or has
+     *                                  an unclosed brace
+     */
+    static MessageTemplate parse(String text, String... placeholders) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+        List<String> formats = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = text.indexOf('{', start)) >= 0) {
+            int close = text.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in \"" + text + "\"");
+            }
+            String placeholder = text.substring(open + 1, close);
+            String format = null;
+            int colon = placeholder.indexOf(':');
+            if (colon >= 0) {
+                format = placeholder.substring(colon + 1);
+                placeholder = placeholder.substring(0, colon);
+            }
+            int argument = indexOf(placeholders, placeholder);
+            if (argument < 0) {
+                throw new IllegalArgumentException("Unknown placeholder {" + placeholder + "} in \"" + text
+                        + "\"; expected one of " + String.join(", ", placeholders));
+            }
+            literals.add(text.substring(start, open));
+            arguments.add(argument);
+            formats.add(format);
+            start = close + 1;
+        }
+        literals.add(text.substring(start));
+
+        int[] argumentArray = new int[arguments.size()];
+        for (int i = 0; i < argumentArray.length; i++) {
+            argumentArray[i] = arguments.get(i);
+        }
+        return new MessageTemplate(literals.toArray(new String[0]), argumentArray, formats.toArray(new String[0]));
+    }
+
+    /**
+     * Formats the condition text.
+     *
+     * @param args the values of the placeholders, in the order given to
+     *             {@link #parse(String, String...)}
+     * @return the condition text
+     */
+    String format(Object... args) {
+        StringBuilder text = new StringBuilder(literals[0]);
+        for (int i = 0; i < arguments.length; i++) {
+            Object arg = args[arguments[i]];
+            text.append(formats[i] == null ? String.valueOf(arg) : String.format(formats[i], arg));
+            text.append(literals[i + 1]);
+        }
+        return text.toString();
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
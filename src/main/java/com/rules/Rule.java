@@ -0,0 +1,95 @@
+package com.rules;
+
+import com.alerts.Alert;
+
+/**
+ * One parsed rule of a {@link RuleSet}. A rule is completed by the {@link RuleParser}
+ * (see {@link #setStampedAtReading(boolean)}) before the rule set is built, and is not
+ * changed after that, so it can be shared; the state of an evaluation lives in the
+ * {@link Probe}s it creates, one per evaluating thread.
+ */
+abstract class Rule {
+    private final int line;
+    private boolean stampedAtReading;
+
+    /**
+     * @param line the line of the rules file the rule starts on, for error messages
+     */
+    Rule(int line) {
+        this.line = line;
+    }
+
+    /**
+     * @return the line of the rules file the rule starts on
+     */
+    int getLine() {
+        return line;
+    }
+
+    /**
+     * Makes the rule's alerts carry the timestamp of the reading that fired them
+     * instead of the time of the evaluation. Only called by the parser, which reads
+     * this option after the rule itself, and never once the rule is in a rule set.
+     */
+    void setStampedAtReading(boolean stampedAtReading) {
+        this.stampedAtReading = stampedAtReading;
+    }
+
+    /**
+     * @return the codes of the record types the rule reads; the first one is the type
+     *         whose pass the rule's probe takes part in
+     */
+    abstract int[] getRecordTypeCodes();
+
+    /**
+     * Creates the evaluation state of the rule over the given columns.
+     *
+     * @param columns the columns of the rule's record types, in the order of
+     *                {@link #getRecordTypeCodes()}
+     * @return the probe
+     */
+    abstract Probe createProbe(Column[] columns);
+
+    /**
+     * Creates an alert of this rule.
+     */
+    Alert alert(String patientId, String condition, long now, long readingTime) {
+        return new Alert(patientId, condition, stampedAtReading ? readingTime : now);
+    }
+
+    /**
+     * The state of one rule during an evaluation. The evaluator loads the columns, calls
+     * {@link #begin()}, passes every reading of the rule's first record type to
+     * {@link #step(int)} if the probe is stepping, and finally asks
+     * {@link #finish(String, long)} for the alert.
+     */
+    abstract static class Probe {
+        /**
+         * @return whether the probe takes part in the pass over its column
+         */
+        boolean isStepping() {
+            return false;
+        }
+
+        /**
+         * Resets the probe after the columns have been loaded.
+         */
+        void begin() {
+        }
+
+        /**
+         * Looks at one reading of the column, oldest first.
+         *
+         * @param index the position of the reading in the column
+         */
+        void step(int index) {
+        }
+
+        /**
+         * @param patientId the patient being evaluated
+         * @param now       the time of the evaluation
+         * @return the alert of the rule, or null if it did not fire
+         */
+        abstract Alert finish(String patientId, long now);
+    }
+}
@@ -0,0 +1,369 @@
+package com.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.data_management.RecordType;
+
+/**
+ * Parser of the rule language. A rules file is a list of groups:
+ * <pre>
+ * # comment
+ * group &lt;name&gt;
+ *   &lt;rule&gt; [at reading]
+ *   ...
+ * end
+ * </pre>
+ * where a rule is one of
+ * <pre>
+ * threshold &lt;type&gt; [below &lt;x&gt; "&lt;message&gt;"] [above &lt;x&gt; "&lt;message&gt;"]
+ * trend &lt;type&gt; readings &lt;n&gt; step &lt;x&gt; [rising "&lt;message&gt;"] [falling "&lt;message&gt;"]
+ * drop &lt;type&gt; within &lt;duration&gt; by &lt;x&gt; "&lt;message&gt;"
+ * both &lt;type&gt; below|above &lt;x&gt; and &lt;type&gt; below|above &lt;x&gt; within &lt;duration&gt; "&lt;message&gt;"
+ * latest &lt;type&gt; equals &lt;x&gt; "&lt;message&gt;"
+ * anomaly &lt;type&gt; baseline &lt;n&gt; last &lt;n&gt; min &lt;n&gt; "&lt;message&gt;"
+ * </pre>
+ * A {@code <type>} must be a known record type: one of the simulator's, or one
+ * registered with {@link RecordType#codeOf(String)} before the rules are parsed.
+ * Rules may span several lines. Durations are written as {@code 500ms}, {@code 30s},
+ * {@code 10m} or {@code 1h}. Messages are quoted, with {@code \"} and {@code \\} as
+ * escapes. {@code at reading} stamps the alert with the time of the reading that fired
+ * it instead of the time of the evaluation.
+ */
+final class RuleParser {
+    private final List<Token> tokens = new ArrayList<>();
+    private int position;
+
+    private RuleParser(String text) {
+        tokenize(text);
+    }
+
+    /**
+     * Parses the text of a rules file.
+     *
+     * @throws IllegalArgumentException if the text is not valid, with the line of the
+     *                                  problem in the message
+     */
+    static RuleSet parse(String text) {
+        return new RuleParser(text).parseFile();
+    }
+
+    private RuleSet parseFile() {
+        List<String> groupNames = new ArrayList<>();
+        List<List<Rule>> groups = new ArrayList<>();
+        while (!atEnd()) {
+            expect("group");
+            Token name = next("a group name");
+            if (groupNames.contains(name.text)) {
+                throw error(name, "Duplicate group " + name.text);
+            }
+            List<Rule> rules = new ArrayList<>();
+            while (!peekIs("end")) {
+                rules.add(parseRule());
+            }
+            expect("end");
+            groupNames.add(name.text);
+            groups.add(rules);
+        }
+        return new RuleSet(groupNames, groups);
+    }
+
+    private Rule parseRule() {
+        Token keyword = next("a rule or 'end'");
+        int line = keyword.line;
+        Rule rule;
+        switch (keyword.text) {
+            case "threshold":
+                rule = parseThreshold(line);
+                break;
+            case "trend":
+                rule = parseTrend(line);
+                break;
+            case "drop": {
+                int type = recordType();
+                expect("within");
+                long window = duration();
+                expect("by");
+                double minimumDrop = number();
+                rule = new DropRule(line, type, window, minimumDrop, message("drop", "value"));
+                break;
+            }
+            case "both": {
+                int firstType = recordType();
+                boolean firstAbove = direction();
+                double firstLimit = number();
+                expect("and");
+                int secondType = recordType();
+                boolean secondAbove = direction();
+                double secondLimit = number();
+                expect("within");
+                long window = duration();
+                rule = new ConjunctionRule(line, firstType, firstAbove, firstLimit,
+                        secondType, secondAbove, secondLimit, window, message("first", "second"));
+                break;
+            }
+            case "latest": {
+                int type = recordType();
+                expect("equals");
+                double expected = number();
+                rule = new LatestValueRule(line, type, expected, message("value"));
+                break;
+            }
+            case "anomaly": {
+                int type = recordType();
+                expect("baseline");
+                int baseline = positiveInteger();
+                expect("last");
+                int last = positiveInteger();
+                expect("min");
+                int minimum = positiveInteger();
+                if (last < 2 || last > baseline || minimum < last) {
+                    throw error(keyword, "An anomaly rule needs 2 <= last <= baseline and min >= last");
+                }
+                rule = new AnomalyRule(line, type, baseline, last, minimum, message("detail"));
+                break;
+            }
+            default:
+                throw error(keyword, "Unknown rule '" + keyword.text + "'");
+        }
+        if (peekIs("at")) {
+            expect("at");
+            expect("reading");
+            rule.setStampedAtReading(true);
+        }
+        return rule;
+    }
+
+    private Rule parseThreshold(int line) {
+        int type = recordType();
+        double low = Double.NEGATIVE_INFINITY;
+        double high = Double.POSITIVE_INFINITY;
+        MessageTemplate belowMessage = null;
+        MessageTemplate aboveMessage = null;
+        if (peekIs("below")) {
+            expect("below");
+            low = number();
+            belowMessage = message("value");
+        }
+        if (peekIs("above")) {
+            expect("above");
+            high = number();
+            aboveMessage = message("value");
+        }
+        if (belowMessage == null && aboveMessage == null) {
+            throw error(peek(), "A threshold rule needs 'below' or 'above'");
+        }
+        return new ThresholdRule(line, type, low, belowMessage, high, aboveMessage);
+    }
+
+    private Rule parseTrend(int line) {
+        int type = recordType();
+        expect("readings");
+        int readings = positiveInteger();
+        if (readings < 2) {
+            throw error(tokens.get(position - 1), "A trend needs at least 2 readings");
+        }
+        expect("step");
+        double step = number();
+        MessageTemplate risingMessage = null;
+        MessageTemplate fallingMessage = null;
+        if (peekIs("rising")) {
+            expect("rising");
+            risingMessage = message("value");
+        }
+        if (peekIs("falling")) {
+            expect("falling");
+            fallingMessage = message("value");
+        }
+        if (risingMessage == null && fallingMessage == null) {
+            throw error(peek(), "A trend rule needs 'rising' or 'falling'");
+        }
+        return new TrendRule(line, type, readings, step, risingMessage, fallingMessage);
+    }
+
+    private int recordType() {
+        Token token = next("a record type");
+        if (token.quoted) {
+            throw error(token, "Expected a record type but found \"" + token.text + "\"");
+        }
+        // Registering an unknown name would turn a typo into a type no reading ever has
+        int code = RecordType.lookup(token.text);
+        if (code < 0) {
+            throw error(token, "Unknown record type '" + token.text + "'");
+        }
+        return code;
+    }
+
+    private boolean direction() {
+        Token token = next("'below' or 'above'");
+        if (token.is("below")) {
+            return false;
+        }
+        if (token.is("above")) {
+            return true;
+        }
+        throw error(token, "Expected 'below' or 'above' but found '" + token.text + "'");
+    }
+
+    private double number() {
+        Token token = next("a number");
+        try {
+            if (!token.quoted) {
+                return Double.parseDouble(token.text);
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw error(token, "Expected a number but found '" + token.text + "'");
+    }
+
+    private int positiveInteger() {
+        Token token = next("a number");
+        try {
+            int value = Integer.parseInt(token.text);
+            if (value > 0 && !token.quoted) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw error(token, "Expected a positive whole number but found '" + token.text + "'");
+    }
+
+    private long duration() {
+        Token token = next("a duration");
+        String text = token.text;
+        int unit = 0;
+        while (unit < text.length() && Character.isDigit(text.charAt(unit))) {
+            unit++;
+        }
+        if (unit > 0 && !token.quoted) {
+            try {
+                long amount = Long.parseLong(text.substring(0, unit));
+                switch (text.substring(unit)) {
+                    case "ms":
+                        return amount;
+                    case "s":
+                        return amount * 1000;
+                    case "m":
+                        return amount * 60 * 1000;
+                    case "h":
+                        return amount * 60 * 60 * 1000;
+                    default:
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        throw error(token, "Expected a duration such as 30s or 10m but found '" + text + "'");
+    }
+
+    private MessageTemplate message(String... placeholders) {
+        Token token = next("a quoted message");
+        if (!token.quoted) {
+            throw error(token, "Expected a quoted message but found '" + token.text + "'");
+        }
+        try {
+            return MessageTemplate.parse(token.text, placeholders);
+        } catch (IllegalArgumentException e) {
+            throw error(token, e.getMessage());
+        }
+    }
+
+    private void expect(String keyword) {
+        Token token = next("'" + keyword + "'");
+        if (!token.is(keyword)) {
+            throw error(token, "Expected '" + keyword + "' but found '" + token.text + "'");
+        }
+    }
+
+    private Token next(String expected) {
+        if (atEnd()) {
+            int line = tokens.isEmpty() ? 1 : tokens.get(tokens.size() - 1).line;
+            throw new IllegalArgumentException("Line " + line + ": expected " + expected + " but the file ended");
+        }
+        return tokens.get(position++);
+    }
+
+    private Token peek() {
+        return atEnd() ? tokens.get(tokens.size() - 1) : tokens.get(position);
+    }
+
+    private boolean peekIs(String keyword) {
+        if (atEnd()) {
+            // Let the caller report the missing token
+            return false;
+        }
+        return tokens.get(position).is(keyword);
+    }
+
+    private boolean atEnd() {
+        return position >= tokens.size();
+    }
+
+    private static IllegalArgumentException error(Token token, String message) {
+        return new IllegalArgumentException("Line " + token.line + ": " + message);
+    }
+
+    private void tokenize(String text) {
+        int line = 1;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '#') {
+                while (i < text.length() && text.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '"') {
+                StringBuilder message = new StringBuilder();
+                int startLine = line;
+                i++;
+                while (i < text.length() && text.charAt(i) != '"') {
+                    char m = text.charAt(i);
+                    if (m == '\n') {
+                        throw new IllegalArgumentException("Line " + startLine + ": unterminated message");
+                    }
+                    if (m == '\\' && i + 1 < text.length()) {
+                        m = text.charAt(++i);
+                    }
+                    message.append(m);
+                    i++;
+                }
+                if (i == text.length()) {
+                    throw new IllegalArgumentException("Line " + startLine + ": unterminated message");
+                }
+                i++; // closing quote
+                tokens.add(new Token(message.toString(), true, startLine));
+            } else {
+                int start = i;
+                while (i < text.length() && !Character.isWhitespace(text.charAt(i))
+                        && text.charAt(i) != '"' && text.charAt(i) != '#') {
+                    i++;
+                }
+                tokens.add(new Token(text.substring(start, i), false, line));
+            }
+        }
+    }
+
+    private static final class Token {
+        final String text;
+        final boolean quoted;
+        final int line;
+
+        Token(String text, boolean quoted, int line) {
+            this.text = text;
+            this.quoted = quoted;
+            this.line = line;
+        }
+
+        boolean is(String keyword) {
+            return !quoted && text.equals(keyword);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.rules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Alert rules read from a rules file, in named groups. Within a group the rules are
+ * tried in order and the first one that fires raises the group's alert, as the
+ * strategies of one alert factory do; every group can raise one alert per
+ * evaluation. See {@link RuleParser} for the language.
+ * <p>
+ * The default rules, {@value #DEFAULT_RESOURCE}, express the checks of the four alert
+ * factories (blood oxygen, blood pressure, ECG and call button) with the same results.
+ * A rule set is turned into an evaluator with {@link #compile()}.
+ * </p>
+ */
+public final class RuleSet {
+    /** Classpath resource holding the default rules */
+    public static final String DEFAULT_RESOURCE = "/alert-rules.txt";
+
+    private final List<String> groupNames;
+    private final List<List<Rule>> groups;
+
+    RuleSet(List<String> groupNames, List<List<Rule>> groups) {
+        this.groupNames = Collections.unmodifiableList(groupNames);
+        this.groups = Collections.unmodifiableList(groups);
+    }
+
+    /**
+     * Parses rules from text.
+     *
+     * @param text the rules
+     * @return the rule set
+     * @throws IllegalArgumentException if the rules are not valid; the message names
+     *                                  the line of the problem
+     */
+    public static RuleSet parse(String text) {
+        return RuleParser.parse(text);
+    }
+
+    /**
+     * Reads and parses a rules file.
+     *
+     * @param file the rules file
+     * @return the rule set
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the rules are not valid
+     */
+    public static RuleSet load(Path file) throws IOException {
+        try {
+            return parse(Files.readString(file, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Loads the default rules from the classpath.
+     *
+     * @return the rule set
+     */
+    public static RuleSet loadDefault() {
+        try (InputStream in = RuleSet.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + DEFAULT_RESOURCE);
+            }
+            return parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + DEFAULT_RESOURCE, e);
+        }
+    }
+
+    /**
+     * @return the names of the groups, in file order
+     */
+    public List<String> getGroupNames() {
+        return groupNames;
+    }
+
+    /**
+     * @return the number of rules of all groups
+     */
+    public int getRuleCount() {
+        int count = 0;
+        for (List<Rule> rules : groups) {
+            count += rules.size();
+        }
+        return count;
+    }
+
+    List<List<Rule>> getGroups() {
+        return groups;
+    }
+
+    /**
+     * Compiles the rules into an evaluator.
+     *
+     * @return the evaluator
+     */
+    public CompiledRuleSet compile() {
+        return new CompiledRuleSet(this);
+    }
+}
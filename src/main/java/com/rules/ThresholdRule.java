@@ -0,0 +1,75 @@
+package com.rules;
+
+import com.alerts.Alert;
+
+/**
+ * {@code threshold <type> [below <low> "<message>"] [above <high> "<message>"]}: fires
+ * on the earliest reading below {@code low} or above {@code high}. The message of the
+ * side that was crossed is used; {@code {value}} is the reading.
+ */
+final class ThresholdRule extends Rule {
+    private final int recordTypeCode;
+    private final double low;
+    private final double high;
+    private final MessageTemplate belowMessage;
+    private final MessageTemplate aboveMessage;
+
+    /**
+     * @param low          the lowest value in range, or -Infinity if there is none
+     * @param belowMessage the message for readings below {@code low}, or null
+     * @param high         the highest value in range, or +Infinity if there is none
+     * @param aboveMessage the message for readings above {@code high}, or null
+     */
+    ThresholdRule(int line, int recordTypeCode, double low, MessageTemplate belowMessage,
+                  double high, MessageTemplate aboveMessage) {
+        super(line);
+        this.recordTypeCode = recordTypeCode;
+        this.low = low;
+        this.high = high;
+        this.belowMessage = belowMessage;
+        this.aboveMessage = aboveMessage;
+    }
+
+    @Override
+    int[] getRecordTypeCodes() {
+        return new int[] {recordTypeCode};
+    }
+
+    @Override
+    Probe createProbe(Column[] columns) {
+        Column column = columns[0];
+        return new Probe() {
+            private int firstOutside;
+
+            @Override
+            boolean isStepping() {
+                return true;
+            }
+
+            @Override
+            void begin() {
+                firstOutside = -1;
+            }
+
+            @Override
+            void step(int index) {
+                if (firstOutside < 0) {
+                    double value = column.values[index];
+                    if (value < low || value > high) {
+                        firstOutside = index;
+                    }
+                }
+            }
+
+            @Override
+            Alert finish(String patientId, long now) {
+                if (firstOutside < 0) {
+                    return null;
+                }
+                double value = column.values[firstOutside];
+                MessageTemplate message = value > high ? aboveMessage : belowMessage;
+                return alert(patientId, message.format(value), now, column.timestamps[firstOutside]);
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.rules;
+
+import com.alerts.Alert;
+
+/**
+ * {@code trend <type> readings <n> step <d> [rising "<message>"] [falling "<message>"]}:
+ * fires when {@code n} consecutive readings each rise (or fall) by more than {@code d}
+ * from the one before. The latest such run is reported; {@code {value}} is its last
+ * reading.
+ */
+final class TrendRule extends Rule {
+    private final int recordTypeCode;
+    private final int readings;
+    private final double step;
+    private final MessageTemplate risingMessage;
+    private final MessageTemplate fallingMessage;
+
+    /**
+     * @param risingMessage  the message for a rising trend, or null to ignore them
+     * @param fallingMessage the message for a falling trend, or null to ignore them
+     */
+    TrendRule(int line, int recordTypeCode, int readings, double step,
+              MessageTemplate risingMessage, MessageTemplate fallingMessage) {
+        super(line);
+        this.recordTypeCode = recordTypeCode;
+        this.readings = readings;
+        this.step = step;
+        this.risingMessage = risingMessage;
+        this.fallingMessage = fallingMessage;
+    }
+
+    @Override
+    int[] getRecordTypeCodes() {
+        return new int[] {recordTypeCode};
+    }
+
+    @Override
+    Probe createProbe(Column[] columns) {
+        Column column = columns[0];
+        return new Probe() {
+            // Number of consecutive rising and falling steps ending at the current reading
+            private int risingSteps;
+            private int fallingSteps;
+            private int lastTrendEnd;
+            private boolean lastTrendRising;
+
+            @Override
+            boolean isStepping() {
+                return true;
+            }
+
+            @Override
+            void begin() {
+                risingSteps = 0;
+                fallingSteps = 0;
+                lastTrendEnd = -1;
+            }
+
+            @Override
+            void step(int index) {
+                if (index == 0) {
+                    return;
+                }
+                double current = column.values[index];
+                double previous = column.values[index - 1];
+                risingSteps = current - previous > step ? risingSteps + 1 : 0;
+                fallingSteps = previous - current > step ? fallingSteps + 1 : 0;
+                if (risingMessage != null && risingSteps >= readings - 1) {
+                    lastTrendEnd = index;
+                    lastTrendRising = true;
+                } else if (fallingMessage != null && fallingSteps >= readings - 1) {
+                    lastTrendEnd = index;
+                    lastTrendRising = false;
+                }
+            }
+
+            @Override
+            Alert finish(String patientId, long now) {
+                if (lastTrendEnd < 0) {
+                    return null;
+                }
+                MessageTemplate message = lastTrendRising ? risingMessage : fallingMessage;
+                return alert(patientId, message.format(column.values[lastTrendEnd]), now,
+                        column.timestamps[lastTrendEnd]);
+            }
+        };
+    }
+}
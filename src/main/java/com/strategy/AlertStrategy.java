@@ -1,5 +1,6 @@
 package com.strategy;
 import com.alerts.Alert;
+import com.alerts.EvaluationContext;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
 import java.util.List;
@@ -23,4 +24,21 @@ public interface AlertStrategy {
      */
     Alert checkAlert(Patient patient, List<PatientRecord> records);
 
+    /**
+     * Checks for the alert conditions of this strategy in the window of an evaluation
+     * context, reading whichever record types the conditions need from it.
+     * <p>
+     * By default, all of the patient's records in the window are passed to
+     * {@link #checkAlert(Patient, List)}. Strategies override this to read only the
+     * record types they need from the context.
+     * </p>
+     *
+     * @param context the patient's window, shared with the other strategies
+     * @return an Alert if a condition is detected, or null if no alert is necessary
+     */
+    default Alert checkAlert(EvaluationContext context) {
+        return checkAlert(context.getPatient(),
+                context.getPatient().getRecords(context.getWindowStart(), Long.MAX_VALUE));
+    }
+
 }
\ No newline at end of file
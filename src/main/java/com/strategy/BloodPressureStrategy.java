@@ -1,23 +1,46 @@
 package com.strategy;
 import com.data_management.*;
 import com.alerts.*;
+import com.decorator.PriorityAlertDecorator.Priority;
 import java.util.List;
 
-public class BloodPressureStrategy implements AlertStrategy {
+public class BloodPressureStrategy implements AlertStrategy, StreamingAlertStrategy<BloodPressureStrategy.State> {
     private static final double EPSILON = 0.00001;
+    // Safe ranges of the two pressure types, in mmHg
+    private static final double SYSTOLIC_LOW = 90;
+    private static final double SYSTOLIC_HIGH = 180;
+    private static final double DIASTOLIC_LOW = 60;
+    private static final double DIASTOLIC_HIGH = 120;
+    private static final int[] RECORD_TYPES = {RecordType.SYSTOLIC_PRESSURE, RecordType.DIASTOLIC_PRESSURE};
+
+    /**
+     * Per-patient state of the streaming check: the two previous readings of each
+     * pressure type, enough to detect a trend over three readings.
+     */
+    public static final class State {
+        private final double[] previous = new double[2];
+        private final double[] oldest = new double[2];
+        private final int[] seen = new int[2];
+    }
     // Implement the interface method (required)
     @Override
     public Alert checkAlert(Patient patient, List<PatientRecord> records) {
         // A general implementation or could serve as a fallback
         if (records != null && !records.isEmpty()) {
-            String recordType = records.get(0).getRecordType();
-            if (recordType.equals("SystolicPressure")) {
+            if (records.get(0).getRecordTypeCode() == RecordType.SYSTOLIC_PRESSURE) {
                 return checkPressureTrend(patient, records, "Systolic");
             }
         }
         return null;
     }
 
+    @Override
+    public Alert checkAlert(EvaluationContext context) {
+        return checkAlert(context.getPatient(),
+                context.getRecords(RecordType.SYSTOLIC_PRESSURE),
+                context.getRecords(RecordType.DIASTOLIC_PRESSURE));
+    }
+
     // default implementation working with systolic and diastolic records to check for alerts    
     public Alert checkAlert(Patient patient, List<PatientRecord> systolicRecords, List<PatientRecord> diastolicRecords) {
         // For compatibility with basic interface
@@ -65,24 +88,13 @@ public class BloodPressureStrategy implements AlertStrategy {
             double oldestValue = oldest.getMeasurementValue();
             String patientId = String.valueOf(current.getPatientId());
 
-            // Check for increasing trend
-            if (currentValue - previousValue > 10 && previousValue - oldestValue > 10) {
-
+            String trend = trendCondition(pressureType, oldestValue, previousValue, currentValue);
+            if (trend != null) {
                 Alert alert = new Alert(
                         String.valueOf(patientId),
-                        "Increasing " + pressureType + " Blood Pressure Trend",
-                        System.currentTimeMillis()
-                );
-                return alert;
-            }
-
-            // Check for decreasing trend
-            if (previousValue - currentValue > 10 && oldestValue - previousValue > 10) {
-
-                Alert alert = new Alert(
-                        String.valueOf(patientId),
-                        "Decreasing " + pressureType + " Blood Pressure Trend",
-                        System.currentTimeMillis()
+                        trend,
+                        System.currentTimeMillis(),
+                        Priority.MEDIUM
                 );
                 return alert;
             }
@@ -90,36 +102,102 @@ public class BloodPressureStrategy implements AlertStrategy {
         return null;
     }
 
+    /**
+     * Checks the readings against the safe range of their pressure type, with the
+     * {@link ThresholdKernel} scanning the values as a primitive column.
+     */
     private Alert checkBloodPressureThreshold(Patient patient, List<PatientRecord> records, String pressureType) {
         if (records.isEmpty()) {
             return null;
         }
-        for (int i = 0; i < records.size(); i++) {
-            PatientRecord record = records.get(i);
-            Double value = record.getMeasurementValue();
-            String patientId = String.valueOf(record.getPatientId());
-
-            boolean isThresholdViolated = false;
-            String alertMessage = "";
-          
-            
-            if (pressureType.equals("Systolic") && (value > 180 || value < 90 )) {
-                isThresholdViolated = true;
-                alertMessage = value > 180 ? "Extremely high systolic pressure" : "Extremely low systolic pressure";
-            } else if (pressureType.equals("Diastolic") && (value > 120 || value < 60 )) {
-                isThresholdViolated = true;
-                alertMessage = value > 120 ? "Extremely high diastolic pressure" : "Extremely low diastolic pressure";
-            }
+        // Resolve the pressure type once instead of comparing strings per record
+        boolean systolic = pressureType.equals("Systolic");
+        boolean diastolic = pressureType.equals("Diastolic");
+        if (!systolic && !diastolic) {
+            return null;
+        }
+        int index = ThresholdKernel.getDefault().indexOfOutside(records,
+                systolic ? SYSTOLIC_LOW : DIASTOLIC_LOW, systolic ? SYSTOLIC_HIGH : DIASTOLIC_HIGH);
+        if (index < 0) {
+            return null;
+        }
 
-            if (isThresholdViolated) {
-                Alert alert = new Alert(
-                        patientId,
-                        alertMessage + " (" + value + " mmHg)",
-                        System.currentTimeMillis()
-                );
-                return alert;  // Exit after finding the first violation to avoid multiple alerts
-            }
+        // Only the first violation is reported, to avoid multiple alerts
+        PatientRecord record = records.get(index);
+        return new Alert(
+                String.valueOf(record.getPatientId()),
+                thresholdCondition(systolic, diastolic, record.getMeasurementValue()),
+                System.currentTimeMillis(),
+                Priority.HIGH
+        );
+    }
+
+    /**
+     * Describes a trend over three consecutive readings: each more than 10 mmHg above
+     * (or below) the one before.
+     *
+     * @return the alert condition, or null if there is no trend
+     */
+    private static String trendCondition(String pressureType, double oldestValue, double previousValue, double currentValue) {
+        if (currentValue - previousValue > 10 && previousValue - oldestValue > 10) {
+            return "Increasing " + pressureType + " Blood Pressure Trend";
+        }
+        if (previousValue - currentValue > 10 && oldestValue - previousValue > 10) {
+            return "Decreasing " + pressureType + " Blood Pressure Trend";
+        }
+        return null;
+    }
+
+    /**
+     * Describes a reading outside the safe range of its pressure type.
+     *
+     * @return the alert condition, or null if the reading is in range
+     */
+    private static String thresholdCondition(boolean systolic, boolean diastolic, double value) {
+        if (systolic && (value > SYSTOLIC_HIGH || value < SYSTOLIC_LOW)) {
+            return (value > SYSTOLIC_HIGH ? "Extremely high systolic pressure" : "Extremely low systolic pressure")
+                    + " (" + value + " mmHg)";
+        }
+        if (diastolic && (value > DIASTOLIC_HIGH || value < DIASTOLIC_LOW)) {
+            return (value > DIASTOLIC_HIGH ? "Extremely high diastolic pressure" : "Extremely low diastolic pressure")
+                    + " (" + value + " mmHg)";
         }
         return null;
     }
+
+    @Override
+    public int[] getRecordTypeCodes() {
+        return RECORD_TYPES.clone();
+    }
+
+    @Override
+    public State createState(int patientId) {
+        return new State();
+    }
+
+    /**
+     * Checks a new pressure reading for a trend with the two readings before it, and
+     * then against the thresholds, in the same order as the window-based check.
+     */
+    @Override
+    public Alert onReading(State state, int patientId, int recordTypeCode, long timestamp, double measurementValue) {
+        boolean systolic = recordTypeCode == RecordType.SYSTOLIC_PRESSURE;
+        int slot = systolic ? 0 : 1;
+
+        String condition = null;
+        Priority priority = Priority.MEDIUM;
+        if (state.seen[slot] >= 2) {
+            condition = trendCondition(systolic ? "Systolic" : "Diastolic",
+                    state.oldest[slot], state.previous[slot], measurementValue);
+        }
+        state.oldest[slot] = state.previous[slot];
+        state.previous[slot] = measurementValue;
+        state.seen[slot] = Math.min(state.seen[slot] + 1, 2);
+
+        if (condition == null) {
+            condition = thresholdCondition(systolic, !systolic, measurementValue);
+            priority = Priority.HIGH;
+        }
+        return condition == null ? null : new Alert(String.valueOf(patientId), condition, timestamp, priority);
+    }
 }
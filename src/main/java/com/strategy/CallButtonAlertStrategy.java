@@ -1,9 +1,11 @@
 package com.strategy;
 import com.data_management.*;
 import com.alerts.*;
+import com.decorator.PriorityAlertDecorator.Priority;
 import java.util.*;
 
-public class CallButtonAlertStrategy implements AlertStrategy {
+public class CallButtonAlertStrategy implements AlertStrategy, StreamingAlertStrategy<Void> {
+    private static final String CONDITION = "Call Button Alert: Patient or Staff Requires Assistance";
 
     @Override
     public Alert checkAlert(Patient patient, List<PatientRecord> alertRecords) {
@@ -14,6 +16,11 @@ public class CallButtonAlertStrategy implements AlertStrategy {
    }     
 
 
+    @Override
+    public Alert checkAlert(EvaluationContext context) {
+        return checkAlert(context.getPatient(), context.getRecords(RecordType.ALERT));
+    }
+
     /**
      * Monitors for manually triggered alerts from patients or staff.
      * These alerts are directly generated when a patient or staff member
@@ -39,11 +46,30 @@ public class CallButtonAlertStrategy implements AlertStrategy {
         if (alertValue == 1.0) { // 1.0 represents "triggered"
             Alert alert = new Alert(
                     patientId,
-                    "Call Button Alert: Patient or Staff Requires Assistance",
-                    latestAlert.getTimestamp()
+                    CONDITION,
+                    latestAlert.getTimestamp(),
+                    Priority.HIGH
             );
             return alert;
         }
     return null;
     }
+
+    @Override
+    public int[] getRecordTypeCodes() {
+        return new int[] {RecordType.ALERT};
+    }
+
+    @Override
+    public Void createState(int patientId) {
+        return null; // each button press stands on its own
+    }
+
+    @Override
+    public Alert onReading(Void state, int patientId, int recordTypeCode, long timestamp, double measurementValue) {
+        if (measurementValue == 1.0) { // 1.0 represents "triggered"
+            return new Alert(String.valueOf(patientId), CONDITION, timestamp, Priority.HIGH);
+        }
+        return null;
+    }
 }
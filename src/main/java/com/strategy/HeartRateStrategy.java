@@ -1,10 +1,28 @@
 package com.strategy;
 import com.alerts.*;
+import com.decorator.PriorityAlertDecorator.Priority;
 import java.util.*;
 import com.data_management.*;
-import java.util.stream.Collectors;
+import com.logging.Logger;
 
-public class HeartRateStrategy implements AlertStrategy {
+public class HeartRateStrategy implements AlertStrategy, StreamingAlertStrategy<HeartRateStrategy.State> {
+    private static final Logger LOG = Logger.getLogger(HeartRateStrategy.class);
+    // Number of readings the baseline is computed over
+    private static final int BASELINE_SIZE = 600;
+    // Number of latest readings checked against the baseline
+    private static final int CHECKED_READINGS = 10;
+
+    /**
+     * Per-patient state of the streaming check: rolling statistics over the latest
+     * {@value #BASELINE_SIZE} ECG readings.
+     */
+    public static final class State {
+        private final RollingStatistics baseline = new RollingStatistics(BASELINE_SIZE);
+        private final double[] lastReadings = new double[CHECKED_READINGS];
+    }
+
+    // Scratch state of the window-based check, reused per thread and cleared per call
+    private static final ThreadLocal<State> WINDOW_STATE = ThreadLocal.withInitial(State::new);
 
         // Implement the interface method (required)
         @Override
@@ -17,6 +35,11 @@ public class HeartRateStrategy implements AlertStrategy {
         return null;
         }
 
+    @Override
+    public Alert checkAlert(EvaluationContext context) {
+        return checkAlert(context.getPatient(), context.getRecords(RecordType.ECG));
+    }
+
     /**
      * Analyzes ECG readings to detect abnormal heart electrical activity.
      * This method uses statistical analysis to identify readings that deviate
@@ -35,45 +58,88 @@ public class HeartRateStrategy implements AlertStrategy {
         PatientRecord latestRecord = ecgRecords.get(ecgRecords.size() - 1);
         String patientId = String.valueOf(latestRecord.getPatientId());
 
-        // Calculate the mean and standard deviation of recent values
-        List<Double> recentValues = ecgRecords.stream()
-                .skip(Math.max(0, ecgRecords.size() - 600)) // Use more data if available
-                .map(PatientRecord::getMeasurementValue)
-                .collect(Collectors.toList());
+        // Calculate the mean and standard deviation of recent values in one pass over
+        // the primitive values, without boxing them into a list
+        State state = WINDOW_STATE.get();
+        RollingStatistics statistics = state.baseline;
+        statistics.clear();
+        for (int i = Math.max(0, ecgRecords.size() - BASELINE_SIZE); i < ecgRecords.size(); i++) {
+            statistics.add(ecgRecords.get(i).getMeasurementValue());
+        }
+        double mean = statistics.getMean();
+        double stdDev = statistics.getStdDev();
 
-        double mean = recentValues.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double stdDev = Math.sqrt(recentValues.stream()
-                .mapToDouble(val -> Math.pow(val - mean, 2))
-                .average().orElse(0.0));
+        // Look at more readings for analysis
+        int count = statistics.copyLatest(state.lastReadings, CHECKED_READINGS);
+
+        return evaluateReadings(patientId, ecgRecords.size(), mean, stdDev, state.lastReadings, count,
+                System.currentTimeMillis());
+    }
 
-        // Define upper and lower bounds (3 standard deviations)
+    /**
+     * Decides whether the latest readings are abnormal given the baseline of the
+     * window. Shared by the window-based and the streaming check.
+     *
+     * @param patientId    the patient the readings belong to
+     * @param recordCount  the number of readings in the window, for debugging
+     * @param mean         the mean of the window
+     * @param stdDev       the standard deviation of the window
+     * @param lastReadings the latest readings, oldest first
+     * @param count        the number of readings in {@code lastReadings}
+     * @param alertTime    the timestamp of the alert, if one is raised
+     * @return an alert, or null if the readings look normal
+     */
+    private Alert evaluateReadings(String patientId, int recordCount, double mean, double stdDev,
+                                   double[] lastReadings, int count, long alertTime) {
+        // Checked once so that nothing is boxed or formatted when DEBUG is off
+        if (LOG.isDebugEnabled()) {
+            // Define upper and lower bounds (2 standard deviations)
+            double upperBound = mean + 2 * stdDev;
+            double lowerBound = mean - 2 * stdDev;
+            LOG.debug("Patient {} has {} ECG records", patientId, recordCount);
+            LOG.debug("ECG stats: Mean={}, StdDev={}", mean, stdDev);
+            LOG.debug("Bounds: [{}, {}]", lowerBound, upperBound);
+
+            // Look at last 5 readings for debugging
+            LOG.debug("Last 5 ECG values:");
+            for (int i = Math.max(0, count - 5); i < count; i++) {
+                double currentValue = lastReadings[i];
+                LOG.debug("{}{}", String.format("%.3f", currentValue),
+                        (currentValue > upperBound || currentValue < lowerBound ? " OUT OF RANGE" : " in range"));
+            }
+        }
+
+        String abnormality = describeAbnormality(mean, stdDev, lastReadings, count);
+        if (abnormality == null) {
+            return null;
+        }
+        return new Alert(patientId, "ECG Abnormality: " + abnormality, alertTime, Priority.HIGH);
+    }
+
+    /**
+     * Decides whether the latest readings are abnormal given the mean and standard
+     * deviation of the baseline they belong to. Also used by the rule engine's
+     * {@code anomaly} rules.
+     *
+     * @param mean         the mean of the baseline
+     * @param stdDev       the standard deviation of the baseline
+     * @param lastReadings the latest readings, oldest first
+     * @param count        the number of readings in {@code lastReadings}
+     * @return what is abnormal about the readings, or null if they look normal
+     */
+    public static String describeAbnormality(double mean, double stdDev, double[] lastReadings, int count) {
+        // Define upper and lower bounds (2 standard deviations)
         double upperBound = mean + 2 * stdDev;
         double lowerBound = mean - 2 * stdDev;
 
-        System.out.println("DEBUG - Patient " + patientId + " has " + ecgRecords.size() + " ECG records");
-        System.out.println("DEBUG - ECG stats: Mean=" + mean + ", StdDev=" + stdDev);
-        System.out.println("DEBUG - Bounds: [" + lowerBound + ", " + upperBound + "]");
-
         // Check for abnormal patterns in the last few readings
         int abnormalCount = 0;
         boolean hasRapidChange = false;
 
-        // Look at last 5 readings for debugging
-        System.out.println("DEBUG - Last 5 ECG values:");
-        //List<Double> last5Values = recentValues.subList(Math.max(0, recentValues.size() - 5), recentValues.size());
+        double prevValue = lastReadings[0];
 
-        // Look at more readings for analysis
-        List<Double> lastReadings = recentValues.subList(Math.max(0, recentValues.size() - 10), recentValues.size());
-        double prevValue = lastReadings.get(0);
-
-        for (int i = 0; i < lastReadings.size(); i++) {
-            double currentValue = lastReadings.get(i);
-
-            // For debugging the last 5
-            if (i >= lastReadings.size() - 5) {
-                System.out.println("DEBUG - " + String.format("%.3f", currentValue) +
-                        (currentValue > upperBound || currentValue < lowerBound ? " OUT OF RANGE" : " in range"));
-            }
+        for (int i = 0; i < count; i++) {
+            double currentValue = lastReadings[i];
 
             // Check for values outside statistical bounds
             if (currentValue > upperBound || currentValue < lowerBound) {
@@ -95,21 +161,15 @@ public class HeartRateStrategy implements AlertStrategy {
         }
 
         // Check for both statistical outliers and pattern-based abnormalities
-        boolean abnormalPattern = checkForAbnormalPattern(lastReadings, mean, stdDev);
+        boolean abnormalPattern = checkForAbnormalPattern(lastReadings, count, mean, stdDev);
 
-        // Trigger alert if multiple abnormal readings or rapid changes or pattern detected
+        // Report if multiple abnormal readings or rapid changes or pattern detected
         if ((abnormalCount >= 3) ||
                 (hasRapidChange && abnormalCount >= 1) ||
                 (abnormalPattern && abnormalCount >= 1))
         {
-            Alert alert = new Alert(
-                    patientId,
-                    "ECG Abnormality: " +
-                            (abnormalCount >= 2 ? abnormalCount + " readings outside expected range" :
-                                    hasRapidChange ? "Rapid fluctuations detected" : "Abnormal pattern detected"),
-                    System.currentTimeMillis()
-            );
-            return alert;
+            return abnormalCount >= 2 ? abnormalCount + " readings outside expected range" :
+                    hasRapidChange ? "Rapid fluctuations detected" : "Abnormal pattern detected";
         }
         return null;
     }
@@ -119,13 +179,13 @@ public class HeartRateStrategy implements AlertStrategy {
      * This is a simplified implementation that looks for certain sequences
      * that might indicate arrhythmias or other cardiac issues
      */
-    private boolean checkForAbnormalPattern(List<Double> readings, double mean, double stdDev) {
+    private static boolean checkForAbnormalPattern(double[] readings, int count, double mean, double stdDev) {
         // Check for alternating high-low pattern (potential indicator of certain arrhythmias)
         boolean alternatingPattern = true;
-        boolean highToLow = readings.get(0) > readings.get(1);
+        boolean highToLow = readings[0] > readings[1];
 
-        for (int i = 1; i < readings.size() - 1; i++) {
-            boolean currentHighToLow = readings.get(i) > readings.get(i + 1);
+        for (int i = 1; i < count - 1; i++) {
+            boolean currentHighToLow = readings[i] > readings[i + 1];
             if (currentHighToLow == highToLow) {
                 alternatingPattern = false;
                 break;
@@ -137,8 +197,8 @@ public class HeartRateStrategy implements AlertStrategy {
         boolean flatlinePattern = true;
         double threshold = stdDev * 0.2; // Very small variation threshold
 
-        for (int i = 0; i < readings.size() - 1; i++) {
-            if (Math.abs(readings.get(i) - readings.get(i + 1)) > threshold) {
+        for (int i = 0; i < count - 1; i++) {
+            if (Math.abs(readings[i] - readings[i + 1]) > threshold) {
                 flatlinePattern = false;
                 break;
             }
@@ -146,10 +206,10 @@ public class HeartRateStrategy implements AlertStrategy {
 
         // Check for consistent trend in one direction
         boolean consistentTrend = true;
-        boolean increasing = readings.get(0) < readings.get(1);
+        boolean increasing = readings[0] < readings[1];
 
-        for (int i = 1; i < readings.size() - 1; i++) {
-            boolean currentIncreasing = readings.get(i) < readings.get(i + 1);
+        for (int i = 1; i < count - 1; i++) {
+            boolean currentIncreasing = readings[i] < readings[i + 1];
             if (currentIncreasing != increasing) {
                 consistentTrend = false;
                 break;
@@ -159,4 +219,32 @@ public class HeartRateStrategy implements AlertStrategy {
         return alternatingPattern || flatlinePattern || consistentTrend;
     }
 
+    @Override
+    public int[] getRecordTypeCodes() {
+        return new int[] {RecordType.ECG};
+    }
+
+    @Override
+    public State createState(int patientId) {
+        return new State();
+    }
+
+    /**
+     * Adds a reading to the patient's baseline and checks the latest readings against
+     * it, like the window-based check does once 20 readings are available. The
+     * baseline is updated in O(1), so a reading costs the same however many readings
+     * the window holds.
+     */
+    @Override
+    public Alert onReading(State state, int patientId, int recordTypeCode, long timestamp, double measurementValue) {
+        RollingStatistics baseline = state.baseline;
+        baseline.add(measurementValue);
+        if (baseline.size() < 20) {
+            return null;
+        }
+
+        int count = baseline.copyLatest(state.lastReadings, CHECKED_READINGS);
+        return evaluateReadings(String.valueOf(patientId), baseline.size(), baseline.getMean(),
+                baseline.getStdDev(), state.lastReadings, count, timestamp);
+    }
 }
@@ -1,9 +1,26 @@
 package com.strategy;
 import com.alerts.*;
+import com.decorator.PriorityAlertDecorator.Priority;
 import com.data_management.*;
 import java.util.List;
 
-public class OxygenSaturationStrategy implements AlertStrategy {
+public class OxygenSaturationStrategy implements AlertStrategy, StreamingAlertStrategy<OxygenSaturationStrategy.State> {
+     private static final long DROP_WINDOW_MILLIS = 10 * 60 * 1000;
+     private static final long HYPOXEMIA_WINDOW_MILLIS = 1 * 60 * 1000;
+     private static final double LOW_SATURATION = 92;
+
+     /**
+      * Per-patient state of the streaming checks: the highest saturation of the last
+      * 10 minutes, and the latest low systolic and low saturation readings.
+      */
+     public static final class State {
+          private final SlidingWindowMax saturationMax = new SlidingWindowMax(DROP_WINDOW_MILLIS);
+
+          private long lowSystolicTime = Long.MIN_VALUE;
+          private double lowSystolicValue;
+          private long lowSaturationTime = Long.MIN_VALUE;
+          private double lowSaturationValue;
+     }
 
      // Implement the interface method (required)
      @Override
@@ -19,6 +36,18 @@ public class OxygenSaturationStrategy implements AlertStrategy {
           return null;
      }
      
+     /**
+      * Checks for hypotensive hypoxemia first, then for low or dropping saturation.
+      */
+     @Override
+     public Alert checkAlert(EvaluationContext context) {
+          List<PatientRecord> saturationRecords = context.getRecords(RecordType.SATURATION);
+          Alert hypotensiveHypoxemiaAlert = checkAlert(context.getPatient(), saturationRecords,
+                    context.getRecords(RecordType.SYSTOLIC_PRESSURE));
+          if (hypotensiveHypoxemiaAlert != null) return hypotensiveHypoxemiaAlert;
+          return checkAlert(context.getPatient(), saturationRecords);
+     }
+
      public Alert checkAlert(Patient patient, List<PatientRecord> saturationRecords, List<PatientRecord> systolicRecords) {
           if (saturationRecords != null && !saturationRecords.isEmpty()
           && systolicRecords != null && !systolicRecords.isEmpty()
@@ -41,29 +70,20 @@ public class OxygenSaturationStrategy implements AlertStrategy {
           return null;
           }
 
-          for (int i = 0; i < records.size(); i++) {
-          PatientRecord record = records.get(i);
-          Double value = record.getMeasurementValue();
-          String patientId = String.valueOf(record.getPatientId());
-
-          boolean isThresholdViolated = false;
-          String alertMessage = "";
-
-          if (value < 92) {
-               isThresholdViolated = true;
-               //alertMessage = "Value: " + value + " is below 92? " + (value < 92) +  "Extremely low blood oxygen saturation level";
-               alertMessage = "Extremely low blood oxygen saturation level";
-          }
-          if (isThresholdViolated) {
-               Alert alert = new Alert(
-                         patientId,
-                         alertMessage + " (" + value + "%)",
-                         System.currentTimeMillis()
-               );
-               return alert;  // Exit after finding the first violation to avoid multiple alerts
-          }
-          }
+          // The kernel scans the values as a primitive column; there is no upper bound
+          int index = ThresholdKernel.getDefault().indexOfOutside(records, LOW_SATURATION, Double.POSITIVE_INFINITY);
+          if (index < 0) {
           return null;
+          }
+
+          // Only the first violation is reported, to avoid multiple alerts
+          PatientRecord record = records.get(index);
+          return new Alert(
+                    String.valueOf(record.getPatientId()),
+                    "Extremely low blood oxygen saturation level (" + record.getMeasurementValue() + "%)",
+                    System.currentTimeMillis(),
+                    Priority.HIGH
+          );
      }
 
      /**
@@ -84,26 +104,18 @@ public class OxygenSaturationStrategy implements AlertStrategy {
           double latestValue = latestRecord.getMeasurementValue();
           long latestTime = latestRecord.getTimestamp();
 
+          // Stream the earlier readings through the window maximum: the largest drop is
+          // the highest reading of the 10 minutes before the latest one minus the latest
+          SlidingWindowMax earlierMax = new SlidingWindowMax(DROP_WINDOW_MILLIS);
           for (int i = 0; i < records.size() - 1; i++) {
           PatientRecord earlierRecord = records.get(i);
-          double earlierValue = earlierRecord.getMeasurementValue();
-          long earlierTime = earlierRecord.getTimestamp();
-
-          // Calculate the drop
-          double dropPercentage = earlierValue - latestValue;
-
-          // Only alert if drop occurred within 10 minutes
-          long timeDifference = latestTime - earlierTime;
-          if (dropPercentage > 5.0 && timeDifference <= 10 * 60 * 1000) {
-               String patientId = String.valueOf(latestRecord.getPatientId());
-
-               Alert alert = new Alert(
-                         patientId,
-                         "Rapid Oxygen Saturation Drop of " + String.format("%.1f", dropPercentage) + "% in 10 minutes",
-                         System.currentTimeMillis()
-               );
-               return alert;
+          earlierMax.add(earlierRecord.getTimestamp(), earlierRecord.getMeasurementValue());
           }
+
+          double dropPercentage = earlierMax.maxAt(latestTime) - latestValue;
+          if (dropPercentage > 5.0) {
+          return rapidDropAlert(String.valueOf(latestRecord.getPatientId()), dropPercentage,
+                    System.currentTimeMillis());
           }
           return null;
      }
@@ -124,37 +136,95 @@ public class OxygenSaturationStrategy implements AlertStrategy {
           if (systolicRecords.isEmpty() || saturationRecords.isEmpty()) {
           return null;
           }
-     // boolean isHypotensiveHypoxemia = false;
           String patientId = String.valueOf(systolicRecords.get(systolicRecords.size()-1).getPatientId());
 
-          for (PatientRecord systolicPressure : systolicRecords) {
-          double systolicPressureValue = systolicPressure.getMeasurementValue();
-          if (systolicPressureValue < 90) {
-
-               long systolicPressureTimestamp = systolicPressure.getTimestamp();
-               long oneMinuteBack = systolicPressureTimestamp - (1 * 60 * 1000);
-               long oneMinuteForward = systolicPressureTimestamp + (1 * 60 * 1000);
-
-               for (PatientRecord saturation : saturationRecords) {
-                    long saturationTimestamp = saturation.getTimestamp();
-                    if (saturationTimestamp >= oneMinuteBack && saturationTimestamp <= oneMinuteForward) {
-                         double saturationValue = saturation.getMeasurementValue();
-
-                         if (saturationValue < 92) {
-                              Alert alert = new Alert(
-                                   patientId,
-                                   "CRITICAL: Hypotensive Hypoxemia Detected (BP: " +
-                                             String.format("%.1f", systolicPressureValue) + " mmHg, O2 Sat: " +
-                                             String.format("%.1f", saturationValue) + "%)",
-                                   System.currentTimeMillis()
-                              );
-                              return alert; // Exit after finding the first occurrence
-                         }
-                    }
+          // Merge join of the two time-ordered streams: the first low systolic reading
+          // with a low saturation reading at most one minute before or after it
+          WindowJoin join = new WindowJoin(HYPOXEMIA_WINDOW_MILLIS);
+          if (!join.find(systolicRecords.size(), i -> systolicRecords.get(i).getTimestamp(),
+                    i -> !(systolicRecords.get(i).getMeasurementValue() >= 90),
+                    saturationRecords.size(), i -> saturationRecords.get(i).getTimestamp(),
+                    i -> !(saturationRecords.get(i).getMeasurementValue() >= LOW_SATURATION))) {
+               return null;
+          }
+          // Exit after finding the first occurrence
+          return hypotensiveHypoxemiaAlert(patientId,
+                    systolicRecords.get(join.getFirstIndex()).getMeasurementValue(),
+                    saturationRecords.get(join.getSecondIndex()).getMeasurementValue(), System.currentTimeMillis());
+     }
+
+     @Override
+     public int[] getRecordTypeCodes() {
+          return new int[] {RecordType.SATURATION, RecordType.SYSTOLIC_PRESSURE};
+     }
+
+     @Override
+     public State createState(int patientId) {
+          return new State();
+     }
+
+     /**
+      * Checks a new reading in the same order as the window-based checks: hypotensive
+      * hypoxemia first, then low saturation, then a rapid drop against the highest
+      * saturation of the last 10 minutes. Each reading costs amortized O(1).
+      */
+     @Override
+     public Alert onReading(State state, int patientId, int recordTypeCode, long timestamp, double measurementValue) {
+          String id = String.valueOf(patientId);
+          if (recordTypeCode == RecordType.SYSTOLIC_PRESSURE) {
+               if (measurementValue >= 90) {
+                    return null;
+               }
+               state.lowSystolicTime = timestamp;
+               state.lowSystolicValue = measurementValue;
+               if (withinHypoxemiaWindow(state.lowSaturationTime, timestamp)) {
+                    return hypotensiveHypoxemiaAlert(id, measurementValue, state.lowSaturationValue, timestamp);
+               }
+               return null;
+          }
+
+          Alert alert = null;
+          if (measurementValue < LOW_SATURATION) {
+               state.lowSaturationTime = timestamp;
+               state.lowSaturationValue = measurementValue;
+               if (withinHypoxemiaWindow(state.lowSystolicTime, timestamp)) {
+                    alert = hypotensiveHypoxemiaAlert(id, state.lowSystolicValue, measurementValue, timestamp);
+               } else {
+                    alert = new Alert(id, "Extremely low blood oxygen saturation level (" + measurementValue + "%)", timestamp,
+                              Priority.HIGH);
                }
           }
+
+          double dropPercentage = state.saturationMax.maxAt(timestamp) - measurementValue;
+          state.saturationMax.add(timestamp, measurementValue);
+          if (alert == null && dropPercentage > 5.0) {
+               alert = rapidDropAlert(id, dropPercentage, timestamp);
           }
-          return null;
+          return alert;
      }
 
+     private static Alert rapidDropAlert(String patientId, double dropPercentage, long timestamp) {
+          return new Alert(
+               patientId,
+               "Rapid Oxygen Saturation Drop of " + String.format("%.1f", dropPercentage) + "% in 10 minutes",
+               timestamp,
+               Priority.MEDIUM
+          );
+     }
+
+     private static boolean withinHypoxemiaWindow(long otherTime, long timestamp) {
+          return otherTime != Long.MIN_VALUE && Math.abs(timestamp - otherTime) <= HYPOXEMIA_WINDOW_MILLIS;
+     }
+
+     private static Alert hypotensiveHypoxemiaAlert(String patientId, double systolicPressureValue,
+                                                    double saturationValue, long timestamp) {
+          return new Alert(
+               patientId,
+               "CRITICAL: Hypotensive Hypoxemia Detected (BP: " +
+                         String.format("%.1f", systolicPressureValue) + " mmHg, O2 Sat: " +
+                         String.format("%.1f", saturationValue) + "%)",
+               timestamp,
+               Priority.CRITICAL
+          );
+     }
 }
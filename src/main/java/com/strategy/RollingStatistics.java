@@ -0,0 +1,146 @@
+package com.strategy;
+
+/**
+ * Mean and variance of the latest {@code capacity} samples, updated in O(1) per sample.
+ * <p>
+ * Samples are kept in a primitive ring. While the window fills up, each sample is
+ * added with Welford's update; once it is full, the new sample replaces the oldest with
+ * the sliding form of the same update, so no pass over the window is needed. The
+ * running sums are rebuilt from the ring once per {@code capacity} replacements, which
+ * keeps rounding drift bounded on arbitrarily long streams at an amortized O(1) cost.
+ * </p>
+ * <p>
+ * Instances are not thread-safe; each belongs to one patient's alert state.
+ * </p>
+ */
+public final class RollingStatistics {
+    private final double[] samples;
+    private int next;
+    private int size;
+    private double mean;
+    // Sum of squared deviations from the mean
+    private double m2;
+    private int replacementsSinceRebuild;
+
+    /**
+     * Creates empty statistics over a window of the given size.
+     *
+     * @param capacity the number of latest samples the statistics cover
+     */
+    public RollingStatistics(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.samples = new double[capacity];
+    }
+
+    /**
+     * Adds a sample, dropping the oldest one if the window is full.
+     *
+     * @param value the new sample
+     */
+    public void add(double value) {
+        if (size < samples.length) {
+            samples[next] = value;
+            size++;
+            double delta = value - mean;
+            mean += delta / size;
+            m2 += delta * (value - mean);
+        } else {
+            double old = samples[next];
+            samples[next] = value;
+            double oldMean = mean;
+            mean += (value - old) / size;
+            m2 += (value - old) * (value - mean + old - oldMean);
+            if (++replacementsSinceRebuild >= samples.length) {
+                rebuild();
+            }
+        }
+        next = next + 1 == samples.length ? 0 : next + 1;
+    }
+
+    /**
+     * @return the number of samples in the window
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the maximum number of samples in the window
+     */
+    public int getCapacity() {
+        return samples.length;
+    }
+
+    /**
+     * @return the mean of the samples, or 0 if there are none
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the population variance of the samples, or 0 if there are none
+     */
+    public double getVariance() {
+        return size == 0 ? 0.0 : Math.max(0.0, m2 / size);
+    }
+
+    /**
+     * @return the population standard deviation of the samples
+     */
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Copies the latest samples, oldest first.
+     *
+     * @param out   the array to copy into
+     * @param count the number of samples wanted
+     * @return the number of samples copied, at most {@code count} and {@link #size()}
+     */
+    public int copyLatest(double[] out, int count) {
+        int n = Math.min(count, size);
+        int first = next - n;
+        if (first < 0) {
+            first += samples.length;
+        }
+        for (int i = 0; i < n; i++) {
+            int index = first + i;
+            out[i] = samples[index < samples.length ? index : index - samples.length];
+        }
+        return n;
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public void clear() {
+        next = 0;
+        size = 0;
+        mean = 0;
+        m2 = 0;
+        replacementsSinceRebuild = 0;
+    }
+
+    /**
+     * Recomputes the mean and the squared deviations from the ring with two passes.
+     */
+    private void rebuild() {
+        double sum = 0;
+        for (double sample : samples) {
+            sum += sample;
+        }
+        double exactMean = sum / size;
+        double squares = 0;
+        for (double sample : samples) {
+            double deviation = sample - exactMean;
+            squares += deviation * deviation;
+        }
+        mean = exactMean;
+        m2 = squares;
+        replacementsSinceRebuild = 0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.strategy;
+
+/**
+ * Maximum of the values seen within a sliding time window, with amortized O(1) cost
+ * per value.
+ * <p>
+ * The values are kept in a monotonic deque: a new value removes every older value that
+ * is not larger than it, since those can never be the maximum again, so the deque is
+ * ordered by time and by decreasing value at once. The maximum is at the front, and
+ * values that fall out of the window are removed from the front. Each value is added
+ * and removed at most once.
+ * </p>
+ * <p>
+ * Values are expected in timestamp order. A value older than the newest one is treated
+ * as if it had the newest timestamp, which can only keep it in the window a little
+ * longer. Instances are not thread-safe.
+ * </p>
+ */
+public final class SlidingWindowMax {
+    private final long windowMillis;
+    private long[] times = new long[16];
+    private double[] values = new double[16];
+    private int head;
+    private int size;
+
+    /**
+     * Creates an empty window.
+     *
+     * @param windowMillis how long a value stays in the window, in milliseconds
+     */
+    public SlidingWindowMax(long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Window must not be negative: " + windowMillis);
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param timestamp the time of the value, in milliseconds
+     * @param value     the value
+     */
+    public void add(long timestamp, double value) {
+        if (size > 0) {
+            timestamp = Math.max(timestamp, times[index(size - 1)]);
+        }
+        while (size > 0 && values[index(size - 1)] <= value) {
+            size--;
+        }
+        if (size == times.length) {
+            grow();
+        }
+        int tail = index(size);
+        times[tail] = timestamp;
+        values[tail] = value;
+        size++;
+    }
+
+    /**
+     * Returns the maximum of the values not older than {@code windowMillis} before the
+     * given time, dropping the values that are older.
+     *
+     * @param now the current time, in milliseconds
+     * @return the maximum, or {@link Double#NEGATIVE_INFINITY} if the window is empty
+     */
+    public double maxAt(long now) {
+        long cutoff = now - windowMillis;
+        while (size > 0 && times[head] < cutoff) {
+            head = index(1);
+            size--;
+        }
+        return size == 0 ? Double.NEGATIVE_INFINITY : values[head];
+    }
+
+    /**
+     * @return the number of values that may still become the maximum
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private int index(int offset) {
+        int index = head + offset;
+        return index < times.length ? index : index - times.length;
+    }
+
+    private void grow() {
+        long[] newTimes = new long[times.length * 2];
+        double[] newValues = new double[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            newTimes[i] = times[index(i)];
+            newValues[i] = values[index(i)];
+        }
+        times = newTimes;
+        values = newValues;
+        head = 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.strategy;
+
+import com.alerts.Alert;
+
+/**
+ * An alert check that is evaluated on each new reading instead of on a window of
+ * records. The strategy keeps whatever it needs about a patient's past readings in a
+ * per-patient state object and updates it incrementally, so a reading costs the same
+ * however long the patient has been monitored.
+ * <p>
+ * The {@link com.alerts.AlertEngine} owns the states: it creates one per patient with
+ * {@link #createState(int)} and passes it to every call for that patient. Calls for one
+ * patient never overlap and arrive in the order the readings were stored, so a state
+ * needs no synchronization.
+ * </p>
+ *
+ * @param <S> the type of the per-patient state
+ */
+public interface StreamingAlertStrategy<S> {
+
+    /**
+     * Returns the record types this strategy subscribes to. Only readings of these
+     * types are passed to {@link #onReading}.
+     *
+     * @return the record type codes, see {@link com.data_management.RecordType}
+     */
+    int[] getRecordTypeCodes();
+
+    /**
+     * Creates the state kept for a patient, called before the patient's first reading.
+     *
+     * @param patientId the unique identifier of the patient
+     * @return the initial state, which may be null if the strategy keeps none
+     */
+    S createState(int patientId);
+
+    /**
+     * Updates the state with a new reading and checks the alert condition.
+     *
+     * @param state            the patient's state
+     * @param patientId        the unique identifier of the patient
+     * @param recordTypeCode   the code of the record type
+     * @param timestamp        the time of the measurement
+     * @param measurementValue the measured value
+     * @return an Alert if the reading completes an alert condition, or null
+     */
+    Alert onReading(S state, int patientId, int recordTypeCode, long timestamp, double measurementValue);
+}
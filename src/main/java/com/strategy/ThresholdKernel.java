@@ -0,0 +1,137 @@
+package com.strategy;
+
+import java.util.List;
+
+import com.data_management.PatientRecord;
+import com.data_management.RecordRange;
+import com.logging.Logger;
+
+/**
+ * Scans a column of measurement values for the first one outside a safe range, as
+ * used by the threshold checks of the alert strategies.
+ * <p>
+ * The default kernel is a plain scalar loop. Starting the JVM with
+ * {@code -Dsignal.simd=true --add-modules jdk.incubator.vector} selects a kernel that
+ * compares several values per instruction with the incubating Vector API. The vector
+ * kernel is loaded by name, so the incubator module is only needed when it is asked
+ * for; if it is missing the scalar kernel is used. Both kernels return the same index
+ * for the same input, and neither reports NaN values.
+ * </p>
+ */
+public abstract class ThresholdKernel {
+    /** System property that turns on the vector kernel */
+    public static final String SIMD_PROPERTY = "signal.simd";
+
+    private static final Logger LOG = Logger.getLogger(ThresholdKernel.class);
+    private static final ThresholdKernel SCALAR = new ScalarThresholdKernel();
+    private static final ThresholdKernel VECTOR = loadVectorKernel();
+    private static final ThresholdKernel DEFAULT =
+            Boolean.getBoolean(SIMD_PROPERTY) && VECTOR != null ? VECTOR : SCALAR;
+
+    // Scratch column for lists, reused per thread
+    private static final ThreadLocal<double[]> COLUMN = ThreadLocal.withInitial(() -> new double[1024]);
+
+    /**
+     * Returns the index of the first value below {@code low} or above {@code high}.
+     *
+     * @param values the column to scan
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @param low    the lowest value in range
+     * @param high   the highest value in range
+     * @return the index of the first value out of range, or -1 if there is none
+     */
+    public abstract int indexOfOutside(double[] values, int from, int to, double low, double high);
+
+    /**
+     * @return a short name of the kernel, e.g. "scalar"
+     */
+    public abstract String getName();
+
+    /**
+     * Returns the index of the first record whose measurement value is below
+     * {@code low} or above {@code high}. A {@link RecordRange} is scanned in place, one
+     * chunk of its series at a time; other lists are copied into a primitive column
+     * first.
+     *
+     * @param records the records to scan
+     * @param low     the lowest value in range
+     * @param high    the highest value in range
+     * @return the index of the first record out of range, or -1 if there is none
+     */
+    public int indexOfOutside(List<PatientRecord> records, double low, double high) {
+        if (records instanceof RecordRange) {
+            return ((RecordRange) records).indexOfValue((values, from, to) -> indexOfOutside(values, from, to, low, high));
+        }
+        int size = records.size();
+        double[] column = COLUMN.get();
+        if (column.length < size) {
+            column = new double[Math.max(size, column.length * 2)];
+            COLUMN.set(column);
+        }
+        for (int i = 0; i < size; i++) {
+            column[i] = records.get(i).getMeasurementValue();
+        }
+        return indexOfOutside(column, 0, size, low, high);
+    }
+
+    /**
+     * Returns the kernel selected by the {@value #SIMD_PROPERTY} system property.
+     *
+     * @return the kernel used by the alert strategies
+     */
+    public static ThresholdKernel getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the scalar kernel
+     */
+    public static ThresholdKernel scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @return the vector kernel, or null if the incubator module is not available
+     */
+    public static ThresholdKernel vector() {
+        return VECTOR;
+    }
+
+    private static ThresholdKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            if (Boolean.getBoolean(SIMD_PROPERTY)) {
+                LOG.warn("{} is set but jdk.incubator.vector is not available; using the scalar kernel", SIMD_PROPERTY);
+            }
+            return null;
+        }
+        try {
+            return (ThresholdKernel) Class.forName("com.strategy.VectorThresholdKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOG.warn("Could not load the vector threshold kernel: {}", e);
+            return null;
+        }
+    }
+
+    /**
+     * One comparison per value.
+     */
+    static final class ScalarThresholdKernel extends ThresholdKernel {
+        @Override
+        public int indexOfOutside(double[] values, int from, int to, double low, double high) {
+            for (int i = from; i < to; i++) {
+                double value = values[i];
+                if (value < low || value > high) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String getName() {
+            return "scalar";
+        }
+    }
+}
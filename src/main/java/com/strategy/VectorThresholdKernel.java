@@ -0,0 +1,61 @@
+package com.strategy;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Threshold kernel on the incubating Vector API: compares four vectors of values
+ * against both bounds and only tests the combined mask once, then locates the first
+ * value out of range vector by vector. The values that do not fill a vector are
+ * checked one by one.
+ * <p>
+ * Only compiled in the {@code vector} Maven profile, and only loaded by
+ * {@link ThresholdKernel} when the {@code jdk.incubator.vector} module is present.
+ * </p>
+ */
+final class VectorThresholdKernel extends ThresholdKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public int indexOfOutside(double[] values, int from, int to, double low, double high) {
+        int i = from;
+        int step = SPECIES.length();
+        // Four vectors per test of the mask, so the branch is taken rarely
+        int blockBound = from + (to - from) / (4 * step) * (4 * step);
+        for (; i < blockBound; i += 4 * step) {
+            VectorMask<Double> outside = outside(i, values, low, high)
+                    .or(outside(i + step, values, low, high))
+                    .or(outside(i + 2 * step, values, low, high))
+                    .or(outside(i + 3 * step, values, low, high));
+            if (outside.anyTrue()) {
+                break; // locate it vector by vector below
+            }
+        }
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += step) {
+            VectorMask<Double> outside = outside(i, values, low, high);
+            if (outside.anyTrue()) {
+                return i + outside.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            double value = values[i];
+            if (value < low || value > high) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static VectorMask<Double> outside(int index, double[] values, double low, double high) {
+        DoubleVector vector = DoubleVector.fromArray(SPECIES, values, index);
+        return vector.compare(VectorOperators.LT, low).or(vector.compare(VectorOperators.GT, high));
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+}
@@ -0,0 +1,96 @@
+package com.strategy;
+
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Finds the earliest reading of one series that has a reading of a second series no
+ * more than a time window before or after it, considering only the readings that pass
+ * a test on each side, e.g. a low blood pressure with a low saturation within a minute.
+ * <p>
+ * The two time-ordered series are merge-joined: for each candidate of the first
+ * series, the cursor into the second series is moved to the first reading at most one
+ * window earlier and then to the first candidate from there on. Both cursors only move
+ * forward, so a search is linear in the size of the two series. The series are read
+ * through accessors, so that lists of records and primitive columns can share it.
+ * </p>
+ * <p>
+ * The indices of the match are kept until the next search. Instances are not
+ * thread-safe.
+ * </p>
+ */
+public final class WindowJoin {
+    private final long windowMillis;
+    private int firstIndex = -1;
+    private int secondIndex = -1;
+
+    /**
+     * Creates a join.
+     *
+     * @param windowMillis how far apart the two readings may be, in milliseconds
+     */
+    public WindowJoin(long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Window must not be negative: " + windowMillis);
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Searches for the earliest match.
+     *
+     * @param firstSize     the number of readings of the first series
+     * @param firstTime     the timestamp of a reading of the first series, by index
+     * @param firstTest     whether a reading of the first series is a candidate
+     * @param secondSize    the number of readings of the second series
+     * @param secondTime    the timestamp of a reading of the second series, by index
+     * @param secondTest    whether a reading of the second series is a candidate
+     * @return true if a match was found, see {@link #getFirstIndex()} and
+     *         {@link #getSecondIndex()}
+     */
+    public boolean find(int firstSize, IntToLongFunction firstTime, IntPredicate firstTest,
+                        int secondSize, IntToLongFunction secondTime, IntPredicate secondTest) {
+        firstIndex = -1;
+        secondIndex = -1;
+        int windowStart = 0;
+        int match = 0;
+        for (int i = 0; i < firstSize; i++) {
+            if (!firstTest.test(i)) {
+                continue;
+            }
+            long time = firstTime.applyAsLong(i);
+            while (windowStart < secondSize && secondTime.applyAsLong(windowStart) < time - windowMillis) {
+                windowStart++;
+            }
+            match = Math.max(match, windowStart);
+            while (match < secondSize && !secondTest.test(match)) {
+                match++;
+            }
+            if (match == secondSize) {
+                return false; // no candidate of the second series left
+            }
+            if (secondTime.applyAsLong(match) <= time + windowMillis) {
+                firstIndex = i;
+                secondIndex = match;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the index of the matching reading of the first series, or -1 if the last
+     *         search found none
+     */
+    public int getFirstIndex() {
+        return firstIndex;
+    }
+
+    /**
+     * @return the index of the matching reading of the second series, or -1 if the
+     *         last search found none
+     */
+    public int getSecondIndex() {
+        return secondIndex;
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.cardio_generator.SimulationScheduler;
+
+/**
+ * Schedules the five generator tasks of 100,000 patients, with the periods used by the
+ * simulator, and reports the tick lag of the {@link SimulationScheduler}. Not a unit
+ * test; run it with the test classpath, e.g.
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes benchmark.SimulationSchedulerBenchmark [patients] [seconds]
+ * </pre>
+ * The tasks only count their runs, so the numbers show the cost of the scheduling.
+ */
+public class SimulationSchedulerBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int patients = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        ScheduledExecutorService driver = Executors.newScheduledThreadPool(cores);
+        SimulationScheduler scheduler = new SimulationScheduler(driver, cores);
+        LongAdder work = new LongAdder();
+        long[] periods = {1_000, 1_000, 60_000, 120_000, 20_000};
+        for (int patientId = 1; patientId <= patients; patientId++) {
+            for (int i = 0; i < periods.length; i++) {
+                scheduler.schedule(patientId, work::increment, (patientId + i) % 5_000, periods[i],
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+
+        Thread.sleep(seconds * 1000L);
+        driver.shutdownNow();
+
+        System.out.printf("%,d patients, %,d tasks on %d threads%n", patients, scheduler.getTaskCount(), cores);
+        System.out.printf("%,d runs in %d s, max tick lag %.1f ms%n",
+                scheduler.getRunCount(), seconds, scheduler.getMaxTickLagMillis());
+    }
+}
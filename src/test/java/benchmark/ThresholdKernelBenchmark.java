@@ -0,0 +1,61 @@
+package benchmark;
+
+import java.util.Random;
+
+import com.strategy.ThresholdKernel;
+
+/**
+ * Compares the scalar and vector threshold kernels on 10,000-sample windows. Not a
+ * unit test; build it with the vector profile and run it with the incubator module, e.g.
+ * <pre>
+ * mvn -Pvector test-compile
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes benchmark.ThresholdKernelBenchmark
+ * </pre>
+ * Every window is in range, so both kernels scan all of it, which is the common case
+ * for a healthy patient.
+ */
+public class ThresholdKernelBenchmark {
+    private static final int WINDOW_SIZE = 10_000;
+    private static final int WINDOWS = 64;
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    public static void main(String[] args) {
+        double[][] windows = new double[WINDOWS][WINDOW_SIZE];
+        Random random = new Random(42);
+        for (double[] window : windows) {
+            for (int i = 0; i < WINDOW_SIZE; i++) {
+                window[i] = 120 + random.nextGaussian() * 8;
+            }
+        }
+
+        ThresholdKernel scalar = ThresholdKernel.scalar();
+        ThresholdKernel vector = ThresholdKernel.vector();
+        if (vector == null) {
+            System.out.println("jdk.incubator.vector is not available; start the JVM with --add-modules jdk.incubator.vector");
+        }
+
+        double scalarNanos = measure(scalar, windows);
+        System.out.printf("%-20s %10.1f ns per window%n", scalar.getName(), scalarNanos);
+        if (vector != null) {
+            double vectorNanos = measure(vector, windows);
+            System.out.printf("%-20s %10.1f ns per window (%.1fx)%n", vector.getName(), vectorNanos, scalarNanos / vectorNanos);
+        }
+    }
+
+    private static double measure(ThresholdKernel kernel, double[][] windows) {
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink += kernel.indexOfOutside(windows[round % WINDOWS], 0, WINDOW_SIZE, 60, 180);
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            sink += kernel.indexOfOutside(windows[round % WINDOWS], 0, WINDOW_SIZE, 60, 180);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == Long.MIN_VALUE) {
+            System.out.println(sink); // keeps the results alive
+        }
+        return (double) elapsed / MEASURED_ROUNDS;
+    }
+}
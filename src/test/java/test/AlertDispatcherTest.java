@@ -0,0 +1,121 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alerts.Alert;
+import com.alerts.AlertDispatcher;
+import com.decorator.PriorityAlertDecorator;
+import com.decorator.PriorityAlertDecorator.Priority;
+
+/**
+ * Tests for the priority ordering and load shedding of the {@link AlertDispatcher}.
+ */
+public class AlertDispatcherTest {
+
+    private final List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch firstTaken = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // Holds the consumer on the first alert until released, so that the rest queue up
+    private void deliver(Alert alert) {
+        if (firstTaken.getCount() > 0) {
+            firstTaken.countDown();
+            awaitQuietly(release);
+        }
+        delivered.add(alert.getPatientId());
+    }
+
+    @Test
+    public void testDeliversByPriorityThenTimestamp() throws Exception {
+        AlertDispatcher dispatcher = new AlertDispatcher(this::deliver, 16, 1);
+        dispatcher.accept(alert("blocker", Priority.LOW, 0));
+        assertTrue(firstTaken.await(5, TimeUnit.SECONDS));
+
+        dispatcher.accept(alert("low", Priority.LOW, 1));
+        dispatcher.accept(alert("high-late", Priority.HIGH, 30));
+        dispatcher.accept(alert("high-early", Priority.HIGH, 20));
+        dispatcher.accept(alert("medium", Priority.MEDIUM, 2));
+        dispatcher.accept(alert("critical", Priority.CRITICAL, 40));
+        release.countDown();
+
+        assertTrue(dispatcher.close(5000));
+        assertEquals(List.of("blocker", "critical", "high-early", "high-late", "medium", "low"), delivered);
+        assertEquals(6, dispatcher.getDispatchedCount());
+    }
+
+    @Test
+    public void testShedsLowAndMediumWhenFull() throws Exception {
+        AlertDispatcher dispatcher = new AlertDispatcher(this::deliver, 3, 1);
+        dispatcher.accept(alert("blocker", Priority.LOW, 0));
+        assertTrue(firstTaken.await(5, TimeUnit.SECONDS));
+
+        dispatcher.accept(alert("low-1", Priority.LOW, 1));
+        dispatcher.accept(alert("medium-1", Priority.MEDIUM, 2));
+        dispatcher.accept(alert("low-2", Priority.LOW, 3));
+        dispatcher.accept(alert("critical", Priority.CRITICAL, 4)); // sheds low-1
+        dispatcher.accept(alert("medium-2", Priority.MEDIUM, 5));   // sheds low-2
+        dispatcher.accept(alert("low-3", Priority.LOW, 6));         // nothing lower: shed itself
+        assertEquals(3, dispatcher.getQueuedCount());
+
+        // A HIGH alert finds only MEDIUM alerts to shed, the next one overflows the capacity
+        dispatcher.accept(alert("high-1", Priority.HIGH, 7));       // sheds medium-1
+        dispatcher.accept(alert("high-2", Priority.HIGH, 8));       // sheds medium-2
+        dispatcher.accept(alert("high-3", Priority.HIGH, 9));       // does not wait for room
+        assertEquals(4, dispatcher.getQueuedCount());
+        assertEquals(1, dispatcher.getOverflowCount());
+
+        release.countDown();
+        assertTrue(dispatcher.close(5000));
+
+        assertEquals(List.of("blocker", "critical", "high-1", "high-2", "high-3"), delivered);
+        assertEquals(3, dispatcher.getShedCount(Priority.LOW));
+        assertEquals(2, dispatcher.getShedCount(Priority.MEDIUM));
+        assertEquals(0, dispatcher.getShedCount(Priority.HIGH) + dispatcher.getShedCount(Priority.CRITICAL));
+    }
+
+    @Test
+    public void testExtremeReadingsAreNotShedAsLow() throws Exception {
+        AlertDispatcher dispatcher = new AlertDispatcher(this::deliver, 1, 1);
+        dispatcher.accept(alert("blocker", Priority.LOW, 0));
+        assertTrue(firstTaken.await(5, TimeUnit.SECONDS));
+
+        dispatcher.accept(alert("low", Priority.LOW, 1));
+        // Undecorated, as the strategies used to raise them: ranked by their condition
+        dispatcher.accept(new Alert("pressure", "Extremely high systolic pressure (185.0 mmHg)", 2));
+        dispatcher.accept(new Alert("saturation", "Extremely low blood oxygen saturation level (90.0%)", 3));
+        release.countDown();
+
+        assertTrue(dispatcher.close(5000));
+        assertEquals(List.of("blocker", "pressure", "saturation"), delivered);
+        assertEquals(1, dispatcher.getShedCount(Priority.LOW));
+    }
+
+    @Test
+    public void testDeliversOnCallerAfterClose() {
+        AlertDispatcher dispatcher = new AlertDispatcher(alert -> delivered.add(Thread.currentThread().getName()));
+        assertTrue(dispatcher.close(1000));
+
+        dispatcher.accept(new Alert("1", "Low saturation", 0));
+
+        assertEquals(List.of(Thread.currentThread().getName()), delivered);
+    }
+
+    private static Alert alert(String patientId, Priority priority, long timestamp) {
+        return new PriorityAlertDecorator(new Alert(patientId, "Test", timestamp), priority);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alerts.Alert;
+import com.alerts.AlertEngine;
+import com.data_management.*;
+import com.strategy.StreamingAlertStrategy;
+
+/**
+ * Tests for the push-based {@link AlertEngine}.
+ */
+public class AlertEngineTest {
+
+    private final List<Alert> alerts = Collections.synchronizedList(new ArrayList<>());
+    private DataStorage storage;
+    private AlertEngine engine;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Field instance = DataStorage.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+        storage = DataStorage.getInstance();
+        engine = new AlertEngine(alerts::add);
+        engine.attach(storage);
+    }
+
+    @Test
+    public void testBloodPressureAlertsOnIngest() {
+        storage.addPatientData(1, 120, "SystolicPressure", 1000);
+        storage.addPatientData(1, 185, "SystolicPressure", 2000);
+        assertEquals(1, alerts.size());
+        assertEquals("Extremely high systolic pressure (185.0 mmHg)", alerts.get(0).getCondition());
+        assertEquals(2000, alerts.get(0).getTimestamp());
+
+        alerts.clear();
+        storage.addPatientData(2, 80, "DiastolicPressure", 1000);
+        storage.addPatientData(2, 91, "DiastolicPressure", 2000);
+        storage.addPatientData(2, 102, "DiastolicPressure", 3000);
+        assertEquals(1, alerts.size());
+        assertEquals("Increasing Diastolic Blood Pressure Trend", alerts.get(0).getCondition());
+        assertEquals("2", alerts.get(0).getPatientId());
+    }
+
+    @Test
+    public void testSaturationAndCallButtonAlerts() {
+        storage.addPatientData(3, 98, "Saturation", 0);
+        storage.addPatientData(3, 92.5, "Saturation", 60_000);
+        assertEquals("Rapid Oxygen Saturation Drop of 5.5% in 10 minutes", alerts.get(0).getCondition());
+
+        // Outside the 10-minute window the old high reading no longer counts
+        storage.addPatientData(3, 98, "Saturation", 1_000_000);
+        storage.addPatientData(3, 96, "Saturation", 1_800_000);
+        storage.addPatientData(3, 92.5, "Saturation", 1_700_000 + 10 * 60 * 1000);
+        assertEquals(1, alerts.size());
+
+        storage.addPatientData(4, 85, "SystolicPressure", 10_000); // also a low systolic alert
+        storage.addPatientData(4, 90, "Saturation", 40_000);
+        assertEquals(3, alerts.size());
+        assertEquals("CRITICAL: Hypotensive Hypoxemia Detected (BP: 85.0 mmHg, O2 Sat: 90.0%)",
+                alerts.get(2).getCondition());
+
+        storage.addPatientData(5, 0, "Alert", 1000);
+        storage.addPatientData(5, 1, "Alert", 2000);
+        assertEquals(4, alerts.size());
+        assertTrue(alerts.get(3).getCondition().startsWith("Call Button Alert"));
+    }
+
+    @Test
+    public void testOnlySubscribedStrategiesRun() {
+        AtomicInteger calls = new AtomicInteger();
+        StreamingAlertStrategy<int[]> counting = new StreamingAlertStrategy<int[]>() {
+            public int[] getRecordTypeCodes() {
+                return new int[] {RecordType.CHOLESTEROL};
+            }
+
+            public int[] createState(int patientId) {
+                return new int[1];
+            }
+
+            public Alert onReading(int[] state, int patientId, int code, long timestamp, double value) {
+                calls.incrementAndGet();
+                return ++state[0] == 3 ? new Alert(String.valueOf(patientId), "third reading", timestamp) : null;
+            }
+        };
+        AlertEngine countingEngine = new AlertEngine(alerts::add, List.of(counting));
+        engine.detach(storage);
+        countingEngine.attach(storage);
+
+        for (int i = 1; i <= 5; i++) {
+            storage.addPatientData(6, 200, "Cholesterol", i);
+            storage.addPatientData(6, 200, "ECG", i);
+        }
+        storage.addPatientData(6, 200, "Cholesterol", 5); // duplicate, not delivered
+
+        assertEquals(5, calls.get());
+        assertEquals(1, alerts.size());
+        assertEquals(1, countingEngine.getAlertsRaised());
+        assertEquals(5, countingEngine.getReadingsEvaluated());
+        assertEquals(1, countingEngine.getTrackedPatientCount());
+    }
+
+    @Test
+    public void testEcgAbnormalityOnShardedStorage() {
+        ShardedDataStorage sharded = new ShardedDataStorage(2);
+        try {
+            engine.attach(sharded);
+            RecordBatch batch = new RecordBatch();
+            for (int i = 0; i < 50; i++) {
+                batch.add(7, 1000L * i, RecordType.ECG, i % 2 == 0 ? 0.50 : 0.51);
+            }
+            for (int i = 50; i < 53; i++) {
+                batch.add(7, 1000L * i, RecordType.ECG, 3.0);
+            }
+            sharded.addPatientDataBatch(batch);
+            sharded.flush();
+
+            assertFalse(alerts.isEmpty());
+            assertTrue(alerts.get(0).getCondition().startsWith("ECG Abnormality"));
+        } finally {
+            sharded.shutdown();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.alerts.Alert;
+import com.alerts.DecoratedAlertFactory;
+import com.data_management.RecordType;
+import com.decorator.PriorityAlertDecorator.Priority;
+import com.strategy.BloodPressureStrategy;
+import com.strategy.CallButtonAlertStrategy;
+import com.strategy.HeartRateStrategy;
+import com.strategy.OxygenSaturationStrategy;
+
+/**
+ * Checks the priority each strategy raises its conditions with, and that the priority
+ * derived from the condition text, used for alert rules, agrees with it.
+ */
+public class AlertPriorityTest {
+
+    @Test
+    public void testExtremeBloodPressureIsHigh() {
+        BloodPressureStrategy strategy = new BloodPressureStrategy();
+        assertPriority(Priority.HIGH, "Extremely high systolic pressure", strategy.onReading(
+                strategy.createState(1), 1, RecordType.SYSTOLIC_PRESSURE, 1000, 185));
+        assertPriority(Priority.HIGH, "Extremely low systolic pressure", strategy.onReading(
+                strategy.createState(1), 1, RecordType.SYSTOLIC_PRESSURE, 1000, 85));
+        assertPriority(Priority.HIGH, "Extremely high diastolic pressure", strategy.onReading(
+                strategy.createState(1), 1, RecordType.DIASTOLIC_PRESSURE, 1000, 125));
+        assertPriority(Priority.HIGH, "Extremely low diastolic pressure", strategy.onReading(
+                strategy.createState(1), 1, RecordType.DIASTOLIC_PRESSURE, 1000, 55));
+    }
+
+    @Test
+    public void testBloodPressureTrendIsMedium() {
+        BloodPressureStrategy strategy = new BloodPressureStrategy();
+        BloodPressureStrategy.State state = strategy.createState(1);
+        strategy.onReading(state, 1, RecordType.SYSTOLIC_PRESSURE, 1000, 110);
+        strategy.onReading(state, 1, RecordType.SYSTOLIC_PRESSURE, 2000, 121);
+        assertPriority(Priority.MEDIUM, "Increasing Systolic Blood Pressure Trend",
+                strategy.onReading(state, 1, RecordType.SYSTOLIC_PRESSURE, 3000, 132));
+    }
+
+    @Test
+    public void testLowSaturationIsHigh() {
+        OxygenSaturationStrategy strategy = new OxygenSaturationStrategy();
+        assertPriority(Priority.HIGH, "Extremely low blood oxygen saturation level", strategy.onReading(
+                strategy.createState(1), 1, RecordType.SATURATION, 1000, 91));
+    }
+
+    @Test
+    public void testRapidSaturationDropIsMedium() {
+        OxygenSaturationStrategy strategy = new OxygenSaturationStrategy();
+        OxygenSaturationStrategy.State state = strategy.createState(1);
+        strategy.onReading(state, 1, RecordType.SATURATION, 0, 99);
+        assertPriority(Priority.MEDIUM, "Rapid Oxygen Saturation Drop",
+                strategy.onReading(state, 1, RecordType.SATURATION, 60_000, 93));
+    }
+
+    @Test
+    public void testHypotensiveHypoxemiaIsCritical() {
+        OxygenSaturationStrategy strategy = new OxygenSaturationStrategy();
+        OxygenSaturationStrategy.State state = strategy.createState(1);
+        strategy.onReading(state, 1, RecordType.SYSTOLIC_PRESSURE, 10_000, 85);
+        assertPriority(Priority.CRITICAL, "CRITICAL: Hypotensive Hypoxemia Detected",
+                strategy.onReading(state, 1, RecordType.SATURATION, 40_000, 90));
+    }
+
+    @Test
+    public void testEcgAbnormalityIsHigh() {
+        HeartRateStrategy strategy = new HeartRateStrategy();
+        HeartRateStrategy.State state = strategy.createState(1);
+        Alert alert = null;
+        for (int i = 0; i < 40 && alert == null; i++) {
+            double value = i < 30 ? (i % 2) * 0.1 : 5.0;
+            alert = strategy.onReading(state, 1, RecordType.ECG, i * 1000L, value);
+        }
+        assertPriority(Priority.HIGH, "ECG Abnormality", alert);
+    }
+
+    @Test
+    public void testCallButtonIsHigh() {
+        CallButtonAlertStrategy strategy = new CallButtonAlertStrategy();
+        assertPriority(Priority.HIGH, "Call Button Alert", strategy.onReading(null, 1, RecordType.ALERT, 1000, 1.0));
+    }
+
+    @Test
+    public void testConditionTextIsMatchedIgnoringCase() {
+        assertEquals(Priority.HIGH, DecoratedAlertFactory.priorityOf("EXTREMELY HIGH systolic pressure"));
+        assertEquals(Priority.MEDIUM, DecoratedAlertFactory.priorityOf("blood pressure trend"));
+        assertEquals(Priority.LOW, DecoratedAlertFactory.priorityOf("Minor condition detected"));
+        // A priority given by the source wins over the text
+        assertEquals(Priority.LOW, DecoratedAlertFactory.priorityOf(
+                new Alert("1", "Extremely high systolic pressure", 0, Priority.LOW)));
+    }
+
+    private static void assertPriority(Priority expected, String conditionStart, Alert alert) {
+        assertNotNull(alert, "Expected an alert starting with: " + conditionStart);
+        assertTrue(alert.getCondition().startsWith(conditionStart), alert.getCondition());
+        assertEquals(expected, alert.getPriority());
+        assertEquals(expected, DecoratedAlertFactory.priorityOf(alert.getCondition()),
+                "Derived priority of: " + alert.getCondition());
+    }
+}
@@ -0,0 +1,80 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alerts.Alert;
+import com.alerts.AlertStateCache;
+import com.data_management.DataStorage;
+import com.decorator.PriorityAlertDecorator;
+
+/**
+ * Tests for the {@link AlertStateCache}.
+ */
+public class AlertStateCacheTest {
+
+    private final List<String> transitions = new ArrayList<>();
+    private final AlertStateCache cache = new AlertStateCache(60_000,
+            (transition, alert, time) -> transitions.add(transition + " " + alert.getCondition() + " @" + time));
+
+    @Test
+    public void testRepeatsOfActiveConditionAreSuppressed() {
+        assertEquals(AlertStateCache.Transition.RAISED,
+                cache.offer(new Alert("1", "Extremely high systolic pressure (185.0 mmHg)", 0), 1000));
+        assertNull(cache.offer(new Alert("1", "Extremely high systolic pressure (190.0 mmHg)", 0), 20_000));
+        assertNull(cache.offer(new Alert("1", "[HIGH] Extremely high systolic pressure (181.0 mmHg)", 0), 40_000));
+        // Another patient and another condition are separate
+        assertNotNull(cache.offer(new Alert("2", "Extremely high systolic pressure (185.0 mmHg)", 0), 40_000));
+        assertNotNull(cache.offer(new Alert("1", "Extremely low systolic pressure (85.0 mmHg)", 0), 40_000));
+
+        assertEquals(3, cache.getActiveCount());
+        assertEquals(2, cache.getSuppressedCount());
+        assertTrue(cache.isActive("1", "Extremely high systolic pressure (200.0 mmHg)"));
+    }
+
+    @Test
+    public void testEscalationAndResolution() {
+        cache.offer(new Alert("1", "ECG Abnormality: 2 readings outside expected range", 0), 1000);
+        cache.offer(new Alert("1", "ECG Abnormality: 3 readings outside expected range", 0), 2000);
+        // Same class, higher priority
+        cache.offer(new PriorityAlertDecorator(new Alert("1", "ECG Abnormality: 4 readings outside expected range", 0),
+                PriorityAlertDecorator.Priority.CRITICAL), 3000);
+
+        // Not seen for longer than the time-to-live
+        assertEquals(0, cache.expire(62_000));
+        assertEquals(1, cache.getActiveCount());
+        assertEquals(1, cache.expire(64_000));
+        assertFalse(cache.resolve("1", "ECG Abnormality", 70_000));
+
+        assertEquals(List.of(
+                "RAISED ECG Abnormality: 2 readings outside expected range @1000",
+                "ESCALATED [CRITICAL] ECG Abnormality: 4 readings outside expected range @3000",
+                "RESOLVED [CRITICAL] ECG Abnormality: 4 readings outside expected range @64000"),
+                transitions);
+    }
+
+    @Test
+    public void testConditionClass() {
+        assertEquals("Rapid Oxygen Saturation Drop of #% in # minutes",
+                AlertStateCache.conditionClass("[REPEATED] [HIGH] Rapid Oxygen Saturation Drop of 6.5% in 10 minutes"));
+        assertEquals("Extremely low blood oxygen saturation level",
+                AlertStateCache.conditionClass("Extremely low blood oxygen saturation level (91.0%)"));
+        assertEquals("", AlertStateCache.conditionClass(null));
+    }
+
+    @Test
+    public void testDecoratedFactoryRaisesActiveConditionOnce() {
+        TestDecoratedAlertFactory factory = new TestDecoratedAlertFactory(DataStorage.getInstance());
+        for (int i = 0; i < 5; i++) {
+            factory.createAlert("7", "Blood Pressure Trend detected", System.currentTimeMillis());
+        }
+        factory.createAlert("7", "CRITICAL: Hypotensive Hypoxemia Detected (BP: 85.0 mmHg, O2 Sat: 90.0%)",
+                System.currentTimeMillis());
+
+        assertEquals(2, factory.getCapturedAlerts().size());
+        assertEquals(4, factory.getAlertStateCache().getSuppressedCount());
+    }
+}
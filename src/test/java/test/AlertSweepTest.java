@@ -0,0 +1,89 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.alerts.*;
+import com.data_management.*;
+
+/**
+ * Tests for the parallel sweep of {@link AlertGenerator#evaluateAllPatients}.
+ */
+public class AlertSweepTest {
+
+    private DataStorage storage;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Field instance = DataStorage.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+        storage = DataStorage.getInstance();
+
+        long now = System.currentTimeMillis();
+        for (int patientId = 1; patientId <= 60; patientId++) {
+            long time = now - 60_000;
+            storage.addPatientData(patientId, patientId % 3 == 0 ? 190 : 120, "SystolicPressure", time);
+            storage.addPatientData(patientId, 80, "DiastolicPressure", time);
+            storage.addPatientData(patientId, patientId % 4 == 0 ? 89 : 97, "Saturation", time);
+            storage.addPatientData(patientId, patientId % 5 == 0 ? 1 : 0, "Alert", time);
+        }
+    }
+
+    @Test
+    public void testParallelSweepMatchesSerialOrder() {
+        AlertGenerator generator = new AlertGenerator(storage);
+        List<String> serial = new ArrayList<>();
+        List<String> parallel = new ArrayList<>();
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            generator.evaluateAllPatients(single, alert -> serial.add(describe(alert)));
+            SweepReport report = generator.evaluateAllPatients(many, alert -> parallel.add(describe(alert)));
+
+            assertEquals(60, report.getPatientCount());
+            assertEquals(parallel.size(), report.getAlertCount());
+            assertEquals(4, report.getParallelism());
+            assertEquals(4, report.getFactoryNanos().size());
+            assertTrue(report.getWallNanos() > 0);
+            assertTrue(report.toString().contains("BloodPressureAlertFactory"));
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+
+        // Patients 3, 6, ... have high systolic pressure, 4, 8, ... low saturation and
+        // 5, 10, ... pressed the call button
+        assertEquals(20 + 15 + 12, serial.size());
+        assertEquals(serial, parallel);
+
+        List<String> expectedPatientOrder = new ArrayList<>();
+        for (Patient patient : storage.getAllPatients()) {
+            for (String alert : serial) {
+                if (alert.startsWith(patient.getPatientId() + ":") && !expectedPatientOrder.contains(alert)) {
+                    expectedPatientOrder.add(alert);
+                }
+            }
+        }
+        assertEquals(expectedPatientOrder, serial);
+    }
+
+    @Test
+    public void testReadPatientRunsUnderLock() {
+        List<Integer> seen = new ArrayList<>();
+        assertTrue(storage.readPatient(7, patient -> seen.add(patient.getPatientId())));
+        assertFalse(storage.readPatient(999, patient -> seen.add(patient.getPatientId())));
+        assertEquals(List.of(7), seen);
+    }
+
+    private static String describe(Alert alert) {
+        return alert.getPatientId() + ":" + alert.getCondition();
+    }
+}
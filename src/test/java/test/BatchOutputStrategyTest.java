@@ -0,0 +1,135 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.cardio_generator.outputs.BatchOutputStrategy;
+import com.cardio_generator.outputs.BatchingOutputStrategy;
+import com.cardio_generator.outputs.FileOutputStrategy;
+import com.cardio_generator.outputs.ReadingBlock;
+import com.cardio_generator.outputs.TcpOutputStrategy;
+
+/**
+ * Tests for {@link ReadingBlock}s and the batch paths of the output strategies.
+ */
+public class BatchOutputStrategyTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testBlockFormatsNumbersAndTexts() {
+        ReadingBlock block = new ReadingBlock(1);
+        block.add(3, 1000, "ECG", 0.25);
+        block.add(3, 1000, "Saturation", "97.0%");
+        block.addSamples(4, "ECG", new long[] {2000, 2004}, new double[] {-0.5, 1.0}, 2);
+
+        assertEquals(4, block.size());
+        assertTrue(block.isNumeric(0));
+        assertFalse(block.isNumeric(1));
+        assertEquals("0.25", block.getData(0));
+        assertEquals("3,1000,Saturation,97.0%", block.appendCsv(1, new StringBuilder()).toString());
+        assertEquals("Patient ID: 4, Timestamp: 2004, Label: ECG, Data: 1.0",
+                block.appendDescription(3, new StringBuilder()).toString());
+
+        block.clear();
+        assertTrue(block.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> block.getLabel(0));
+    }
+
+    @Test
+    public void testBatchingCollectsUntilFlush() {
+        List<Integer> blockSizes = new ArrayList<>();
+        BatchOutputStrategy target = new BatchOutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                fail("Readings should arrive as blocks");
+            }
+
+            @Override
+            public void outputBatch(ReadingBlock block) {
+                blockSizes.add(block.size());
+            }
+        };
+        BatchingOutputStrategy batching = new BatchingOutputStrategy(target, 5);
+
+        batching.output(1, 1000, "Alert", "triggered");
+        batching.outputSamples(1, "ECG", new long[] {1, 2, 3}, new double[] {0, 0, 0}, 3);
+        assertTrue(blockSizes.isEmpty());
+        batching.flush();
+        batching.flush(); // nothing left
+
+        for (int i = 0; i < 7; i++) {
+            batching.output(2, 1000 + i, "ECG", "0.1");
+        }
+        batching.flush();
+
+        assertEquals(List.of(4, 5, 2), blockSizes);
+    }
+
+    @Test
+    public void testBatchingReplaysReadingsForPlainStrategies() {
+        List<String> lines = new ArrayList<>();
+        BatchingOutputStrategy batching = new BatchingOutputStrategy(
+                (patientId, timestamp, label, data) -> lines.add(patientId + "," + label + "," + data));
+
+        batching.outputSamples(9, "ECG", new long[] {1, 2}, new double[] {0.5, 0.75}, 2);
+        batching.flush();
+
+        assertEquals(List.of("9,ECG,0.5", "9,ECG,0.75"), lines);
+    }
+
+    @Test
+    public void testFileBatchMatchesSingleWrites() throws Exception {
+        FileOutputStrategy single = new FileOutputStrategy(tempDir.resolve("single").toString());
+        FileOutputStrategy batched = new FileOutputStrategy(tempDir.resolve("batched").toString());
+        ReadingBlock block = new ReadingBlock();
+        for (int i = 0; i < 20; i++) {
+            String label = i % 3 == 0 ? "Saturation" : "ECG";
+            block.add(i % 4 + 1, 1000 + i, label, "0." + i);
+            single.output(i % 4 + 1, 1000 + i, label, "0." + i);
+        }
+
+        batched.outputBatch(block);
+
+        for (String file : new String[] {"ECG.txt", "Saturation.txt"}) {
+            assertEquals(Files.readAllLines(tempDir.resolve("single").resolve(file)),
+                    Files.readAllLines(tempDir.resolve("batched").resolve(file)));
+        }
+    }
+
+    @Test
+    public void testTcpBatchIsOneWrite() throws Exception {
+        TcpOutputStrategy tcp = new TcpOutputStrategy(0);
+        StringWriter sent = new StringWriter();
+        int[] writes = {0};
+        PrintWriter writer = new PrintWriter(sent) {
+            @Override
+            public void print(Object text) {
+                writes[0]++;
+                super.print(text);
+            }
+        };
+        Field out = TcpOutputStrategy.class.getDeclaredField("out");
+        out.setAccessible(true);
+        out.set(tcp, writer);
+
+        ReadingBlock block = new ReadingBlock();
+        block.add(1, 1000, "ECG", 0.5);
+        block.add(2, 1001, "Alert", "resolved");
+        tcp.outputBatch(block);
+
+        assertEquals(1, writes[0]);
+        String separator = System.lineSeparator();
+        assertEquals("1,1000,ECG,0.5" + separator + "2,1001,Alert,resolved" + separator, sent.toString());
+    }
+}
@@ -0,0 +1,38 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.data_management.DecimalParser;
+
+/**
+ * Tests for the {@link DecimalParser} shared by the mapped file and WebSocket readers.
+ */
+public class DecimalParserTest {
+
+    @Test
+    public void testAgreesWithParseDouble() {
+        String[] numbers = {
+            "0", "98.4", "-0.125", "+7", "120.", ".5", "0.1", "123456789012345",
+            "1234567890123456789", "0.30000000000000004", "1e3", "-2.5E-4", " 42 "
+        };
+        for (String number : numbers) {
+            assertEquals(Double.parseDouble(number), DecimalParser.parse(number, 0, number.length()), 0.0, number);
+        }
+    }
+
+    @Test
+    public void testParsesARegion() {
+        String line = "1,1000,Saturation,97.5,extra";
+        int start = line.indexOf("97.5");
+        assertEquals(97.5, DecimalParser.parse(line, start, start + 4), 0.0);
+    }
+
+    @Test
+    public void testRejectsNonNumbers() {
+        String[] invalid = {"", "-", ".", "1.2.3", "abc", "triggered", "12abc"};
+        for (String text : invalid) {
+            assertTrue(Double.isNaN(DecimalParser.parse(text, 0, text.length())), text);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+
+import com.data_management.*;
+
+/**
+ * Tests for {@link DuplicateWindow} and duplicate detection in {@link DataStorage}.
+ */
+public class DuplicateWindowTest {
+
+    private DataStorage storage;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Field instance = DataStorage.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+        storage = DataStorage.getInstance();
+    }
+
+    @Test
+    public void testDuplicatesAreDetectedPerTypeAndTimestamp() {
+        DuplicateWindow window = new DuplicateWindow(100);
+
+        assertFalse(window.checkAndAdd(RecordType.ECG, 1000, 60_000));
+        assertFalse(window.checkAndAdd(RecordType.SATURATION, 1000, 60_000));
+        assertTrue(window.checkAndAdd(RecordType.ECG, 1000, 60_000));
+        assertTrue(window.checkAndAdd(RecordType.SATURATION, 1000, 60_000));
+        assertEquals(2, window.size());
+    }
+
+    @Test
+    public void testEntriesExpireByAge() {
+        DuplicateWindow window = new DuplicateWindow(100);
+        window.checkAndAdd(RecordType.ECG, 1000, 5_000);
+        window.checkAndAdd(RecordType.ECG, 4000, 5_000);
+
+        // Moves the window past the first reading only
+        window.checkAndAdd(RecordType.ECG, 7000, 5_000);
+
+        assertFalse(window.contains(RecordType.ECG, 1000));
+        assertTrue(window.contains(RecordType.ECG, 4000));
+        assertEquals(1, window.getEvictionCount());
+    }
+
+    @Test
+    public void testWindowIsBounded() {
+        DuplicateWindow window = new DuplicateWindow(64);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(window.checkAndAdd(RecordType.ECG, i, Long.MAX_VALUE / 2));
+        }
+
+        assertEquals(64, window.size());
+        assertEquals(936, window.getEvictionCount());
+        for (int i = 936; i < 1000; i++) {
+            assertTrue(window.contains(RecordType.ECG, i), "Reading " + i + " should still be remembered");
+        }
+        assertFalse(window.contains(RecordType.ECG, 935));
+    }
+
+    @Test
+    public void testWindowStartsSmallAndGrows() {
+        DuplicateWindow window = new DuplicateWindow(8192);
+        assertEquals(0, window.capacity());
+
+        for (int i = 0; i < 5; i++) {
+            window.checkAndAdd(RecordType.ECG, i * 1000L, 60_000);
+        }
+        assertTrue(window.capacity() <= 8, "A patient with a few readings should stay small");
+
+        // Expire the first readings so the queue wraps before growing
+        for (int i = 5; i < 70; i++) {
+            window.checkAndAdd(RecordType.ECG, i * 1000L, 10_000);
+        }
+        for (int i = 70; i < 500; i++) {
+            window.checkAndAdd(RecordType.ECG, i * 1000L, Long.MAX_VALUE / 2);
+        }
+
+        assertTrue(window.capacity() >= window.size());
+        assertTrue(window.capacity() < 8192);
+        for (int i = 59; i < 500; i++) {
+            assertTrue(window.contains(RecordType.ECG, i * 1000L), "Reading " + i + " should still be remembered");
+        }
+        assertFalse(window.contains(RecordType.ECG, 58_000));
+    }
+
+    @Test
+    public void testStorageRejectsReplayedReadings() {
+        for (int i = 0; i < 50; i++) {
+            storage.addPatientData(1, 70 + i, "ECG", 1000 + i);
+            storage.addPatientData(1, 98, "Saturation", 1000 + i);
+        }
+
+        // A reconnecting client replays everything it sent so far
+        for (int i = 0; i < 50; i++) {
+            storage.addPatientData(1, 70 + i, "ECG", 1000 + i);
+        }
+
+        assertEquals(100, storage.getTotalRecordsProcessed());
+        assertEquals(50, storage.getDuplicateHits());
+        assertEquals(100, storage.getPatient(1).getRecordCount());
+    }
+
+    @Test
+    public void testDuplicateWindowIsConfigurable() {
+        storage.setDuplicateWindowMillis(1000);
+        storage.addPatientData(1, 120, "SystolicPressure", 1000);
+        storage.addPatientData(1, 121, "SystolicPressure", 5000);
+
+        // Too old to be checked any more, so it is accepted
+        storage.addPatientData(1, 120, "SystolicPressure", 1000);
+
+        assertEquals(1000, storage.getDuplicateWindowMillis());
+        assertEquals(0, storage.getDuplicateHits());
+        assertEquals(1, storage.getDuplicateEvictions());
+        assertThrows(IllegalArgumentException.class, () -> storage.setDuplicateWindowMillis(-1));
+    }
+}
@@ -131,6 +131,28 @@ public class ECGAbnormalityTest {
                           ((5.0 - mean) / stdDev) + " standard deviations from the mean");
     }
     
+    /**
+     * The window check reuses its statistics per thread, so a window checked after a
+     * noisy one must be judged against its own baseline only
+     */
+    @Test
+    public void testWindowChecksDoNotShareReadings() {
+        HeartRateStrategy strategy = new HeartRateStrategy();
+        long now = System.currentTimeMillis();
+
+        List<PatientRecord> noisy = new ArrayList<>();
+        List<PatientRecord> elevated = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            noisy.add(new PatientRecord(9998, i % 2 == 0 ? 10.0 : -10.0, "ECG", now - (60 - i) * 1000));
+            elevated.add(new PatientRecord(9998, i < 50 ? 0.2 : 0.5, "ECG", now - (60 - i) * 1000));
+        }
+
+        assertNotNull(strategy.checkAlert(null, elevated));
+        strategy.checkAlert(null, noisy);
+        // The noisy readings would widen the bounds enough to hide the elevated ones
+        assertNotNull(strategy.checkAlert(null, elevated));
+    }
+
     /**
      * Main method for running the test from command line
      */
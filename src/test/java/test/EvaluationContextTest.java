@@ -0,0 +1,89 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alerts.*;
+import com.data_management.*;
+import com.strategy.AlertStrategy;
+
+/**
+ * Tests for the {@link EvaluationContext} shared by the alert factories.
+ */
+public class EvaluationContextTest {
+
+    private DataStorage storage;
+    private Patient patient;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Field instance = DataStorage.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+        storage = DataStorage.getInstance();
+
+        long now = System.currentTimeMillis();
+        storage.addPatientData(1, 190, "SystolicPressure", now - 120_000);
+        storage.addPatientData(1, 80, "DiastolicPressure", now - 120_000);
+        storage.addPatientData(1, 89, "Saturation", now - 60_000);
+        storage.addPatientData(1, 1, "Alert", now - 30_000);
+        storage.addPatientData(1, 120, "SystolicPressure", now - 20 * 60_000); // outside the window
+        patient = storage.getPatient(1);
+    }
+
+    @Test
+    public void testRecordsAreFetchedOncePerType() {
+        EvaluationContext context = EvaluationContext.forLatestWindow(patient);
+
+        List<PatientRecord> systolic = context.getRecords(RecordType.SYSTOLIC_PRESSURE);
+        assertEquals(1, systolic.size());
+        assertEquals(190.0, systolic.get(0).getMeasurementValue(), 0.0);
+        assertSame(systolic, context.getRecords(RecordType.SYSTOLIC_PRESSURE));
+        assertTrue(context.getRecords(RecordType.ECG).isEmpty());
+        assertEquals(2, context.getFetchCount());
+        assertEquals("1", context.getPatientId());
+    }
+
+    @Test
+    public void testFactoriesShareOneContext() {
+        List<String> shared = new ArrayList<>();
+        List<String> separate = new ArrayList<>();
+        AlertFactory[] factories = {
+            new BloodOxygenAlertFactory(storage), new BloodPressureAlertFactory(storage),
+            new ECGAlertFactory(storage), new CallButtonAlertFactory(storage)
+        };
+
+        EvaluationContext context = EvaluationContext.forLatestWindow(patient);
+        for (AlertFactory factory : factories) {
+            factory.setAlertSink(alert -> shared.add(alert.getCondition()));
+            factory.evaluate(context);
+        }
+        for (AlertFactory factory : factories) {
+            factory.setAlertSink(alert -> separate.add(alert.getCondition()));
+            factory.createAlert("1", null, System.currentTimeMillis());
+        }
+
+        // Systolic, diastolic, saturation, ECG and call button records, each fetched once
+        assertEquals(5, context.getFetchCount());
+        assertEquals(3, shared.size());
+        assertEquals(separate, shared);
+    }
+
+    @Test
+    public void testStrategyWithoutContextOverloadGetsTheWindow() {
+        List<PatientRecord> received = new ArrayList<>();
+        // Written against the patient overload only, as strategies were before contexts
+        AlertStrategy strategy = (checked, records) -> {
+            received.addAll(records);
+            return null;
+        };
+
+        assertNull(strategy.checkAlert(EvaluationContext.forLatestWindow(patient)));
+        assertEquals(4, received.size());
+    }
+}
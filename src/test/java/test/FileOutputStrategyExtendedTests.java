@@ -11,7 +11,10 @@ import java.io.PrintStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.cardio_generator.outputs.FileOutputStrategy;
@@ -153,4 +156,125 @@ public class FileOutputStrategyExtendedTests {
         Path nestedFile = nestedDir.resolve("Nested.txt");
         assertTrue(Files.exists(nestedFile), "File should be created in nested directory");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGroupCommitKeepsLinesUntilFlushOrClose() throws IOException {
+        FileOutputStrategy grouped = new FileOutputStrategy(tempDir.toString(), 1024, 0, 0, 0);
+        Path file = tempDir.resolve("Grouped.txt");
+
+        grouped.output(1, 1000, "Grouped", "Data1");
+        grouped.output(2, 2000, "Grouped", "Data2");
+        assertFalse(Files.exists(file), "Lines should wait for the commit size");
+
+        grouped.flush();
+        assertEquals(2, Files.readAllLines(file).size());
+
+        grouped.output(3, 3000, "Grouped", "Data3");
+        grouped.close();
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).contains("Patient ID: 3"));
+    }
+
+    @Test
+    public void testRotatesBySize() throws IOException {
+        FileOutputStrategy rotating = new FileOutputStrategy(tempDir.toString(), 0, 0, 200, 0);
+        for (int i = 0; i < 10; i++) {
+            rotating.output(i, 1000 + i, "Rotated", "Data" + i);
+        }
+        rotating.close();
+
+        // About 60 bytes per line: three lines per file
+        List<String> lines = new ArrayList<>();
+        int index = 1;
+        Path rotated;
+        while (Files.exists(rotated = tempDir.resolve("Rotated." + index++ + ".txt"))) {
+            assertTrue(Files.size(rotated) <= 200, "Rotated files should not exceed the size limit");
+            lines.addAll(Files.readAllLines(rotated));
+        }
+        lines.addAll(Files.readAllLines(tempDir.resolve("Rotated.txt")));
+
+        assertTrue(index > 3, "The file should have been rotated");
+        assertEquals(10, lines.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(lines.get(i).startsWith("Patient ID: " + i + ","), "Lines should keep their order");
+        }
+    }
+
+    @Test
+    public void testConcurrentWritersKeepLinesWhole() throws Exception {
+        FileOutputStrategy shared = new FileOutputStrategy(tempDir.toString(), 512, 10, 0, 0);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int patientId = t + 1;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    shared.output(patientId, i, "Shared", "Data" + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        shared.close();
+
+        List<String> lines = Files.readAllLines(tempDir.resolve("Shared.txt"));
+        assertEquals(4000, lines.size());
+        Set<String> unique = new HashSet<>(lines);
+        assertEquals(4000, unique.size());
+        for (String line : lines) {
+            assertTrue(line.matches("Patient ID: \\d, Timestamp: \\d+, Label: Shared, Data: Data\\d+"),
+                    "Line should be whole: " + line);
+        }
+    }
+
+    @Test
+    public void testLinesAreWrittenWhenOutputReturns() throws Exception {
+        FileOutputStrategy direct = new FileOutputStrategy(tempDir.toString());
+        Path file = tempDir.resolve("Direct.txt");
+        List<String> missing = java.util.Collections.synchronizedList(new ArrayList<>());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int patientId = t + 1;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    direct.output(patientId, i, "Direct", "Data" + i);
+                    try {
+                        String expected = "Patient ID: " + patientId + ", Timestamp: " + i + ",";
+                        if (Files.readAllLines(file).stream().noneMatch(line -> line.startsWith(expected))) {
+                            missing.add(expected);
+                        }
+                    } catch (IOException e) {
+                        missing.add(e.getMessage());
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        direct.close();
+
+        assertEquals(List.of(), missing);
+    }
+
+    @Test
+    public void testOutputAfterCloseDoesNotKeepFileOpen() throws Exception {
+        FileOutputStrategy closing = new FileOutputStrategy(tempDir.toString(), 512, 10, 0, 0);
+        closing.output(1, 1000, "Late", "Data1");
+        closing.close();
+        closing.output(2, 2000, "Late", "Data2");
+
+        Path file = tempDir.resolve("Late.txt");
+        assertEquals(2, Files.readAllLines(file).size());
+
+        // A file left open would take the next late write to the deleted file
+        Files.delete(file);
+        closing.output(3, 3000, "Late", "Data3");
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("Data: Data3"), lines.get(0));
+    }
+}
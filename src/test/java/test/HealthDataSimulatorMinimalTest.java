@@ -13,8 +13,11 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import com.cardio_generator.HealthDataSimulator;
+import com.cardio_generator.SimulationScheduler;
+import com.cardio_generator.outputs.BatchingOutputStrategy;
 import com.cardio_generator.outputs.OutputStrategy;
 import com.cardio_generator.outputs.FileOutputStrategy;
 import com.cardio_generator.outputs.ConsoleOutputStrategy;
@@ -355,41 +358,40 @@ public class HealthDataSimulatorMinimalTest {
     public void testScheduleTaskSimple() throws Exception {
         // Access the private method using reflection
         Method scheduleTaskMethod = HealthDataSimulator.class.getDeclaredMethod(
-                "scheduleTask", Runnable.class, long.class, TimeUnit.class);
+                "scheduleTask", int.class, Consumer.class, long.class, TimeUnit.class);
         scheduleTaskMethod.setAccessible(true);
 
-        // Get and set the scheduler field
-        Field schedulerField = HealthDataSimulator.class.getDeclaredField("scheduler");
+        // Get and set the simulation scheduler field
+        Field schedulerField = HealthDataSimulator.class.getDeclaredField("simulationScheduler");
         schedulerField.setAccessible(true);
 
         // Save original scheduler
         Object originalScheduler = schedulerField.get(null);
 
+        // Create a real scheduler with a single thread
+        java.util.concurrent.ScheduledExecutorService realScheduler =
+                java.util.concurrent.Executors.newScheduledThreadPool(1);
         try {
-            // Create a real scheduler with a single thread
-            java.util.concurrent.ScheduledExecutorService realScheduler =
-                    java.util.concurrent.Executors.newScheduledThreadPool(1);
-            schedulerField.set(null, realScheduler);
+            SimulationScheduler simulationScheduler = new SimulationScheduler(realScheduler, 1, 1, null);
+            simulationScheduler.setBatchOutput(new BatchingOutputStrategy(new ConsoleOutputStrategy()));
+            schedulerField.set(null, simulationScheduler);
 
             // Create a simple task that just increments a counter
             final int[] counter = {0};
-            Runnable testTask = () -> counter[0]++;
+            Consumer<OutputStrategy> testTask = output -> counter[0]++;
 
-            // Schedule the task with a very short delay
-            scheduleTaskMethod.invoke(null, testTask, 1L, TimeUnit.MILLISECONDS);
+            // Schedule the task with a very short period
+            scheduleTaskMethod.invoke(null, 1, testTask, 1L, TimeUnit.MILLISECONDS);
 
             // Wait a short time for the task to run
             Thread.sleep(100);
 
             // Verify the task was executed
             assertTrue(counter[0] > 0, "The scheduled task should have executed at least once");
-
-            // Shutdown the scheduler properly
+        } finally {
+            // Shutdown the scheduler properly and restore the original one
             realScheduler.shutdown();
             realScheduler.awaitTermination(1, TimeUnit.SECONDS);
-
-        } finally {
-            // Restore the original scheduler
             schedulerField.set(null, originalScheduler);
         }
     }
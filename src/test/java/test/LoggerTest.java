@@ -0,0 +1,160 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import com.alerts.Alert;
+import com.alerts.DecoratedAlertFactory;
+import com.alerts.LoggingAlertSink;
+import com.data_management.DataStorage;
+import com.logging.*;
+
+/**
+ * Tests for the asynchronous {@link Logger} and {@link LogManager}.
+ */
+public class LoggerTest {
+
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private LogSink previousSink;
+    private LogLevel previousLevel;
+
+    @BeforeEach
+    public void setUp() {
+        LogManager.flush(5000);
+        previousSink = LogManager.getSink();
+        previousLevel = LogManager.getLevel();
+        LogManager.setSink((level, logger, message) -> messages.add(level + " " + message));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        LogManager.flush(5000);
+        LogManager.setSink(previousSink);
+        LogManager.setLevel(previousLevel);
+    }
+
+    @Test
+    public void testFormatsMessagesOnDrainThread() {
+        Logger log = Logger.getLogger("test.format");
+        log.info("Patient {} has {} records", 7, 12L);
+        log.warn("No placeholders");
+        log.error("Missing argument {} and {}", "one");
+
+        assertTrue(LogManager.flush(5000));
+        assertEquals(List.of("INFO Patient 7 has 12 records", "WARN No placeholders",
+                "ERROR Missing argument one and {}"), messages);
+    }
+
+    @Test
+    public void testLevelsFilterMessages() {
+        Logger log = Logger.getLogger("test.levels");
+        LogManager.setLevel(LogLevel.INFO);
+        assertFalse(log.isDebugEnabled());
+        log.debug("hidden");
+
+        log.setLevel(LogLevel.DEBUG);
+        assertTrue(log.isDebugEnabled());
+        assertTrue(log.rateLimited(5).isDebugEnabled()); // views share the level
+        log.debug("shown");
+
+        log.setLevel(LogLevel.OFF);
+        log.error("hidden");
+        log.setLevel(null);
+
+        assertTrue(LogManager.flush(5000));
+        assertEquals(List.of("DEBUG shown"), messages);
+    }
+
+    @Test
+    public void testRateLimitCountsSuppressedMessages() throws Exception {
+        Logger log = Logger.getLogger("test.rate").rateLimited(3);
+        for (int i = 0; i < 10; i++) {
+            log.info("message {}", i);
+        }
+        assertTrue(LogManager.flush(5000));
+        assertEquals(3, messages.size());
+
+        Thread.sleep(1100);
+        log.info("next second");
+
+        assertTrue(LogManager.flush(5000));
+        assertEquals("INFO next second (7 similar messages suppressed)", messages.get(3));
+    }
+
+    @Test
+    public void testFullQueueDropsInsteadOfBlocking() {
+        CountDownLatch release = new CountDownLatch(1);
+        LogManager.setSink((level, logger, message) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(message);
+        });
+        Logger log = Logger.getLogger("test.drop");
+        long droppedBefore = LogManager.getDroppedCount();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LogManager.QUEUE_CAPACITY + 500; i++) {
+            log.info("burst {}", i);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        release.countDown();
+
+        assertTrue(elapsedMillis < 2000, "Logging blocked for " + elapsedMillis + " ms");
+        assertTrue(LogManager.getDroppedCount() - droppedBefore >= 499);
+        assertTrue(LogManager.flush(5000));
+        assertTrue(messages.stream().anyMatch(m -> m.endsWith("log messages dropped (queue full)")));
+    }
+
+    @Test
+    public void testAlertsAreNotFilteredByLevel() {
+        LogManager.setLevel(LogLevel.OFF);
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        java.io.PrintStream previousOut = System.out;
+        System.setOut(new java.io.PrintStream(out, true));
+        try {
+            new DecoratedAlertFactory(DataStorage.getInstance()) {
+                {
+                    triggerAlert(new Alert("3", "Extremely low blood oxygen saturation level", 1000));
+                }
+            };
+        } finally {
+            System.setOut(previousOut);
+        }
+
+        // Printed on the caller's thread, not queued for the drain thread
+        assertTrue(out.toString().startsWith("ALERT: Extremely low blood oxygen saturation level for Patient ID: 3"),
+                out.toString());
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    public void testAlertSinkIsNotFilteredByLevel() {
+        LogManager.setLevel(LogLevel.OFF);
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        java.io.PrintStream previousOut = System.out;
+        System.setOut(new java.io.PrintStream(out, true));
+        try {
+            new LoggingAlertSink().accept(new Alert("4", "Call Button Alert", 1000));
+        } finally {
+            System.setOut(previousOut);
+        }
+
+        assertTrue(out.toString().startsWith("ALERT: Call Button Alert for Patient ID: 4 at "), out.toString());
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    public void testTimestampFormatsLikeDate() {
+        long timestamp = 1748200923016L;
+        assertEquals(new java.util.Date(timestamp).toString(), LogTimestamp.of(timestamp).toString());
+    }
+}
@@ -0,0 +1,167 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alerts.AlertEngine;
+import com.data_management.*;
+
+/**
+ * Tests for {@link MappedFileDataReader}.
+ */
+public class MappedFileDataReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        resetDataStorage();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        resetDataStorage();
+    }
+
+    private void resetDataStorage() throws Exception {
+        Field instance = DataStorage.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+    }
+
+    @Test
+    public void testMatchesFileDataReaderAcrossManyChunks() throws Exception {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(tempDir.resolve("patients.txt")))) {
+            for (int i = 0; i < 2000; i++) {
+                int patientId = i % 7 + 1;
+                long timestamp = 1748200923016L + i * 1000L;
+                writer.println(patientId + "," + timestamp + ",SystolicPressure," + (110 + i % 30) + "." + (i % 10));
+                writer.println(patientId + "," + timestamp + ",Saturation," + (90 + i % 10) + ".25");
+                writer.println(patientId + "," + timestamp + ",ECG,-0." + (i % 1000));
+            }
+        }
+        writeFile("alerts.txt", "3,1748200923016,Alert,triggered", "3,1748200924016,Alert,resolved");
+
+        DataStorage expected = DataStorage.getInstance();
+        new FileDataReader(tempDir.toString()).readData(expected);
+        resetDataStorage();
+
+        DataStorage actual = DataStorage.getInstance();
+        // Tiny chunks so that lines of one patient are spread over many chunks
+        new MappedFileDataReader(tempDir.toString(), 4, 512).readData(actual);
+
+        assertEquals(expected.getTotalRecordsProcessed(), actual.getTotalRecordsProcessed());
+        for (int patientId = 1; patientId <= 7; patientId++) {
+            List<PatientRecord> expectedRecords = expected.getRecords(patientId, 0, Long.MAX_VALUE);
+            List<PatientRecord> actualRecords = actual.getRecords(patientId, 0, Long.MAX_VALUE);
+            assertEquals(expectedRecords.size(), actualRecords.size());
+            for (int i = 0; i < expectedRecords.size(); i++) {
+                PatientRecord e = expectedRecords.get(i);
+                PatientRecord a = actualRecords.get(i);
+                assertEquals(e.getTimestamp(), a.getTimestamp());
+                assertEquals(e.getRecordTypeCode(), a.getRecordTypeCode());
+                assertEquals(e.getMeasurementValue(), a.getMeasurementValue(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testReplaysChunksInFileOrder() throws Exception {
+        double[] systolic = {100, 111, 122, 185, 85, 120};
+        double[] saturation = {98, 97, 91, 96, 99, 92};
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(tempDir.resolve("vitals.txt")))) {
+            for (int i = 0; i < 3000; i++) {
+                int patientId = i % 5 + 1;
+                long timestamp = 1748200923016L + i * 1000L;
+                writer.println(patientId + "," + timestamp + ",SystolicPressure," + systolic[i / 5 % 6]);
+                writer.println(patientId + "," + timestamp + ",Saturation," + saturation[i / 7 % 6]);
+            }
+        }
+
+        Map<String, List<String>> expectedAlerts = replay(new FileDataReader(tempDir.toString()), new HashMap<>());
+        resetDataStorage();
+        Map<Integer, List<Long>> storedTimes = new HashMap<>();
+        // Tiny chunks parsed by several threads
+        Map<String, List<String>> actualAlerts =
+                replay(new MappedFileDataReader(tempDir.toString(), 4, 512), storedTimes);
+
+        assertEquals(5, expectedAlerts.size());
+        assertEquals(expectedAlerts, actualAlerts);
+        for (List<Long> times : storedTimes.values()) {
+            assertEquals(1200, times.size());
+            for (int i = 1; i < times.size(); i++) {
+                assertTrue(times.get(i - 1) <= times.get(i), "Reading " + i + " stored out of order");
+            }
+        }
+    }
+
+    /**
+     * Reads the files into a fresh storage with an attached alert engine.
+     *
+     * @return the alerts of each patient, in the order they were raised
+     */
+    private static Map<String, List<String>> replay(DataReader reader, Map<Integer, List<Long>> storedTimes)
+            throws IOException {
+        Map<String, List<String>> alerts = new ConcurrentHashMap<>();
+        DataStorage storage = DataStorage.getInstance();
+        new AlertEngine(alert -> alerts.computeIfAbsent(alert.getPatientId(), id -> new ArrayList<>())
+                .add(alert.getTimestamp() + " " + alert.getCondition())).attach(storage);
+        // Readings of one patient are delivered one at a time
+        Map<Integer, List<Long>> times = new ConcurrentHashMap<>();
+        storage.addRecordListener((patientId, recordTypeCode, timestamp, value) ->
+                times.computeIfAbsent(patientId, id -> new ArrayList<>()).add(timestamp));
+        reader.readData(storage);
+        storedTimes.putAll(times);
+        return alerts;
+    }
+
+    @Test
+    public void testParsesEdgeCaseLines() throws Exception {
+        writeFile("edge.txt",
+                "1,1000,HeartRate,75",
+                "1,2000,HeartRate,7.5e1",        // exponent, slow path
+                "2,1000,Saturation,98.4\r",      // Windows line ending
+                "3,1000,Alert,TRIGGERED",
+                "4,1000,ECG,not-a-number",       // skipped
+                "5,1000,,42",                    // skipped: empty record type
+                "garbage",                       // skipped
+                "",
+                "x,1000,ECG,1");                 // skipped
+
+        DataStorage storage = DataStorage.getInstance();
+        new MappedFileDataReader(tempDir.toString(), 2, 16).readData(storage);
+
+        List<PatientRecord> heartRate = storage.getRecords(1, 0, 3000);
+        assertEquals(2, heartRate.size());
+        assertEquals(75.0, heartRate.get(1).getMeasurementValue(), 0.0);
+        assertEquals(98.4, storage.getRecords(2, 0, 3000).get(0).getMeasurementValue(), 0.0);
+        assertEquals(1.0, storage.getRecords(3, 0, 3000).get(0).getMeasurementValue(), 0.0);
+        assertEquals(4, storage.getTotalRecordsProcessed());
+    }
+
+    @Test
+    public void testMissingDirectoryIsReported() {
+        MappedFileDataReader reader = new MappedFileDataReader(tempDir.resolve("missing").toString());
+        assertThrows(IOException.class, () -> reader.readData(DataStorage.getInstance()));
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileDataReader(tempDir.toString(), 0, 1024));
+    }
+
+    private void writeFile(String name, String... lines) throws IOException {
+        Files.write(tempDir.resolve(name), String.join("\n", lines).getBytes());
+    }
+}
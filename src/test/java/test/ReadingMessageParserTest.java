@@ -0,0 +1,123 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import com.cardio_generator.outputs.ReadingMessageParser;
+import com.data_management.RecordType;
+
+/**
+ * Tests for the {@link ReadingMessageParser} used by the WebSocket reader.
+ */
+public class ReadingMessageParserTest {
+
+    private final ReadingMessageParser parser = new ReadingMessageParser();
+
+    @Test
+    public void testParsesValidMessage() {
+        assertTrue(parser.parse(" 12 , 1640995200000 , ECG , -0.125 "));
+
+        assertEquals(12, parser.getPatientId());
+        assertEquals(1640995200000L, parser.getTimestamp());
+        assertEquals(RecordType.ECG, parser.getRecordTypeCode());
+        assertEquals(-0.125, parser.getValue(), 0.0);
+        assertNull(parser.getError());
+    }
+
+    @Test
+    public void testStripsUnitSuffixes() {
+        assertValue("1,1,SystolicPressure,120mmHg", 120.0);
+        assertValue("1,1,HeartRate,75 BPM", 75.0);
+        assertValue("1,1,Temperature,98.6°F", 98.6);
+        assertValue("1,1,Saturation,95%", 95.0);
+        assertValue("1,1,HeartRate,1.7976931348623157E308", Double.MAX_VALUE);
+
+        // Corrupted values are dropped without an error message
+        assertFalse(parser.parse("1,1,HeartRate,abc"));
+        assertNull(parser.getError());
+        assertFalse(parser.parse("1,1,HeartRate,75kg"));
+        assertFalse(parser.parse("1,1,HeartRate,%"));
+    }
+
+    @Test
+    public void testParsesAlertStates() {
+        assertValue("1,1,Alert,triggered", 1.0);
+        assertValue("1,1,Alert,resolved", 0.0);
+        assertValue("1,1,Alert,1", 1.0);
+        assertValue("1,1,Alert,unknown", 0.0);
+    }
+
+    @Test
+    public void testRejectsMalformedMessages() {
+        String[] invalid = {
+            "", "   ", "1", "1,1640995200000", "1,1640995200000,HeartRate",
+            "1,1640995200000,HeartRate,75.5,extraField", "1;1640995200000;HeartRate;75.5",
+            "abc,1640995200000,HeartRate,75.5", "1,abc,HeartRate,75.5", "1,,HeartRate,75.5",
+            ",1640995200000,HeartRate,75.5", "1,1640995200000,,75.5", "-1,1640995200000,HeartRate,75.5",
+            "0,0,HeartRate,0.0", "1,-1,HeartRate,75.5", "99999999999,1,HeartRate,1"
+        };
+        for (String message : invalid) {
+            assertFalse(parser.parse(message), "Should reject: " + message);
+            assertNotNull(parser.getError(), "Should explain why it rejected: " + message);
+        }
+        assertFalse(parser.parse(null));
+    }
+
+    @Test
+    public void testParsesOneLineOfABlock() {
+        String block = "1,1000,ECG,0.5\n2,1001,Saturation,97%\nbroken";
+        int secondLine = block.indexOf('\n') + 1;
+        int thirdLine = block.indexOf('\n', secondLine) + 1;
+
+        assertTrue(parser.parse(block, secondLine, thirdLine - 1));
+        assertEquals(2, parser.getPatientId());
+        assertEquals(97.0, parser.getValue(), 0.0);
+
+        assertFalse(parser.parse(block, thirdLine, block.length()));
+        assertTrue(parser.getError().endsWith("): broken"));
+    }
+
+    @Test
+    public void testRegistersUnknownRecordTypes() {
+        assertEquals(-1, RecordType.lookup("ParserTestOnlyType"));
+
+        assertTrue(parser.parse("1,1,ParserTestOnlyType,5"));
+
+        assertEquals(RecordType.lookup("ParserTestOnlyType"), parser.getRecordTypeCode());
+        assertEquals(parser.getRecordTypeCode(), RecordType.lookup("x,ParserTestOnlyType,y", 2, 20));
+    }
+
+    @Test
+    public void testValidMessagesDoNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return; // allocation counters not available on this JVM
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        String[] messages = {
+            "17,1748200923016,ECG,0.8345",
+            "17,1748200923016,Saturation,97%",
+            "17,1748200923016,SystolicPressure,121.4mmHg",
+            "17,1748200923016,Alert,triggered"
+        };
+        for (int i = 0; i < 20_000; i++) {
+            parser.parse(messages[i % messages.length]); // warm up
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(parser.parse(messages[i % messages.length]));
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated < 10_000, "Parsing allocated " + allocated + " bytes");
+    }
+
+    private void assertValue(String message, double expected) {
+        assertTrue(parser.parse(message), "Should accept: " + message);
+        assertEquals(expected, parser.getValue(), 0.0);
+    }
+}
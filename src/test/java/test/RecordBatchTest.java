@@ -0,0 +1,100 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import com.data_management.*;
+
+/**
+ * Tests for {@link RecordBatch} and batch ingest through
+ * {@link DataStorage#addPatientDataBatch(RecordBatch)}.
+ */
+public class RecordBatchTest {
+
+    private DataStorage storage;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Field instance = DataStorage.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+        storage = DataStorage.getInstance();
+    }
+
+    @Test
+    public void testBatchGrowsAndCanBeReused() {
+        RecordBatch batch = new RecordBatch(2);
+        for (int i = 0; i < 5; i++) {
+            batch.add(i, 1000 + i, RecordType.ECG, i * 0.1);
+        }
+
+        assertEquals(5, batch.size());
+        assertEquals(4, batch.getPatientId(4));
+        assertEquals(1004, batch.getTimestamp(4));
+        assertEquals(RecordType.ECG, batch.getRecordTypeCode(4));
+        assertEquals(0.4, batch.getValue(4), 0.0001);
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.getValue(5));
+
+        batch.clear();
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void testBatchIsGroupedByPatientKeepingOrder() {
+        RecordBatch batch = new RecordBatch();
+        for (int i = 0; i < 30; i++) {
+            int patientId = 3 - i % 3;
+            batch.add(patientId, 1000 + i, RecordType.SYSTOLIC_PRESSURE, 100 + i);
+        }
+
+        storage.addPatientDataBatch(batch);
+
+        assertEquals(30, storage.getTotalRecordsProcessed());
+        assertEquals(3, storage.getPatientCount());
+        List<PatientRecord> recent = storage.getRecentRecords(2, 10);
+        assertEquals(10, recent.size());
+        for (int i = 1; i < recent.size(); i++) {
+            assertTrue(recent.get(i - 1).getTimestamp() < recent.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testInvalidAndDuplicateReadingsAreSkipped() {
+        RecordBatch batch = new RecordBatch();
+        batch.add(1, 1000, RecordType.SATURATION, 97);
+        batch.add(-1, 1000, RecordType.SATURATION, 97);       // invalid patient
+        batch.add(1, -5, RecordType.SATURATION, 97);          // invalid timestamp
+        batch.add(1, 1001, RecordType.count() + 10, 97);      // unknown record type
+        batch.add(1, 1000, RecordType.SATURATION, 97);        // duplicate
+
+        storage.addPatientDataBatch(batch);
+
+        assertEquals(1, storage.getTotalRecordsProcessed());
+        assertEquals(1, storage.getDuplicateHits());
+        assertEquals(1, storage.getRecords(1, 0, 2000).size());
+    }
+
+    @Test
+    public void testShardedStorageSplitsBatches() {
+        ShardedDataStorage sharded = new ShardedDataStorage(3);
+        try {
+            RecordBatch batch = new RecordBatch();
+            for (int patientId = 1; patientId <= 12; patientId++) {
+                batch.add(patientId, 1000, RecordType.ECG, 0.5);
+                batch.add(patientId, 2000, RecordType.ECG, 0.6);
+            }
+
+            sharded.addPatientDataBatch(batch);
+            batch.clear(); // the caller may reuse the batch right away
+
+            assertEquals(24, sharded.getTotalRecordsProcessed());
+            assertEquals(2, sharded.getRecords(11, 0, 3000).size());
+        } finally {
+            sharded.shutdown();
+        }
+    }
+}
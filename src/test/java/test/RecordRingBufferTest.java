@@ -0,0 +1,96 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import com.data_management.*;
+
+/**
+ * Tests for {@link RecordRingBuffer} and the {@link RecentRecordsCache} built on it.
+ */
+public class RecordRingBufferTest {
+
+    @Test
+    public void testOldestReadingsAreOverwrittenWhenFull() {
+        RecordRingBuffer buffer = new RecordRingBuffer(40);
+        for (int i = 0; i < 100; i++) {
+            buffer.add(i, 1000 + i, i * 0.5);
+        }
+
+        assertEquals(40, buffer.size());
+
+        long[] sequences = new long[50];
+        long[] timestamps = new long[50];
+        double[] values = new double[50];
+        int copied = buffer.snapshot(50, sequences, timestamps, values);
+
+        assertEquals(40, copied);
+        for (int i = 0; i < copied; i++) {
+            assertEquals(60 + i, sequences[i]);
+            assertEquals(1060 + i, timestamps[i]);
+            assertEquals((60 + i) * 0.5, values[i], 0.0001);
+        }
+    }
+
+    @Test
+    public void testSnapshotReturnsLatestReadingsOldestFirst() {
+        RecordRingBuffer buffer = new RecordRingBuffer(1000);
+        for (int i = 0; i < 20; i++) {
+            buffer.add(i, 1000 + i, i);
+        }
+
+        long[] sequences = new long[5];
+        long[] timestamps = new long[5];
+        double[] values = new double[5];
+
+        assertEquals(5, buffer.snapshot(5, sequences, timestamps, values));
+        assertArrayEquals(new long[] {1015, 1016, 1017, 1018, 1019}, timestamps);
+        assertEquals(0, new RecordRingBuffer(10).snapshot(5, sequences, timestamps, values));
+    }
+
+    @Test
+    public void testCacheMergesRecordTypesInArrivalOrder() {
+        RecentRecordsCache cache = new RecentRecordsCache(7, 1000);
+        cache.add(RecordType.ECG, 3000, 0.1);
+        cache.add(RecordType.SATURATION, 1000, 97);
+        cache.add(RecordType.ECG, 3001, 0.2);
+        cache.add(RecordType.SYSTOLIC_PRESSURE, 2000, 120);
+
+        List<PatientRecord> latest = cache.getLatest(3);
+
+        assertEquals(3, latest.size());
+        assertEquals("Saturation", latest.get(0).getRecordType());
+        assertEquals(3001, latest.get(1).getTimestamp());
+        assertEquals(RecordType.SYSTOLIC_PRESSURE, latest.get(2).getRecordTypeCode());
+        assertEquals(7, latest.get(2).getPatientId());
+        assertEquals(4, cache.getLatest(10).size());
+    }
+
+    @Test
+    public void testConcurrentReadersSeeConsistentSnapshots() throws InterruptedException {
+        RecordRingBuffer buffer = new RecordRingBuffer(64);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                buffer.add(i, i, i);
+            }
+        });
+        writer.start();
+
+        long[] sequences = new long[64];
+        long[] timestamps = new long[64];
+        double[] values = new double[64];
+        while (writer.isAlive()) {
+            int copied = buffer.snapshot(64, sequences, timestamps, values);
+            for (int i = 0; i < copied; i++) {
+                assertEquals(sequences[i], timestamps[i]);
+                assertEquals(sequences[i], (long) values[i]);
+                if (i > 0) {
+                    assertEquals(sequences[i - 1] + 1, sequences[i]);
+                }
+            }
+        }
+        writer.join();
+    }
+}
@@ -0,0 +1,145 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import com.data_management.*;
+
+/**
+ * Tests for the columnar {@link RecordSeries} store and the way
+ * {@link Patient} uses it to answer record queries.
+ */
+public class RecordSeriesTest {
+
+    @Test
+    public void testAppendAndReadBack() {
+        RecordSeries series = new RecordSeries("ECG");
+        assertEquals(0, series.size());
+
+        series.append(1000, 0.5);
+        series.append(2000, 0.7);
+
+        assertEquals(2, series.size());
+        assertEquals(1000, series.getTimestamp(0));
+        assertEquals(0.7, series.getValue(1));
+        assertEquals("ECG", series.getRecordType());
+    }
+
+    @Test
+    public void testGrowsAcrossChunks() {
+        RecordSeries series = new RecordSeries("Saturation");
+        int count = 5000; // spans several chunks and the growth of the first one
+
+        for (int i = 0; i < count; i++) {
+            series.append(i * 1000L, 90 + (i % 10));
+        }
+
+        assertEquals(count, series.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i * 1000L, series.getTimestamp(i));
+            assertEquals(90 + (i % 10), series.getValue(i));
+        }
+    }
+
+    @Test
+    public void testOutOfBoundsAccess() {
+        RecordSeries series = new RecordSeries("ECG");
+        series.append(1000, 0.5);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> series.getValue(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> series.getTimestamp(-1));
+    }
+
+    @Test
+    public void testToRecordMaterializesReading() {
+        RecordSeries series = new RecordSeries("SystolicPressure");
+        series.append(1000, 120);
+
+        PatientRecord record = series.toRecord(7, 0);
+
+        assertEquals(7, record.getPatientId());
+        assertEquals("SystolicPressure", record.getRecordType());
+        assertEquals(120, record.getMeasurementValue());
+        assertEquals(1000, record.getTimestamp());
+    }
+
+    @Test
+    public void testPatientMergesSeriesByTimestamp() {
+        Patient patient = new Patient(1);
+        patient.addRecord(120, "SystolicPressure", 3000);
+        patient.addRecord(80, "DiastolicPressure", 1000);
+        patient.addRecord(98, "Saturation", 2000);
+
+        List<PatientRecord> records = patient.getRecords(0, 5000);
+
+        assertEquals(3, records.size());
+        assertEquals(1000, records.get(0).getTimestamp());
+        assertEquals(2000, records.get(1).getTimestamp());
+        assertEquals(3000, records.get(2).getTimestamp());
+        assertEquals(3, patient.getRecordCount());
+    }
+
+    @Test
+    public void testOutOfOrderReadingsAreInserted() {
+        RecordSeries series = new RecordSeries("ECG");
+        series.add(1000, 1.0);
+        series.add(3000, 3.0);
+        series.add(2000, 2.0); // late arrival
+        series.add(500, 0.5);  // older than everything
+
+        assertEquals(4, series.size());
+        assertEquals(500, series.getTimestamp(0));
+        assertEquals(1000, series.getTimestamp(1));
+        assertEquals(2000, series.getTimestamp(2));
+        assertEquals(3.0, series.getValue(3));
+    }
+
+    @Test
+    public void testOutOfOrderInsertAcrossChunks() {
+        RecordSeries series = new RecordSeries("ECG");
+        for (int i = 0; i < 3000; i++) {
+            series.add(i * 10L + 10, i);
+        }
+        series.add(5, -1.0);
+
+        assertEquals(3001, series.size());
+        assertEquals(-1.0, series.getValue(0));
+        for (int i = 1; i < series.size(); i++) {
+            assertTrue(series.getTimestamp(i - 1) <= series.getTimestamp(i));
+        }
+    }
+
+    @Test
+    public void testRangeUsesInclusiveBounds() {
+        RecordSeries series = new RecordSeries("Saturation");
+        for (int i = 1; i <= 10; i++) {
+            series.add(i * 1000L, 90 + i);
+        }
+
+        RecordRange range = series.range(1, 3000, 5000);
+
+        assertEquals(3, range.size());
+        assertEquals(3000, range.getTimestamp(0));
+        assertEquals(95, range.getValue(2));
+        assertEquals(93, range.get(0).getMeasurementValue());
+        assertEquals(0, series.range(1, 20000, 30000).size());
+        assertEquals(0, series.range(1, 5000, 3000).size());
+    }
+
+    @Test
+    public void testPatientTypedQueryReturnsOrderedView() {
+        Patient patient = new Patient(1);
+        patient.addRecord(120, "SystolicPressure", 3000);
+        patient.addRecord(110, "SystolicPressure", 1000);
+        patient.addRecord(98, "Saturation", 2000);
+
+        List<PatientRecord> systolic = patient.getRecords("SystolicPressure", 0, Long.MAX_VALUE);
+
+        assertEquals(2, systolic.size());
+        assertEquals(110, systolic.get(0).getMeasurementValue());
+        assertEquals(120, systolic.get(1).getMeasurementValue());
+        assertTrue(patient.getRecords("ECG", 0, Long.MAX_VALUE).isEmpty());
+    }
+}
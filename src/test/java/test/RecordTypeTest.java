@@ -0,0 +1,81 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import com.data_management.*;
+
+/**
+ * Tests for the {@link RecordType} registry and the code-based ingest path.
+ */
+public class RecordTypeTest {
+
+    @Test
+    public void testKnownTypesArePreRegistered() {
+        assertEquals(RecordType.ECG, RecordType.lookup("ECG"));
+        assertEquals(RecordType.SATURATION, RecordType.codeOf("Saturation"));
+        assertEquals("SystolicPressure", RecordType.nameOf(RecordType.SYSTOLIC_PRESSURE));
+        assertEquals("Alert", RecordType.nameOf(RecordType.ALERT));
+    }
+
+    @Test
+    public void testUnknownTypesAreRegisteredDynamically() {
+        assertEquals(-1, RecordType.lookup("RecordTypeTestOnlyType"));
+
+        int code = RecordType.codeOf("RecordTypeTestOnlyType");
+
+        assertTrue(RecordType.isValid(code));
+        assertEquals(code, RecordType.codeOf("RecordTypeTestOnlyType"));
+        assertEquals("RecordTypeTestOnlyType", RecordType.nameOf(code));
+    }
+
+    @Test
+    public void testRegionLookupFindsEveryRegisteredType() {
+        // Enough types to grow the hash table several times
+        int[] codes = new int[100];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = RecordType.codeOf("RecordTypeTestRegion" + i);
+        }
+
+        for (int i = 0; i < codes.length; i++) {
+            String line = "1,1000,RecordTypeTestRegion" + i + ",42";
+            int start = line.indexOf('R');
+            assertEquals(codes[i], RecordType.lookup(line, start, line.lastIndexOf(',')));
+        }
+        assertEquals(RecordType.ECG, RecordType.lookup("1,1000,ECG,0.5", 7, 10));
+        assertEquals(-1, RecordType.lookup("1,1000,RecordTypeTestRegion,42", 7, 27));
+    }
+
+    @Test
+    public void testInvalidNamesAndCodesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RecordType.codeOf(""));
+        assertThrows(IllegalArgumentException.class, () -> RecordType.codeOf(null));
+        assertThrows(IllegalArgumentException.class, () -> RecordType.nameOf(-1));
+        assertFalse(RecordType.isValid(RecordType.count()));
+    }
+
+    @Test
+    public void testRecordsCarryTheirCode() {
+        PatientRecord byName = new PatientRecord(1, 120, "SystolicPressure", 1000);
+        PatientRecord byCode = new PatientRecord(1, 120, RecordType.SYSTOLIC_PRESSURE, 1000);
+
+        assertEquals(RecordType.SYSTOLIC_PRESSURE, byName.getRecordTypeCode());
+        assertEquals("SystolicPressure", byCode.getRecordType());
+    }
+
+    @Test
+    public void testPatientStoresTypesRegisteredAfterCreation() {
+        Patient patient = new Patient(1);
+        int lateCode = RecordType.codeOf("RecordTypeTestLateType");
+
+        patient.addRecord(42, lateCode, 1000);
+        patient.addRecord(98, RecordType.SATURATION, 1000);
+
+        List<PatientRecord> records = patient.getRecords(lateCode, 0, 2000);
+        assertEquals(1, records.size());
+        assertEquals("RecordTypeTestLateType", records.get(0).getRecordType());
+        assertEquals(1, patient.getRecords("Saturation", 0, 2000).size());
+    }
+}
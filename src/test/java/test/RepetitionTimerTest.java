@@ -0,0 +1,124 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alerts.Alert;
+import com.alerts.DecoratedAlertFactory;
+import com.data_management.DataStorage;
+import com.decorator.RepeatedAlertDecorator;
+import com.decorator.RepetitionTimer;
+
+/**
+ * Tests for the shared {@link RepetitionTimer} behind {@link RepeatedAlertDecorator}.
+ */
+public class RepetitionTimerTest {
+
+    @Test
+    public void testRepetitionsShareOneThread() throws Exception {
+        RepetitionTimer timer = new RepetitionTimer(5, 8);
+        try {
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            AtomicInteger runs = new AtomicInteger();
+            for (int i = 0; i < 50; i++) {
+                // Intervals longer than one turn of the wheel wait for several rounds
+                timer.schedule(() -> {
+                    threads.add(Thread.currentThread().getName());
+                    runs.incrementAndGet();
+                }, 20 + i, 2);
+            }
+            assertEquals(50, timer.getOutstandingCount());
+
+            waitFor(() -> timer.getOutstandingCount() == 0);
+
+            assertEquals(100, runs.get());
+            assertEquals(Set.of("alert-repetitions"), threads);
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancelStopsRepetition() throws Exception {
+        RepetitionTimer timer = new RepetitionTimer(5, 64);
+        try {
+            AtomicInteger handled = new AtomicInteger();
+            RepeatedAlertDecorator repeated = new RepeatedAlertDecorator(
+                    new Alert("7", "Test", 0L), 20, 0, alert -> handled.incrementAndGet(), timer);
+            repeated.startRepetition();
+            waitFor(() -> handled.get() >= 2);
+
+            repeated.stopRepetition();
+            repeated.stopRepetition(); // stopping twice is harmless
+            int afterStop = handled.get();
+            Thread.sleep(100);
+
+            assertFalse(repeated.isRepeating());
+            assertTrue(handled.get() <= afterStop + 1, "a run already in progress may complete");
+            assertEquals(0, timer.getOutstandingCount());
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testIntervalOfOneTurnIsNotLate() throws Exception {
+        // 80 ms is one turn of this wheel, like 5120 ms on the shared 10 ms x 512 wheel
+        RepetitionTimer timer = new RepetitionTimer(10, 8);
+        try {
+            long[] runNanos = new long[2];
+            AtomicInteger runs = new AtomicInteger();
+            timer.schedule(() -> runNanos[runs.getAndIncrement()] = System.nanoTime(), 80, 2);
+            waitFor(() -> timer.getOutstandingCount() == 0);
+            long gapMillis = (runNanos[1] - runNanos[0]) / 1_000_000;
+
+            // One interval apart; a run put back a turn late would come 160 ms later
+            assertTrue(gapMillis < 130, "Second run came " + gapMillis + " ms after the first");
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testIntervalShorterThanOneTickRunsEveryTick() throws Exception {
+        RepetitionTimer timer = new RepetitionTimer(10, 8);
+        try {
+            long start = System.nanoTime();
+            timer.schedule(() -> { }, 1, 5);
+            waitFor(() -> timer.getOutstandingCount() == 0);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // About one tick per run, not one turn of the wheel (400 ms)
+            assertTrue(elapsedMillis < 250, "Five runs took " + elapsedMillis + " ms");
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testResolvedConditionStopsRepetition() {
+        DecoratedAlertFactory factory = new DecoratedAlertFactory(DataStorage.getInstance());
+        String condition = "CRITICAL: Systolic pressure above 180 mmHg";
+
+        factory.createAlert("42", condition, System.currentTimeMillis());
+        factory.createAlert("42", condition, System.currentTimeMillis()); // already active
+        assertEquals(1, factory.getActiveRepetitionCount());
+        assertTrue(RepeatedAlertDecorator.getOutstandingRepetitions() >= 1);
+
+        assertTrue(factory.getAlertStateCache().resolve("42", condition, System.currentTimeMillis()));
+
+        assertEquals(0, factory.getActiveRepetitionCount());
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+            Thread.sleep(5);
+        }
+    }
+}
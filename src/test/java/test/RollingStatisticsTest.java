@@ -0,0 +1,73 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import com.strategy.RollingStatistics;
+
+/**
+ * Tests for {@link RollingStatistics}.
+ */
+public class RollingStatisticsTest {
+
+    @Test
+    public void testMatchesTwoPassComputationWhileSliding() {
+        RollingStatistics statistics = new RollingStatistics(50);
+        double[] all = new double[5000];
+        Random random = new Random(42);
+        for (int i = 0; i < all.length; i++) {
+            // A large offset makes naive sum-of-squares formulas lose all precision
+            all[i] = 1e6 + random.nextGaussian();
+            statistics.add(all[i]);
+
+            int from = Math.max(0, i - 49);
+            double sum = 0;
+            for (int k = from; k <= i; k++) {
+                sum += all[k];
+            }
+            double mean = sum / (i - from + 1);
+            double squares = 0;
+            for (int k = from; k <= i; k++) {
+                squares += (all[k] - mean) * (all[k] - mean);
+            }
+            double variance = squares / (i - from + 1);
+
+            assertEquals(i - from + 1, statistics.size());
+            assertEquals(mean, statistics.getMean(), 1e-6);
+            assertEquals(variance, statistics.getVariance(), 1e-6);
+        }
+    }
+
+    @Test
+    public void testCopiesLatestSamplesInOrder() {
+        RollingStatistics statistics = new RollingStatistics(4);
+        double[] out = new double[3];
+        assertEquals(0, statistics.copyLatest(out, 3));
+
+        for (int i = 1; i <= 6; i++) {
+            statistics.add(i);
+        }
+        assertEquals(3, statistics.copyLatest(out, 3));
+        assertArrayEquals(new double[] {4, 5, 6}, out);
+        assertEquals(4.5, statistics.getMean(), 1e-12);
+        assertEquals(1.25, statistics.getVariance(), 1e-12);
+
+        statistics.clear();
+        statistics.add(7);
+        assertEquals(7, statistics.getMean(), 0.0);
+        assertEquals(0, statistics.getVariance(), 0.0);
+        assertThrows(IllegalArgumentException.class, () -> new RollingStatistics(0));
+    }
+
+    @Test
+    public void testConstantWindowHasNoVariance() {
+        RollingStatistics statistics = new RollingStatistics(600);
+        for (int i = 0; i < 10_000; i++) {
+            statistics.add(0.1);
+        }
+        assertEquals(0.1, statistics.getMean(), 1e-15);
+        assertEquals(0.0, statistics.getStdDev(), 1e-9);
+    }
+}
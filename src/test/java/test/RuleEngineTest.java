@@ -0,0 +1,144 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.alerts.*;
+import com.data_management.*;
+import com.rules.CompiledRuleSet;
+import com.rules.RuleSet;
+
+/**
+ * Tests for the rule language and the compiled rule evaluator.
+ */
+public class RuleEngineTest {
+
+    private DataStorage storage;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Field instance = DataStorage.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+        storage = DataStorage.getInstance();
+    }
+
+    @Test
+    public void testDefaultRulesMatchAlertFactories() {
+        Random random = new Random(17);
+        long start = System.currentTimeMillis() - 9 * 60_000;
+        for (int patientId = 1; patientId <= 150; patientId++) {
+            addReadings(random, patientId, "SystolicPressure", start, 3 + random.nextInt(10), 85, 120, 12);
+            addReadings(random, patientId, "DiastolicPressure", start, 3 + random.nextInt(10), 55, 85, 12);
+            addReadings(random, patientId, "Saturation", start, 2 + random.nextInt(12), 90, 99, 3);
+            addReadings(random, patientId, "ECG", start, random.nextInt(700), -0.5, 0.5, 0.1);
+            addReadings(random, patientId, "Alert", start, random.nextInt(3), 0, 1, 0);
+        }
+
+        List<String> expected = new ArrayList<>();
+        AlertFactory[] factories = {
+            new BloodOxygenAlertFactory(storage), new BloodPressureAlertFactory(storage),
+            new ECGAlertFactory(storage), new CallButtonAlertFactory(storage)
+        };
+        for (AlertFactory factory : factories) {
+            factory.setAlertSink(alert -> expected.add(describe(alert)));
+        }
+        List<String> actual = new ArrayList<>();
+        RuleAlertFactory ruleFactory = new RuleAlertFactory(storage);
+        ruleFactory.setAlertSink(alert -> actual.add(describe(alert)));
+
+        for (Patient patient : storage.getAllPatients()) {
+            EvaluationContext context = EvaluationContext.forLatestWindow(patient);
+            for (AlertFactory factory : factories) {
+                factory.evaluate(context);
+            }
+            ruleFactory.evaluate(context);
+        }
+
+        assertTrue(expected.size() > 150, "The data should raise alerts of every kind");
+        for (String kind : new String[] {"Hypotensive", "Extremely low blood oxygen", "Rapid Oxygen",
+                "Increasing", "Decreasing", "systolic pressure", "diastolic pressure", "ECG", "Call Button"}) {
+            assertTrue(expected.stream().anyMatch(alert -> alert.contains(kind)), "No alert for " + kind);
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testCustomRules() {
+        // Types the simulator does not produce have to be known before they are used in rules
+        RecordType.codeOf("HeartRate");
+        RecordType.codeOf("Temperature");
+        CompiledRuleSet rules = RuleSet.parse(String.join("\n",
+                "# heart rate rules",
+                "group HeartRate",
+                "  trend HeartRate readings 4 step 5 rising \"Rising heart rate ({value} bpm)\"",
+                "  threshold HeartRate above 150 \"Tachycardia ({value:%.0f} bpm)\" at reading",
+                "end",
+                "group Fever",
+                "  both Temperature above 38.5 and HeartRate above 100 within 30s \"Fever {first} with {second} bpm\"",
+                "end")).compile();
+
+        storage.addPatientData(1, 80, "HeartRate", 1000);
+        storage.addPatientData(1, 90, "HeartRate", 2000);
+        storage.addPatientData(1, 155, "HeartRate", 3000);
+        storage.addPatientData(1, 39.0, "Temperature", 60_000);
+        storage.addPatientData(1, 101, "HeartRate", 75_000);
+
+        List<Alert> alerts = rules.evaluate(new EvaluationContext(storage.getPatient(1), 0));
+        assertEquals(2, alerts.size());
+        assertEquals("Tachycardia (155 bpm)", alerts.get(0).getCondition());
+        assertEquals(3000, alerts.get(0).getTimestamp());
+        assertEquals("Fever 39.0 with 101.0 bpm", alerts.get(1).getCondition());
+
+        storage.addPatientData(1, 107, "HeartRate", 80_000);
+        storage.addPatientData(1, 113, "HeartRate", 85_000);
+        storage.addPatientData(1, 119, "HeartRate", 90_000);
+        alerts = rules.evaluate(new EvaluationContext(storage.getPatient(1), 0));
+        assertEquals("Rising heart rate (119.0 bpm)", alerts.get(0).getCondition());
+        assertEquals(List.of("HeartRate", "Fever"), rules.getRuleSet().getGroupNames());
+    }
+
+    @Test
+    public void testSyntaxErrorsNameTheLine() {
+        assertSyntaxError("Line 2", "group A\n  treshold ECG below 1 \"x\"\nend");
+        assertSyntaxError("Line 3", "group A\n  threshold ECG below 1\n  \"{val}\"\nend");
+        assertSyntaxError("Line 2", "group A\n  drop Saturation within 10 by 5 \"x\"\nend");
+        assertSyntaxError("Line 1", "group A threshold ECG above 1 \"x\"");
+        assertSyntaxError("Line 4", "group A\nend\n\ngroup A\nend");
+        // A misspelt type is an error instead of a new type that never has readings
+        assertSyntaxError("Line 3", "group A\n  threshold ECG above 1 \"x\"\n  drop Saturaton within 10s by 5 \"y\"\nend");
+        assertEquals(-1, RecordType.lookup("Saturaton"));
+        assertEquals(9, RuleSet.loadDefault().getRuleCount());
+    }
+
+    private static void assertSyntaxError(String expectedLine, String rules) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> RuleSet.parse(rules));
+        assertTrue(e.getMessage().startsWith(expectedLine), e.getMessage());
+    }
+
+    private void addReadings(Random random, int patientId, String type, long start, int count,
+                             double low, double high, double jump) {
+        for (int i = 0; i < count; i++) {
+            double value = low + random.nextDouble() * (high - low);
+            if (jump > 0 && random.nextInt(4) == 0) {
+                value += random.nextBoolean() ? jump : -jump;
+            }
+            if (type.equals("Alert")) {
+                value = random.nextBoolean() ? 1 : 0;
+            }
+            storage.addPatientData(patientId, value, type, start + i * 500L + random.nextInt(400));
+        }
+    }
+
+    private static String describe(Alert alert) {
+        String description = alert.getPatientId() + ": " + alert.getCondition();
+        // Call button alerts carry the time of the button press
+        return alert.getCondition().startsWith("Call Button") ? description + " @" + alert.getTimestamp() : description;
+    }
+}
@@ -0,0 +1,105 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.cardio_generator.SimulationClock;
+import com.cardio_generator.generators.SampledECGDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+
+/**
+ * Tests for the {@link SampledECGDataGenerator}.
+ */
+public class SampledECGDataGeneratorTest {
+
+    private final List<Long> timestamps = new ArrayList<>();
+    private final List<Double> values = new ArrayList<>();
+    private int blocks;
+
+    private final OutputStrategy recorder = new OutputStrategy() {
+        @Override
+        public void output(int patientId, long timestamp, String label, String data) {
+            fail("Samples should arrive as blocks");
+        }
+
+        @Override
+        public void outputSamples(int patientId, String label, long[] sampleTimes, double[] sampleValues, int count) {
+            assertEquals("ECG", label);
+            blocks++;
+            for (int i = 0; i < count; i++) {
+                timestamps.add(sampleTimes[i]);
+                values.add(sampleValues[i]);
+            }
+        }
+    };
+
+    @Test
+    public void testEmitsOneBlockPerCallAtTheSampleRate() {
+        SimulationClock.ManualClock clock = new SimulationClock.ManualClock(10_000);
+        SampledECGDataGenerator generator = new SampledECGDataGenerator(2, 360, clock, 1);
+        for (int second = 0; second < 10; second++) {
+            clock.set(10_000 + second * 1000L);
+            generator.generate(2, recorder);
+        }
+
+        assertEquals(10, blocks);
+        assertEquals(3600, timestamps.size());
+        assertEquals(9_000, timestamps.get(0).longValue());
+        for (int i = 1; i < timestamps.size(); i++) {
+            long step = timestamps.get(i) - timestamps.get(i - 1);
+            assertTrue(step == 2 || step == 3, "Samples at 360 Hz are 2 or 3 ms apart, got " + step);
+        }
+    }
+
+    @Test
+    public void testWaveformHasBeatsAtAPlausibleRate() {
+        SimulationClock.ManualClock clock = new SimulationClock.ManualClock(0);
+        SampledECGDataGenerator generator = new SampledECGDataGenerator(1, 500, clock, 7);
+        for (int second = 1; second <= 60; second++) {
+            clock.set(second * 1000L);
+            generator.generate(1, recorder);
+        }
+
+        // Count R peaks: crossings of a threshold well above the P and T waves
+        int peaks = 0;
+        for (int i = 1; i < values.size(); i++) {
+            if (values.get(i - 1) < 0.6 && values.get(i) >= 0.6) {
+                peaks++;
+            }
+        }
+        assertTrue(peaks >= 50 && peaks <= 100, "Beats per minute: " + peaks);
+        assertTrue(values.stream().allMatch(v -> v > -0.6 && v < 1.4));
+    }
+
+    @Test
+    public void testLowSampleRatesKeepTheBeatPhaseInRange() {
+        // At 1 Hz a sample step spans one or more whole beats
+        SimulationClock.ManualClock clock = new SimulationClock.ManualClock(0);
+        SampledECGDataGenerator generator = new SampledECGDataGenerator(20, 1, clock, 3);
+        for (int second = 1; second <= 120; second++) {
+            clock.set(second * 1000L);
+            for (int patientId = 1; patientId <= 20; patientId++) {
+                generator.generate(patientId, recorder);
+            }
+        }
+
+        assertEquals(20 * 120, blocks);
+        assertEquals(20 * 120, values.size());
+        assertTrue(values.stream().allMatch(v -> v > -0.6 && v < 1.4));
+    }
+
+    @Test
+    public void testDefaultBlockOutputFallsBackToSingleValues() {
+        List<String> data = new ArrayList<>();
+        OutputStrategy single = (patientId, timestamp, label, value) -> data.add(timestamp + ":" + value);
+
+        single.outputSamples(1, "ECG", new long[] {5, 9}, new double[] {0.25, -0.5}, 2);
+
+        assertEquals(List.of("5:0.25", "9:-0.5"), data);
+        assertThrows(IllegalArgumentException.class,
+                () -> new SampledECGDataGenerator(1, 0, SimulationClock.system(), 1));
+    }
+}
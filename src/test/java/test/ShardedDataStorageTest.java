@@ -0,0 +1,183 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.data_management.*;
+
+/**
+ * Tests for {@link ShardedDataStorage}.
+ */
+public class ShardedDataStorageTest {
+
+    private ShardedDataStorage storage;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (storage != null) {
+            storage.shutdown();
+        }
+        Field instance = DataStorage.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+    }
+
+    @Test
+    public void testReadsSeePrecedingWrites() {
+        storage = new ShardedDataStorage(4);
+        for (int patientId = 1; patientId <= 20; patientId++) {
+            for (int i = 0; i < 10; i++) {
+                storage.addPatientData(patientId, 100 + i, "SystolicPressure", 1000 + i);
+            }
+        }
+
+        List<PatientRecord> records = storage.getRecords(7, 0, 2000);
+
+        assertEquals(10, records.size());
+        assertEquals(7, records.get(0).getPatientId());
+        assertEquals(20, storage.getPatientCount());
+        assertEquals(200, storage.getTotalRecordsProcessed());
+        assertEquals(3, storage.getRecentRecords(7, 3).size());
+        assertNotNull(storage.getPatient(13));
+        assertNull(storage.getPatient(99));
+    }
+
+    @Test
+    public void testReadsFanOutOverAllShards() {
+        storage = new ShardedDataStorage(3);
+        for (int patientId = 1; patientId <= 30; patientId++) {
+            storage.addPatientData(patientId, 98, "Saturation", 1000);
+            storage.addPatientData(patientId, 98, "Saturation", 1000); // duplicate
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        for (Patient patient : storage.getAllPatients()) {
+            ids.add(patient.getPatientId());
+        }
+
+        assertEquals(30, ids.size());
+        for (int patientId = 1; patientId <= 30; patientId++) {
+            assertTrue(ids.contains(patientId), "Patient " + patientId + " should be stored");
+        }
+        assertEquals(30, storage.getDuplicateHits());
+        assertTrue(storage.getSystemStatistics().contains("Shards: 3"));
+
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        java.io.PrintStream previousOut = System.out;
+        System.setOut(new java.io.PrintStream(out, true));
+        try {
+            storage.clearAllData();
+        } finally {
+            System.setOut(previousOut);
+        }
+        assertEquals(0, storage.getPatientCount());
+        assertEquals(0, storage.getTotalRecordsProcessed());
+        // Reported once, not once per shard
+        assertEquals(1, out.toString().split("All patient data cleared", -1).length - 1);
+    }
+
+    @Test
+    public void testConcurrentProducersKeepEveryReading() throws InterruptedException {
+        storage = new ShardedDataStorage(2);
+        int producers = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int patientId = p + 1;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    storage.addPatientData(patientId, i, "ECG", 1000 + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        storage.flush();
+
+        assertEquals(4000, storage.getTotalRecordsProcessed());
+        assertEquals(1000, storage.getPatient(3).getRecordCount());
+    }
+
+    @Test
+    public void testPatientsAreSnapshots() {
+        storage = new ShardedDataStorage(2);
+        for (int i = 0; i < 1500; i++) {
+            storage.addPatientData(5, i, "HeartRate", i);
+        }
+
+        Patient snapshot = storage.getPatient(5);
+        Patient listed = storage.getAllPatients().get(0);
+        for (int i = 1500; i < 3000; i++) {
+            storage.addPatientData(5, i, "HeartRate", i);
+        }
+        storage.flush();
+
+        assertEquals(1500, snapshot.getRecordCount());
+        assertEquals(1500, listed.getRecordCount());
+        List<PatientRecord> records = snapshot.getRecords(0, Long.MAX_VALUE);
+        assertEquals(1499.0, records.get(records.size() - 1).getMeasurementValue());
+        assertEquals(3000, storage.getPatient(5).getRecordCount());
+        assertEquals(List.of(5), storage.getPatientIds());
+    }
+
+    @Test
+    public void testFullShardQueueMakesProducerWait() throws InterruptedException {
+        storage = new ShardedDataStorage(1, 1);
+        CountDownLatch storing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        storage.addRecordListener((patientId, recordTypeCode, timestamp, value) -> {
+            storing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                storage.addPatientData(1, 80, "HeartRate", 1000 + i);
+            }
+        });
+        producer.start();
+        assertTrue(storing.await(5, TimeUnit.SECONDS));
+
+        // One reading is being stored and one is queued: the third waits for room
+        producer.join(200);
+        assertTrue(producer.isAlive(), "Producer should wait while the shard queue is full");
+
+        release.countDown();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        storage.flush();
+        assertEquals(3, storage.getTotalRecordsProcessed());
+    }
+
+    @Test
+    public void testEnableShardingReplacesSingleton() {
+        DataStorage sharded = DataStorage.enableSharding(2);
+        storage = (ShardedDataStorage) sharded;
+
+        assertSame(sharded, DataStorage.getInstance());
+        assertSame(sharded, DataStorage.enableSharding(2));
+        assertEquals(2, storage.getShardCount());
+        assertThrows(IllegalArgumentException.class, () -> new ShardedDataStorage(0));
+    }
+}
@@ -0,0 +1,77 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.cardio_generator.SimulationClock;
+import com.cardio_generator.SimulationScheduler;
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+
+/**
+ * Tests for seeded generators driven by a {@link SimulationClock}, and for stepping
+ * through simulated time with the {@link SimulationScheduler}.
+ */
+public class SimulationClockTest {
+
+    @Test
+    public void testSeededRunsRepeat() {
+        assertEquals(run(42), run(42));
+        assertNotEquals(run(42), run(43));
+    }
+
+    @Test
+    public void testSchedulerStepsThroughSimulatedTime() {
+        SimulationClock.ManualClock clock = new SimulationClock.ManualClock(1_000_000);
+        SimulationScheduler scheduler = new SimulationScheduler(clock, 2, 50);
+        List<Long> times = new ArrayList<>();
+        scheduler.schedule(1, () -> times.add(clock.currentTimeMillis()), 0, 20, TimeUnit.SECONDS);
+        scheduler.schedule(2, () -> times.add(-clock.currentTimeMillis()), 1, 60, TimeUnit.MINUTES);
+
+        long start = System.nanoTime();
+        scheduler.runUntil(1_000_000 + TimeUnit.HOURS.toMillis(3));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "should not wait for the ticks");
+        assertEquals(3 * 180 + 1, times.stream().filter(time -> time > 0).count());
+        assertEquals(3, times.stream().filter(time -> time < 0).count());
+        assertEquals(Long.valueOf(1_000_000 + 20_000), times.get(1));
+        assertThrows(IllegalArgumentException.class, () -> clock.set(0));
+
+        ScheduledExecutorService driver = Executors.newScheduledThreadPool(1);
+        try {
+            SimulationScheduler realTime = new SimulationScheduler(driver, 1);
+            assertThrows(IllegalStateException.class, () -> realTime.runUntil(0));
+        } finally {
+            driver.shutdownNow();
+        }
+    }
+
+    private static List<String> run(long seed) {
+        SimulationClock.ManualClock clock = new SimulationClock.ManualClock(0);
+        ECGDataGenerator ecg = new ECGDataGenerator(3, clock, seed);
+        BloodPressureDataGenerator pressure = new BloodPressureDataGenerator(3, clock, seed);
+        AlertGenerator alerts = new AlertGenerator(3, clock, seed);
+        List<String> output = new ArrayList<>();
+        OutputStrategy recorder = (patientId, timestamp, label, data) ->
+                output.add(patientId + "," + timestamp + "," + label + "," + data);
+        for (int second = 0; second < 100; second++) {
+            clock.set(second * 1000L);
+            // Patients in a different order each second: each has its own stream
+            for (int patientId = 1 + second % 3, i = 0; i < 3; i++, patientId = patientId % 3 + 1) {
+                ecg.generate(patientId, recorder);
+                pressure.generate(patientId, recorder);
+                alerts.generate(patientId, recorder);
+            }
+        }
+        output.sort(null);
+        return output;
+    }
+}
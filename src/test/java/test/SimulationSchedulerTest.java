@@ -0,0 +1,169 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.cardio_generator.SimulationClock;
+import com.cardio_generator.SimulationScheduler;
+import com.cardio_generator.outputs.BatchOutputStrategy;
+import com.cardio_generator.outputs.BatchingOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.ReadingBlock;
+
+/**
+ * Tests for the timing-wheel {@link SimulationScheduler}.
+ */
+public class SimulationSchedulerTest {
+
+    private final ScheduledExecutorService driver = Executors.newScheduledThreadPool(2);
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        driver.shutdownNow();
+        driver.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testRunsManyPatientsOnFewThreads() throws Exception {
+        SimulationScheduler scheduler = new SimulationScheduler(driver, 2, 5, null);
+        int patients = 20_000;
+        AtomicIntegerArray runsPerPatient = new AtomicIntegerArray(patients);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        for (int patientId = 0; patientId < patients; patientId++) {
+            int id = patientId;
+            scheduler.schedule(patientId, () -> {
+                runsPerPatient.incrementAndGet(id);
+                threads.add(Thread.currentThread().getName());
+            }, 0, 100, TimeUnit.MILLISECONDS);
+        }
+
+        Thread.sleep(350);
+
+        assertEquals(patients, scheduler.getTaskCount());
+        assertTrue(threads.size() <= 2, "Ran on " + threads);
+        for (int patientId = 0; patientId < patients; patientId++) {
+            int runs = runsPerPatient.get(patientId);
+            assertTrue(runs >= 3 && runs <= 5, "Patient " + patientId + " ran " + runs + " times");
+        }
+    }
+
+    @Test
+    public void testLongPeriodsWaitForWholeTurnsOfTheWheel() throws Exception {
+        // 1024 buckets of 1 ms: a 1.5 s period needs one extra turn of the wheel
+        SimulationScheduler scheduler = new SimulationScheduler(driver, 1, 1, null);
+        AtomicInteger runs = new AtomicInteger();
+        long start = System.nanoTime();
+        long[] firstRun = new long[1];
+        scheduler.schedule(1, () -> {
+            if (runs.incrementAndGet() == 1) {
+                firstRun[0] = System.nanoTime();
+            }
+        }, 1500, 1500, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(1700);
+
+        assertEquals(1, runs.get());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(firstRun[0] - start) >= 1490);
+    }
+
+    @Test
+    public void testDispatchExecutorSkipsOverlappingRuns() throws Exception {
+        ExecutorService dispatch = Executors.newFixedThreadPool(4);
+        try {
+            SimulationScheduler scheduler = new SimulationScheduler(driver, 1, 5, dispatch);
+            AtomicInteger concurrent = new AtomicInteger();
+            AtomicInteger maxConcurrent = new AtomicInteger();
+            scheduler.schedule(1, () -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                sleepQuietly(30); // longer than the period
+                concurrent.decrementAndGet();
+            }, 0, 10, TimeUnit.MILLISECONDS);
+
+            Thread.sleep(200);
+
+            assertEquals(1, maxConcurrent.get());
+            assertTrue(scheduler.getSkippedRunCount() > 0);
+            assertTrue(scheduler.getRunCount() > 0);
+        } finally {
+            dispatch.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsNeedJava21() {
+        ExecutorService executor = SimulationScheduler.newVirtualThreadExecutor();
+        assertEquals(Runtime.version().feature() >= 21, executor != null);
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testChunksOutputThroughReusedBatches() throws Exception {
+        ExecutorService dispatch = Executors.newFixedThreadPool(2);
+        List<Integer> blockSizes = Collections.synchronizedList(new ArrayList<>());
+        BatchingOutputStrategy output = new BatchingOutputStrategy(new BatchOutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                fail("Readings should arrive as blocks");
+            }
+
+            @Override
+            public void outputBatch(ReadingBlock block) {
+                blockSizes.add(block.size());
+            }
+        });
+        Set<OutputStrategy> batches = Collections.newSetFromMap(new IdentityHashMap<>());
+        SimulationScheduler scheduler = new SimulationScheduler(driver, 1, 5, dispatch);
+        scheduler.setBatchOutput(output);
+        // 600 tasks per tick make three chunks
+        for (int patientId = 0; patientId < 600; patientId++) {
+            scheduler.schedule(patientId, out -> {
+                synchronized (batches) {
+                    batches.add(out);
+                }
+                out.output(1, 1000, "ECG", "0.5");
+            }, 0, 10, TimeUnit.MILLISECONDS);
+        }
+
+        Thread.sleep(200);
+        driver.shutdownNow();
+        assertTrue(driver.awaitTermination(1, TimeUnit.SECONDS));
+        dispatch.shutdown();
+        assertTrue(dispatch.awaitTermination(5, TimeUnit.SECONDS));
+
+        // At most one batch per dispatch thread, however many chunks ran
+        assertTrue(batches.size() <= 2, "Used " + batches.size() + " batches");
+        assertTrue(blockSizes.size() >= 3);
+        assertEquals(scheduler.getRunCount(), blockSizes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    public void testOutputTasksNeedABatchOutput() {
+        SimulationScheduler scheduler = new SimulationScheduler(new SimulationClock.ManualClock(0), 1, 50);
+        assertThrows(IllegalStateException.class,
+                () -> scheduler.schedule(1, out -> out.output(1, 0, "ECG", "0"), 0, 1, TimeUnit.SECONDS));
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
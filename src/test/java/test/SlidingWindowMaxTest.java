@@ -0,0 +1,98 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import com.alerts.Alert;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import com.data_management.RecordType;
+import com.strategy.OxygenSaturationStrategy;
+import com.strategy.SlidingWindowMax;
+
+/**
+ * Tests for {@link SlidingWindowMax} and the saturation checks built on it.
+ */
+public class SlidingWindowMaxTest {
+
+    @Test
+    public void testMatchesBruteForceMaximum() {
+        Random random = new Random(7);
+        long[] times = new long[2000];
+        double[] values = new double[2000];
+        SlidingWindowMax window = new SlidingWindowMax(10_000);
+        long time = 0;
+        for (int i = 0; i < times.length; i++) {
+            time += random.nextInt(3000);
+            times[i] = time;
+            values[i] = random.nextInt(20); // many ties
+
+            double expected = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < i; k++) {
+                if (times[k] >= time - 10_000) {
+                    expected = Math.max(expected, values[k]);
+                }
+            }
+            assertEquals(expected, window.maxAt(time), 0.0);
+            window.add(time, values[i]);
+        }
+        assertTrue(window.size() <= times.length);
+    }
+
+    @Test
+    public void testEmptyAndExpiredWindow() {
+        SlidingWindowMax window = new SlidingWindowMax(1000);
+        assertEquals(Double.NEGATIVE_INFINITY, window.maxAt(0), 0.0);
+        window.add(0, 5);
+        window.add(500, 3);
+        assertEquals(5, window.maxAt(1000), 0.0);
+        assertEquals(3, window.maxAt(1001), 0.0);
+        assertEquals(Double.NEGATIVE_INFINITY, window.maxAt(2000), 0.0);
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowMax(-1));
+    }
+
+    @Test
+    public void testHypotensiveHypoxemiaMergeJoin() {
+        OxygenSaturationStrategy strategy = new OxygenSaturationStrategy();
+        Patient patient = new Patient(1);
+        // Low systolic readings without a low saturation within a minute come first
+        patient.addRecord(85, RecordType.SYSTOLIC_PRESSURE, 0);
+        patient.addRecord(91, RecordType.SATURATION, 61_000);
+        patient.addRecord(95, RecordType.SATURATION, 100_000);
+        patient.addRecord(120, RecordType.SYSTOLIC_PRESSURE, 150_000);
+        patient.addRecord(88, RecordType.SYSTOLIC_PRESSURE, 200_000);
+        patient.addRecord(96, RecordType.SATURATION, 230_000);
+        patient.addRecord(90.5, RecordType.SATURATION, 259_000);
+
+        Alert alert = strategy.checkAlert(patient, records(patient, RecordType.SATURATION),
+                records(patient, RecordType.SYSTOLIC_PRESSURE));
+
+        assertNotNull(alert);
+        assertEquals("CRITICAL: Hypotensive Hypoxemia Detected (BP: 88.0 mmHg, O2 Sat: 90.5%)", alert.getCondition());
+
+        Patient separated = new Patient(2);
+        separated.addRecord(85, RecordType.SYSTOLIC_PRESSURE, 0);
+        separated.addRecord(91, RecordType.SATURATION, 120_000);
+        assertNull(strategy.checkAlert(separated, records(separated, RecordType.SATURATION),
+                records(separated, RecordType.SYSTOLIC_PRESSURE)));
+    }
+
+    @Test
+    public void testRapidDropReportsLargestDrop() {
+        Patient patient = new Patient(3);
+        patient.addRecord(97, RecordType.SATURATION, 0);
+        patient.addRecord(99, RecordType.SATURATION, 60_000);
+        patient.addRecord(93, RecordType.SATURATION, 120_000);
+
+        Alert alert = new OxygenSaturationStrategy().checkAlert(patient, records(patient, RecordType.SATURATION));
+
+        assertEquals("Rapid Oxygen Saturation Drop of 6.0% in 10 minutes", alert.getCondition());
+    }
+
+    private static List<PatientRecord> records(Patient patient, int recordTypeCode) {
+        return patient.getRecords(recordTypeCode, 0, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,36 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.data_management.RecordBatch;
+import com.data_management.RecordType;
+
+/**
+ * Collects the readings a reader hands to a mocked storage. The readers clear each batch
+ * after storing it, so the readings are copied out as {@code patientId,timestamp,type,value}
+ * strings when the batch is passed.
+ */
+public class StoredReadings {
+    private final List<String> readings = new ArrayList<>();
+
+    public synchronized void record(RecordBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            readings.add(reading(batch.getPatientId(i), batch.getValue(i),
+                    RecordType.nameOf(batch.getRecordTypeCode(i)), batch.getTimestamp(i)));
+        }
+    }
+
+    public synchronized long count(int patientId, double value, String recordType, long timestamp) {
+        String expected = reading(patientId, value, recordType, timestamp);
+        return readings.stream().filter(expected::equals).count();
+    }
+
+    public synchronized List<String> getReadings() {
+        return new ArrayList<>(readings);
+    }
+
+    private static String reading(int patientId, double value, String recordType, long timestamp) {
+        return patientId + "," + timestamp + "," + recordType + "," + value;
+    }
+}
@@ -0,0 +1,73 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.data_management.*;
+import com.strategy.ThresholdKernel;
+
+/**
+ * Tests for the scalar and vector {@link ThresholdKernel}s.
+ */
+public class ThresholdKernelTest {
+
+    @Test
+    public void testScalarKernelFindsFirstValueOutside() {
+        ThresholdKernel kernel = ThresholdKernel.scalar();
+        double[] values = {120, 95, Double.NaN, 185, 80};
+
+        assertEquals(3, kernel.indexOfOutside(values, 0, values.length, 90, 180));
+        assertEquals(4, kernel.indexOfOutside(values, 0, values.length, 90, 500));
+        assertEquals(-1, kernel.indexOfOutside(values, 0, 3, 90, 180));
+        assertEquals(-1, kernel.indexOfOutside(values, 2, 2, 90, 180));
+    }
+
+    @Test
+    public void testVectorKernelMatchesScalarKernel() {
+        ThresholdKernel vector = ThresholdKernel.vector();
+        // Only compiled and run with the incubator module, in the "vector" profile
+        assumeTrue(vector != null, "The tests run without jdk.incubator.vector");
+        ThresholdKernel scalar = ThresholdKernel.scalar();
+
+        Random random = new Random(16);
+        for (int round = 0; round < 500; round++) {
+            double[] values = new double[random.nextInt(80)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt(20) == 0 ? Double.NaN : 95 + random.nextGaussian() * 40;
+            }
+            int from = values.length == 0 ? 0 : random.nextInt(values.length);
+            assertEquals(scalar.indexOfOutside(values, from, values.length, 90, 180),
+                    vector.indexOfOutside(values, from, values.length, 90, 180));
+            assertEquals(scalar.indexOfOutside(values, 0, values.length, 92, Double.POSITIVE_INFINITY),
+                    vector.indexOfOutside(values, 0, values.length, 92, Double.POSITIVE_INFINITY));
+        }
+    }
+
+    @Test
+    public void testRecordRangeIsScannedAcrossChunks() throws Exception {
+        Field instance = DataStorage.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+        DataStorage storage = DataStorage.getInstance();
+
+        List<PatientRecord> copies = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            double value = i == 50 || i == 2500 ? 59 : 80;
+            storage.addPatientData(1, value, "DiastolicPressure", 1000 + i);
+            copies.add(new PatientRecord(1, value, "DiastolicPressure", 1000 + i));
+        }
+        List<PatientRecord> range = storage.getPatient(1).getRecords(RecordType.DIASTOLIC_PRESSURE, 1100, 5000);
+        assertTrue(range instanceof RecordRange);
+
+        ThresholdKernel kernel = ThresholdKernel.getDefault();
+        assertEquals(2400, kernel.indexOfOutside(range, 60, 120));
+        assertEquals(50, kernel.indexOfOutside(copies, 60, 120));
+        instance.set(null, null);
+    }
+}
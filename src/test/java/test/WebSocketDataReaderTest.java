@@ -13,6 +13,7 @@ import org.java_websocket.handshake.ClientHandshake;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -33,11 +34,19 @@ public class WebSocketDataReaderTest {
     private static final String TEST_HOST = "localhost";
     private CountDownLatch serverStartLatch;
     private CountDownLatch clientConnectedLatch;
+    private final StoredReadings storedReadings = new StoredReadings();
     
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
         mockDataStorage = mock(DataStorage.class);
+
+        // The reader hands readings to the storage in batches and clears the batch
+        // afterwards, so copy the readings out of each batch it passes
+        doAnswer(invocation -> {
+            storedReadings.record(invocation.getArgument(0));
+            return null;
+        }).when(mockDataStorage).addPatientDataBatch(any(RecordBatch.class));
         
         // Initialize latches for synchronization
         serverStartLatch = new CountDownLatch(1);
@@ -106,8 +115,10 @@ public class WebSocketDataReaderTest {
         // Wait for processing
         Thread.sleep(1000);
         
-        // Verify data was processed
-        verify(mockDataStorage, atLeastOnce()).addPatientData(1, 75.5, "HeartRate", 1640995200000L);
+        // Verify data was processed, in a batch
+        verify(mockDataStorage, atLeastOnce()).addPatientDataBatch(any(RecordBatch.class));
+        verify(mockDataStorage, never()).addPatientData(anyInt(), anyDouble(), anyInt(), anyLong());
+        assertEquals(1, storedReadings.count(1, 75.5, "HeartRate", 1640995200000L));
     }
 
     /**
@@ -141,7 +152,7 @@ public class WebSocketDataReaderTest {
         Thread.sleep(1000);
         
         // No message should work.
-        verify(mockDataStorage, never()).addPatientData(anyInt(), anyDouble(), anyString(), anyLong());
+        assertEquals(List.of(), storedReadings.getReadings());
     }
 
     /**
@@ -174,7 +185,7 @@ public class WebSocketDataReaderTest {
         Thread.sleep(1000);
         
         // None of these should result in successful data storage
-        verify(mockDataStorage, never()).addPatientData(anyInt(), anyDouble(), anyString(), anyLong());
+        assertEquals(List.of(), storedReadings.getReadings());
     }
 
     /**
@@ -208,11 +219,11 @@ public class WebSocketDataReaderTest {
         Thread.sleep(1000);
         
         // Verify alert processing
-        verify(mockDataStorage).addPatientData(1, 1.0, "Alert", 1640995200000L); // triggered
-        verify(mockDataStorage).addPatientData(2, 0.0, "Alert", 1640995200000L); // resolved
-        verify(mockDataStorage).addPatientData(3, 1.0, "Alert", 1640995200000L); // 1
-        verify(mockDataStorage).addPatientData(4, 0.0, "Alert", 1640995200000L); // 0
-        verify(mockDataStorage).addPatientData(5, 0.0, "Alert", 1640995200000L); // unknown -> 0.0
+        assertEquals(1, storedReadings.count(1, 1.0, "Alert", 1640995200000L)); // triggered
+        assertEquals(1, storedReadings.count(2, 0.0, "Alert", 1640995200000L)); // resolved
+        assertEquals(1, storedReadings.count(3, 1.0, "Alert", 1640995200000L)); // 1
+        assertEquals(1, storedReadings.count(4, 0.0, "Alert", 1640995200000L)); // 0
+        assertEquals(1, storedReadings.count(5, 0.0, "Alert", 1640995200000L)); // unknown -> 0.0
     }
 
     /**
@@ -244,10 +255,10 @@ public class WebSocketDataReaderTest {
         Thread.sleep(1000);
         
         // Verify units are stripped and values parsed correctly
-        verify(mockDataStorage).addPatientData(1, 120.0, "BloodPressure", 1640995200000L);
-        verify(mockDataStorage).addPatientData(2, 75.0, "HeartRate", 1640995200000L);
-        verify(mockDataStorage).addPatientData(3, 98.6, "Temperature", 1640995200000L);
-        verify(mockDataStorage).addPatientData(4, 95.0, "Saturation", 1640995200000L);
+        assertEquals(1, storedReadings.count(1, 120.0, "BloodPressure", 1640995200000L));
+        assertEquals(1, storedReadings.count(2, 75.0, "HeartRate", 1640995200000L));
+        assertEquals(1, storedReadings.count(3, 98.6, "Temperature", 1640995200000L));
+        assertEquals(1, storedReadings.count(4, 95.0, "Saturation", 1640995200000L));
     }
 
     /**
@@ -271,7 +282,7 @@ public class WebSocketDataReaderTest {
         Thread.sleep(1000);
         
         // No data should be stored for invalid messages
-        verify(mockDataStorage, never()).addPatientData(anyInt(), anyDouble(), anyString(), anyLong());
+        assertEquals(List.of(), storedReadings.getReadings());
     }
 
     /**
@@ -342,7 +353,7 @@ public class WebSocketDataReaderTest {
         Thread.sleep(1000);
         
         // None should result in successful storage
-        verify(mockDataStorage, never()).addPatientData(anyInt(), anyDouble(), anyString(), anyLong());
+        assertEquals(List.of(), storedReadings.getReadings());
     }
 
     /**
@@ -374,7 +385,7 @@ public class WebSocketDataReaderTest {
         Thread.sleep(1000);
         
         // Only valid entries should be stored (patient ID 0 is invalid)
-        verify(mockDataStorage, times(3)).addPatientData(anyInt(), anyDouble(), anyString(), anyLong());
+        assertEquals(3, storedReadings.getReadings().size());
     }
 
     /**
@@ -39,11 +39,19 @@ public class WebSocketEnhancedErrorHandlingTest {
     private static final String TEST_HOST = "localhost";
     private CountDownLatch serverStartLatch;
     private CountDownLatch clientConnectedLatch;
+    private final StoredReadings storedReadings = new StoredReadings();
     
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
         mockDataStorage = mock(DataStorage.class);
+
+        // The reader hands readings to the storage in batches and clears the batch
+        // afterwards, so copy the readings out of each batch it passes
+        doAnswer(invocation -> {
+            storedReadings.record(invocation.getArgument(0));
+            return null;
+        }).when(mockDataStorage).addPatientDataBatch(any(RecordBatch.class));
         
         serverStartLatch = new CountDownLatch(1);
         clientConnectedLatch = new CountDownLatch(1);
@@ -99,7 +107,7 @@ public class WebSocketEnhancedErrorHandlingTest {
         Thread.sleep(500);
         
         // Verify initial data was processed
-        verify(mockDataStorage, times(1)).addPatientData(1, 75.0, "HeartRate", 1640995200000L);
+        assertEquals(1, storedReadings.count(1, 75.0, "HeartRate", 1640995200000L));
         
         // Suddenly stop the server (simulates network failure)
         testServer.forceStop();
@@ -175,17 +183,17 @@ public class WebSocketEnhancedErrorHandlingTest {
         }
 
         // Only the valid messages should be processed
-        verify(mockDataStorage, times(1)).addPatientData(3, 75.0, "HeartRate", 1640995200000L);
+        assertEquals(1, storedReadings.count(3, 75.0, "HeartRate", 1640995200000L));
         
         // Send a valid message to ensure system is still functional
         testServer.broadcastMessage("2,1640995201000,HeartRate,80.0");
         Thread.sleep(1000);
         
         // Only the valid messages should be processed
-        verify(mockDataStorage, times(1)).addPatientData(2, 80.0, "HeartRate", 1640995201000L);
+        assertEquals(1, storedReadings.count(2, 80.0, "HeartRate", 1640995201000L));
 
         // Verify no corrupted data was stored
-        verify(mockDataStorage, never()).addPatientData(eq(1), anyDouble(), anyString(), anyLong());
+        assertTrue(storedReadings.getReadings().stream().noneMatch(stored -> stored.startsWith("1,")));
     }
 
     /**
@@ -221,7 +229,7 @@ public class WebSocketEnhancedErrorHandlingTest {
         Thread.sleep(1000);
         
         // The normal message should be processed
-        verify(mockDataStorage, atLeastOnce()).addPatientData(2, 75.0, "HeartRate", 1640995201000L);
+        assertTrue(storedReadings.count(2, 75.0, "HeartRate", 1640995201000L) >= 1);
     }
 
     /**
@@ -256,7 +264,7 @@ public class WebSocketEnhancedErrorHandlingTest {
         Thread.sleep(1000);
         
         // Only valid message should be processed
-        verify(mockDataStorage, times(1)).addPatientData(3, 78.0, "HeartRate", 1640995202000L);
+        assertEquals(1, storedReadings.count(3, 78.0, "HeartRate", 1640995202000L));
     }
 
     /**
@@ -266,12 +274,20 @@ public class WebSocketEnhancedErrorHandlingTest {
     @DisplayName("Storage Error: DataStorage Exception Handling")
     @Timeout(15)
     void testDataStorageExceptions() throws Exception {
-        // Configure mock to throw exceptions
+        // Configure mock to throw exceptions for batches holding a reading of patient 1,
+        // and for that reading when it is retried on its own
+        doAnswer(invocation -> {
+            RecordBatch batch = invocation.getArgument(0);
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.getPatientId(i) == 1) {
+                    throw new RuntimeException("Database connection failed");
+                }
+            }
+            storedReadings.record(batch);
+            return null;
+        }).when(mockDataStorage).addPatientDataBatch(any(RecordBatch.class));
         doThrow(new RuntimeException("Database connection failed"))
-            .when(mockDataStorage).addPatientData(eq(1), anyDouble(), anyString(), anyLong());
-        
-        // Normal behavior for other patient IDs
-        doNothing().when(mockDataStorage).addPatientData(eq(2), anyDouble(), anyString(), anyLong());
+            .when(mockDataStorage).addPatientData(eq(1), anyDouble(), anyInt(), anyLong());
         
         webSocketReader.startRealtimeReading(mockDataStorage);
         
@@ -290,9 +306,34 @@ public class WebSocketEnhancedErrorHandlingTest {
         // System should continue operating despite storage errors
         assertTrue(webSocketReader.isReading(), "WebSocket client should remain connected despite storage errors");
         
-        // Verify both calls were attempted
-        verify(mockDataStorage, times(1)).addPatientData(1, 75.0, "HeartRate", 1640995200000L);
-        verify(mockDataStorage, times(1)).addPatientData(2, 80.0, "HeartRate", 1640995201000L);
+        // The failed batch was retried reading by reading; the next batch was stored
+        verify(mockDataStorage, times(1)).addPatientData(1, 75.0, RecordType.codeOf("HeartRate"), 1640995200000L);
+        assertEquals(0, storedReadings.count(1, 75.0, "HeartRate", 1640995200000L));
+        assertEquals(1, storedReadings.count(2, 80.0, "HeartRate", 1640995201000L));
+    }
+
+    /**
+     * Test that a failing batch does not lose the readings that can be stored
+     */
+    @Test
+    @DisplayName("Storage Error: Failed Batch Falls Back to Single Readings")
+    @Timeout(15)
+    void testFailedBatchFallsBackToSingleReadings() throws Exception {
+        doThrow(new RuntimeException("Batch rejected"))
+            .when(mockDataStorage).addPatientDataBatch(any(RecordBatch.class));
+
+        webSocketReader.startRealtimeReading(mockDataStorage);
+
+        boolean clientConnected = clientConnectedLatch.await(5, TimeUnit.SECONDS);
+        assertTrue(clientConnected, "Client should connect");
+        Thread.sleep(500);
+
+        testServer.broadcastMessage("4,1640995200000,HeartRate,70.0\n5,1640995200000,HeartRate,71.0");
+        Thread.sleep(1000);
+
+        verify(mockDataStorage, atLeastOnce()).addPatientDataBatch(any(RecordBatch.class));
+        verify(mockDataStorage, times(1)).addPatientData(4, 70.0, RecordType.codeOf("HeartRate"), 1640995200000L);
+        verify(mockDataStorage, times(1)).addPatientData(5, 71.0, RecordType.codeOf("HeartRate"), 1640995200000L);
     }
 
     /**
@@ -312,7 +353,7 @@ public class WebSocketEnhancedErrorHandlingTest {
         doAnswer(invocation -> {
             Thread.sleep(100); // Simulate slow database operation
             return null;
-        }).when(mockDataStorage).addPatientData(anyInt(), anyDouble(), anyString(), anyLong());
+        }).when(mockDataStorage).addPatientDataBatch(any(RecordBatch.class));
         
         // Send multiple messages rapidly while storage is slow
         for (int i = 1; i <= 50; i++) {